@@ -1,44 +1,94 @@
 package dev.jcri.mdde.registry.benchmark;
 
+import dev.jcri.mdde.registry.benchmark.cache.AllocationFingerprint;
+import dev.jcri.mdde.registry.benchmark.cache.BenchmarkResultCache;
 import dev.jcri.mdde.registry.benchmark.cluster.IReadOnlyTupleLocator;
 import dev.jcri.mdde.registry.benchmark.cluster.ITupleLocatorFactory;
 import dev.jcri.mdde.registry.benchmark.counterfeit.CounterfeitBenchSettings;
 import dev.jcri.mdde.registry.benchmark.counterfeit.CounterfeitRunner;
+import dev.jcri.mdde.registry.benchmark.replay.BenchmarkTrace;
+import dev.jcri.mdde.registry.benchmark.replay.BenchmarkTraceRecorder;
+import dev.jcri.mdde.registry.benchmark.replay.TraceReplayRunner;
 import dev.jcri.mdde.registry.benchmark.ycsb.EYCSBWorkloadCatalog;
+import dev.jcri.mdde.registry.benchmark.ycsb.ThroughputConvergenceDetector;
 import dev.jcri.mdde.registry.benchmark.ycsb.YCSBRunner;
+import dev.jcri.mdde.registry.benchmark.ycsb.cli.YCSBStatusSample;
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
 import dev.jcri.mdde.registry.data.exceptions.KeyNotFoundException;
 import dev.jcri.mdde.registry.exceptions.MddeRegistryException;
 import dev.jcri.mdde.registry.shared.benchmark.commands.LocateTuple;
+import dev.jcri.mdde.registry.metrics.jfr.BenchmarkPrepareEvent;
+import dev.jcri.mdde.registry.metrics.jfr.BenchmarkStageEventRecorder;
 import dev.jcri.mdde.registry.shared.benchmark.enums.EBenchmarkRunStage;
 import dev.jcri.mdde.registry.shared.benchmark.responses.TupleLocation;
+import dev.jcri.mdde.registry.shared.commands.containers.args.ControlArgsCandidateActionContainer;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkProgressSample;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
 import dev.jcri.mdde.registry.shared.store.response.TupleCatalog;
+import dev.jcri.mdde.registry.store.IAllocationChangeListener;
 import dev.jcri.mdde.registry.store.IReadCommandHandler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import static java.util.Optional.ofNullable;
 
 
-public class BenchmarkRunner {
+public class BenchmarkRunner implements Closeable {
     private static final Logger logger = LogManager.getLogger(BenchmarkRunner.class);
 
     private final ITupleLocatorFactory _tupleLocatorFactory;
     private final IReadCommandHandler _storeReader;
     private final YCSBRunner _ycsbRunner;
     private final CounterfeitRunner _counterfeitRunner;
+    /**
+     * Incrementally maintained fingerprint of the current allocation
+     */
+    private final AllocationFingerprint _allocationFingerprint;
+    /**
+     * Memorized results of the previous runs, null if the results cache is disabled
+     */
+    private final BenchmarkResultCache _resultCache;
 
     // TODO: Refactor counterfeit benchmark parametrisation (interface + factory)
     private String _lastValidRunId = null;
     private BenchmarkRunResult _lastValidResult = null;
 
+    /**
+     * If True, the next real benchmark run records the trace of the tuple location requests
+     */
+    private volatile boolean _isTraceCaptureEnabled = false;
+    /**
+     * Recorder of the currently running benchmark, null if the current run is not traced
+     */
+    private volatile BenchmarkTraceRecorder _traceRecorder = null;
+    /**
+     * The latest captured trace of a successfully finished benchmark run
+     */
+    private volatile BenchmarkTrace _lastTrace = null;
+    /**
+     * File persisting the latest captured trace across the registry restarts, null if the trace is kept in memory only
+     */
+    private final Path _traceFile;
+
     /**
      * State of the executing benchmark, results of the executed benchmark
      */
@@ -53,6 +103,37 @@ public class BenchmarkRunner {
     public BenchmarkRunner(ITupleLocatorFactory tupleLocatorFactory,
                            IReadCommandHandler storeReader,
                            YCSBRunner ycsbRunner){
+        this(tupleLocatorFactory, storeReader, ycsbRunner, null);
+    }
+
+    /**
+     * Constructor
+     * @param tupleLocatorFactory Factory of the tuple locators used for benchmark runs
+     * @param storeReader Implementation of the Registry-store reader
+     * @param ycsbRunner YCSB Benchmark runner initialized instance
+     * @param traceFile File where the latest captured trace is saved and loaded from on start, null - don't persist
+     */
+    public BenchmarkRunner(ITupleLocatorFactory tupleLocatorFactory,
+                           IReadCommandHandler storeReader,
+                           YCSBRunner ycsbRunner,
+                           Path traceFile){
+        this(tupleLocatorFactory, storeReader, ycsbRunner, traceFile, ShuffleConfig.DATA_PLANE_PHYSICAL);
+    }
+
+    /**
+     * Constructor
+     * @param tupleLocatorFactory Factory of the tuple locators used for benchmark runs
+     * @param storeReader Implementation of the Registry-store reader
+     * @param ycsbRunner YCSB Benchmark runner initialized instance
+     * @param traceFile File where the latest captured trace is saved and loaded from on start, null - don't persist
+     * @param dataPlane Data plane of the registry (ShuffleConfig.DATA_PLANE_*), cached results of the other data
+     *                  plane are not reused
+     */
+    public BenchmarkRunner(ITupleLocatorFactory tupleLocatorFactory,
+                           IReadCommandHandler storeReader,
+                           YCSBRunner ycsbRunner,
+                           Path traceFile,
+                           String dataPlane){
         Objects.requireNonNull(tupleLocatorFactory);
         Objects.requireNonNull(storeReader);
         Objects.requireNonNull(ycsbRunner);
@@ -61,6 +142,58 @@ public class BenchmarkRunner {
         _ycsbRunner = ycsbRunner;
 
         _counterfeitRunner = new CounterfeitRunner(storeReader);
+        _allocationFingerprint = new AllocationFingerprint(storeReader);
+        var resultCacheConfig = ycsbRunner.getResultCacheConfig();
+        _resultCache = resultCacheConfig != null && resultCacheConfig.getEnabled()
+                ? new BenchmarkResultCache(resultCacheConfig,
+                        String.format("%s|data_plane=%s", ycsbRunner.getRunConfiguration(), dataPlane))
+                : null;
+        _runnerState.addStageListener(new BenchmarkStageEventRecorder());
+        _traceFile = traceFile;
+        _lastTrace = loadTrace();
+    }
+
+    /**
+     * Load the trace persisted by a previous run of the registry
+     * @return Trace or null if there is no readable trace file
+     */
+    private BenchmarkTrace loadTrace(){
+        if(_traceFile == null || !Files.isRegularFile(_traceFile)){
+            return null;
+        }
+        try(var in = new BufferedInputStream(Files.newInputStream(_traceFile))){
+            var trace = BenchmarkTrace.readFrom(in);
+            logger.info("Loaded benchmark trace of {} requests from {}", trace.size(), _traceFile);
+            return trace;
+        }
+        catch (IOException e){
+            logger.warn("Unable to load the benchmark trace from " + _traceFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Keep the captured trace and persist it, replacing the previously saved one
+     * @param trace Captured trace
+     */
+    private void onTraceCaptured(BenchmarkTrace trace){
+        _lastTrace = trace;
+        if(_traceFile == null){
+            return;
+        }
+        var tempFile = _traceFile.resolveSibling(_traceFile.getFileName() + ".tmp");
+        try{
+            if(_traceFile.getParent() != null){
+                Files.createDirectories(_traceFile.getParent());
+            }
+            try(var out = new BufferedOutputStream(Files.newOutputStream(tempFile))){
+                trace.writeTo(out);
+            }
+            Files.move(tempFile, _traceFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e){
+            logger.error("Unable to save the benchmark trace to " + _traceFile, e);
+        }
     }
 
     private IReadOnlyTupleLocator _tmpTupleLocator = null;
@@ -71,10 +204,21 @@ public class BenchmarkRunner {
      */
     public synchronized void prepareBenchmarkEnvironment()
             throws MddeRegistryException {
+        var event = new BenchmarkPrepareEvent();
+        event.begin();
         IReadOnlyTupleLocator newLocator = _tupleLocatorFactory.getNewTupleLocator();
+        final long fetchStart = System.nanoTime();
         TupleCatalog currentTupleStoreSnapshot = _storeReader.getTupleCatalog();
+        final long catalogFetch = System.nanoTime() - fetchStart;
         newLocator.initializeDataLocator(currentTupleStoreSnapshot);
         _tmpTupleLocator = newLocator;
+        event.end();
+        if(event.shouldCommit()){
+            event.catalogFetch = catalogFetch;
+            event.nodes = currentTupleStoreSnapshot.getNodes().size();
+            event.tuples = currentTupleStoreSnapshot.getTuples().size();
+            event.commit();
+        }
     }
 
     /**
@@ -149,7 +293,8 @@ public class BenchmarkRunner {
      */
     private boolean isBenchmarkInAMiddleOfARun(){
         return _runnerState.getState() != EBenchmarkRunStage.READY
-                && _runnerState.getState() != EBenchmarkRunStage.DONE;
+                && _runnerState.getState() != EBenchmarkRunStage.DONE
+                && _runnerState.getState() != EBenchmarkRunStage.ABORTED;
     }
 
     /**
@@ -195,6 +340,7 @@ public class BenchmarkRunner {
      * @return ID of the new Run
      */
     public String executeBenchmark(EYCSBWorkloadCatalog workload, Integer workers){
+        String cacheKey = null;
         _benchmarkRunnerLock.lock();
         try {
             if (_currentLoadState != EBenchmarkLoadStage.READY) {
@@ -206,20 +352,59 @@ public class BenchmarkRunner {
                 throw new IllegalStateException("Benchmark is already being executed");
             }
             // Reset the state
+            _runnerState.setRunId(UUID.randomUUID().toString());
             _runnerState.setState(EBenchmarkRunStage.STARTING);
             _runnerState.setCompeted(false);
+            _runnerState.setFailed(false);
             _runnerState.setResult(null);
+            _runnerState.clearProgress();
+            _runnerState.setAbortRequested(false);
+            if(_resultCache != null){
+                cacheKey = getResultCacheKey(workload, workers);
+                // Traced runs must execute YCSB to capture the trace
+                var cached = _isTraceCaptureEnabled ? null : _resultCache.get(cacheKey);
+                if(cached != null){
+                    logger.info("Benchmark result for {} was found in the cache", cacheKey);
+                    _resultCache.writeInfo(cached.getInfo(), true);
+                    _runnerState.setResult(cached);
+                    _runnerState.setCompeted(true);
+                    _runnerState.setState(EBenchmarkRunStage.DONE);
+                    return _runnerState.getRunId();
+                }
+            }
         }
         finally {
             _benchmarkRunnerLock.unlock();
         }
-        _runnerState.setRunId(UUID.randomUUID().toString());
-        var benchRunnable = new BenchmarkThread(_runnerState, _ycsbRunner, workload, workers);
+        var traceRecorder = _isTraceCaptureEnabled ? new BenchmarkTraceRecorder(_runnerState.getRunId()) : null;
+        _traceRecorder = traceRecorder;
+        Consumer<BenchmarkRunResult> resultConsumer = null;
+        if(cacheKey != null){
+            final var runCacheKey = cacheKey;
+            resultConsumer = result -> {
+                _resultCache.put(runCacheKey, result);
+                _resultCache.writeInfo(result.getInfo(), false);
+            };
+        }
+        var benchRunnable = new BenchmarkThread(_runnerState, _ycsbRunner, workload, workers,
+                this::onTraceCaptured, traceRecorder, resultConsumer);
         Thread bench_runner_t = new Thread(benchRunnable);
         bench_runner_t.start();
         return _runnerState.getRunId();
     }
 
+    /**
+     * Build the results cache key of a run over the current allocation.
+     * @param workload Selected workload.
+     * @param workers Number of workers, null for the YCSB config default.
+     * @return Cache key.
+     */
+    private String getResultCacheKey(EYCSBWorkloadCatalog workload, Integer workers){
+        var defaultWorkers = _ycsbRunner.getDefaultWorkers();
+        int effectiveWorkers = workers != null ? workers : (defaultWorkers != null ? defaultWorkers : 1);
+        return BenchmarkResultCache.getKey(_allocationFingerprint.getValue(), workload.getTag(), effectiveWorkers);
+    }
+
     /**
      * Retrieve the status of the benchmark run.
      * @return Info about the stage of the running benchmark or the latest generated benchmark result values.
@@ -236,7 +421,29 @@ public class BenchmarkRunner {
             _lastValidResult = result;
         }
 
-        return new BenchmarkStatus(completed, failed, stage, result, runId);
+        return new BenchmarkStatus(completed, failed, stage, result, runId, _runnerState.getProgress());
+    }
+
+    /**
+     * Request the currently running benchmark to be stopped. The YCSB process tree is terminated right away, the run
+     * is then finalized as failed in the {@link EBenchmarkRunStage#ABORTED} stage.
+     * @return True - there was a running benchmark to abort, False - no benchmark is being executed.
+     */
+    public boolean abortBenchmark(){
+        _benchmarkRunnerLock.lock();
+        try {
+            if (!isBenchmarkInAMiddleOfARun()) {
+                return false;
+            }
+            logger.info("Abort of the benchmark run {} was requested", _runnerState.getRunId());
+            _runnerState.setAbortRequested(true);
+        }
+        finally {
+            _benchmarkRunnerLock.unlock();
+        }
+        // If the process isn't started yet, it's terminated by the status listener on its first report
+        _ycsbRunner.terminateRun();
+        return true;
     }
 
     /**
@@ -247,6 +454,10 @@ public class BenchmarkRunner {
     public TupleLocation getTupleLocation(LocateTuple tupleParams){
         verifyState();
         var result = _tmpTupleLocator.getNodeForRead(tupleParams.getTupleId());
+        var traceRecorder = _traceRecorder;
+        if(traceRecorder != null){
+            traceRecorder.recordLocate(tupleParams.getTupleId(), result);
+        }
         return new TupleLocation(result);
     }
 
@@ -258,6 +469,86 @@ public class BenchmarkRunner {
     public void notifyNodeAccessFinished(String nodeId) throws KeyNotFoundException {
         verifyState();
         _tmpTupleLocator.notifyReadFinished(nodeId);
+        var traceRecorder = _traceRecorder;
+        if(traceRecorder != null){
+            traceRecorder.recordRelease(nodeId);
+        }
+    }
+
+    /**
+     * Enable or disable recording of the tuple location requests trace for the subsequent real benchmark runs.
+     * The trace of the latest successful run is kept in memory, saved to the trace file if one is configured, and can
+     * be replayed against other allocations.
+     * @param enabled True - record traces of the subsequent runs.
+     * @return Current value of the flag.
+     */
+    public boolean setTraceCapture(boolean enabled){
+        _isTraceCaptureEnabled = enabled;
+        return _isTraceCaptureEnabled;
+    }
+
+    /**
+     * Get the latest captured benchmark trace.
+     * @return Trace or null if no traced run was finished successfully.
+     */
+    public BenchmarkTrace getLastTrace(){
+        return _lastTrace;
+    }
+
+    /**
+     * Replay the latest captured trace against the current allocation of tuples in the registry.
+     * The replay is performed entirely in memory with a dedicated tuple locator, it doesn't require the benchmark
+     * environment nor the data in the data nodes.
+     * @return Estimated benchmark result. Failed status if there is no captured trace.
+     * @throws MddeRegistryException Failure to initialize the tuple locator or to replay the trace.
+     * @throws IOException Failure to release the tuple locator.
+     */
+    public BenchmarkStatus getReplayStatus() throws MddeRegistryException, IOException {
+        var trace = _lastTrace;
+        if(trace == null){
+            return new BenchmarkStatus(false, true, EBenchmarkRunStage.READY.toString(), null, null);
+        }
+        BenchmarkRunResult result;
+        try(IReadOnlyTupleLocator locator = _tupleLocatorFactory.getNewTupleLocator()) {
+            locator.initializeDataLocator(_storeReader.getTupleCatalog());
+            result = new TraceReplayRunner(trace).replay(locator);
+        }
+        return new BenchmarkStatus(true, false, EBenchmarkRunStage.DONE.toString(), result, trace.getRunId());
+    }
+
+    /**
+     * Subscribe to the stage transitions of the benchmark runs
+     * @param listener Stage listener
+     */
+    public void addStageListener(IBenchmarkStageListener listener){
+        _runnerState.addStageListener(listener);
+    }
+
+    /**
+     * Listener that keeps the counterfeit benchmark estimator and the allocation fingerprint in sync with the registry
+     * allocation. Should be subscribed to the write command handler.
+     * @return Allocation change listener.
+     */
+    public IAllocationChangeListener getAllocationChangeListener(){
+        return new IAllocationChangeListener() {
+            @Override
+            public void onFragmentExemplarAdded(String fragmentId, String nodeId) {
+                _counterfeitRunner.onFragmentExemplarAdded(fragmentId, nodeId);
+                _allocationFingerprint.onFragmentExemplarAdded(fragmentId, nodeId);
+            }
+
+            @Override
+            public void onFragmentExemplarRemoved(String fragmentId, String nodeId) {
+                _counterfeitRunner.onFragmentExemplarRemoved(fragmentId, nodeId);
+                _allocationFingerprint.onFragmentExemplarRemoved(fragmentId, nodeId);
+            }
+
+            @Override
+            public void onAllocationReset() {
+                _counterfeitRunner.onAllocationReset();
+                _allocationFingerprint.onAllocationReset();
+            }
+        };
     }
 
     /**
@@ -298,6 +589,30 @@ public class BenchmarkRunner {
         return new BenchmarkStatus(completed, failed, stage, result, runId);
     }
 
+    /**
+     * Estimate the benchmark results of several hypothetical action sequences over the current allocation, without
+     * applying them to the registry.
+     * @param adjustRangeStart Adjustment range start.
+     * @param adjustRangeEnd Adjustment range end.
+     * @param candidates Sequences of the fragment replication and exemplar removal actions.
+     * @return Per candidate estimations.
+     */
+    public BenchmarkCandidatesResult getCounterfeitCandidates(double adjustRangeStart,
+                                                              double adjustRangeEnd,
+                                                              List<List<ControlArgsCandidateActionContainer>> candidates){
+        var settings = this._counterfeitRunner.getCurrentSettings();
+        var results = this._counterfeitRunner.estimateCandidates(adjustRangeStart, adjustRangeEnd, candidates);
+        return new BenchmarkCandidatesResult(settings != null ? settings.getRunId() : null, results);
+    }
+
+    /**
+     * Release the resources owned by the runner. The YCSB runner is owned by the caller and is not closed.
+     */
+    @Override
+    public void close() {
+        _counterfeitRunner.close();
+    }
+
     /**
      * Stages of running the benchmark
      */
@@ -359,6 +674,22 @@ public class BenchmarkRunner {
          * called. icCompleted = true doesn't mean there was no errors during the execution.
          */
         private boolean isCompeted = false;
+        /**
+         * Abort of the current run was requested by the client
+         */
+        private volatile boolean _isAbortRequested = false;
+        /**
+         * Rolling series of the progress samples reported by the running benchmark, bounded by MAX_PROGRESS_SAMPLES
+         */
+        private final ArrayDeque<BenchmarkProgressSample> _progress = new ArrayDeque<>();
+        /**
+         * Maximum number of the retained progress samples, the oldest samples are dropped first
+         */
+        public static final int MAX_PROGRESS_SAMPLES = 600;
+        /**
+         * Subscribers to the stage transitions
+         */
+        private final List<IBenchmarkStageListener> _stageListeners = new CopyOnWriteArrayList<>();
 
         /**
          * Get a unique ID for the current benchmark run
@@ -403,6 +734,23 @@ public class BenchmarkRunner {
          */
         public void setState(EBenchmarkRunStage state) {
             this._state = state;
+            for(var listener: _stageListeners){
+                try {
+                    listener.onBenchmarkStageChanged(_runId, state, isFailed);
+                }
+                catch (Exception ex){
+                    logger.error("Benchmark stage listener failed", ex);
+                }
+            }
+        }
+
+        /**
+         * Subscribe to the stage transitions
+         * @param listener Stage listener
+         */
+        public void addStageListener(IBenchmarkStageListener listener){
+            Objects.requireNonNull(listener, "Benchmark stage listener can't be null");
+            _stageListeners.add(listener);
         }
 
         /**
@@ -436,6 +784,61 @@ public class BenchmarkRunner {
         public void setCompeted(boolean competed) {
             isCompeted = competed;
         }
+
+        /**
+         * Abort flag
+         * @return True - abort of the current run was requested.
+         */
+        public boolean isAbortRequested() {
+            return _isAbortRequested;
+        }
+
+        /**
+         * Set the abort flag
+         * @param abortRequested True - the current run should be stopped as soon as possible.
+         */
+        public void setAbortRequested(boolean abortRequested) {
+            _isAbortRequested = abortRequested;
+        }
+
+        /**
+         * Append a status sample reported by YCSB to the progress series.
+         * @param sample Parsed YCSB status line.
+         */
+        public void addProgress(YCSBStatusSample sample){
+            if(sample == null){
+                return;
+            }
+            var progressSample = new BenchmarkProgressSample(sample.getElapsedSeconds(),
+                                                             sample.getOperations(),
+                                                             sample.getCurrentThroughput(),
+                                                             sample.getReadLatencyAverage());
+            synchronized (_progress){
+                if(_progress.size() >= MAX_PROGRESS_SAMPLES){
+                    _progress.pollFirst();
+                }
+                _progress.addLast(progressSample);
+            }
+        }
+
+        /**
+         * Get a snapshot of the progress series of the current (or latest) run.
+         * @return List of progress samples ordered by time.
+         */
+        public List<BenchmarkProgressSample> getProgress(){
+            synchronized (_progress){
+                return new ArrayList<>(_progress);
+            }
+        }
+
+        /**
+         * Remove all of the progress samples.
+         */
+        public void clearProgress(){
+            synchronized (_progress){
+                _progress.clear();
+            }
+        }
     }
 
     /**
@@ -446,6 +849,10 @@ public class BenchmarkRunner {
          * Logger
          */
         private final Logger logger = LogManager.getLogger(BenchmarkThread.class);
+        /**
+         * Number of 3 second cycles to await for the finalized node statistics after the run was stopped early.
+         */
+        private static final int EARLY_STOP_STATS_AWAIT_CYCLES = 5;
 
         /**
          * State of the current benchmark run.
@@ -463,6 +870,18 @@ public class BenchmarkRunner {
          * Number of YCSB workers.
          */
         final Integer _workers;
+        /**
+         * Receiver of the captured trace.
+         */
+        final Consumer<BenchmarkTrace> _traceConsumer;
+        /**
+         * Trace recorder of this run, null if the run is not traced.
+         */
+        final BenchmarkTraceRecorder _traceRecorder;
+        /**
+         * Receiver of the successful run result, null if the result shouldn't be passed anywhere else.
+         */
+        final Consumer<BenchmarkRunResult> _resultConsumer;
 
         /**
          * Constructor
@@ -471,58 +890,119 @@ public class BenchmarkRunner {
          * @param workload Workload configuration.
          * @param workers Number of workers executing the run workload. If null, the default value of the YCSB config is
          *                used instead.
+         * @param traceConsumer Receives the trace captured during a successful run.
+         * @param traceRecorder Trace recorder, null if the trace should not be captured.
+         * @param resultConsumer Receives the result of a successful run, may be null.
          */
         private BenchmarkThread(RunnerState stateObj,
                                 YCSBRunner runner,
                                 EYCSBWorkloadCatalog workload,
-                                Integer workers) {
+                                Integer workers,
+                                Consumer<BenchmarkTrace> traceConsumer,
+                                BenchmarkTraceRecorder traceRecorder,
+                                Consumer<BenchmarkRunResult> resultConsumer) {
             _state = stateObj;
             _ycsbRunner = runner;
             _workload = workload;
             _workers = workers;
+            _traceConsumer = traceConsumer;
+            _traceRecorder = traceRecorder;
+            _resultConsumer = resultConsumer;
         }
 
         @Override
         public void run() {
+            boolean aborted = false;
             try {
                 this._state.setCompeted(false);
                 this._state.setState(EBenchmarkRunStage.RUNNING);
-                var ycsbRunOutput = this._ycsbRunner.runWorkload(this._workload, _workers);
+                ThroughputConvergenceDetector detector = null;
+                var earlyStopConfig = this._ycsbRunner.getEarlyStopConfig();
+                if(earlyStopConfig != null && earlyStopConfig.getEnabled()){
+                    detector = new ThroughputConvergenceDetector(earlyStopConfig);
+                }
+                final var convergence = detector;
+                var ycsbRunOutput = this._ycsbRunner.runWorkload(this._workload, _workers, sample -> {
+                    _state.addProgress(sample);
+                    var converged = convergence != null && convergence.onStatus(sample);
+                    return converged || _state.isAbortRequested();
+                });
+                final boolean stoppedEarly = convergence != null && convergence.isConverged();
                 this._state.setState(EBenchmarkRunStage.FINALIZING);
+                if(_state.isAbortRequested()){
+                    aborted = true;
+                    return;
+                }
+                if(_traceRecorder != null){
+                    _traceRecorder.stop();
+                    _traceConsumer.accept(_traceRecorder.build());
+                    logger.info("Captured benchmark trace of {} requests", _traceRecorder.size());
+                }
                 var result = new BenchmarkRunResult();
                 result.setError(null);
 
-                // Await for node statistics
-                int awaitCycles = 1000; // Timout limit
-                if(this._ycsbRunner.statsResultsReady() == false){
-                    while(awaitCycles > 0){
-                        awaitCycles--;
-                        TimeUnit.SECONDS.sleep(3);
-                        if(this._ycsbRunner.statsResultsReady()){
-                            break;
-                        }
-                    }
+                // Await for node statistics. Clients of a terminated run might never finalize their stats.
+                int awaitCycles = stoppedEarly ? EARLY_STOP_STATS_AWAIT_CYCLES : 1000; // Timout limit
+                var statsReady = this._ycsbRunner.statsResultsReady();
+                while(Boolean.FALSE.equals(statsReady) && awaitCycles > 0 && !_state.isAbortRequested()){
+                    awaitCycles--;
+                    TimeUnit.SECONDS.sleep(3);
+                    statsReady = this._ycsbRunner.statsResultsReady();
                 }
-                else if(this._ycsbRunner.statsResultsReady() != null){
+                if(_state.isAbortRequested()){
+                    aborted = true;
+                    return;
+                }
+                if(Boolean.TRUE.equals(statsReady)){
                     // Managed to get statistics
                     result.setNodes(this._ycsbRunner.getStats());
                 }
+                else if(statsReady != null && stoppedEarly){
+                    logger.warn("Benchmark was stopped early, using non-finalized statistics.");
+                    result.setNodes(this._ycsbRunner.getPartialStats());
+                }
                 else{
                     // Timed out
                     logger.warn("Benchmark timed out.");
                     result.setNodes(null);
                 }
 
-                result.setThroughput(ycsbRunOutput.getThroughput());
+                if(stoppedEarly && ycsbRunOutput.getThroughput() < 0){
+                    // Terminated YCSB doesn't report the overall throughput
+                    result.setThroughput(convergence.getMean());
+                }
+                else {
+                    result.setThroughput(ycsbRunOutput.getThroughput());
+                }
+                if(convergence != null){
+                    convergence.writeInfo(result.getInfo());
+                }
+                if(_resultConsumer != null && result.getNodes() != null){
+                    _resultConsumer.accept(result);
+                }
                 _state.setResult(result);
             }
             catch (Exception ex){
-                this._state.setFailed(true);
-                _state.setResult(new BenchmarkRunResult() {{setError(ex.getMessage());}});
+                if(_state.isAbortRequested()){
+                    logger.debug("Benchmark run failed after it was aborted", ex);
+                    aborted = true;
+                }
+                else {
+                    this._state.setFailed(true);
+                    _state.setResult(new BenchmarkRunResult() {{setError(ex.getMessage());}});
+                }
             }
             finally {
+                if(_traceRecorder != null){
+                    _traceRecorder.stop();
+                }
+                if(aborted){
+                    logger.info("Benchmark run was aborted");
+                    this._state.setFailed(true);
+                    _state.setResult(new BenchmarkRunResult() {{setError("Benchmark run was aborted");}});
+                }
                 this._state.setCompeted(true);
-                this._state.setState(EBenchmarkRunStage.DONE);
+                this._state.setState(aborted ? EBenchmarkRunStage.ABORTED : EBenchmarkRunStage.DONE);
             }
         }
     }
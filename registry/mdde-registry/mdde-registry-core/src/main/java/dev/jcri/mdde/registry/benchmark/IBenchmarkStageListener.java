@@ -0,0 +1,19 @@
+package dev.jcri.mdde.registry.benchmark;
+
+import dev.jcri.mdde.registry.shared.benchmark.enums.EBenchmarkRunStage;
+
+/**
+ * Receiver of the notifications about the stage transitions of the benchmark runs
+ * (STARTING -> RUNNING -> FINALIZING -> DONE).
+ *
+ * Notifications are delivered synchronously from the thread changing the stage, listeners must not block.
+ */
+public interface IBenchmarkStageListener {
+    /**
+     * Benchmark run has entered a new stage.
+     * @param runId ID of the benchmark run.
+     * @param stage New stage.
+     * @param failed True - the run has failed, the result contains the error.
+     */
+    void onBenchmarkStageChanged(String runId, EBenchmarkRunStage stage, boolean failed);
+}
@@ -0,0 +1,214 @@
+package dev.jcri.mdde.registry.benchmark.cache;
+
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.store.IAllocationChangeListener;
+import dev.jcri.mdde.registry.store.IReadCommandHandler;
+import dev.jcri.mdde.registry.store.exceptions.ReadOperationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Order independent 64-bit hash of the fragments allocation in the registry.
+ *
+ * The fingerprint is the sum (mod 2^64) of the hashes of every (fragment, node) exemplar pair, so adding or removing
+ * an exemplar adjusts it in O(1) regardless of the order in which the allocation was built. The hash of a fragment
+ * covers its sorted tuple IDs, so fragments formed differently under the same IDs produce different fingerprints.
+ * Fragment hashes are cached, the content of a fragment only changes through the operations that reset the
+ * allocation. Allocation resets invalidate the value, it's then recomputed from the fragment catalog on the next
+ * request.
+ */
+public class AllocationFingerprint implements IAllocationChangeListener {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final IReadCommandHandler _storeReader;
+    /**
+     * Current fingerprint value, meaningful only if _isValid is set
+     */
+    private long _value = 0;
+    /**
+     * Fingerprint reflects the current allocation
+     */
+    private boolean _isValid = false;
+    /**
+     * Hashes of the fragments (ID and content) by fragment ID, cleared on allocation reset
+     */
+    private final Map<String, Long> _fragmentHashes = new HashMap<>();
+
+    /**
+     * Constructor
+     * @param storeReader Registry store reader used to recompute the fingerprint after an allocation reset.
+     */
+    public AllocationFingerprint(IReadCommandHandler storeReader){
+        Objects.requireNonNull(storeReader);
+        _storeReader = storeReader;
+    }
+
+    /**
+     * Get the fingerprint of the current allocation.
+     * @return 64-bit fingerprint.
+     */
+    public synchronized long getValue(){
+        if(!_isValid){
+            try {
+                _value = of(_storeReader.getFragmentCatalog(null, null), this::getFragmentHash);
+            } catch (ReadOperationException e) {
+                throw new IllegalStateException("Unable to read the fragments content for the allocation fingerprint",
+                        e);
+            }
+            _isValid = true;
+        }
+        return _value;
+    }
+
+    @Override
+    public synchronized void onFragmentExemplarAdded(String fragmentId, String nodeId) {
+        if(_isValid){
+            try {
+                _value += exemplarHash(getFragmentHash(fragmentId), nodeId);
+            } catch (ReadOperationException e) {
+                _isValid = false;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onFragmentExemplarRemoved(String fragmentId, String nodeId) {
+        if(_isValid){
+            try {
+                _value -= exemplarHash(getFragmentHash(fragmentId), nodeId);
+            } catch (ReadOperationException e) {
+                _isValid = false;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onAllocationReset() {
+        _isValid = false;
+        _fragmentHashes.clear();
+    }
+
+    /**
+     * Get the cached hash of the fragment, reading its tuples from the store if it's not yet known
+     * @param fragmentId Fragment ID.
+     * @return Fragment hash.
+     * @throws ReadOperationException Unable to read the fragment tuples.
+     */
+    private long getFragmentHash(String fragmentId) throws ReadOperationException {
+        var hash = _fragmentHashes.get(fragmentId);
+        if(hash == null){
+            hash = fragmentHash(fragmentId, _storeReader.getFragmentTuples(fragmentId));
+            _fragmentHashes.put(fragmentId, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Compute the fingerprint of the allocation described by the fragment catalog.
+     * @param catalog Fragment catalog.
+     * @param fragmentHashes Source of the fragment hashes by fragment ID (see {@link #fragmentHash(String, Collection)}).
+     * @return 64-bit fingerprint.
+     * @throws ReadOperationException Unable to get a fragment hash.
+     */
+    public static long of(FragmentCatalog catalog, IFragmentHashSource fragmentHashes) throws ReadOperationException {
+        Objects.requireNonNull(catalog, "Fragment catalog can't be null");
+        Objects.requireNonNull(fragmentHashes, "Fragment hashes source can't be null");
+        long result = 0;
+        if(catalog.getNodeContent() == null){
+            return result;
+        }
+        Map<Integer, String> nodes = invert(catalog.getNodes());
+        Map<Integer, String> fragments = invert(catalog.getFragments());
+        for(var nodeContent: catalog.getNodeContent().entrySet()){
+            var nodeId = nodes.get(nodeContent.getKey());
+            if(nodeContent.getValue() == null){
+                continue;
+            }
+            for(var fragmentKey: nodeContent.getValue()){
+                result += exemplarHash(fragmentHashes.getFragmentHash(fragments.get(fragmentKey)), nodeId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hash of a fragment: FNV-1a over "fragment \0 tuple_1 \0 ... \0 tuple_n" with the tuple IDs sorted, so the
+     * hash doesn't depend on the order in which the store returns the tuples.
+     * @param fragmentId Fragment ID.
+     * @param tupleIds IDs of the tuples of the fragment, may be null for an empty fragment.
+     * @return 64-bit hash.
+     */
+    static long fragmentHash(String fragmentId, Collection<String> tupleIds){
+        long hash = FNV_OFFSET_BASIS;
+        hash = fnv1a(hash, fragmentId);
+        if(tupleIds != null){
+            List<String> sorted = new ArrayList<>(tupleIds);
+            sorted.sort(null);
+            for(var tupleId: sorted){
+                hash *= FNV_PRIME; // 0 byte separator
+                hash = fnv1a(hash, tupleId);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Hash of a single exemplar: FNV-1a of the fragment continued with "\0 node", followed by the splitmix64 finalizer
+     * to spread the bits before the summation.
+     * @param fragmentHash Hash of the fragment (see {@link #fragmentHash(String, Collection)}).
+     * @param nodeId Node ID.
+     * @return 64-bit hash.
+     */
+    static long exemplarHash(long fragmentHash, String nodeId){
+        long hash = fragmentHash;
+        hash *= FNV_PRIME; // 0 byte separator
+        hash = fnv1a(hash, nodeId);
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static long fnv1a(long hash, String value){
+        for(byte b: value.getBytes(StandardCharsets.UTF_8)){
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static Map<Integer, String> invert(Map<String, Integer> source){
+        Map<Integer, String> result = new HashMap<>();
+        if(source != null){
+            source.forEach((k, v) -> result.put(v, k));
+        }
+        return result;
+    }
+
+    /**
+     * Format the fingerprint the way it's reported in the benchmark results.
+     * @param fingerprint Fingerprint value.
+     * @return Zero padded hex string.
+     */
+    public static String toHex(long fingerprint){
+        return String.format("%016x", fingerprint);
+    }
+
+    /**
+     * Source of the fragment hashes used to compute the fingerprint of a complete allocation
+     */
+    @FunctionalInterface
+    public interface IFragmentHashSource {
+        /**
+         * @param fragmentId Fragment ID.
+         * @return Hash of the fragment (see {@link AllocationFingerprint#fragmentHash(String, Collection)}).
+         * @throws ReadOperationException Unable to read the fragment content.
+         */
+        long getFragmentHash(String fragmentId) throws ReadOperationException;
+    }
+}
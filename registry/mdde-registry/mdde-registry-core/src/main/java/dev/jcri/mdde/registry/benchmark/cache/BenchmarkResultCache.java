@@ -0,0 +1,208 @@
+package dev.jcri.mdde.registry.benchmark.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jcri.mdde.registry.configuration.benchmark.ResultCacheConfig;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Bounded LRU cache of the benchmark run results keyed by the allocation fingerprint, workload and number of workers.
+ * Optionally persisted into a JSON file so the memorized results survive the registry restarts. The file records the
+ * hash of the settings affecting the results (see {@link #BenchmarkResultCache(ResultCacheConfig, String)}), results
+ * persisted with different settings are discarded on load.
+ */
+public class BenchmarkResultCache {
+    private static final Logger logger = LogManager.getLogger(BenchmarkResultCache.class);
+
+    public static final String INFO_CACHE_HIT = "cache_hit";
+    public static final String INFO_CACHE_HITS = "cache_hits";
+    public static final String INFO_CACHE_LOOKUPS = "cache_lookups";
+    public static final String INFO_CACHE_HIT_RATE = "cache_hit_rate";
+    public static final String INFO_FINGERPRINT = "fingerprint";
+
+    private static final String FILE_CONFIGURATION_FIELD = "configuration";
+    private static final String FILE_RESULTS_FIELD = "results";
+
+    private final ObjectMapper _mapper = new ObjectMapper();
+    private final int _size;
+    /**
+     * Persistence file, null if the cache is kept only in memory
+     */
+    private final Path _file;
+    /**
+     * Hash of the settings affecting the benchmark results
+     */
+    private final String _configurationHash;
+    /**
+     * Cached results in the access order, the eldest entry is the least recently used one
+     */
+    private final LinkedHashMap<String, BenchmarkRunResult> _results;
+
+    private long _lookups = 0;
+    private long _hits = 0;
+
+    /**
+     * Constructor
+     * @param config Cache settings.
+     */
+    public BenchmarkResultCache(ResultCacheConfig config){
+        this(config, "");
+    }
+
+    /**
+     * Constructor
+     * @param config Cache settings.
+     * @param runConfiguration Description of the settings affecting the benchmark results that are not part of the
+     *                         cache key (benchmark client, early stopping, data plane).
+     */
+    public BenchmarkResultCache(ResultCacheConfig config, String runConfiguration){
+        Objects.requireNonNull(config, "Result cache config can't be null");
+        Objects.requireNonNull(runConfiguration, "Run configuration can't be null");
+        if(config.getSize() < 1){
+            throw new IllegalArgumentException("Result cache size must be positive");
+        }
+        _size = config.getSize();
+        _file = config.getFile() != null && !config.getFile().isBlank() ? Paths.get(config.getFile()) : null;
+        _configurationHash = UUID.nameUUIDFromBytes(runConfiguration.getBytes(StandardCharsets.UTF_8)).toString();
+        _results = new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BenchmarkRunResult> eldest) {
+                return size() > _size;
+            }
+        };
+        load();
+    }
+
+    /**
+     * Build the cache key
+     * @param fingerprint Allocation fingerprint.
+     * @param workload Workload tag.
+     * @param workers Number of the YCSB workers.
+     * @return Cache key.
+     */
+    public static String getKey(long fingerprint, String workload, int workers){
+        return String.format("%s|%s|%d", AllocationFingerprint.toHex(fingerprint), workload, workers);
+    }
+
+    /**
+     * Look up a memorized result. Every call is counted towards the hit rate.
+     * @param key Cache key.
+     * @return Copy of the memorized result or null if there is none.
+     */
+    public synchronized BenchmarkRunResult get(String key){
+        _lookups++;
+        var cached = _results.get(key);
+        if(cached == null){
+            return null;
+        }
+        _hits++;
+        return copy(cached);
+    }
+
+    /**
+     * Memorize a successful benchmark result.
+     * @param key Cache key.
+     * @param result Benchmark result, results with an error are ignored.
+     */
+    public synchronized void put(String key, BenchmarkRunResult result){
+        if(result == null || result.getError() != null){
+            return;
+        }
+        _results.put(key, copy(result));
+        save();
+    }
+
+    /**
+     * Number of the memorized results
+     * @return Cache size.
+     */
+    public synchronized int size(){
+        return _results.size();
+    }
+
+    /**
+     * Fraction of the lookups that returned a memorized result
+     * @return Value in [0, 1], 0 if there were no lookups.
+     */
+    public synchronized double getHitRate(){
+        return _lookups > 0 ? (double) _hits / _lookups : 0;
+    }
+
+    /**
+     * Write the cache statistics into the benchmark result info.
+     * @param info Info map of the benchmark result.
+     * @param isHit True - the result was returned from the cache.
+     */
+    public synchronized void writeInfo(Map<String, String> info, boolean isHit){
+        Objects.requireNonNull(info);
+        info.put(INFO_CACHE_HIT, Boolean.toString(isHit));
+        info.put(INFO_CACHE_HITS, Long.toString(_hits));
+        info.put(INFO_CACHE_LOOKUPS, Long.toString(_lookups));
+        info.put(INFO_CACHE_HIT_RATE, Double.toString(getHitRate()));
+    }
+
+    private static BenchmarkRunResult copy(BenchmarkRunResult source){
+        var result = new BenchmarkRunResult();
+        result.setThroughput(source.getThroughput());
+        result.setNodes(source.getNodes());
+        result.setError(source.getError());
+        result.setInfo(source.getInfo() != null ? new HashMap<>(source.getInfo()) : new HashMap<>());
+        return result;
+    }
+
+    private void load(){
+        if(_file == null || !Files.exists(_file)){
+            return;
+        }
+        try {
+            var persisted = _mapper.readTree(_file.toFile());
+            var configuration = persisted.get(FILE_CONFIGURATION_FIELD);
+            if(configuration == null || !_configurationHash.equals(configuration.asText())){
+                logger.info("Benchmark results in {} were measured with different settings, discarding them", _file);
+                return;
+            }
+            LinkedHashMap<String, BenchmarkRunResult> results = _mapper.convertValue(persisted.get(FILE_RESULTS_FIELD),
+                    new TypeReference<LinkedHashMap<String, BenchmarkRunResult>>(){});
+            if(results != null){
+                _results.putAll(results);
+            }
+            logger.info("Loaded {} cached benchmark results from {}", _results.size(), _file);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Unable to load the benchmark results cache, starting with an empty cache", e);
+        }
+    }
+
+    private void save(){
+        if(_file == null){
+            return;
+        }
+        try {
+            var parent = _file.toAbsolutePath().getParent();
+            if(parent != null){
+                Files.createDirectories(parent);
+            }
+            var tmp = Files.createTempFile(parent, _file.getFileName().toString(), ".tmp");
+            var persisted = _mapper.createObjectNode();
+            persisted.put(FILE_CONFIGURATION_FIELD, _configurationHash);
+            persisted.set(FILE_RESULTS_FIELD, _mapper.valueToTree(_results));
+            _mapper.writeValue(tmp.toFile(), persisted);
+            Files.move(tmp, _file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Unable to persist the benchmark results cache", e);
+        }
+    }
+}
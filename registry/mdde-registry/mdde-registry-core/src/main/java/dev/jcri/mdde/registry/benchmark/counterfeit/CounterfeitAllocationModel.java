@@ -0,0 +1,527 @@
+package dev.jcri.mdde.registry.benchmark.counterfeit;
+
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Primitive node x fragment view of the registry allocation used by the counterfeit benchmark.
+ *
+ * The model is built once from the fragment catalog and then updated per exemplar change. Reads are distributed
+ * greedily over the fragments ordered by the number of replicas (ascending) and the expected reads (descending). The
+ * distribution of a fragment depends only on the fragments processed before it, so the running per-node read totals
+ * are checkpointed every {@link #CHECKPOINT_STRIDE} positions and a change only re-distributes the reads starting from
+ * the closest checkpoint preceding the first affected position.
+ *
+ * The class is not thread-safe.
+ */
+public final class CounterfeitAllocationModel {
+    /**
+     * Number of the sweep positions between the stored per-node read totals
+     */
+    static final int CHECKPOINT_STRIDE = 64;
+
+    private final int _nodeCount;
+    private final String[] _nodeIds;
+    private final Map<String, Integer> _nodeIndex;
+    private final Map<String, Integer> _readsPerFragment;
+
+    private final Map<String, Integer> _fragmentIndex;
+    private final List<String> _fragmentIds;
+    private int _fragmentCount = 0;
+
+    /**
+     * Allocation matrix, fragment-major: [fragment * nodes + node]
+     */
+    private boolean[] _allocated;
+    /**
+     * Number of exemplars per fragment
+     */
+    private int[] _replicaCount;
+    /**
+     * Expected number of reads per fragment
+     */
+    private int[] _expectedReads;
+    /**
+     * Reads assigned to each exemplar by the latest distribution, fragment-major: [fragment * nodes + node]
+     */
+    private int[] _reads;
+    /**
+     * Fragment indexes in the order of the reads distribution
+     */
+    private int[] _order;
+    /**
+     * Per-node read totals before processing the position c * CHECKPOINT_STRIDE of the order: [c * nodes + node]
+     */
+    private int[] _checkpoints;
+    /**
+     * Per-node read totals after the complete distribution
+     */
+    private final int[] _nodeReads;
+    /**
+     * First position of the order that has to be re-distributed
+     */
+    private int _dirtyFrom = 0;
+
+    // Scratch space for the distribution of a single fragment
+    private final int[] _scratchNodes;
+    private final double[] _scratchParticipation;
+    private final int[] _scratchSorted;
+
+    /**
+     * Constructor
+     * @param catalog Fragment catalog of the registry.
+     * @param readsPerFragment Expected number of reads per fragment ID. Fragments not in the map are not read.
+     */
+    public CounterfeitAllocationModel(FragmentCatalog catalog, Map<String, Integer> readsPerFragment){
+        Objects.requireNonNull(catalog, "Fragment catalog can't be null");
+        Objects.requireNonNull(readsPerFragment, "Reads per fragment map can't be null");
+        _readsPerFragment = readsPerFragment;
+
+        var catalogNodes = catalog.getNodes() != null ? catalog.getNodes() : Map.<String, Integer>of();
+        var catalogFragments = catalog.getFragments() != null ? catalog.getFragments() : Map.<String, Integer>of();
+        var catalogContent = catalog.getNodeContent() != null
+                ? catalog.getNodeContent() : Map.<Integer, List<Integer>>of();
+
+        _nodeCount = catalogNodes.size();
+        _nodeIds = new String[_nodeCount];
+        _nodeIndex = new HashMap<>(_nodeCount * 2);
+        // Catalog IDs are not necessarily dense, map them to the model indexes
+        Map<Integer, Integer> catalogNodeToIdx = new HashMap<>(_nodeCount * 2);
+        for(var node: catalogNodes.entrySet()){
+            var idx = _nodeIndex.size();
+            _nodeIds[idx] = node.getKey();
+            _nodeIndex.put(node.getKey(), idx);
+            catalogNodeToIdx.put(node.getValue(), idx);
+        }
+
+        var capacity = Math.max(16, catalogFragments.size());
+        _fragmentIndex = new HashMap<>(capacity * 2);
+        _fragmentIds = new ArrayList<>(capacity);
+        _allocated = new boolean[capacity * _nodeCount];
+        _replicaCount = new int[capacity];
+        _expectedReads = new int[capacity];
+        _reads = new int[capacity * _nodeCount];
+        _order = new int[capacity];
+        _checkpoints = new int[(capacity / CHECKPOINT_STRIDE + 1) * _nodeCount];
+        _nodeReads = new int[_nodeCount];
+        _scratchNodes = new int[_nodeCount];
+        _scratchParticipation = new double[_nodeCount];
+        _scratchSorted = new int[_nodeCount];
+
+        Map<Integer, Integer> catalogFragmentToIdx = new HashMap<>(capacity * 2);
+        for(var fragment: catalogFragments.entrySet()){
+            catalogFragmentToIdx.put(fragment.getValue(), registerFragment(fragment.getKey()));
+        }
+        for(var content: catalogContent.entrySet()){
+            var nodeIdx = catalogNodeToIdx.get(content.getKey());
+            if(nodeIdx == null || content.getValue() == null){
+                continue;
+            }
+            for(var catalogFragmentId: content.getValue()){
+                var fragmentIdx = catalogFragmentToIdx.get(catalogFragmentId);
+                if(fragmentIdx != null && !_allocated[fragmentIdx * _nodeCount + nodeIdx]){
+                    _allocated[fragmentIdx * _nodeCount + nodeIdx] = true;
+                    _replicaCount[fragmentIdx]++;
+                }
+            }
+        }
+        for(int i = 0; i < _fragmentCount; i++){
+            _order[i] = i;
+        }
+        sortOrder();
+        _dirtyFrom = 0;
+    }
+
+    /**
+     * Copy constructor, the copy shares only the immutable parts of the state. The source is only read, so copies of
+     * the same model can be created concurrently as long as the source itself isn't changed.
+     * @param source Source model.
+     */
+    private CounterfeitAllocationModel(CounterfeitAllocationModel source){
+        _nodeCount = source._nodeCount;
+        _nodeIds = source._nodeIds;
+        _nodeIndex = source._nodeIndex;
+        _readsPerFragment = source._readsPerFragment;
+        _fragmentIndex = new HashMap<>(source._fragmentIndex);
+        _fragmentIds = new ArrayList<>(source._fragmentIds);
+        _fragmentCount = source._fragmentCount;
+        _allocated = source._allocated.clone();
+        _replicaCount = source._replicaCount.clone();
+        _expectedReads = source._expectedReads.clone();
+        _reads = source._reads.clone();
+        _order = source._order.clone();
+        _checkpoints = source._checkpoints.clone();
+        _nodeReads = source._nodeReads.clone();
+        _dirtyFrom = source._dirtyFrom;
+        _scratchNodes = new int[_nodeCount];
+        _scratchParticipation = new double[_nodeCount];
+        _scratchSorted = new int[_nodeCount];
+    }
+
+    /**
+     * Create an independent copy of the model. Changes of the copy don't affect this model and vice versa. If the
+     * model was distributed before copying, the copy re-distributes only the part affected by its own changes.
+     * @return Copy of the model.
+     */
+    public CounterfeitAllocationModel copy(){
+        return new CounterfeitAllocationModel(this);
+    }
+
+    /**
+     * Record a new exemplar of the fragment.
+     * @param fragmentId Fragment ID.
+     * @param nodeId Node ID.
+     * @return False - the node is unknown to the model, the model must be rebuilt.
+     */
+    public boolean addExemplar(String fragmentId, String nodeId){
+        var nodeIdx = _nodeIndex.get(nodeId);
+        if(nodeIdx == null){
+            return false;
+        }
+        var fragmentIdx = _fragmentIndex.get(fragmentId);
+        if(fragmentIdx == null){
+            fragmentIdx = registerFragment(fragmentId);
+            insertIntoOrder(fragmentIdx);
+        }
+        if(_allocated[fragmentIdx * _nodeCount + nodeIdx]){
+            return true;
+        }
+        var oldPosition = removeFromOrder(fragmentIdx);
+        _allocated[fragmentIdx * _nodeCount + nodeIdx] = true;
+        _replicaCount[fragmentIdx]++;
+        var newPosition = insertIntoOrder(fragmentIdx);
+        markDirty(Math.min(oldPosition, newPosition));
+        return true;
+    }
+
+    /**
+     * Record removal of the fragment exemplar.
+     * @param fragmentId Fragment ID.
+     * @param nodeId Node ID.
+     * @return False - the fragment or the node is unknown to the model, the model must be rebuilt.
+     */
+    public boolean removeExemplar(String fragmentId, String nodeId){
+        var nodeIdx = _nodeIndex.get(nodeId);
+        var fragmentIdx = _fragmentIndex.get(fragmentId);
+        if(nodeIdx == null || fragmentIdx == null){
+            return false;
+        }
+        if(!_allocated[fragmentIdx * _nodeCount + nodeIdx]){
+            return true;
+        }
+        var oldPosition = removeFromOrder(fragmentIdx);
+        _allocated[fragmentIdx * _nodeCount + nodeIdx] = false;
+        _reads[fragmentIdx * _nodeCount + nodeIdx] = 0;
+        _replicaCount[fragmentIdx]--;
+        var newPosition = insertIntoOrder(fragmentIdx);
+        markDirty(Math.min(oldPosition, newPosition));
+        return true;
+    }
+
+    /**
+     * Distribute the expected reads over the current allocation. Only the part of the order affected by the changes
+     * since the previous call is re-distributed.
+     */
+    public void distribute(){
+        if(_dirtyFrom >= _fragmentCount){
+            return;
+        }
+        var checkpoint = _dirtyFrom / CHECKPOINT_STRIDE;
+        var totals = Arrays.copyOfRange(_checkpoints, checkpoint * _nodeCount, (checkpoint + 1) * _nodeCount);
+        for(int position = checkpoint * CHECKPOINT_STRIDE; position < _fragmentCount; position++){
+            if(position % CHECKPOINT_STRIDE == 0){
+                System.arraycopy(totals, 0, _checkpoints, (position / CHECKPOINT_STRIDE) * _nodeCount, _nodeCount);
+            }
+            distributeFragment(_order[position], totals);
+        }
+        if(_fragmentCount % CHECKPOINT_STRIDE == 0){
+            // Fragments appended later start from this checkpoint
+            System.arraycopy(totals, 0, _checkpoints, (_fragmentCount / CHECKPOINT_STRIDE) * _nodeCount, _nodeCount);
+        }
+        System.arraycopy(totals, 0, _nodeReads, 0, _nodeCount);
+        _dirtyFrom = _fragmentCount;
+    }
+
+    /**
+     * Number of nodes in the model.
+     * @return Nodes count.
+     */
+    public int getNodeCount(){
+        return _nodeCount;
+    }
+
+    /**
+     * Node ID by the model index.
+     * @param nodeIdx Node index.
+     * @return Node ID.
+     */
+    public String getNodeId(int nodeIdx){
+        return _nodeIds[nodeIdx];
+    }
+
+    /**
+     * Number of fragments in the model.
+     * @return Fragments count.
+     */
+    public int getFragmentCount(){
+        return _fragmentCount;
+    }
+
+    /**
+     * Model index of the node.
+     * @param nodeId Node ID.
+     * @return Node index, -1 if the node is unknown.
+     */
+    public int getNodeIndex(String nodeId){
+        return _nodeIndex.getOrDefault(nodeId, -1);
+    }
+
+    /**
+     * Model index of the fragment.
+     * @param fragmentId Fragment ID.
+     * @return Fragment index, -1 if the fragment is unknown.
+     */
+    public int getFragmentIndex(String fragmentId){
+        return _fragmentIndex.getOrDefault(fragmentId, -1);
+    }
+
+    /**
+     * Number of the fragment exemplars.
+     * @param fragmentIdx Fragment index.
+     * @return Number of exemplars.
+     */
+    public int getReplicaCount(int fragmentIdx){
+        return _replicaCount[fragmentIdx];
+    }
+
+    /**
+     * Fragment ID by the model index.
+     * @param fragmentIdx Fragment index.
+     * @return Fragment ID.
+     */
+    public String getFragmentId(int fragmentIdx){
+        return _fragmentIds.get(fragmentIdx);
+    }
+
+    /**
+     * Check if the fragment exemplar is located on the node.
+     * @param fragmentIdx Fragment index.
+     * @param nodeIdx Node index.
+     * @return True - node contains the fragment.
+     */
+    public boolean isAllocated(int fragmentIdx, int nodeIdx){
+        return _allocated[fragmentIdx * _nodeCount + nodeIdx];
+    }
+
+    /**
+     * Reads of the fragment exemplar assigned by the latest {@link #distribute()} call.
+     * @param fragmentIdx Fragment index.
+     * @param nodeIdx Node index.
+     * @return Number of reads.
+     */
+    public int getReads(int fragmentIdx, int nodeIdx){
+        return _reads[fragmentIdx * _nodeCount + nodeIdx];
+    }
+
+    /**
+     * Total reads per node assigned by the latest {@link #distribute()} call.
+     * @param nodeIdx Node index.
+     * @return Number of reads.
+     */
+    public int getNodeReads(int nodeIdx){
+        return _nodeReads[nodeIdx];
+    }
+
+    /**
+     * Assign reads of a single fragment to its exemplars and add them to the running node totals.
+     * *Naive*, spread reads among the nodes that have the fragment, giving more to the currently least loaded ones.
+     * To be more realistic, would need to take a temporal aspect of the benchmark reads as well into account.
+     * @param fragmentIdx Fragment index.
+     * @param totals Running per-node read totals.
+     */
+    private void distributeFragment(int fragmentIdx, int[] totals){
+        final int rowOffset = fragmentIdx * _nodeCount;
+        final int expectedReads = _expectedReads[fragmentIdx];
+        int replicas = 0;
+        for(int n = 0; n < _nodeCount; n++){
+            _reads[rowOffset + n] = 0;
+            if(_allocated[rowOffset + n]){
+                _scratchNodes[replicas++] = n;
+            }
+        }
+        if(replicas == 0){
+            return;
+        }
+        if(replicas == 1){
+            // A single replica (no choice where to put it)
+            var nodeIdx = _scratchNodes[0];
+            totals[nodeIdx] += expectedReads;
+            _reads[rowOffset + nodeIdx] = expectedReads;
+            return;
+        }
+        if(expectedReads <= replicas){
+            // Less reads than replicas, pointless to implement any complex calculations for such a small number
+            for(int i = 0; i < expectedReads; i++){
+                var nodeIdx = _scratchNodes[i];
+                totals[nodeIdx] += 1;
+                _reads[rowOffset + nodeIdx] = 1;
+            }
+            return;
+        }
+        // Current degree of participation of the allocation nodes
+        long currentTotal = 0;
+        for(int i = 0; i < replicas; i++){
+            currentTotal += totals[_scratchNodes[i]];
+        }
+        for(int i = 0; i < replicas; i++){
+            _scratchParticipation[i] = currentTotal > 0
+                    ? (double) totals[_scratchNodes[i]] / currentTotal
+                    : 1.0 / replicas;
+            _scratchSorted[i] = i;
+        }
+        // Stable insertion sort by participation, descending (replica counts are small)
+        for(int i = 1; i < replicas; i++){
+            var current = _scratchSorted[i];
+            int j = i - 1;
+            while(j >= 0 && _scratchParticipation[_scratchSorted[j]] < _scratchParticipation[current]){
+                _scratchSorted[j + 1] = _scratchSorted[j];
+                j--;
+            }
+            _scratchSorted[j + 1] = current;
+        }
+        // The most loaded node receives the share of the least loaded one and vice versa
+        int remainingReads = expectedReads;
+        for(int i = 0; i < replicas; i++){
+            var nodeIdx = _scratchNodes[_scratchSorted[i]];
+            int chunk;
+            if(i < replicas - 1){
+                var opposite = _scratchSorted[replicas - 1 - i];
+                chunk = (int) Math.ceil(expectedReads * _scratchParticipation[opposite]);
+                remainingReads -= chunk;
+            }
+            else{
+                chunk = remainingReads;
+            }
+            totals[nodeIdx] += chunk;
+            _reads[rowOffset + nodeIdx] = chunk;
+        }
+    }
+
+    /**
+     * Add a fragment without exemplars to the model, it's not placed in the order.
+     * @param fragmentId Fragment ID.
+     * @return Fragment index.
+     */
+    private int registerFragment(String fragmentId){
+        var idx = _fragmentCount;
+        if(idx == _replicaCount.length){
+            grow();
+        }
+        _fragmentIds.add(fragmentId);
+        _fragmentIndex.put(fragmentId, idx);
+        _expectedReads[idx] = _readsPerFragment.getOrDefault(fragmentId, 0);
+        _replicaCount[idx] = 0;
+        _fragmentCount++;
+        return idx;
+    }
+
+    private void grow(){
+        var capacity = _replicaCount.length * 2;
+        _allocated = Arrays.copyOf(_allocated, capacity * _nodeCount);
+        _reads = Arrays.copyOf(_reads, capacity * _nodeCount);
+        _replicaCount = Arrays.copyOf(_replicaCount, capacity);
+        _expectedReads = Arrays.copyOf(_expectedReads, capacity);
+        _order = Arrays.copyOf(_order, capacity);
+        _checkpoints = Arrays.copyOf(_checkpoints, (capacity / CHECKPOINT_STRIDE + 1) * _nodeCount);
+    }
+
+    /**
+     * Order of the reads distribution: replicas ascending, then expected reads descending, then index.
+     */
+    private int compareFragments(int a, int b){
+        var res = Integer.compare(_replicaCount[a], _replicaCount[b]);
+        if(res != 0){
+            return res;
+        }
+        res = Integer.compare(_expectedReads[b], _expectedReads[a]);
+        if(res != 0){
+            return res;
+        }
+        return Integer.compare(a, b);
+    }
+
+    private void sortOrder(){
+        var boxed = new Integer[_fragmentCount];
+        for(int i = 0; i < _fragmentCount; i++){
+            boxed[i] = _order[i];
+        }
+        Arrays.sort(boxed, this::compareFragments);
+        for(int i = 0; i < _fragmentCount; i++){
+            _order[i] = boxed[i];
+        }
+    }
+
+    /**
+     * Binary search of the fragment position within the order, the fragment keys must be the same as when it was
+     * inserted.
+     * @param fragmentIdx Fragment index.
+     * @param size Number of the ordered elements.
+     * @return Position if found, otherwise (-(insertion point) - 1).
+     */
+    private int findInOrder(int fragmentIdx, int size){
+        int low = 0;
+        int high = size - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int cmp = compareFragments(_order[mid], fragmentIdx);
+            if(cmp < 0){
+                low = mid + 1;
+            }
+            else if(cmp > 0){
+                high = mid - 1;
+            }
+            else{
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Remove the fragment from the order.
+     * @return Former position of the fragment.
+     */
+    private int removeFromOrder(int fragmentIdx){
+        var ordered = _fragmentCount - 1;
+        var position = findInOrder(fragmentIdx, _fragmentCount);
+        if(position < 0){
+            throw new IllegalStateException(String.format("Fragment %s is missing from the distribution order",
+                    _fragmentIds.get(fragmentIdx)));
+        }
+        System.arraycopy(_order, position + 1, _order, position, ordered - position);
+        return position;
+    }
+
+    /**
+     * Insert the fragment into the order, all of the other fragments must already be ordered.
+     * @return New position of the fragment.
+     */
+    private int insertIntoOrder(int fragmentIdx){
+        var ordered = _fragmentCount - 1;
+        var position = -(findInOrder(fragmentIdx, ordered) + 1);
+        System.arraycopy(_order, position, _order, position + 1, ordered - position);
+        _order[position] = fragmentIdx;
+        markDirty(position);
+        return position;
+    }
+
+    private void markDirty(int position){
+        _dirtyFrom = Math.min(_dirtyFrom, position);
+    }
+}
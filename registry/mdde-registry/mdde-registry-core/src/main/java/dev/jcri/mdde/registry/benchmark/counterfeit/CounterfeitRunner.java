@@ -1,19 +1,38 @@
 package dev.jcri.mdde.registry.benchmark.counterfeit;
 
+import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
+import dev.jcri.mdde.registry.shared.commands.containers.args.ControlArgsCandidateActionContainer;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkFragmentStats;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkNodeStats;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import dev.jcri.mdde.registry.store.IAllocationChangeListener;
 import dev.jcri.mdde.registry.store.IReadCommandHandler;
-import dev.jcri.mdde.registry.utility.MapTools;
 
+import java.io.Closeable;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.IntStream;
 
-public class CounterfeitRunner {
+/**
+ * Estimates the benchmark result for the current allocation based on the statistics of a real benchmark run.
+ *
+ * The allocation is kept in a {@link CounterfeitAllocationModel}, built from the fragment catalog on the first
+ * estimation and then updated from the registry write notifications.
+ */
+public class CounterfeitRunner implements IAllocationChangeListener, Closeable {
 
     private final IReadCommandHandler _storeReader;
     private CounterfeitBenchSettings _currentSettings = null;
+    /**
+     * Current allocation with the expected reads of the current settings, null if it must be rebuilt
+     */
+    private CounterfeitAllocationModel _allocationModel = null;
+    /**
+     * Pool evaluating the what-if candidates
+     */
+    private final ForkJoinPool _candidatesPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
     public CounterfeitRunner(IReadCommandHandler storeReader){
         Objects.requireNonNull(storeReader);
@@ -25,8 +44,9 @@ public class CounterfeitRunner {
         return _currentSettings;
     }
 
-    public void setCurrentSettings(CounterfeitBenchSettings currentSettings) {
+    public synchronized void setCurrentSettings(CounterfeitBenchSettings currentSettings) {
         this._currentSettings = currentSettings;
+        this._allocationModel = null;
     }
 
     /**
@@ -37,165 +57,181 @@ public class CounterfeitRunner {
         return _currentSettings != null;
     }
 
-    public BenchmarkRunResult estimateBenchmarkRun(double adjustRangeStart, double adjustRangeEnd){
-        if(this._currentSettings == null){
-            throw new IllegalStateException("Counterfeit benchmark runner was not initialized with the benchmark " +
-                    "parameters.");
-        }
+    public synchronized BenchmarkRunResult estimateBenchmarkRun(double adjustRangeStart, double adjustRangeEnd){
+        verifyEstimationArguments(adjustRangeStart, adjustRangeEnd);
+        return estimate(getAllocationModel(), adjustRangeStart, adjustRangeEnd, true);
+    }
 
-        if(adjustRangeStart > adjustRangeEnd || adjustRangeEnd < 0 || adjustRangeStart < 0){
-            throw new IllegalArgumentException("Adjustment range start must be > 0, " +
-                    "adjustment range end must be > adjustment range end.");
+    /**
+     * Estimate the benchmark result of several hypothetical action sequences without applying them to the registry.
+     * Every candidate is applied to its own copy of the current allocation, the candidates are evaluated in parallel.
+     * Per node statistics are not included in the candidate results, only the throughput estimations.
+     * @param adjustRangeStart Adjustment range start.
+     * @param adjustRangeEnd Adjustment range end.
+     * @param candidates Sequences of the fragment replication and exemplar removal actions.
+     * @return Estimated results in the order of the candidates. If a candidate can't be applied to the current
+     * allocation, its result contains the error.
+     */
+    public synchronized List<BenchmarkRunResult> estimateCandidates(
+            double adjustRangeStart,
+            double adjustRangeEnd,
+            List<List<ControlArgsCandidateActionContainer>> candidates){
+        verifyEstimationArguments(adjustRangeStart, adjustRangeEnd);
+        Objects.requireNonNull(candidates, "List of candidates can't be null");
+        if(_candidatesPool.isShutdown()){
+            throw new IllegalStateException("Counterfeit benchmark runner is closed");
         }
 
-        // TODO: Refactor (inefficient runner)
-        var fragmentCatalog = _storeReader.getFragmentCatalog(null, null);
-        // Retrieve exact node contents
-        Map<String, List<String>> nodeContents = new HashMap<>();
-
-        Map<Integer, String> catalogNodeId = MapTools.invert(fragmentCatalog.getNodes());
-        Map<Integer, String> catalogFragmentId = MapTools.invert(fragmentCatalog.getFragments());
-
-        for (var nodeCatId : fragmentCatalog.getNodeContent().keySet()){
-            var nodeId = catalogNodeId.get(nodeCatId);
-            var nodeFragsCatIds = fragmentCatalog.getNodeContent().get(nodeCatId);
-            List<String> nodeFrags = new ArrayList<>();
-            for (var frag : nodeFragsCatIds){
-                // Fill out the map
-                var fragId = catalogFragmentId.get(frag);
-                nodeFrags.add(fragId);
+        final var baseModel = getAllocationModel();
+        // Copies of a distributed model only re-distribute the part affected by the candidate actions
+        baseModel.distribute();
+        List<Callable<BenchmarkRunResult>> tasks = new ArrayList<>(candidates.size());
+        for(var candidate: candidates){
+            tasks.add(() -> estimateCandidate(baseModel, candidate, adjustRangeStart, adjustRangeEnd));
+        }
+        List<BenchmarkRunResult> result = new ArrayList<>(candidates.size());
+        try {
+            for (var future : _candidatesPool.invokeAll(tasks)) {
+                result.add(future.get());
             }
-            nodeContents.put(nodeId, nodeFrags);
         }
-
-        Map<String, Integer> nodeIndexes = new HashMap<>();
-        ArrayList<List<String>> nodeContentsToIndexes = new ArrayList<>(nodeContents.size());
-        var nodeCnt = 0;
-        for(var nodeId: nodeContents.keySet()){
-            nodeContentsToIndexes.add(nodeCnt, nodeContents.get(nodeId));
-            nodeIndexes.put(nodeId, nodeCnt++);
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Evaluation of the candidates was interrupted", e);
         }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to evaluate a candidate", e.getCause());
+        }
+        return result;
+    }
 
-        // Pre-calculate fragment read distribution
-        Map<String, int[]> fragmentReadDistribution = new HashMap<>();
-
-        List<FragmentStats> listOfFragments = new ArrayList<>();
-
-        for (var fragReplicaId: fragmentCatalog.getFragments().keySet()) {
-            var expectedReadsTotal = this._currentSettings.getReads().get(fragReplicaId);
-
-            var cFragmentStats = new FragmentStats(fragReplicaId);
-            cFragmentStats.totalExpectedReads = expectedReadsTotal;
-
-            List<Integer> fragNodeIdx = IntStream.range(0, nodeContentsToIndexes.size())
-                    .filter(i -> nodeContentsToIndexes.get(i).contains(fragReplicaId))
-                    .collect(ArrayList<Integer>::new, ArrayList::add, ArrayList::addAll);
-
-            cFragmentStats.setAllocationNodeIdx(fragNodeIdx);
+    /**
+     * Apply the candidate actions to a copy of the base model and estimate the result.
+     */
+    private BenchmarkRunResult estimateCandidate(CounterfeitAllocationModel baseModel,
+                                                 List<ControlArgsCandidateActionContainer> actions,
+                                                 double adjustRangeStart,
+                                                 double adjustRangeEnd){
+        var view = baseModel.copy();
+        if(actions != null) {
+            for (var action : actions) {
+                var error = applyCandidateAction(view, action);
+                if (error != null) {
+                    var failed = new BenchmarkRunResult();
+                    failed.setError(error);
+                    return failed;
+                }
+            }
+        }
+        return estimate(view, adjustRangeStart, adjustRangeEnd, false);
+    }
 
-            listOfFragments.add(cFragmentStats);
+    /**
+     * Apply a hypothetical action to the allocation model, following the same rules as the registry write handler.
+     * @return Error message or null if the action was applied.
+     */
+    private String applyCandidateAction(CounterfeitAllocationModel model, ControlArgsCandidateActionContainer action){
+        if(action == null || action.getAction() == null){
+            return "Candidate action is not specified";
+        }
+        var fragmentIdx = model.getFragmentIndex(action.getFragmentId());
+        if(fragmentIdx < 0){
+            return String.format("Unknown fragment %s", action.getFragmentId());
+        }
+        var nodeIdx = model.getNodeIndex(action.getNodeId());
+        if(nodeIdx < 0){
+            return String.format("Unknown node %s", action.getNodeId());
         }
-        // Sort by Number of replicas (ascending) then by Number of reads (descending)
-        Collections.sort(listOfFragments);
-
-        int[] totalNodeReadCounter = new int[nodeIndexes.size()];
-        for (var fragReplicaInfo: listOfFragments){
-            var fragmentExpectedReadsTotal = fragReplicaInfo.totalExpectedReads;
-            var fragmentReplicaCounter = fragReplicaInfo.getNumberOfReplicas();
-            var fragmentReplicasAllocation = fragReplicaInfo.getAllocationNodeIdx();
-
-            int[] reads = new int[nodeIndexes.size()];
-            // *Naive*, spread read equally among the nodes that have the fragments.
-            // To be more realistic, would need to take a temporal aspect of the benchmark reads as well into account,
-            // but that's for the future versions.
-            if (fragmentReplicaCounter == 1){
-                // A single replica (no choice where to put it)
-                var nodeIdx = fragmentReplicasAllocation.get(0);
-                totalNodeReadCounter[nodeIdx] = totalNodeReadCounter[nodeIdx] + fragmentExpectedReadsTotal;
-                reads[nodeIdx] = fragmentExpectedReadsTotal;
+        if(action.getAction().equals(EWriteCommand.REPLICATE_FRAGMENT_DATA.getCommand())){
+            var destinationIdx = model.getNodeIndex(action.getSecondNodeId());
+            if(destinationIdx < 0){
+                return String.format("Unknown node %s", action.getSecondNodeId());
             }
-            else if (fragmentExpectedReadsTotal <= fragmentReplicaCounter){
-                // Multiple replicas but less reads than replicas, or equal number of reads and replicas.
-                // Pointless to implement any complex calculations for such a small number.
-                for(int i = 0; i < fragmentExpectedReadsTotal; i++){
-                    var nodeIdx = fragmentReplicasAllocation.get(i);
-                    totalNodeReadCounter[nodeIdx] = totalNodeReadCounter[nodeIdx] + 1;
-                    reads[nodeIdx] = 1;
-                }
+            if(!model.isAllocated(fragmentIdx, nodeIdx)){
+                return String.format("Source node %s doesn't have fragment %s",
+                        action.getNodeId(), action.getFragmentId());
             }
-            else{
-                // Multiple replicas, more reads than replicas.
-                // TODO: Refactor
-                // Get total current number of reads for nodes where fragment replicas are allocated
-                int currentTotalReadsForFragAllocNodes = 0;
-                for(var allocationNodeIdx: fragmentReplicasAllocation){
-                    currentTotalReadsForFragAllocNodes += totalNodeReadCounter[allocationNodeIdx];
-                }
-                // Calculate the current degree of participation per selected node
-                List<SelectedNodeRead> currentAllocatedNodeParticipation = new ArrayList<>();
-                for(var allocationNodeIdx: fragmentReplicasAllocation){
-                    currentAllocatedNodeParticipation.add(
-                            new SelectedNodeRead(
-                                allocationNodeIdx,
-                                    currentTotalReadsForFragAllocNodes > 0 ?
-                                            (double)totalNodeReadCounter[allocationNodeIdx] / currentTotalReadsForFragAllocNodes
-                                            : 1.0 / fragmentReplicaCounter
-                            ));
-                }
-
-                Collections.sort(currentAllocatedNodeParticipation);
-                var reversed = new ArrayList<>(currentAllocatedNodeParticipation);
-                Collections.reverse(reversed);
-                // Distribute reads among the nodes taking into account their current participation degree
-                int remainingReads = fragmentExpectedReadsTotal;
-                int processedNodes = 0;
-                int lastNode = currentAllocatedNodeParticipation.size() - 1;
-                for (int i = 0; i < currentAllocatedNodeParticipation.size(); i++) {
-                    SelectedNodeRead nodeParticipation = currentAllocatedNodeParticipation.get(i);
-                    SelectedNodeRead oppositeNodeParticipation = reversed.get(i);
-                    if (processedNodes < lastNode) {
-                        int chunk = (int) Math.ceil(fragmentExpectedReadsTotal * oppositeNodeParticipation.getParticipation());
-                        totalNodeReadCounter[nodeParticipation.getNodeIdx()] = totalNodeReadCounter[nodeParticipation.getNodeIdx()] + chunk;
-                        reads[nodeParticipation.getNodeIdx()] = chunk;
-                        remainingReads = remainingReads - chunk;
-                    } else {
-                        totalNodeReadCounter[nodeParticipation.getNodeIdx()] = totalNodeReadCounter[nodeParticipation.getNodeIdx()] + remainingReads;
-                        reads[nodeParticipation.getNodeIdx()] = remainingReads;
-                    }
-                    processedNodes++;
-                }
+            if(model.isAllocated(fragmentIdx, destinationIdx)){
+                return String.format("Destination node %s already contains fragment %s",
+                        action.getSecondNodeId(), action.getFragmentId());
             }
+            model.addExemplar(action.getFragmentId(), action.getSecondNodeId());
+            return null;
+        }
+        if(action.getAction().equals(EWriteCommand.DELETE_FRAGMENT_DATA.getCommand())){
+            if(!model.isAllocated(fragmentIdx, nodeIdx)){
+                return String.format("Node %s doesn't have fragment %s", action.getNodeId(), action.getFragmentId());
+            }
+            if(model.getReplicaCount(fragmentIdx) == 1){
+                return String.format("Attempted to remove a unique fragment %s", action.getFragmentId());
+            }
+            model.removeExemplar(action.getFragmentId(), action.getNodeId());
+            return null;
+        }
+        return String.format("Unsupported candidate action %s", action.getAction());
+    }
 
-            fragmentReadDistribution.put(fragReplicaInfo.getFragmentId(), reads);
+    private void verifyEstimationArguments(double adjustRangeStart, double adjustRangeEnd){
+        if(this._currentSettings == null){
+            throw new IllegalStateException("Counterfeit benchmark runner was not initialized with the benchmark " +
+                    "parameters.");
         }
 
-        // Attempt to redistribute reads
-
-        // Calculate
-        List<BenchmarkNodeStats> nodeStats = new ArrayList<>();
-        for(var nodeId: nodeContents.keySet()){
-            var nodeIdx = nodeIndexes.get(nodeId);
-            Map<String, BenchmarkFragmentStats> fragmentStats = new HashMap<>();
-            var resultNodeStats = new BenchmarkNodeStats("counterfeit", nodeId, fragmentStats);
-            for(var nodeFragment: nodeContents.get(nodeId)){
-                var nodeFragReads = fragmentReadDistribution.get(nodeFragment)[nodeIdx];
-                var fragStats = new BenchmarkFragmentStats(nodeFragReads);
-                fragmentStats.put(nodeFragment, fragStats);
+        if(adjustRangeStart > adjustRangeEnd || adjustRangeEnd < 0 || adjustRangeStart < 0){
+            throw new IllegalArgumentException("Adjustment range start must be > 0, " +
+                    "adjustment range end must be > adjustment range end.");
+        }
+    }
+
+    /**
+     * Estimate the benchmark result for the allocation model.
+     * @param model Allocation model.
+     * @param adjustRangeStart Adjustment range start.
+     * @param adjustRangeEnd Adjustment range end.
+     * @param includeNodeStats Include per node fragment read statistics into the result.
+     * @return Estimated benchmark result.
+     */
+    private BenchmarkRunResult estimate(CounterfeitAllocationModel model,
+                                        double adjustRangeStart,
+                                        double adjustRangeEnd,
+                                        boolean includeNodeStats){
+        model.distribute();
+        final var nodeCount = model.getNodeCount();
+        final var fragmentCount = model.getFragmentCount();
+
+        // Per node fragment statistics
+        List<BenchmarkNodeStats> nodeStats = null;
+        if(includeNodeStats) {
+            nodeStats = new ArrayList<>(nodeCount);
+            List<Map<String, BenchmarkFragmentStats>> nodeFragmentStats = new ArrayList<>(nodeCount);
+            for (int n = 0; n < nodeCount; n++) {
+                Map<String, BenchmarkFragmentStats> fragmentStats = new HashMap<>();
+                nodeFragmentStats.add(fragmentStats);
+                nodeStats.add(new BenchmarkNodeStats("counterfeit", model.getNodeId(n), fragmentStats));
+            }
+            for (int f = 0; f < fragmentCount; f++) {
+                String fragmentId = null;
+                for (int n = 0; n < nodeCount; n++) {
+                    if (!model.isAllocated(f, n)) {
+                        continue;
+                    }
+                    if (fragmentId == null) {
+                        fragmentId = model.getFragmentId(f);
+                    }
+                    nodeFragmentStats.get(n).put(fragmentId, new BenchmarkFragmentStats(model.getReads(f, n)));
+                }
             }
-            nodeStats.add(resultNodeStats);
         }
         // Throughput estimation
         // We make a naive assumption that if the reads are spread equally across the nodes, the better is throughput.
-        var readSums = new int[nodeContents.size()];
-        double[] readNodeParticipationBaseline = new double[readSums.length];
-        for(var nodeId: nodeContents.keySet()) {
+        var readSums = new int[nodeCount];
+        double[] readNodeParticipationBaseline = new double[nodeCount];
+        var baselineBalance = this._currentSettings.getNodeReadBalance();
+        for(int n = 0; n < nodeCount; n++){
             // Current reads
-            var nodeIdx = nodeIndexes.get(nodeId);
-            for(var nodeStat: nodeStats.stream().filter(i -> i.getNodeId().equals(nodeId)).collect(Collectors.toList())){
-                readSums[nodeIdx] = readSums[nodeIdx] + nodeStat.getTotalNumberOfReads();
-            }
+            readSums[n] = model.getNodeReads(n);
             // Baseline participation values
-            readNodeParticipationBaseline[nodeIdx] = this._currentSettings.getNodeReadBalance().get(nodeId);
+            readNodeParticipationBaseline[n] = baselineBalance.getOrDefault(model.getNodeId(n), 0.0);
         }
 
         double totalReads = (double)IntStream.of(readSums).sum();
@@ -251,6 +287,45 @@ public class CounterfeitRunner {
         return result;
     }
 
+    @Override
+    public synchronized void onFragmentExemplarAdded(String fragmentId, String nodeId) {
+        if(_allocationModel != null && !_allocationModel.addExemplar(fragmentId, nodeId)){
+            _allocationModel = null;
+        }
+    }
+
+    @Override
+    public synchronized void onFragmentExemplarRemoved(String fragmentId, String nodeId) {
+        if(_allocationModel != null && !_allocationModel.removeExemplar(fragmentId, nodeId)){
+            _allocationModel = null;
+        }
+    }
+
+    @Override
+    public synchronized void onAllocationReset() {
+        _allocationModel = null;
+    }
+
+    /**
+     * Get the allocation model, reading the fragment catalog from the store only if there is no valid model.
+     * @return Allocation model for the current settings.
+     */
+    private CounterfeitAllocationModel getAllocationModel(){
+        if(_allocationModel == null){
+            _allocationModel = new CounterfeitAllocationModel(_storeReader.getFragmentCatalog(null, null),
+                                                              _currentSettings.getReads());
+        }
+        return _allocationModel;
+    }
+
+    /**
+     * Stop the candidates evaluation pool. Evaluations that are already running are completed.
+     */
+    @Override
+    public void close() {
+        _candidatesPool.shutdown();
+    }
+
     /**
      * Calculate the participation disbalance value across the nodes
      * @param partP Participation percentages for all nodes.
@@ -279,77 +354,4 @@ public class CounterfeitRunner {
 
         return (numOfNodes - 1) * 2;
     }
-
-    private class FragmentStats implements Comparable<FragmentStats>{
-        private List<Integer> _allocationNodeIdx;
-        private int _numberOfReplicas = 0;
-
-        private final String _fragmentId;
-        public int totalExpectedReads = 0;
-
-        public FragmentStats(String fragmentId){
-            Objects.requireNonNull(fragmentId);
-            _fragmentId = fragmentId;
-        }
-
-        public String getFragmentId(){
-            return _fragmentId;
-        }
-
-        public int getNumberOfReplicas(){
-            return _numberOfReplicas;
-        }
-
-        public List<Integer> getAllocationNodeIdx() {
-            return _allocationNodeIdx;
-        }
-
-        public void setAllocationNodeIdx(List<Integer> value) {
-            this._allocationNodeIdx = value;
-
-            if(this._allocationNodeIdx != null){
-                _numberOfReplicas = this._allocationNodeIdx.size();
-            }
-            else{
-                _numberOfReplicas = 0;
-            }
-        }
-
-        @Override
-        public int compareTo(CounterfeitRunner.FragmentStats o2) {
-            var o1 = this;
-            // Ascending replicas order
-            int numOfReplicasRes = Integer.compare(o1.getNumberOfReplicas(), o2.getNumberOfReplicas());
-            if (numOfReplicasRes != 0)
-            {
-                return numOfReplicasRes;
-            }
-            // Descending reads order
-            return Integer.compare(o2.totalExpectedReads, o1.totalExpectedReads);
-        }
-    }
-
-    private class SelectedNodeRead implements Comparable<SelectedNodeRead>{
-        private int _nodeIdx = -1;
-        private double _participation = -1.0;
-
-        public SelectedNodeRead(int nodeIdx, double participation){
-            _nodeIdx = nodeIdx;
-            _participation = participation;
-        }
-
-        public int getNodeIdx(){
-            return _nodeIdx;
-        }
-
-        public double getParticipation(){
-            return _participation;
-        }
-
-        @Override
-        public int compareTo(CounterfeitRunner.SelectedNodeRead o2) {
-            var o1 = this;
-            return Double.compare(o2.getParticipation(), o1.getParticipation());
-        }
-    }
 }
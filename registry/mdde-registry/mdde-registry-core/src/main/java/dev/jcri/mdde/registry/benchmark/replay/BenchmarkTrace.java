@@ -0,0 +1,209 @@
+package dev.jcri.mdde.registry.benchmark.replay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Compact binary trace of the tuple location requests made by the benchmark clients during a single real benchmark
+ * run.
+ *
+ * Tuple and node IDs are interned into dictionaries, every recorded request is stored as a set of primitive values:
+ * dictionary index of the requested tuple, dictionary index of the node selected by the locator (-1 if the tuple was
+ * not found), arrival offset from the beginning of the run and the time it took the client to release the node.
+ */
+public final class BenchmarkTrace {
+    /**
+     * Marker of the serialized trace ("MDTR").
+     */
+    private static final int MAGIC = 0x4d445452;
+    /**
+     * Current version of the serialized trace format.
+     */
+    private static final short VERSION = 1;
+
+    private final String _runId;
+    private final String[] _tuples;
+    private final String[] _nodes;
+    private final int[] _tupleRefs;
+    private final int[] _nodeRefs;
+    private final long[] _arrivalNanos;
+    private final long[] _serviceNanos;
+    private final int _concurrency;
+
+    /**
+     * Constructor.
+     * @param runId ID of the benchmark run that produced the trace.
+     * @param tuples Tuple IDs dictionary.
+     * @param nodes Node IDs dictionary.
+     * @param tupleRefs Index in the tuples dictionary per request.
+     * @param nodeRefs Index in the nodes dictionary per request, -1 if no node was selected.
+     * @param arrivalNanos Offset of the request arrival from the beginning of the run, nanoseconds.
+     * @param serviceNanos Time between the location and release of the node, nanoseconds. -1 if never released.
+     * @param concurrency Maximum number of requests observed in flight at the same time.
+     */
+    BenchmarkTrace(String runId,
+                   String[] tuples,
+                   String[] nodes,
+                   int[] tupleRefs,
+                   int[] nodeRefs,
+                   long[] arrivalNanos,
+                   long[] serviceNanos,
+                   int concurrency){
+        Objects.requireNonNull(tuples);
+        Objects.requireNonNull(nodes);
+        Objects.requireNonNull(tupleRefs);
+        Objects.requireNonNull(nodeRefs);
+        Objects.requireNonNull(arrivalNanos);
+        Objects.requireNonNull(serviceNanos);
+        if(tupleRefs.length != nodeRefs.length
+                || tupleRefs.length != arrivalNanos.length
+                || tupleRefs.length != serviceNanos.length){
+            throw new IllegalArgumentException("Trace columns must be of the same length");
+        }
+        _runId = runId;
+        _tuples = tuples;
+        _nodes = nodes;
+        _tupleRefs = tupleRefs;
+        _nodeRefs = nodeRefs;
+        _arrivalNanos = arrivalNanos;
+        _serviceNanos = serviceNanos;
+        _concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * ID of the benchmark run during which the trace was captured.
+     * @return Run ID, might be null.
+     */
+    public String getRunId() {
+        return _runId;
+    }
+
+    /**
+     * Number of recorded tuple location requests.
+     * @return Number of requests.
+     */
+    public int size(){
+        return _tupleRefs.length;
+    }
+
+    /**
+     * Maximum number of requests that were in flight at the same time during the recorded run.
+     * @return Concurrency level, at least 1.
+     */
+    public int getConcurrency() {
+        return _concurrency;
+    }
+
+    /**
+     * Requested tuple ID.
+     * @param i Request index.
+     * @return Tuple ID.
+     */
+    public String getTupleId(int i){
+        return _tuples[_tupleRefs[i]];
+    }
+
+    /**
+     * Node that was selected by the locator during the recorded run.
+     * @param i Request index.
+     * @return Node ID or null if the tuple was not located.
+     */
+    public String getNodeId(int i){
+        var ref = _nodeRefs[i];
+        return ref < 0 ? null : _nodes[ref];
+    }
+
+    /**
+     * Arrival of the request relative to the beginning of the recorded run.
+     * @param i Request index.
+     * @return Offset in nanoseconds.
+     */
+    public long getArrivalNanos(int i){
+        return _arrivalNanos[i];
+    }
+
+    /**
+     * Time the node was occupied by the request.
+     * @param i Request index.
+     * @return Duration in nanoseconds, -1 if the release of the node wasn't recorded.
+     */
+    public long getServiceNanos(int i){
+        return _serviceNanos[i];
+    }
+
+    /**
+     * Serialize the trace.
+     * @param stream Output stream.
+     * @throws IOException Failure to write into the stream.
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        var out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(_runId != null ? _runId : "");
+        out.writeInt(_concurrency);
+        writeDictionary(out, _tuples);
+        writeDictionary(out, _nodes);
+        out.writeInt(_tupleRefs.length);
+        for (int i = 0; i < _tupleRefs.length; i++) {
+            out.writeInt(_tupleRefs[i]);
+            out.writeShort(_nodeRefs[i]);
+            out.writeLong(_arrivalNanos[i]);
+            out.writeLong(_serviceNanos[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Deserialize a trace previously written with {@link #writeTo(OutputStream)}.
+     * @param stream Input stream.
+     * @return Trace.
+     * @throws IOException Failure to read the stream or the stream doesn't contain a trace.
+     */
+    public static BenchmarkTrace readFrom(InputStream stream) throws IOException {
+        var in = new DataInputStream(stream);
+        if(in.readInt() != MAGIC){
+            throw new IOException("Stream does not contain a benchmark trace");
+        }
+        var version = in.readShort();
+        if(version != VERSION){
+            throw new IOException(String.format("Unsupported benchmark trace version: %d", version));
+        }
+        var runId = in.readUTF();
+        var concurrency = in.readInt();
+        var tuples = readDictionary(in);
+        var nodes = readDictionary(in);
+        var length = in.readInt();
+        var tupleRefs = new int[length];
+        var nodeRefs = new int[length];
+        var arrivalNanos = new long[length];
+        var serviceNanos = new long[length];
+        for (int i = 0; i < length; i++) {
+            tupleRefs[i] = in.readInt();
+            nodeRefs[i] = in.readShort();
+            arrivalNanos[i] = in.readLong();
+            serviceNanos[i] = in.readLong();
+        }
+        return new BenchmarkTrace(runId.isEmpty() ? null : runId,
+                tuples, nodes, tupleRefs, nodeRefs, arrivalNanos, serviceNanos, concurrency);
+    }
+
+    private static void writeDictionary(DataOutputStream out, String[] dictionary) throws IOException {
+        out.writeInt(dictionary.length);
+        for(var value: dictionary){
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readDictionary(DataInputStream in) throws IOException {
+        var result = new String[in.readInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = in.readUTF();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+package dev.jcri.mdde.registry.benchmark.replay;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records tuple location requests made by the benchmark clients during a real benchmark run.
+ *
+ * Release notifications don't carry the ID of the request, so they're matched to the oldest unreleased request made
+ * to the same node. Recording is synchronized, calls come from the benchmark TCP handlers.
+ */
+public final class BenchmarkTraceRecorder {
+    private static final int INITIAL_CAPACITY = 1 << 14;
+
+    private final String _runId;
+    private final long _startNanos;
+
+    private final Map<String, Integer> _tuples = new HashMap<>();
+    private final Map<String, Integer> _nodes = new HashMap<>();
+    /**
+     * Per node FIFO of the request indices awaiting release.
+     */
+    private final Map<Integer, ArrayDeque<Integer>> _pending = new HashMap<>();
+
+    private int[] _tupleRefs = new int[INITIAL_CAPACITY];
+    private int[] _nodeRefs = new int[INITIAL_CAPACITY];
+    private long[] _arrivalNanos = new long[INITIAL_CAPACITY];
+    private long[] _serviceNanos = new long[INITIAL_CAPACITY];
+    private int _size = 0;
+
+    private int _inFlight = 0;
+    private int _maxInFlight = 0;
+    private boolean _isStopped = false;
+
+    /**
+     * Constructor. Recording starts immediately.
+     * @param runId ID of the recorded benchmark run.
+     */
+    public BenchmarkTraceRecorder(String runId){
+        _runId = runId;
+        _startNanos = System.nanoTime();
+    }
+
+    /**
+     * ID of the recorded benchmark run.
+     * @return Run ID.
+     */
+    public String getRunId() {
+        return _runId;
+    }
+
+    /**
+     * Record a tuple location request and the node selected for it.
+     * @param tupleId Requested tuple ID.
+     * @param nodeId Selected node ID, null if the tuple wasn't located.
+     */
+    public synchronized void recordLocate(String tupleId, String nodeId){
+        if(_isStopped || tupleId == null){
+            return;
+        }
+        ensureCapacity();
+        var idx = _size++;
+        _tupleRefs[idx] = _tuples.computeIfAbsent(tupleId, k -> _tuples.size());
+        _arrivalNanos[idx] = System.nanoTime() - _startNanos;
+        _serviceNanos[idx] = -1;
+        if(nodeId == null){
+            _nodeRefs[idx] = -1;
+            return;
+        }
+        var nodeRef = _nodes.computeIfAbsent(nodeId, k -> _nodes.size());
+        _nodeRefs[idx] = nodeRef;
+        _pending.computeIfAbsent(nodeRef, k -> new ArrayDeque<>()).addLast(idx);
+        _inFlight++;
+        if(_inFlight > _maxInFlight){
+            _maxInFlight = _inFlight;
+        }
+    }
+
+    /**
+     * Record release of a node by a benchmark client.
+     * @param nodeId Released node ID.
+     */
+    public synchronized void recordRelease(String nodeId){
+        if(_isStopped || nodeId == null){
+            return;
+        }
+        var nodeRef = _nodes.get(nodeId);
+        if(nodeRef == null){
+            return;
+        }
+        var queue = _pending.get(nodeRef);
+        if(queue == null || queue.isEmpty()){
+            return;
+        }
+        var idx = queue.pollFirst();
+        _serviceNanos[idx] = System.nanoTime() - _startNanos - _arrivalNanos[idx];
+        _inFlight--;
+    }
+
+    /**
+     * Stop recording, any subsequent calls are ignored.
+     */
+    public synchronized void stop(){
+        _isStopped = true;
+    }
+
+    /**
+     * Recording was stopped.
+     * @return True - recorder no longer accepts new records.
+     */
+    public synchronized boolean isStopped(){
+        return _isStopped;
+    }
+
+    /**
+     * Number of recorded requests.
+     * @return Number of requests.
+     */
+    public synchronized int size(){
+        return _size;
+    }
+
+    /**
+     * Create a compact trace out of the recorded requests.
+     * @return Trace.
+     */
+    public synchronized BenchmarkTrace build(){
+        return new BenchmarkTrace(_runId,
+                toDictionary(_tuples),
+                toDictionary(_nodes),
+                Arrays.copyOf(_tupleRefs, _size),
+                Arrays.copyOf(_nodeRefs, _size),
+                Arrays.copyOf(_arrivalNanos, _size),
+                Arrays.copyOf(_serviceNanos, _size),
+                _maxInFlight);
+    }
+
+    private void ensureCapacity(){
+        if(_size < _tupleRefs.length){
+            return;
+        }
+        var newCapacity = _tupleRefs.length << 1;
+        _tupleRefs = Arrays.copyOf(_tupleRefs, newCapacity);
+        _nodeRefs = Arrays.copyOf(_nodeRefs, newCapacity);
+        _arrivalNanos = Arrays.copyOf(_arrivalNanos, newCapacity);
+        _serviceNanos = Arrays.copyOf(_serviceNanos, newCapacity);
+    }
+
+    private static String[] toDictionary(Map<String, Integer> interned){
+        var result = new String[interned.size()];
+        for(var entry: interned.entrySet()){
+            result[entry.getValue()] = entry.getKey();
+        }
+        return result;
+    }
+}
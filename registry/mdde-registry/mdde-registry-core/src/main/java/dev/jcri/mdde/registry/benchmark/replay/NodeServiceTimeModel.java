@@ -0,0 +1,77 @@
+package dev.jcri.mdde.registry.benchmark.replay;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Simple node service-time model: every node serves one request at a time and each request occupies the node for a
+ * constant amount of time.
+ *
+ * Per-node service time is the mean time between the location and release of the node observed in a recorded trace.
+ * Nodes without recorded releases fall back to the mean over all nodes, or to the default value if the trace contains
+ * no releases at all.
+ */
+public final class NodeServiceTimeModel {
+    /**
+     * Service time used when nothing can be derived from the trace: 1 ms.
+     */
+    public static final long DEFAULT_SERVICE_NANOS = 1_000_000L;
+
+    private final Map<String, Long> _serviceNanos;
+    private final long _fallbackNanos;
+
+    /**
+     * Constructor.
+     * @param serviceNanos Per node service time in nanoseconds.
+     * @param fallbackNanos Service time of nodes not present in the map.
+     */
+    public NodeServiceTimeModel(Map<String, Long> serviceNanos, long fallbackNanos){
+        Objects.requireNonNull(serviceNanos);
+        if(fallbackNanos <= 0){
+            throw new IllegalArgumentException("Fallback service time must be positive");
+        }
+        _serviceNanos = new HashMap<>(serviceNanos);
+        _fallbackNanos = fallbackNanos;
+    }
+
+    /**
+     * Derive service times from a recorded trace.
+     * @param trace Recorded benchmark trace.
+     * @return Model instance.
+     */
+    public static NodeServiceTimeModel fromTrace(BenchmarkTrace trace){
+        Objects.requireNonNull(trace);
+        Map<String, long[]> accumulated = new HashMap<>();
+        long total = 0;
+        long count = 0;
+        for (int i = 0; i < trace.size(); i++) {
+            var service = trace.getServiceNanos(i);
+            var nodeId = trace.getNodeId(i);
+            if(service < 0 || nodeId == null){
+                continue;
+            }
+            var acc = accumulated.computeIfAbsent(nodeId, k -> new long[2]);
+            acc[0] += service;
+            acc[1]++;
+            total += service;
+            count++;
+        }
+        Map<String, Long> perNode = new HashMap<>();
+        for(var entry: accumulated.entrySet()){
+            perNode.put(entry.getKey(), Math.max(1, entry.getValue()[0] / entry.getValue()[1]));
+        }
+        var fallback = count > 0 ? Math.max(1, total / count) : DEFAULT_SERVICE_NANOS;
+        return new NodeServiceTimeModel(perNode, fallback);
+    }
+
+    /**
+     * Time a single request occupies the node.
+     * @param nodeId Node ID.
+     * @return Service time in nanoseconds.
+     */
+    public long getServiceNanos(String nodeId){
+        var value = _serviceNanos.get(nodeId);
+        return value != null ? value : _fallbackNanos;
+    }
+}
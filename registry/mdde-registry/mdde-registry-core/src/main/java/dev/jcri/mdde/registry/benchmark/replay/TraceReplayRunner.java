@@ -0,0 +1,131 @@
+package dev.jcri.mdde.registry.benchmark.replay;
+
+import dev.jcri.mdde.registry.benchmark.cluster.IReadOnlyTupleLocator;
+import dev.jcri.mdde.registry.data.exceptions.KeyNotFoundException;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Deterministic in-memory replay of a recorded benchmark trace against a tuple locator initialized with the current
+ * allocation.
+ *
+ * Replay is a closed loop with as many clients as there were requests in flight during the recorded run. Every client
+ * takes the next request from the trace as soon as its previous request is served. Each request is routed by the
+ * locator and queued on the selected node, which serves requests one by one according to the service-time model.
+ * Capacity of the nodes is released in the locator in the order of the simulated completion times, so the load
+ * balancing decisions follow the simulated load rather than the wall clock.
+ */
+public final class TraceReplayRunner {
+    public static final String INFO_TRACE_RUN = "replay_trace_run";
+    public static final String INFO_OPERATIONS = "replay_ops";
+    public static final String INFO_UNLOCATED = "replay_unlocated";
+    public static final String INFO_CONCURRENCY = "replay_concurrency";
+    public static final String INFO_MAKESPAN_MS = "replay_makespan_ms";
+    public static final String INFO_NODE_READS_PREFIX = "replay_reads_";
+
+    private final BenchmarkTrace _trace;
+    private final NodeServiceTimeModel _serviceModel;
+
+    /**
+     * Constructor. Service times are derived from the trace.
+     * @param trace Recorded trace.
+     */
+    public TraceReplayRunner(BenchmarkTrace trace){
+        this(trace, NodeServiceTimeModel.fromTrace(trace));
+    }
+
+    /**
+     * Constructor.
+     * @param trace Recorded trace.
+     * @param serviceModel Node service-time model.
+     */
+    public TraceReplayRunner(BenchmarkTrace trace, NodeServiceTimeModel serviceModel){
+        Objects.requireNonNull(trace, "Trace can't be null");
+        Objects.requireNonNull(serviceModel, "Service time model can't be null");
+        _trace = trace;
+        _serviceModel = serviceModel;
+    }
+
+    /**
+     * Replay the trace.
+     * @param locator Initialized tuple locator reflecting the allocation that should be evaluated. Locator capacity
+     *                counters are balanced when the replay returns.
+     * @return Estimated benchmark result.
+     * @throws KeyNotFoundException Locator returned a node it can't release.
+     */
+    public BenchmarkRunResult replay(IReadOnlyTupleLocator locator) throws KeyNotFoundException {
+        Objects.requireNonNull(locator, "Tuple locator can't be null");
+        final int concurrency = _trace.getConcurrency();
+
+        PriorityQueue<Long> clients = new PriorityQueue<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.add(0L);
+        }
+        PriorityQueue<Completion> completions = new PriorityQueue<>();
+        Map<String, Long> nodeFreeAt = new HashMap<>();
+        Map<String, Integer> nodeReads = new HashMap<>();
+        long makespan = 0;
+        int unlocated = 0;
+
+        for (int i = 0; i < _trace.size(); i++) {
+            long now = clients.poll();
+            while(!completions.isEmpty() && completions.peek()._finishNanos <= now){
+                locator.notifyReadFinished(completions.poll()._nodeId);
+            }
+            var nodeId = locator.getNodeForRead(_trace.getTupleId(i));
+            if(nodeId == null){
+                unlocated++;
+                clients.add(now);
+                continue;
+            }
+            long start = Math.max(now, nodeFreeAt.getOrDefault(nodeId, 0L));
+            long finish = start + _serviceModel.getServiceNanos(nodeId);
+            nodeFreeAt.put(nodeId, finish);
+            nodeReads.merge(nodeId, 1, Integer::sum);
+            completions.add(new Completion(finish, nodeId));
+            clients.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        while(!completions.isEmpty()){
+            locator.notifyReadFinished(completions.poll()._nodeId);
+        }
+
+        var located = _trace.size() - unlocated;
+        var result = new BenchmarkRunResult();
+        result.setThroughput(makespan > 0 ? located / (makespan / 1e9) : 0);
+        result.setNodes(null);
+        result.setError(null);
+        var info = result.getInfo();
+        info.put(INFO_TRACE_RUN, _trace.getRunId());
+        info.put(INFO_OPERATIONS, Integer.toString(located));
+        info.put(INFO_UNLOCATED, Integer.toString(unlocated));
+        info.put(INFO_CONCURRENCY, Integer.toString(concurrency));
+        info.put(INFO_MAKESPAN_MS, Double.toString(makespan / 1e6));
+        for(var entry: nodeReads.entrySet()){
+            info.put(INFO_NODE_READS_PREFIX + entry.getKey(), entry.getValue().toString());
+        }
+        return result;
+    }
+
+    /**
+     * Simulated completion of a request on a node.
+     */
+    private static final class Completion implements Comparable<Completion>{
+        final long _finishNanos;
+        final String _nodeId;
+
+        private Completion(long finishNanos, String nodeId) {
+            _finishNanos = finishNanos;
+            _nodeId = nodeId;
+        }
+
+        @Override
+        public int compareTo(Completion o) {
+            return Long.compare(_finishNanos, o._finishNanos);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.jcri.mdde.registry.benchmark.ycsb;
+
+import dev.jcri.mdde.registry.benchmark.ycsb.cli.YCSBStatusSample;
+
+/**
+ * Receiver of the periodic status samples reported by a running YCSB workload.
+ */
+public interface IYCSBStatusListener {
+    /**
+     * Process the next status sample.
+     * @param sample Parsed YCSB status line.
+     * @return True - the workload run should be stopped.
+     */
+    boolean onStatus(YCSBStatusSample sample);
+}
@@ -0,0 +1,130 @@
+package dev.jcri.mdde.registry.benchmark.ycsb;
+
+import dev.jcri.mdde.registry.benchmark.ycsb.cli.YCSBStatusSample;
+import dev.jcri.mdde.registry.configuration.benchmark.EarlyStopConfig;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tracks the interval throughput samples of a running benchmark and detects when the estimate of the mean throughput
+ * is stable enough to stop the run.
+ *
+ * The estimate is considered converged when the half-width of the 95% confidence interval (Student's t) relative to
+ * the mean falls below the configured threshold.
+ */
+public class ThroughputConvergenceDetector implements IYCSBStatusListener {
+    public static final String INFO_STOPPED_EARLY = "stopped_early";
+    public static final String INFO_MEAN = "throughput_mean";
+    public static final String INFO_CI = "throughput_ci95";
+    public static final String INFO_CI_RELATIVE = "throughput_ci95_rel";
+    public static final String INFO_SAMPLES = "throughput_samples";
+
+    /**
+     * Two-sided 95% Student's t quantiles for 1..30 degrees of freedom.
+     */
+    private static final double[] T_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z_95 = 1.96;
+
+    private final int _warmupSamples;
+    private final int _minSamples;
+    private final double _threshold;
+
+    private int _skipped = 0;
+    private long _count = 0;
+    private double _mean = 0;
+    private double _m2 = 0;
+    private boolean _isConverged = false;
+
+    /**
+     * Constructor.
+     * @param config Early stopping settings.
+     */
+    public ThroughputConvergenceDetector(EarlyStopConfig config){
+        Objects.requireNonNull(config, "Early stopping config can't be null");
+        if(config.getThreshold() <= 0){
+            throw new IllegalArgumentException("Convergence threshold must be positive");
+        }
+        _warmupSamples = Math.max(0, config.getWarmupSamples());
+        _minSamples = Math.max(2, config.getMinSamples());
+        _threshold = config.getThreshold();
+    }
+
+    @Override
+    public synchronized boolean onStatus(YCSBStatusSample sample) {
+        if(sample == null || sample.getCurrentThroughput() < 0 || sample.getOperations() == 0){
+            return _isConverged;
+        }
+        if(_skipped < _warmupSamples){
+            _skipped++;
+            return _isConverged;
+        }
+        // Welford's online mean and variance
+        _count++;
+        var value = sample.getCurrentThroughput();
+        var delta = value - _mean;
+        _mean += delta / _count;
+        _m2 += delta * (value - _mean);
+
+        if(!_isConverged && _count >= _minSamples && _mean > 0){
+            _isConverged = getHalfWidth() / _mean <= _threshold;
+        }
+        return _isConverged;
+    }
+
+    /**
+     * The confidence interval reached the threshold.
+     * @return True - the estimate converged.
+     */
+    public synchronized boolean isConverged() {
+        return _isConverged;
+    }
+
+    /**
+     * Number of samples used for the estimate (excluding warm-up).
+     * @return Samples count.
+     */
+    public synchronized long getSampleCount() {
+        return _count;
+    }
+
+    /**
+     * Current estimate of the mean throughput.
+     * @return Mean ops/sec, 0 if there are no samples.
+     */
+    public synchronized double getMean() {
+        return _mean;
+    }
+
+    /**
+     * Half-width of the 95% confidence interval of the mean throughput.
+     * @return Half-width in ops/sec, positive infinity if there are less than 2 samples.
+     */
+    public synchronized double getHalfWidth() {
+        if(_count < 2){
+            return Double.POSITIVE_INFINITY;
+        }
+        var variance = _m2 / (_count - 1);
+        var degreesOfFreedom = (int) (_count - 1);
+        var t = degreesOfFreedom <= T_95.length ? T_95[degreesOfFreedom - 1] : Z_95;
+        return t * Math.sqrt(variance / _count);
+    }
+
+    /**
+     * Write the current estimate into the benchmark result info.
+     * @param info BenchmarkRunResult info map.
+     */
+    public synchronized void writeInfo(Map<String, String> info){
+        Objects.requireNonNull(info);
+        var halfWidth = getHalfWidth();
+        info.put(INFO_STOPPED_EARLY, Boolean.toString(_isConverged));
+        info.put(INFO_SAMPLES, Long.toString(_count));
+        info.put(INFO_MEAN, Double.toString(_mean));
+        info.put(INFO_CI, Double.toString(halfWidth));
+        info.put(INFO_CI_RELATIVE, Double.toString(_mean > 0 ? halfWidth / _mean : Double.POSITIVE_INFINITY));
+    }
+}
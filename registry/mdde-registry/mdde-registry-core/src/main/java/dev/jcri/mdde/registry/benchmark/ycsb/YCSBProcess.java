@@ -0,0 +1,124 @@
+package dev.jcri.mdde.registry.benchmark.ycsb;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Running YCSB process.
+ *
+ * YCSB is started through a shell wrapper script that spawns the client JVM, so terminating the run means terminating
+ * the whole process tree: the JVM keeps the output pipe open and keeps running as an orphan if only the wrapper is
+ * destroyed.
+ */
+final class YCSBProcess {
+    private static final Logger logger = LogManager.getLogger(YCSBProcess.class);
+    /**
+     * Time given to the processes to exit after the graceful and after the forcible termination (ms)
+     */
+    static final long TERMINATION_TIMEOUT = 5000;
+    /**
+     * New line separator specific to the current OS
+     */
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final Process _process;
+
+    private YCSBProcess(Process process){
+        _process = process;
+    }
+
+    /**
+     * Start the process, stderr is merged into the stdout
+     * @param processBuilder Configured process builder
+     * @return Started process
+     * @throws IOException Failure to start the process
+     */
+    static YCSBProcess start(ProcessBuilder processBuilder) throws IOException {
+        Objects.requireNonNull(processBuilder, "processBuilder can't be null");
+        return new YCSBProcess(processBuilder.redirectErrorStream(true).start());
+    }
+
+    /**
+     * Read the process output until it ends, passing every line to the handler as soon as it's read
+     * @param lineHandler Output line handler, if it returns True, the process tree is terminated. May be null.
+     * @return Complete output
+     * @throws IOException Failure to read the output
+     */
+    String readOutput(Predicate<String> lineHandler) throws IOException {
+        StringBuilder result = new StringBuilder(700);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(_process.getInputStream())))
+        {
+            while (true)
+            {
+                String line = in.readLine();
+                if (line == null)
+                    break;
+                result.append(line).append(NEWLINE);
+                if(lineHandler != null && _process.isAlive() && lineHandler.test(line)){
+                    logger.info("Terminating YCSB run on request of the output handler");
+                    terminate();
+                    break;
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Terminate the process and all of its descendants. The descendants are destroyed first, while they're still
+     * reachable from the wrapper process. Processes that don't exit within {@link #TERMINATION_TIMEOUT} are destroyed
+     * forcibly. Safe to call from any thread and more than once.
+     */
+    void terminate(){
+        List<ProcessHandle> descendants = _process.descendants().collect(Collectors.toList());
+        descendants.forEach(ProcessHandle::destroy);
+        _process.destroy();
+        if(awaitExit(descendants)){
+            return;
+        }
+        logger.warn("YCSB processes didn't exit in {} ms, destroying forcibly", TERMINATION_TIMEOUT);
+        descendants.forEach(ProcessHandle::destroyForcibly);
+        _process.destroyForcibly();
+        if(!awaitExit(descendants)){
+            logger.error("YCSB process {} didn't exit after the forcible termination", _process.pid());
+        }
+    }
+
+    /**
+     * Wait for the process and its descendants to exit
+     * @param descendants Descendants of the process collected before the termination
+     * @return True - all of the processes exited within {@link #TERMINATION_TIMEOUT}
+     */
+    private boolean awaitExit(List<ProcessHandle> descendants){
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TERMINATION_TIMEOUT);
+        try {
+            if(!_process.waitFor(TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS)){
+                return false;
+            }
+            for(var descendant: descendants){
+                var remaining = deadline - System.nanoTime();
+                if(remaining <= 0){
+                    return !descendant.isAlive();
+                }
+                descendant.onExit().get(remaining, TimeUnit.NANOSECONDS);
+            }
+            return true;
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (Exception e){
+            return descendants.stream().noneMatch(ProcessHandle::isAlive) && !_process.isAlive();
+        }
+    }
+}
@@ -2,8 +2,11 @@ package dev.jcri.mdde.registry.benchmark.ycsb;
 
 import dev.jcri.mdde.registry.benchmark.ycsb.cli.YCSBOutput;
 import dev.jcri.mdde.registry.benchmark.ycsb.cli.YCSBOutputParser;
+import dev.jcri.mdde.registry.benchmark.ycsb.cli.YCSBStatusParser;
 import dev.jcri.mdde.registry.benchmark.ycsb.stats.IStatsCollector;
 import dev.jcri.mdde.registry.benchmark.ycsb.stats.IStatsCollectorFactory;
+import dev.jcri.mdde.registry.configuration.benchmark.EarlyStopConfig;
+import dev.jcri.mdde.registry.configuration.benchmark.ResultCacheConfig;
 import dev.jcri.mdde.registry.configuration.benchmark.YCSBConfig;
 import dev.jcri.mdde.registry.exceptions.MddeRegistryException;
 import dev.jcri.mdde.registry.shared.benchmark.ycsb.MDDEClientConfiguration;
@@ -21,16 +24,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Class that runs YCSB and gets the output in the parsed form
  */
 public class YCSBRunner implements Closeable {
     private static final Logger logger = LogManager.getLogger(YCSBRunner.class);
-    /**
-     * New line separator specific to the current OS
-     */
-    private static final String NEWLINE = System.getProperty("line.separator");
     /**
      * Batch executable for YCSB
      */
@@ -56,11 +56,23 @@ public class YCSBRunner implements Closeable {
      * Parser of the YCSB output
      */
     private final YCSBOutputParser _ycsbParser = new YCSBOutputParser();
+    /**
+     * Parser of the periodic YCSB status lines
+     */
+    private final YCSBStatusParser _ycsbStatusParser = new YCSBStatusParser();
 
     private final IStatsCollectorFactory _statsCollectorFactory;
     private IStatsCollector _statsCollector;
 
     private final EYCSBClients _defaultClient;
+    /**
+     * Description of the settings affecting the benchmark results
+     */
+    private final String _runConfiguration;
+    /**
+     * YCSB process currently executed by the runner, null if none
+     */
+    private volatile YCSBProcess _runningProcess = null;
     /**
      * Path to the *folder* where YCSB is located
      * @param ycsbConfig Configuration for YCSB
@@ -94,10 +106,41 @@ public class YCSBRunner implements Closeable {
             throw new IllegalArgumentException(String.format("Unknown YCSB client %s", ycsbConfig.getYcsbClient()));
         }
 
+        _runConfiguration = describeRunConfiguration(ycsbConfig, _defaultClient, nodes);
+
         var configWriter = new MDDEClientConfigurationWriter();
         configWriter.writeConfiguration(getYCSBRunConfig(nodes, connectionProperties), getTempClientConfigFilePath());
     }
 
+    private static String describeRunConfiguration(YCSBConfig ycsbConfig,
+                                                   EYCSBClients client,
+                                                   List<DBNetworkNodesConfiguration> nodes){
+        var description = new StringBuilder();
+        description.append("client=").append(client.getClientName());
+        var earlyStop = ycsbConfig.getEarlyStop();
+        if(earlyStop != null && earlyStop.getEnabled()){
+            description.append("|early_stop=").append(earlyStop.getWarmupSamples())
+                    .append(',').append(earlyStop.getMinSamples())
+                    .append(',').append(earlyStop.getThreshold());
+        }
+        if(nodes != null){
+            for(var node: nodes){
+                description.append("|node=").append(node.getNodeId())
+                        .append('@').append(node.getHost()).append(':').append(node.getPort());
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Settings affecting the benchmark results besides the workload and the number of workers: the YCSB client, early
+     * stopping and the data nodes reached by the clients.
+     * @return Description of the settings.
+     */
+    public String getRunConfiguration(){
+        return _runConfiguration;
+    }
+
     /**
      * Get path to the Temporary MDDE client config file
      * @return Path to the temp config file
@@ -188,6 +231,30 @@ public class YCSBRunner implements Closeable {
         return _ycsbParser.parse(strOutput);
     }
 
+    /**
+     * Settings of the adaptive benchmark runs.
+     * @return Early stopping configuration.
+     */
+    public EarlyStopConfig getEarlyStopConfig(){
+        return _ycsbConfig.getEarlyStop();
+    }
+
+    /**
+     * Settings of the benchmark results cache.
+     * @return Results cache configuration.
+     */
+    public ResultCacheConfig getResultCacheConfig(){
+        return _ycsbConfig.getResultCache();
+    }
+
+    /**
+     * Number of YCSB threads used when the number of workers is not specified for the run.
+     * @return Default number of workers.
+     */
+    public Integer getDefaultWorkers(){
+        return _ycsbConfig.getYcsbWorkerThreads();
+    }
+
     /**
      * Run the specified workload
      * @param workload Selected YCSB workload
@@ -195,6 +262,22 @@ public class YCSBRunner implements Closeable {
      * @throws IOException Error running YCSB (e.g. binary not found or process failing to start)
      */
     public YCSBOutput runWorkload(EYCSBWorkloadCatalog workload, Integer workers) throws IOException {
+        return runWorkload(workload, workers, null);
+    }
+
+    /**
+     * Run the specified workload
+     * @param workload Selected YCSB workload
+     * @param workers Number of YCSB threads, if null the value from the config is used
+     * @param statusListener If not null, YCSB reports its status periodically and every status line is passed to the
+     *                       listener. The run is terminated as soon as the listener requests it, in this case the
+     *                       returned output doesn't contain the final YCSB summary.
+     * @return Parsed YCSB workload run results
+     * @throws IOException Error running YCSB (e.g. binary not found or process failing to start)
+     */
+    public YCSBOutput runWorkload(EYCSBWorkloadCatalog workload,
+                                  Integer workers,
+                                  IYCSBStatusListener statusListener) throws IOException {
         var pathToTempWorkload = Paths.get(_tempSubfolder.toString(), workload.getResourceBaseFileName());
         if(!Files.exists(pathToTempWorkload)) {
             ResourcesTools.copyResourceToFileSystem(workload.getResourceFileName(), pathToTempWorkload);
@@ -208,7 +291,8 @@ public class YCSBRunner implements Closeable {
         return runWorkload(pathToTempWorkload.toString(),
                            getTempClientConfigFilePath().toString(),
                            _defaultClient.getClientName(),
-                           workerThreads);
+                           workerThreads,
+                           statusListener);
     }
 
     /**
@@ -219,7 +303,8 @@ public class YCSBRunner implements Closeable {
     private YCSBOutput runWorkload(String pathToWorkloadFile,
                                   String pathToMDDENodesConfig,
                                   String ycsbClient,
-                                  int threads) throws IOException {
+                                  int threads,
+                                  IYCSBStatusListener statusListener) throws IOException {
         // Example ycsb.bat run mdde.redis -P ..\workloads\workloada -threads 10 -p mdde.redis.configfile=.\\test-config.yml
         var command = String.format("%s run %s -P %s -threads %d -p %s=%s",
                 getYCSBExecutableName(),
@@ -229,6 +314,11 @@ public class YCSBRunner implements Closeable {
                 EMddeArgs.CONFIG_FILE,
                 pathToMDDENodesConfig);
 
+        if(statusListener != null){
+            command += String.format(" -s -p status.interval=%d",
+                    Math.max(1, _ycsbConfig.getStatusInterval()));
+        }
+
         if(_statsCollectorFactory != null){
             _statsCollectorFactory.prepare();
             var additionalParams = _statsCollectorFactory.getYCSBParams();
@@ -248,12 +338,20 @@ public class YCSBRunner implements Closeable {
             }
         }
         logger.debug(command);
-        var strOutput = executeYCSBCommand(_ycsbConfig.getYcsbBin(), command);
+        // Parse the output as it's streamed, status lines are passed to the listener as soon as they're reported
+        final var result = new YCSBOutput();
+        var strOutput = executeYCSBCommand(_ycsbConfig.getYcsbBin(), command, line -> {
+            if(_ycsbParser.parseLine(result, line) || statusListener == null){
+                return false;
+            }
+            var sample = _ycsbStatusParser.tryParse(line);
+            return sample != null && statusListener.onStatus(sample);
+        });
         if(_statsCollectorFactory != null) {
             _statsCollector = _statsCollectorFactory.getStatsCollector();
         }
         logger.info("runWorkload finished:\n\tYCSB OUT START:\n{}\n\tYCSB OUT END", strOutput);
-        return _ycsbParser.parse(strOutput);
+        return result;
     }
 
     /**
@@ -280,6 +378,20 @@ public class YCSBRunner implements Closeable {
         return _statsCollector.getFragmentStats();
     }
 
+    /**
+     * Retrieve whatever stats were collected so far, without waiting for the YCSB clients to finalize them. Used after
+     * the run was terminated early.
+     * @return Statistics collected from YCSB directly per node or null if there is no stats collector
+     * @throws IOException Failed to get access to the collected stats
+     * @throws MddeRegistryException Registry failed to process stats internally
+     */
+    public Collection<BenchmarkNodeStats> getPartialStats() throws IOException, MddeRegistryException {
+        if(_statsCollector == null){
+            return null;
+        }
+        return _statsCollector.getFragmentStats();
+    }
+
     /**
      * Cleanup
      * @throws IOException Failure to remove temporary files or folders
@@ -307,24 +419,48 @@ public class YCSBRunner implements Closeable {
     }
 
     private String executeYCSBCommand(String pathToYCSBFolder, String command) throws IOException {
+        return executeYCSBCommand(pathToYCSBFolder, command, null);
+    }
+
+    /**
+     * Execute YCSB and pass every line of its output to the handler as soon as it's read.
+     * @param pathToYCSBFolder YCSB bin folder.
+     * @param command Command line.
+     * @param lineHandler Output line handler, if it returns True, the YCSB process tree is terminated.
+     * @return Complete YCSB output.
+     * @throws IOException Failure to start the process or read its output.
+     */
+    private String executeYCSBCommand(String pathToYCSBFolder,
+                                      String command,
+                                      Predicate<String> lineHandler) throws IOException {
         var pbArgs = command.split(" ");
-        ProcessBuilder pb = new ProcessBuilder(pbArgs).redirectErrorStream(true);
+        ProcessBuilder pb = new ProcessBuilder(pbArgs);
         var ycsbAbsolutePath = Paths.get(pathToYCSBFolder).normalize().toAbsolutePath().toString();
         logger.trace("Looking fot YCSB bin in {}", ycsbAbsolutePath);
         pb.directory(new File(ycsbAbsolutePath));
-        Process process = pb.start();
-        StringBuilder result = new StringBuilder(700);
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream())))
-        {
-            while (true)
-            {
-                String line = in.readLine();
-                if (line == null)
-                    break;
-                result.append(line).append(NEWLINE);
-            }
+        var process = YCSBProcess.start(pb);
+        _runningProcess = process;
+        try {
+            return process.readOutput(lineHandler);
+        }
+        finally {
+            _runningProcess = null;
+        }
+    }
+
+    /**
+     * Terminate the process tree of the currently executed YCSB command, if any. The command returns the output read
+     * so far.
+     * @return True - a running YCSB process was terminated
+     */
+    public boolean terminateRun(){
+        var process = _runningProcess;
+        if(process == null){
+            return false;
         }
-        return result.toString();
+        logger.info("Terminating the running YCSB process");
+        process.terminate();
+        return true;
     }
 
     /**
@@ -17,33 +17,47 @@ public class YCSBOutputParser {
         var result = new YCSBOutput();
         try(Scanner scanner = new Scanner(ycsbOut)) {
             while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                // Skip non relevant output
-                if(!line.startsWith("[")){
-                    continue;
-                }
-                String[] lineComponents = line.split(",", 3);
-                if(lineComponents.length != 3){
-                    continue;
-                }
-                // Top level key
-                var firstLevelKeyString = lineComponents[0].replaceAll("[\\[\\]]", "");
-                var firstLevelKey = EKnownYCSBLines.getCommandTag(firstLevelKeyString);
-                if(firstLevelKey == null){
-                    // Unknown line
-                    continue;
-                }
-                var secondLevelModifier = firstLevelKey.tryToGetModifier(lineComponents[1].trim());
-                if(secondLevelModifier == null){
-                    // Unknown modifier
-                    continue;
-                }
-                var valueString = lineComponents[2];
-                var value = Double.valueOf(valueString);
-
-                secondLevelModifier.getSetter().accept(result,value);
+                parseLine(result, scanner.nextLine());
             }
         }
         return result;
     }
+
+    /**
+     * Process a single line of the YCSB output, allows parsing the output as it's streamed from the running process.
+     * @param result Container where the recognized values are set.
+     * @param ycsbOutLine Line of the YCSB output.
+     * @return True - the line contained a known value.
+     */
+    public boolean parseLine(YCSBOutput result, String ycsbOutLine){
+        if(ycsbOutLine == null){
+            return false;
+        }
+        String line = ycsbOutLine.trim();
+        // Skip non relevant output
+        if(!line.startsWith("[")){
+            return false;
+        }
+        String[] lineComponents = line.split(",", 3);
+        if(lineComponents.length != 3){
+            return false;
+        }
+        // Top level key
+        var firstLevelKeyString = lineComponents[0].replaceAll("[\\[\\]]", "");
+        var firstLevelKey = EKnownYCSBLines.getCommandTag(firstLevelKeyString);
+        if(firstLevelKey == null){
+            // Unknown line
+            return false;
+        }
+        var secondLevelModifier = firstLevelKey.tryToGetModifier(lineComponents[1].trim());
+        if(secondLevelModifier == null){
+            // Unknown modifier
+            return false;
+        }
+        var valueString = lineComponents[2];
+        var value = Double.valueOf(valueString);
+
+        secondLevelModifier.getSetter().accept(result,value);
+        return true;
+    }
 }
@@ -0,0 +1,53 @@
+package dev.jcri.mdde.registry.benchmark.ycsb.cli;
+
+import java.util.regex.Pattern;
+
+/**
+ * Parse the periodic status lines YCSB writes while the workload is running (-s flag).
+ * Example:
+ * 2020-05-01 10:12:56:730 10 sec: 53458 operations; 5345.8 current ops/sec; [READ: Count=53459, ..., Avg=1.34, ...]
+ */
+public class YCSBStatusParser {
+    private static final Pattern STATUS_PATTERN =
+            Pattern.compile("(\\d+) sec: (\\d+) operations;(?: (\\d+(?:[.,]\\d+)?) current ops/sec;)?");
+    private static final Pattern READ_LATENCY_PATTERN =
+            Pattern.compile("\\[READ:? [^\\]]*?(?:Avg|AverageLatency\\(us\\))=(\\d+(?:[.,]\\d+)?)");
+
+    /**
+     * Try parsing a line of the YCSB output as a status line.
+     * @param line Line of the YCSB output.
+     * @return Parsed sample or null if the line is not a status line.
+     */
+    public YCSBStatusSample tryParse(String line){
+        if(line == null){
+            return null;
+        }
+        var statusMatcher = STATUS_PATTERN.matcher(line);
+        if(!statusMatcher.find()){
+            return null;
+        }
+        try {
+            var elapsed = Long.parseLong(statusMatcher.group(1));
+            var operations = Long.parseLong(statusMatcher.group(2));
+            var throughput = statusMatcher.group(3) != null ? parseDecimal(statusMatcher.group(3)) : -1.0;
+            var readLatency = -1.0;
+            var latencyMatcher = READ_LATENCY_PATTERN.matcher(line);
+            if (latencyMatcher.find(statusMatcher.end())) {
+                readLatency = parseDecimal(latencyMatcher.group(1));
+            }
+            return new YCSBStatusSample(elapsed, operations, throughput, readLatency);
+        }
+        catch (NumberFormatException e){
+            return null;
+        }
+    }
+
+    /**
+     * YCSB formats decimals with the default locale of the JVM it runs in.
+     * @param value Formatted value.
+     * @return Parsed value.
+     */
+    private double parseDecimal(String value){
+        return Double.parseDouble(value.replace(',', '.'));
+    }
+}
@@ -0,0 +1,49 @@
+package dev.jcri.mdde.registry.benchmark.ycsb.cli;
+
+/**
+ * A single periodic status line reported by YCSB when it's started with the -s flag.
+ */
+public final class YCSBStatusSample {
+    /**
+     * Seconds since the start of the run
+     */
+    private final long _elapsedSeconds;
+    /**
+     * Total number of operations performed so far
+     */
+    private final long _operations;
+    /**
+     * Throughput over the last status interval (ops/sec), -1 if not reported
+     */
+    private final double _currentThroughput;
+    /**
+     * Average READ latency (us) reported in the status line, -1 if not reported
+     */
+    private final double _readLatencyAverage;
+
+    public YCSBStatusSample(long elapsedSeconds,
+                            long operations,
+                            double currentThroughput,
+                            double readLatencyAverage) {
+        _elapsedSeconds = elapsedSeconds;
+        _operations = operations;
+        _currentThroughput = currentThroughput;
+        _readLatencyAverage = readLatencyAverage;
+    }
+
+    public long getElapsedSeconds() {
+        return _elapsedSeconds;
+    }
+
+    public long getOperations() {
+        return _operations;
+    }
+
+    public double getCurrentThroughput() {
+        return _currentThroughput;
+    }
+
+    public double getReadLatencyAverage() {
+        return _readLatencyAverage;
+    }
+}
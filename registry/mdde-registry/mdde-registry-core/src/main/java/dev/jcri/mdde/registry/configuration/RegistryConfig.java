@@ -2,6 +2,7 @@ package dev.jcri.mdde.registry.configuration;
 
 import dev.jcri.mdde.registry.configuration.benchmark.StatsConfig;
 import dev.jcri.mdde.registry.configuration.benchmark.YCSBConfig;
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
 import dev.jcri.mdde.registry.shared.configuration.DBNetworkNodesConfiguration;
 
 import com.fasterxml.jackson.annotation.JsonGetter;
@@ -26,6 +27,7 @@ public class RegistryConfig<TStore> {
     public static final String BENCHMARK_YCSB_FIELD = "bench_ycsb";
     public static final String BENCHMARK_STATS_CONFIG = "bench_stats";
     public static final String SNAPSHOTS_FOLDER_FIELD = "snapshot_dir";
+    public static final String SHUFFLE_FIELD = "shuffle";
      /**
      * Configuration for the registry storage
      */
@@ -46,6 +48,10 @@ public class RegistryConfig<TStore> {
      * Configuration of the statistics gathering
      */
     private StatsConfig statsConfig;
+    /**
+     * Data shuffle queue execution settings
+     */
+    private ShuffleConfig _shuffle = new ShuffleConfig();
 
     @JsonGetter(REGISTRY_STORE_FIELD)
     public TStore getRegistryStore() {
@@ -93,4 +99,13 @@ public class RegistryConfig<TStore> {
     public void setStatsConfig(StatsConfig statsConfig) {
         this.statsConfig = statsConfig;
     }
+
+    @JsonGetter(SHUFFLE_FIELD)
+    public ShuffleConfig getShuffle() {
+        return _shuffle;
+    }
+    @JsonSetter(SHUFFLE_FIELD)
+    public void setShuffle(ShuffleConfig shuffle) {
+        this._shuffle = shuffle;
+    }
 }
@@ -0,0 +1,77 @@
+package dev.jcri.mdde.registry.configuration.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+/**
+ * Settings of the adaptive (early-stopping) benchmark run.
+ *
+ * When enabled, every periodic YCSB status line is treated as a throughput sample. The run is stopped as soon as the
+ * relative half-width of the 95% confidence interval of the mean throughput falls below the threshold.
+ */
+@JsonPropertyOrder({
+        EarlyStopConfig.ENABLED_FIELD,
+        EarlyStopConfig.WARMUP_SAMPLES_FIELD,
+        EarlyStopConfig.MIN_SAMPLES_FIELD,
+        EarlyStopConfig.THRESHOLD_FIELD
+})
+public class EarlyStopConfig {
+    public static final String ENABLED_FIELD = "enabled";
+    public static final String WARMUP_SAMPLES_FIELD = "warmup";
+    public static final String MIN_SAMPLES_FIELD = "min_samples";
+    public static final String THRESHOLD_FIELD = "threshold";
+
+    /**
+     * Early stopping is enabled
+     */
+    private boolean _enabled = false;
+    /**
+     * Number of the first non-empty samples that are ignored
+     */
+    private int _warmupSamples = 3;
+    /**
+     * Minimum number of samples before the run can be stopped
+     */
+    private int _minSamples = 5;
+    /**
+     * Relative half-width of the confidence interval (half-width / mean) at which the run is stopped
+     */
+    private double _threshold = 0.05;
+
+    @JsonGetter(ENABLED_FIELD)
+    public boolean getEnabled() {
+        return _enabled;
+    }
+    @JsonSetter(ENABLED_FIELD)
+    public void setEnabled(boolean enabled) {
+        this._enabled = enabled;
+    }
+
+    @JsonGetter(WARMUP_SAMPLES_FIELD)
+    public int getWarmupSamples() {
+        return _warmupSamples;
+    }
+    @JsonSetter(WARMUP_SAMPLES_FIELD)
+    public void setWarmupSamples(int warmupSamples) {
+        this._warmupSamples = warmupSamples;
+    }
+
+    @JsonGetter(MIN_SAMPLES_FIELD)
+    public int getMinSamples() {
+        return _minSamples;
+    }
+    @JsonSetter(MIN_SAMPLES_FIELD)
+    public void setMinSamples(int minSamples) {
+        this._minSamples = minSamples;
+    }
+
+    @JsonGetter(THRESHOLD_FIELD)
+    public double getThreshold() {
+        return _threshold;
+    }
+    @JsonSetter(THRESHOLD_FIELD)
+    public void setThreshold(double threshold) {
+        this._threshold = threshold;
+    }
+}
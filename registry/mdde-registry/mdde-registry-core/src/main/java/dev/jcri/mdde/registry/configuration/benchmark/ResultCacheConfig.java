@@ -0,0 +1,62 @@
+package dev.jcri.mdde.registry.configuration.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+/**
+ * Settings of the benchmark results cache.
+ *
+ * When enabled, results of the successful benchmark runs are memorized per allocation fingerprint, workload and number
+ * of workers. A subsequent run over the same allocation returns the memorized result without executing YCSB.
+ */
+@JsonPropertyOrder({
+        ResultCacheConfig.ENABLED_FIELD,
+        ResultCacheConfig.SIZE_FIELD,
+        ResultCacheConfig.FILE_FIELD
+})
+public class ResultCacheConfig {
+    public static final String ENABLED_FIELD = "enabled";
+    public static final String SIZE_FIELD = "size";
+    public static final String FILE_FIELD = "file";
+
+    /**
+     * Cache is enabled
+     */
+    private boolean _enabled = false;
+    /**
+     * Maximum number of the memorized results, the least recently used are evicted first
+     */
+    private int _size = 1024;
+    /**
+     * File where the cache is persisted between the registry restarts, null to keep the cache only in memory
+     */
+    private String _file = null;
+
+    @JsonGetter(ENABLED_FIELD)
+    public boolean getEnabled() {
+        return _enabled;
+    }
+    @JsonSetter(ENABLED_FIELD)
+    public void setEnabled(boolean enabled) {
+        this._enabled = enabled;
+    }
+
+    @JsonGetter(SIZE_FIELD)
+    public int getSize() {
+        return _size;
+    }
+    @JsonSetter(SIZE_FIELD)
+    public void setSize(int size) {
+        this._size = size;
+    }
+
+    @JsonGetter(FILE_FIELD)
+    public String getFile() {
+        return _file;
+    }
+    @JsonSetter(FILE_FIELD)
+    public void setFile(String file) {
+        this._file = file;
+    }
+}
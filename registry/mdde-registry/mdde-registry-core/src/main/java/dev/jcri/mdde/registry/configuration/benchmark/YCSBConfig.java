@@ -10,13 +10,19 @@ import java.nio.file.Paths;
         YCSBConfig.YCSB_BIN_FIELD,
         YCSBConfig.YCSB_CLIENT_FILED,
         YCSBConfig.YCSB_CLIENT_THREADS_FIELD,
-        YCSBConfig.REGISTRY_TEMP_FOLDER_FIELD
+        YCSBConfig.REGISTRY_TEMP_FOLDER_FIELD,
+        YCSBConfig.STATUS_INTERVAL_FIELD,
+        YCSBConfig.EARLY_STOP_FIELD,
+        YCSBConfig.RESULT_CACHE_FIELD
 })
 public class YCSBConfig {
     public static final String YCSB_BIN_FIELD = "bin";
     public static final String YCSB_CLIENT_FILED = "client";
     public static final String YCSB_CLIENT_THREADS_FIELD = "workers";
     public static final String REGISTRY_TEMP_FOLDER_FIELD = "temp";
+    public static final String STATUS_INTERVAL_FIELD = "status_interval";
+    public static final String EARLY_STOP_FIELD = "early_stop";
+    public static final String RESULT_CACHE_FIELD = "result_cache";
     /**
      * Folder where MDDE-registry creates its temporary files (such as temp YCSB configs)
      */
@@ -34,6 +40,21 @@ public class YCSBConfig {
 
     private Integer _ycsbWorkerThreads = 1;
 
+    /**
+     * Interval in seconds of the YCSB status reporting during the workload run
+     */
+    private int _statusInterval = 1;
+
+    /**
+     * Adaptive run settings, early stopping is disabled by default
+     */
+    private EarlyStopConfig _earlyStop = new EarlyStopConfig();
+
+    /**
+     * Benchmark results cache settings, the cache is disabled by default
+     */
+    private ResultCacheConfig _resultCache = new ResultCacheConfig();
+
     @JsonGetter(YCSB_BIN_FIELD)
     public String getYcsbBin() {
         return _ycsbBin;
@@ -78,4 +99,31 @@ public class YCSBConfig {
     public void setYcsbWorkerThreads(Integer ycsbWorkerThreads) {
         this._ycsbWorkerThreads = ycsbWorkerThreads;
     }
+
+    @JsonGetter(STATUS_INTERVAL_FIELD)
+    public int getStatusInterval() {
+        return _statusInterval;
+    }
+    @JsonSetter(STATUS_INTERVAL_FIELD)
+    public void setStatusInterval(int statusInterval) {
+        this._statusInterval = statusInterval;
+    }
+
+    @JsonGetter(EARLY_STOP_FIELD)
+    public EarlyStopConfig getEarlyStop() {
+        return _earlyStop;
+    }
+    @JsonSetter(EARLY_STOP_FIELD)
+    public void setEarlyStop(EarlyStopConfig earlyStop) {
+        this._earlyStop = earlyStop != null ? earlyStop : new EarlyStopConfig();
+    }
+
+    @JsonGetter(RESULT_CACHE_FIELD)
+    public ResultCacheConfig getResultCache() {
+        return _resultCache;
+    }
+    @JsonSetter(RESULT_CACHE_FIELD)
+    public void setResultCache(ResultCacheConfig resultCache) {
+        this._resultCache = resultCache != null ? resultCache : new ResultCacheConfig();
+    }
 }
@@ -0,0 +1,313 @@
+package dev.jcri.mdde.registry.configuration.shuffle;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+/**
+ * Settings of the data shuffle queue execution.
+ *
+ * The queue is executed in windows of {@link #getBatch()} actions. Actions within a window that don't touch the same
+ * tuples on the same nodes run concurrently. If {@link #getCompact()} is set, every window is reduced to the net data
+ * movement before the execution.
+ *
+ * If {@link #getBackground()} is set, the queue is continuously executed by a background worker while the registry is
+ * in the shuffle mode, at most {@link #getBackgroundRate()} actions per second.
+ *
+ * With the {@link #DATA_PLANE_VIRTUAL} data plane, the data nodes are logical and the queued actions only change
+ * the registry.
+ *
+ * Data snapshots of the nodes are dumped and restored concurrently by up to {@link #getSnapshotThreads()} threads.
+ */
+@JsonPropertyOrder({
+        ShuffleConfig.THREADS_FIELD,
+        ShuffleConfig.PER_NODE_FIELD,
+        ShuffleConfig.BATCH_FIELD,
+        ShuffleConfig.COMPACT_FIELD,
+        ShuffleConfig.COPY_FIELD,
+        ShuffleConfig.COPY_BATCH_FIELD,
+        ShuffleConfig.MIGRATE_TIMEOUT_FIELD,
+        ShuffleConfig.COPY_CHUNK_FIELD,
+        ShuffleConfig.COPY_IN_FLIGHT_BYTES_FIELD,
+        ShuffleConfig.BACKGROUND_FIELD,
+        ShuffleConfig.BACKGROUND_RATE_FIELD,
+        ShuffleConfig.BACKGROUND_IDLE_FIELD,
+        ShuffleConfig.DATA_PLANE_FIELD,
+        ShuffleConfig.CANONICAL_NODE_FIELD,
+        ShuffleConfig.SNAPSHOT_THREADS_FIELD,
+        ShuffleConfig.SNAPSHOT_SCAN_FIELD,
+        ShuffleConfig.SNAPSHOT_BATCH_BYTES_FIELD
+})
+public class ShuffleConfig {
+    public static final String THREADS_FIELD = "threads";
+    public static final String PER_NODE_FIELD = "per_node";
+    public static final String BATCH_FIELD = "batch";
+    public static final String COMPACT_FIELD = "compact";
+    public static final String COPY_FIELD = "copy";
+    public static final String COPY_BATCH_FIELD = "copy_batch";
+    public static final String MIGRATE_TIMEOUT_FIELD = "migrate_timeout";
+    public static final String COPY_CHUNK_FIELD = "copy_chunk";
+    public static final String COPY_IN_FLIGHT_BYTES_FIELD = "copy_in_flight_bytes";
+    public static final String BACKGROUND_FIELD = "background";
+    public static final String BACKGROUND_RATE_FIELD = "background_rate";
+    public static final String BACKGROUND_IDLE_FIELD = "background_idle";
+    public static final String DATA_PLANE_FIELD = "data_plane";
+    public static final String CANONICAL_NODE_FIELD = "canonical_node";
+    public static final String SNAPSHOT_THREADS_FIELD = "snapshot_threads";
+    public static final String SNAPSHOT_SCAN_FIELD = "snapshot_scan";
+    public static final String SNAPSHOT_BATCH_BYTES_FIELD = "snapshot_batch_bytes";
+
+    /**
+     * Tuples are moved directly between the data nodes with MIGRATE ... COPY REPLACE, falls back to
+     * {@link #COPY_DUMP} for the node pairs where MIGRATE fails. Data nodes must be able to reach each other at the
+     * configured addresses.
+     */
+    public static final String COPY_MIGRATE = "migrate";
+    /**
+     * Serialized values are moved through the registry with pipelined DUMP / RESTORE
+     */
+    public static final String COPY_DUMP = "dump";
+    /**
+     * Values are read and written by their Redis type. Collections are streamed in chunks (SSCAN/SADD, LRANGE/RPUSH,
+     * HSCAN/HSET), so the registry memory use doesn't depend on the size of the values.
+     */
+    public static final String COPY_VALUES = "values";
+
+    /**
+     * Every data node holds the physical copies of the fragments allocated to it in the registry
+     */
+    public static final String DATA_PLANE_PHYSICAL = "physical";
+    /**
+     * Every record is stored once in the instance of the canonical node. The benchmark clients reach the canonical
+     * instance under the IDs of all of the nodes, while the reads are still routed and accounted by the registry
+     * allocation. Replication and removal of the fragments don't move any data. Data must be loaded in the same mode
+     * it's benchmarked in. For the same reason, a data snapshot can only be restored with the data plane it was
+     * taken with: a physical snapshot holds every data node, a virtual one only the canonical node. The data plane is
+     * recorded in the snapshot and a mismatch fails the restore.
+     */
+    public static final String DATA_PLANE_VIRTUAL = "virtual";
+
+    /**
+     * Maximum number of actions executed at the same time
+     */
+    private int _threads = 8;
+    /**
+     * Maximum number of actions touching the same data node executed at the same time
+     */
+    private int _perNode = 2;
+    /**
+     * Maximum number of actions taken from the queue at a time
+     */
+    private int _batch = 1024;
+    /**
+     * Cancel and merge the queued actions before the execution
+     */
+    private boolean _compact = true;
+    /**
+     * Tuples copy strategy
+     */
+    private String _copy = COPY_MIGRATE;
+    /**
+     * Maximum number of keys copied in a single MIGRATE or DUMP/RESTORE pipeline
+     */
+    private int _copyBatch = 100;
+    /**
+     * MIGRATE timeout (ms)
+     */
+    private int _migrateTimeout = 5000;
+    /**
+     * Number of the collection items read at a time by the {@link #COPY_VALUES} copy
+     */
+    private int _copyChunk = 1000;
+    /**
+     * Maximum size of the collection items written by the {@link #COPY_VALUES} copy but not yet acknowledged by
+     * the destination (bytes)
+     */
+    private long _copyInFlightBytes = 4 * 1024 * 1024;
+    /**
+     * Execute the queue in the background
+     */
+    private boolean _background = false;
+    /**
+     * Maximum number of actions executed by the background worker per second, 0 - unlimited
+     */
+    private int _backgroundRate = 0;
+    /**
+     * Interval between the checks of an empty queue by the background worker (ms)
+     */
+    private int _backgroundIdle = 100;
+    /**
+     * Data plane mode
+     */
+    private String _dataPlane = DATA_PLANE_PHYSICAL;
+    /**
+     * ID of the node storing the records with the {@link #DATA_PLANE_VIRTUAL} data plane, null - the first configured
+     * node
+     */
+    private String _canonicalNode = null;
+    /**
+     * Maximum number of the data nodes dumped or restored at the same time, 0 - all of the nodes
+     */
+    private int _snapshotThreads = 0;
+    /**
+     * SCAN COUNT hint used when dumping the data nodes, the keys of a SCAN page are dumped in a single pipeline
+     */
+    private int _snapshotScan = 1000;
+    /**
+     * Size of the serialized values restored in a single pipeline (bytes)
+     */
+    private long _snapshotBatchBytes = 4 * 1024 * 1024;
+
+    @JsonGetter(THREADS_FIELD)
+    public int getThreads() {
+        return _threads;
+    }
+    @JsonSetter(THREADS_FIELD)
+    public void setThreads(int threads) {
+        this._threads = threads;
+    }
+
+    @JsonGetter(PER_NODE_FIELD)
+    public int getPerNode() {
+        return _perNode;
+    }
+    @JsonSetter(PER_NODE_FIELD)
+    public void setPerNode(int perNode) {
+        this._perNode = perNode;
+    }
+
+    @JsonGetter(BATCH_FIELD)
+    public int getBatch() {
+        return _batch;
+    }
+    @JsonSetter(BATCH_FIELD)
+    public void setBatch(int batch) {
+        this._batch = batch;
+    }
+
+    @JsonGetter(COMPACT_FIELD)
+    public boolean getCompact() {
+        return _compact;
+    }
+    @JsonSetter(COMPACT_FIELD)
+    public void setCompact(boolean compact) {
+        this._compact = compact;
+    }
+
+    @JsonGetter(COPY_FIELD)
+    public String getCopy() {
+        return _copy;
+    }
+    @JsonSetter(COPY_FIELD)
+    public void setCopy(String copy) {
+        this._copy = copy;
+    }
+
+    @JsonGetter(COPY_BATCH_FIELD)
+    public int getCopyBatch() {
+        return _copyBatch;
+    }
+    @JsonSetter(COPY_BATCH_FIELD)
+    public void setCopyBatch(int copyBatch) {
+        this._copyBatch = copyBatch;
+    }
+
+    @JsonGetter(MIGRATE_TIMEOUT_FIELD)
+    public int getMigrateTimeout() {
+        return _migrateTimeout;
+    }
+    @JsonSetter(MIGRATE_TIMEOUT_FIELD)
+    public void setMigrateTimeout(int migrateTimeout) {
+        this._migrateTimeout = migrateTimeout;
+    }
+
+    @JsonGetter(COPY_CHUNK_FIELD)
+    public int getCopyChunk() {
+        return _copyChunk;
+    }
+    @JsonSetter(COPY_CHUNK_FIELD)
+    public void setCopyChunk(int copyChunk) {
+        this._copyChunk = copyChunk;
+    }
+
+    @JsonGetter(COPY_IN_FLIGHT_BYTES_FIELD)
+    public long getCopyInFlightBytes() {
+        return _copyInFlightBytes;
+    }
+    @JsonSetter(COPY_IN_FLIGHT_BYTES_FIELD)
+    public void setCopyInFlightBytes(long copyInFlightBytes) {
+        this._copyInFlightBytes = copyInFlightBytes;
+    }
+
+    @JsonGetter(BACKGROUND_FIELD)
+    public boolean getBackground() {
+        return _background;
+    }
+    @JsonSetter(BACKGROUND_FIELD)
+    public void setBackground(boolean background) {
+        this._background = background;
+    }
+
+    @JsonGetter(BACKGROUND_RATE_FIELD)
+    public int getBackgroundRate() {
+        return _backgroundRate;
+    }
+    @JsonSetter(BACKGROUND_RATE_FIELD)
+    public void setBackgroundRate(int backgroundRate) {
+        this._backgroundRate = backgroundRate;
+    }
+
+    @JsonGetter(BACKGROUND_IDLE_FIELD)
+    public int getBackgroundIdle() {
+        return _backgroundIdle;
+    }
+    @JsonSetter(BACKGROUND_IDLE_FIELD)
+    public void setBackgroundIdle(int backgroundIdle) {
+        this._backgroundIdle = backgroundIdle;
+    }
+
+    @JsonGetter(DATA_PLANE_FIELD)
+    public String getDataPlane() {
+        return _dataPlane;
+    }
+    @JsonSetter(DATA_PLANE_FIELD)
+    public void setDataPlane(String dataPlane) {
+        this._dataPlane = dataPlane;
+    }
+
+    @JsonGetter(CANONICAL_NODE_FIELD)
+    public String getCanonicalNode() {
+        return _canonicalNode;
+    }
+    @JsonSetter(CANONICAL_NODE_FIELD)
+    public void setCanonicalNode(String canonicalNode) {
+        this._canonicalNode = canonicalNode;
+    }
+
+    @JsonGetter(SNAPSHOT_THREADS_FIELD)
+    public int getSnapshotThreads() {
+        return _snapshotThreads;
+    }
+    @JsonSetter(SNAPSHOT_THREADS_FIELD)
+    public void setSnapshotThreads(int snapshotThreads) {
+        this._snapshotThreads = snapshotThreads;
+    }
+
+    @JsonGetter(SNAPSHOT_SCAN_FIELD)
+    public int getSnapshotScan() {
+        return _snapshotScan;
+    }
+    @JsonSetter(SNAPSHOT_SCAN_FIELD)
+    public void setSnapshotScan(int snapshotScan) {
+        this._snapshotScan = snapshotScan;
+    }
+
+    @JsonGetter(SNAPSHOT_BATCH_BYTES_FIELD)
+    public long getSnapshotBatchBytes() {
+        return _snapshotBatchBytes;
+    }
+    @JsonSetter(SNAPSHOT_BATCH_BYTES_FIELD)
+    public void setSnapshotBatchBytes(long snapshotBatchBytes) {
+        this._snapshotBatchBytes = snapshotBatchBytes;
+    }
+}
@@ -1,10 +1,13 @@
 package dev.jcri.mdde.registry.control;
 
 import dev.jcri.mdde.registry.control.exceptions.CommandException;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
 import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
 import dev.jcri.mdde.registry.exceptions.MddeRegistryException;
 import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
 import dev.jcri.mdde.registry.store.exceptions.UnknownRegistryCommandExceptions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -42,6 +45,8 @@ public abstract class CommandParserControlBase<TOut, TArgs>
                     return _serializer.serialize(processSetShuffleState());
                 case RUN_SHUFFLE:
                     return _serializer.serialize(syncDataFromRegistryToNodes());
+                case SHUFFLE_BARRIER:
+                    return _serializer.serialize(processShuffleBarrier());
                 case GET_REGISTRY_MODE:
                     return _serializer.serialize(processGetRegistryMode());
                 case INIT_NODES:
@@ -60,6 +65,21 @@ public abstract class CommandParserControlBase<TOut, TArgs>
                     return _serializer.serialize(processInitCounterfeitBenchmark());
                 case COUNTERFEIT_BENCHMARK:
                     return _serializer.serialize(processGetCounterfeitBenchmark(arguments));
+                case TRACE_CAPTURE:
+                    return _serializer.serialize(processSetTraceCapture(arguments));
+                case TRACE_REPLAY:
+                    return _serializer.serialize(processGetReplayBenchmark());
+                case COUNTERFEIT_CANDIDATES:
+                    return _serializer.serialize(processGetCounterfeitCandidates(arguments));
+                case ABORT_BENCHMARK:
+                    return _serializer.serialize(processAbortBenchmark());
+                case GET_METRICS:
+                    return _serializer.serialize(processGetMetrics());
+                case SUBSCRIBE:
+                case UNSUBSCRIBE:
+                    // Subscriptions belong to the connection and are handled by the transport
+                    throw new MalformedCommandStatementException(
+                            String.format("%s is only available directly on a control connection", command.getCommand()));
                 default:
                     throw new UnknownRegistryCommandExceptions(command.toString());
             }
@@ -72,7 +92,7 @@ public abstract class CommandParserControlBase<TOut, TArgs>
 
     protected abstract Set<String> processInitDefaultNodes() throws MddeRegistryException;
 
-    protected abstract Boolean processSetBenchmarkState() throws MddeRegistryException;
+    protected abstract Boolean processSetBenchmarkState() throws MddeRegistryException, IOException;
 
     protected abstract Boolean processSetShuffleState() throws IOException, MddeRegistryException;
 
@@ -82,6 +102,8 @@ public abstract class CommandParserControlBase<TOut, TArgs>
 
     protected abstract Boolean syncDataFromRegistryToNodes() throws IOException;
 
+    protected abstract Boolean processShuffleBarrier() throws IOException, MddeRegistryException;
+
     protected abstract String processExecuteBenchmarkCommand(TArgs arguments) throws MddeRegistryException;
 
     protected abstract boolean processLoadDataCommand(TArgs arguments) throws MddeRegistryException;
@@ -97,4 +119,15 @@ public abstract class CommandParserControlBase<TOut, TArgs>
     protected abstract boolean processInitCounterfeitBenchmark();
 
     protected abstract BenchmarkStatus processGetCounterfeitBenchmark(TArgs arguments) throws CommandException;
+
+    protected abstract boolean processSetTraceCapture(TArgs arguments) throws CommandException;
+
+    protected abstract BenchmarkStatus processGetReplayBenchmark() throws MddeRegistryException, IOException;
+
+    protected abstract boolean processAbortBenchmark();
+
+    protected abstract BenchmarkCandidatesResult processGetCounterfeitCandidates(TArgs arguments)
+            throws CommandException;
+
+    protected abstract RegistryMetricsSnapshot processGetMetrics();
 }
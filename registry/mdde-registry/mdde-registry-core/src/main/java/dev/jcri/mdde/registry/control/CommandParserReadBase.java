@@ -4,6 +4,7 @@ import dev.jcri.mdde.registry.control.exceptions.CommandException;
 import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
 import dev.jcri.mdde.registry.shared.commands.EReadCommand;
 import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
 import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
 import dev.jcri.mdde.registry.store.exceptions.ReadOperationException;
 import dev.jcri.mdde.registry.store.exceptions.UnknownRegistryCommandExceptions;
@@ -58,6 +59,8 @@ public abstract class CommandParserReadBase<TOut, TArgs>
                     return _serializer.serialize(processGetFragmentMetaExemplarValue(arguments));
                 case META_FRAGMENT_GLOBAL:
                     return _serializer.serialize(processGetFragmentMetaGlobalValue(arguments));
+                case GET_PACKED_OBSERVATION:
+                    return _serializer.serialize(processGetPackedObservation(arguments));
                 default:
                     throw new UnknownRegistryCommandExceptions(command.toString());
             }
@@ -106,4 +109,7 @@ public abstract class CommandParserReadBase<TOut, TArgs>
 
     protected abstract String processGetFragmentMetaGlobalValue(TArgs arguments)
             throws CommandException;
+
+    protected abstract PackedObservation processGetPackedObservation(TArgs arguments)
+            throws CommandException;
 }
@@ -0,0 +1,36 @@
+package dev.jcri.mdde.registry.control;
+
+import dev.jcri.mdde.registry.control.command.CommandBatch;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+
+import java.util.List;
+
+/**
+ * Implement this interface with a class that extracts nested statements from the arguments of a BATCH statement and
+ * packs the results of their execution into a single response.
+ * @param <TArgs> Type of the command arguments after split.
+ * @param <TOut> Type of the returned processing values.
+ */
+public interface ICommandBatchCodec<TArgs, TOut> {
+    /**
+     * Split the arguments of a BATCH statement into the nested statements.
+     * @param arguments Arguments of the BATCH statement.
+     * @return Nested statements.
+     * @throws MalformedCommandStatementException Arguments don't contain a valid list of statements.
+     */
+    CommandBatch<TArgs> splitBatch(TArgs arguments) throws MalformedCommandStatementException;
+
+    /**
+     * Check if a serialized result of a nested statement is an error.
+     * @param result Serialized result.
+     * @return True - statement has failed.
+     */
+    boolean isError(TOut result);
+
+    /**
+     * Pack the serialized results of the nested statements into one response.
+     * @param results Results in the order of the statements.
+     * @return Response containing an array of the per-statement results.
+     */
+    TOut joinResults(List<TOut> results);
+}
@@ -0,0 +1,35 @@
+package dev.jcri.mdde.registry.control;
+
+import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
+import dev.jcri.mdde.registry.store.exceptions.WriteOperationException;
+
+/**
+ * Implement this interface with a class that records the inverses of the applied registry writes, so the writes of a
+ * stop-on-error BATCH can be undone when one of its statements fails. The journal is used only while the statement
+ * lock is held exclusively, so it never contains the writes of more than one batch.
+ */
+public interface IWriteJournal {
+    /**
+     * Check if the writes of the command can be undone.
+     * @param command Write command.
+     * @return True - the inverse of the command is recorded while the journal is open.
+     */
+    boolean isReversible(EWriteCommand command);
+
+    /**
+     * Start recording the inverses of the applied writes.
+     */
+    void begin();
+
+    /**
+     * Keep the writes applied since {@link #begin()} and stop recording.
+     */
+    void commit();
+
+    /**
+     * Undo the writes applied since {@link #begin()} in the reverse order and stop recording. The data shuffle queue
+     * receives the actions moving the data back.
+     * @throws WriteOperationException Some of the writes couldn't be undone, the rest of them were undone.
+     */
+    void rollback() throws WriteOperationException;
+}
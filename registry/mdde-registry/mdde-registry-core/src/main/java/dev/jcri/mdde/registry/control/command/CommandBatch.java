@@ -0,0 +1,47 @@
+package dev.jcri.mdde.registry.control.command;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Ordered list of statements received within a single BATCH statement.
+ * @param <T> Arguments portion type of the nested statements.
+ */
+public class CommandBatch<T> {
+    /**
+     * Nested statements in the order of execution
+     */
+    private final List<CommandComponents<T>> _statements;
+    /**
+     * If True, execution stops at the first failed statement and no other statement is executed concurrently. The
+     * writes executed before the failure are rolled back.
+     */
+    private final boolean _isStopOnError;
+
+    /**
+     * Constructor.
+     * @param statements Nested statements in the order of execution.
+     * @param isStopOnError True - stop at the first failed statement.
+     */
+    public CommandBatch(List<CommandComponents<T>> statements, boolean isStopOnError){
+        Objects.requireNonNull(statements, "statements can't be null");
+        _statements = statements;
+        _isStopOnError = isStopOnError;
+    }
+
+    /**
+     * Get the nested statements.
+     * @return Statements in the order of execution.
+     */
+    public List<CommandComponents<T>> getStatements() {
+        return _statements;
+    }
+
+    /**
+     * Stop on error flag.
+     * @return True - execution stops at the first failed statement.
+     */
+    public boolean isStopOnError() {
+        return _isStopOnError;
+    }
+}
@@ -0,0 +1,47 @@
+package dev.jcri.mdde.registry.control.command;
+
+import dev.jcri.mdde.registry.control.ICommandBatchCodec;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerStreamed;
+import dev.jcri.mdde.registry.control.serialization.StreamedResponse;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * BATCH support for the processors returning {@link StreamedResponse}. The nested statements are extracted by the
+ * codec of the statement encoding, the results are combined without being serialized.
+ * @param <TArgs> Type of the command arguments after split.
+ */
+public class StreamedCommandBatchCodec<TArgs> implements ICommandBatchCodec<TArgs, StreamedResponse> {
+    private final ICommandBatchCodec<TArgs, ?> _statementCodec;
+    private final ResponseSerializerStreamed _serializer;
+
+    /**
+     * Constructor
+     * @param statementCodec Codec of the statement encoding, used to split the BATCH arguments.
+     * @param serializer Serializer of the responses.
+     */
+    public StreamedCommandBatchCodec(ICommandBatchCodec<TArgs, ?> statementCodec,
+                                     ResponseSerializerStreamed serializer){
+        Objects.requireNonNull(statementCodec, "statementCodec can't be null");
+        Objects.requireNonNull(serializer, "serializer can't be null");
+        _statementCodec = statementCodec;
+        _serializer = serializer;
+    }
+
+    @Override
+    public CommandBatch<TArgs> splitBatch(TArgs arguments) throws MalformedCommandStatementException {
+        return _statementCodec.splitBatch(arguments);
+    }
+
+    @Override
+    public boolean isError(StreamedResponse result) {
+        return result == null || result.isError();
+    }
+
+    @Override
+    public StreamedResponse joinResults(List<StreamedResponse> results) {
+        return _serializer.serializeBatch(results);
+    }
+}
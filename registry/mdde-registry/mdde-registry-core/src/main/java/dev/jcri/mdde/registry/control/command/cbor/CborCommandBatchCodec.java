@@ -0,0 +1,143 @@
+package dev.jcri.mdde.registry.control.command.cbor;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dev.jcri.mdde.registry.control.ICommandBatchCodec;
+import dev.jcri.mdde.registry.control.command.CommandBatch;
+import dev.jcri.mdde.registry.control.command.CommandComponents;
+import dev.jcri.mdde.registry.control.command.json.SharedJsonMapper;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+import dev.jcri.mdde.registry.shared.commands.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BATCH statement support for the binary (CBOR) protocol. Same structure as the JSON BATCH statement, the nested
+ * responses are embedded into the result array as is, without being decoded.
+ */
+public class CborCommandBatchCodec implements ICommandBatchCodec<TokenBuffer, byte[]> {
+    private static final int MAJOR_TYPE_TEXT = 3;
+    private static final int MAJOR_TYPE_ARRAY = 4;
+    private static final int MAJOR_TYPE_MAP = 5;
+    private static final int CBOR_NULL = 0xf6;
+
+    @Override
+    public CommandBatch<TokenBuffer> splitBatch(TokenBuffer arguments) throws MalformedCommandStatementException {
+        if(arguments == null){
+            throw new MalformedCommandStatementException("BATCH statement has no arguments");
+        }
+        List<CommandComponents<TokenBuffer>> statements = null;
+        boolean isStopOnError = false;
+        try (JsonParser parser = arguments.asParser()) {
+            if(parser.nextToken() != JsonToken.START_OBJECT){
+                throw new MalformedCommandStatementException("BATCH arguments must be a map");
+            }
+            while(parser.nextToken() == JsonToken.FIELD_NAME){
+                var field = parser.getCurrentName();
+                var token = parser.nextToken();
+                if(Constants.ArgBatchStatements.equals(field) && token == JsonToken.START_ARRAY){
+                    statements = new ArrayList<>();
+                    while(parser.nextToken() != JsonToken.END_ARRAY){
+                        statements.add(CborCommandPreProcessor.readStatement(parser));
+                    }
+                }
+                else if(Constants.ArgBatchStopOnError.equals(field)){
+                    isStopOnError = parser.getValueAsBoolean(false);
+                }
+                else{
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedCommandStatementException("Failed to parse BATCH arguments", e);
+        }
+        if(statements == null){
+            throw new MalformedCommandStatementException(
+                    String.format("BATCH arguments must contain the '%s' array", Constants.ArgBatchStatements));
+        }
+        return new CommandBatch<>(statements, isStopOnError);
+    }
+
+    @Override
+    public boolean isError(byte[] result) {
+        if(result == null){
+            return true;
+        }
+        try (JsonParser parser = SharedJsonMapper.getCborFactory().createParser(result)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT){
+                return true;
+            }
+            while(parser.nextToken() == JsonToken.FIELD_NAME){
+                var field = parser.getCurrentName();
+                var token = parser.nextToken();
+                if(Constants.ResultError.equals(field)){
+                    return token != JsonToken.VALUE_NULL;
+                }
+                parser.skipChildren();
+            }
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public byte[] joinResults(List<byte[]> results) {
+        var totalLength = 32;
+        for(var result: results){
+            totalLength += result.length;
+        }
+        var response = new ByteArrayOutputStream(totalLength);
+        writeHeader(response, MAJOR_TYPE_MAP, 3);
+        writeText(response, Constants.ResultError);
+        response.write(CBOR_NULL);
+        writeText(response, Constants.ResultPayload);
+        writeHeader(response, MAJOR_TYPE_ARRAY, results.size());
+        for(var result: results){
+            response.write(result, 0, result.length);
+        }
+        writeText(response, Constants.ResultErrorCode);
+        response.write(CBOR_NULL);
+        return response.toByteArray();
+    }
+
+    private static void writeText(ByteArrayOutputStream out, String value){
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHeader(out, MAJOR_TYPE_TEXT, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Write the CBOR data item header
+     * @param out Output
+     * @param majorType Major type (0..7)
+     * @param length Length or value of the item
+     */
+    private static void writeHeader(ByteArrayOutputStream out, int majorType, int length){
+        var prefix = majorType << 5;
+        if(length < 24){
+            out.write(prefix | length);
+        }
+        else if(length < 0x100){
+            out.write(prefix | 24);
+            out.write(length);
+        }
+        else if(length < 0x10000){
+            out.write(prefix | 25);
+            out.write(length >>> 8);
+            out.write(length);
+        }
+        else{
+            out.write(prefix | 26);
+            out.write(length >>> 24);
+            out.write(length >>> 16);
+            out.write(length >>> 8);
+            out.write(length);
+        }
+    }
+}
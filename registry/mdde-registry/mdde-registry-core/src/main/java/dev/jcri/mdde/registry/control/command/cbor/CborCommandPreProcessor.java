@@ -0,0 +1,94 @@
+package dev.jcri.mdde.registry.control.command.cbor;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dev.jcri.mdde.registry.control.ICommandPreProcessor;
+import dev.jcri.mdde.registry.control.command.CommandComponents;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandPreProcessor;
+import dev.jcri.mdde.registry.control.command.json.SharedJsonMapper;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+
+import java.io.IOException;
+
+/**
+ * Incoming binary statement processor. The statement is a CBOR map with the same structure as the JSON statement:
+ * {"cmd": "COMMAND_KEYWORD", "args": {...}}. The arguments map is buffered as a token stream without being
+ * deserialized, the command parser binds it directly to the argument types.
+ */
+public class CborCommandPreProcessor implements ICommandPreProcessor<TokenBuffer, byte[]> {
+    /**
+     * CBOR self-describe tag (55799) prefix, allowed in front of the statement
+     */
+    private static final byte[] SELF_DESCRIBE_TAG = {(byte) 0xd9, (byte) 0xd9, (byte) 0xf7};
+
+    @Override
+    public CommandComponents<TokenBuffer> splitIncoming(byte[] statement) throws MalformedCommandStatementException {
+        try (JsonParser parser = SharedJsonMapper.getCborFactory().createParser(statement)) {
+            parser.nextToken();
+            return readStatement(parser);
+        } catch (IOException e) {
+            throw new MalformedCommandStatementException(getExpectedStatementMessage(), e);
+        }
+    }
+
+    /**
+     * Read a single statement map.
+     * @param parser Streaming parser positioned at the start of the statement map.
+     * @return Split statement, the parser is positioned at the end of the statement map.
+     * @throws IOException Malformed CBOR.
+     * @throws MalformedCommandStatementException Statement is not a map or has no command keyword.
+     */
+    static CommandComponents<TokenBuffer> readStatement(JsonParser parser)
+            throws IOException, MalformedCommandStatementException {
+        if(parser.currentToken() != JsonToken.START_OBJECT){
+            throw new MalformedCommandStatementException(getExpectedStatementMessage());
+        }
+        String command = null;
+        TokenBuffer arguments = null;
+        while(parser.nextToken() == JsonToken.FIELD_NAME){
+            var field = parser.getCurrentName();
+            var token = parser.nextToken();
+            if(JsonCommandPreProcessor.COMMAND_FIELD.equals(field)){
+                command = parser.getValueAsString();
+            }
+            else if(JsonCommandPreProcessor.ARGUMENTS_FIELD.equals(field) && token.isStructStart()){
+                arguments = new TokenBuffer(parser);
+                arguments.copyCurrentStructure(parser);
+            }
+            else{
+                parser.skipChildren();
+            }
+        }
+        if(command == null || command.isEmpty()){
+            throw new MalformedCommandStatementException(getExpectedStatementMessage());
+        }
+        return new CommandComponents<>(command, arguments);
+    }
+
+    /**
+     * Check if the payload looks like a CBOR statement: a map (major type 5), optionally prefixed with the
+     * self-describe tag. JSON statements always start with '{' or a whitespace, which never match.
+     * @param payload Received payload.
+     * @param offset Offset of the first payload byte.
+     * @param length Payload length.
+     * @return True - the payload should be processed as CBOR.
+     */
+    public static boolean isCborStatement(byte[] payload, int offset, int length){
+        if(length < 1){
+            return false;
+        }
+        if(length >= SELF_DESCRIBE_TAG.length
+                && payload[offset] == SELF_DESCRIBE_TAG[0]
+                && payload[offset + 1] == SELF_DESCRIBE_TAG[1]
+                && payload[offset + 2] == SELF_DESCRIBE_TAG[2]){
+            return true;
+        }
+        return ((payload[offset] & 0xff) >>> 5) == 5;
+    }
+
+    private static String getExpectedStatementMessage(){
+        return String.format("Expected CBOR map: {\"%s\": \"COMMAND_KEYWORD\", \"%s\": {...}}",
+                JsonCommandPreProcessor.COMMAND_FIELD, JsonCommandPreProcessor.ARGUMENTS_FIELD);
+    }
+}
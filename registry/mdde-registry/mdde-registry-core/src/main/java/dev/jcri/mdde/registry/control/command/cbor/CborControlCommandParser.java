@@ -0,0 +1,34 @@
+package dev.jcri.mdde.registry.control.command.cbor;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dev.jcri.mdde.registry.control.ICommandParser;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandParserBase;
+import dev.jcri.mdde.registry.control.command.sequential.SequentialControlCommandParser;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
+import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
+import dev.jcri.mdde.registry.store.RegistryStateCommandHandler;
+
+/**
+ * Parser for CONTROL commands that processes commands passed in a form of a CBOR statement.
+ * @param <TOut> Command execution result container type
+ */
+public class CborControlCommandParser<TOut> extends JsonCommandParserBase
+        implements ICommandParser<TOut, EStateControlCommand, TokenBuffer> {
+    private final SequentialControlCommandParser<TOut> _sequentialCommandParser;
+    private final ResponseSerializerBase<TOut> _serializer;
+
+    public CborControlCommandParser(RegistryStateCommandHandler commandHandler, ResponseSerializerBase<TOut> serializer){
+        _sequentialCommandParser = new SequentialControlCommandParser<>(commandHandler, serializer);
+        _serializer = serializer;
+    }
+
+    @Override
+    public TOut runCommand(EStateControlCommand command, TokenBuffer arguments) {
+        try {
+            var parsedArguments = parseArguments(command, arguments);
+            return _sequentialCommandParser.runCommand(command, parsedArguments);
+        } catch (Exception ex){
+            return _serializer.serializeException(ex);
+        }
+    }
+}
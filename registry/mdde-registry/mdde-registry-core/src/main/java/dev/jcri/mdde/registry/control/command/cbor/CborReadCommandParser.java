@@ -0,0 +1,34 @@
+package dev.jcri.mdde.registry.control.command.cbor;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dev.jcri.mdde.registry.control.ICommandParser;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandParserBase;
+import dev.jcri.mdde.registry.control.command.sequential.SequentialReadCommandParser;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
+import dev.jcri.mdde.registry.server.responders.ReadCommandResponder;
+import dev.jcri.mdde.registry.shared.commands.EReadCommand;
+
+/**
+ * Parser for READ commands that processes commands passed in a form of a CBOR statement.
+ * @param <TOut> Command execution result container type
+ */
+public class CborReadCommandParser<TOut> extends JsonCommandParserBase
+        implements ICommandParser<TOut, EReadCommand, TokenBuffer> {
+    private final SequentialReadCommandParser<TOut> _sequentialCommandParser;
+    private final ResponseSerializerBase<TOut> _serializer;
+
+    public CborReadCommandParser(ReadCommandResponder readCommandHandler, ResponseSerializerBase<TOut> serializer){
+        _sequentialCommandParser = new SequentialReadCommandParser<>(readCommandHandler, serializer);
+        _serializer = serializer;
+    }
+
+    @Override
+    public TOut runCommand(EReadCommand command, TokenBuffer arguments) {
+        try {
+            var parsedArguments = parseArguments(command, arguments);
+            return _sequentialCommandParser.runCommand(command, parsedArguments);
+        } catch (Exception ex){
+            return _serializer.serializeException(ex);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dev.jcri.mdde.registry.control.command.cbor;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dev.jcri.mdde.registry.control.ICommandParser;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandParserBase;
+import dev.jcri.mdde.registry.control.command.sequential.SequentialWriteCommandParser;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
+import dev.jcri.mdde.registry.server.responders.WriteCommandResponder;
+import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
+
+/**
+ * Parser for WRITE commands that processes commands passed in a form of a CBOR statement.
+ * @param <TOut> Command execution result container type
+ */
+public class CborWriteCommandParser<TOut> extends JsonCommandParserBase
+        implements ICommandParser<TOut, EWriteCommand, TokenBuffer> {
+    private final SequentialWriteCommandParser<TOut> _sequentialCommandParser;
+    private final ResponseSerializerBase<TOut> _serializer;
+
+    public CborWriteCommandParser(WriteCommandResponder writeCommandHandler, ResponseSerializerBase<TOut> serializer){
+        _sequentialCommandParser = new SequentialWriteCommandParser<>(writeCommandHandler, serializer);
+        _serializer = serializer;
+    }
+
+    @Override
+    public TOut runCommand(EWriteCommand command, TokenBuffer arguments) {
+        try {
+            var parsedArguments = parseArguments(command, arguments);
+            return _sequentialCommandParser.runCommand(command, parsedArguments);
+        } catch (Exception ex){
+            return _serializer.serializeException(ex);
+        }
+    }
+}
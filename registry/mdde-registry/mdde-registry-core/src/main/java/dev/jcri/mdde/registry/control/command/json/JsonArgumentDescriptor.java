@@ -0,0 +1,118 @@
+package dev.jcri.mdde.registry.control.command.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.jcri.mdde.registry.shared.commands.ExpectedCommandArgument;
+import dev.jcri.mdde.registry.shared.commands.ICommand;
+import dev.jcri.mdde.registry.shared.commands.containers.args.ControlArgsCandidateActionContainer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed binding of a single JSON argument field to its position in the positional arguments list of a command.
+ */
+final class JsonArgumentDescriptor {
+    /**
+     * Descriptors of the already seen commands: command -> (argument tag -> descriptor)
+     */
+    private static final Map<ICommand, Map<String, JsonArgumentDescriptor>> _commandDescriptors =
+            new ConcurrentHashMap<>();
+
+    private static final ObjectReader _setOfStringsReader =
+            SharedJsonMapper.getMapper().readerFor(new TypeReference<HashSet<String>>() { });
+    private static final ObjectReader _booleanReader = SharedJsonMapper.getMapper().readerFor(Boolean.class);
+    private static final ObjectReader _integerReader = SharedJsonMapper.getMapper().readerFor(Integer.class);
+    private static final ObjectReader _doubleReader = SharedJsonMapper.getMapper().readerFor(Double.class);
+    private static final ObjectReader _actionSequencesReader = SharedJsonMapper.getMapper().readerFor(
+            new TypeReference<ArrayList<ArrayList<ControlArgsCandidateActionContainer>>>() { });
+
+    /**
+     * Position of the argument in the list of the expected command arguments
+     */
+    private final int _index;
+    /**
+     * Reader of the structured values, null for plain strings
+     */
+    private final ObjectReader _reader;
+
+    private JsonArgumentDescriptor(int index, ObjectReader reader){
+        _index = index;
+        _reader = reader;
+    }
+
+    /**
+     * Position of the argument in the list of the expected command arguments
+     * @return Zero based index.
+     */
+    int getIndex() {
+        return _index;
+    }
+
+    /**
+     * Bind the value the parser is currently positioned at.
+     * @param parser Streaming parser positioned at the first token of the value.
+     * @return Bound value, null for JSON null.
+     * @throws IOException Value can't be bound to the argument type.
+     */
+    Object read(JsonParser parser) throws IOException {
+        if(parser.currentToken() == JsonToken.VALUE_NULL){
+            return null;
+        }
+        if(_reader == null){
+            if(parser.currentToken().isStructStart()){
+                return SharedJsonMapper.getMapper().readTree(parser).toString();
+            }
+            return parser.getValueAsString();
+        }
+        return _reader.readValue(parser);
+    }
+
+    /**
+     * Get the argument descriptors of the command.
+     * @param command Command.
+     * @return Unmodifiable map of the argument tags to their descriptors.
+     */
+    static Map<String, JsonArgumentDescriptor> forCommand(ICommand command){
+        return _commandDescriptors.computeIfAbsent(command, JsonArgumentDescriptor::build);
+    }
+
+    private static Map<String, JsonArgumentDescriptor> build(ICommand command){
+        var arguments = command.getExpectedArguments();
+        Map<String, JsonArgumentDescriptor> result = new HashMap<>();
+        if(arguments == null){
+            return result;
+        }
+        for(int i = 0; i < arguments.size(); i++){
+            var arg = arguments.get(i);
+            result.put(arg.getTag(), new JsonArgumentDescriptor(i, getReader(arg.getArgumentType())));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static ObjectReader getReader(ExpectedCommandArgument.ArgumentType type){
+        switch (type){
+            case STRING:
+                return null;
+            case SET_STRINGS:
+                return _setOfStringsReader;
+            case BOOLEAN:
+                return _booleanReader;
+            case INTEGER:
+                return _integerReader;
+            case DOUBLE:
+                return _doubleReader;
+            case LIST_ACTION_SEQUENCES:
+                return _actionSequencesReader;
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported argument type: %s", type));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.jcri.mdde.registry.control.command.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dev.jcri.mdde.registry.control.ICommandBatchCodec;
+import dev.jcri.mdde.registry.control.command.CommandBatch;
+import dev.jcri.mdde.registry.control.command.CommandComponents;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+import dev.jcri.mdde.registry.shared.commands.Constants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BATCH statement support for the JSON protocol.
+ * Arguments: {"stmts": [{"cmd": ..., "args": {...}}, ...], "stoponerr": false}.
+ * Response: {"error": null, "result": [response, ...], "errcode": null}, where every element of the result array is
+ * the response the statement would get if it was sent on its own.
+ */
+public class JsonCommandBatchCodec implements ICommandBatchCodec<String, String> {
+
+    @Override
+    public CommandBatch<String> splitBatch(String arguments) throws MalformedCommandStatementException {
+        if(arguments == null){
+            throw new MalformedCommandStatementException(getExpectedBatchMessage());
+        }
+        List<CommandComponents<String>> statements = null;
+        boolean isStopOnError = false;
+        try (JsonParser parser = SharedJsonMapper.getFactory().createParser(arguments)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT){
+                throw new MalformedCommandStatementException(getExpectedBatchMessage());
+            }
+            while(parser.nextToken() == JsonToken.FIELD_NAME){
+                var field = parser.getCurrentName();
+                var token = parser.nextToken();
+                if(Constants.ArgBatchStatements.equals(field) && token == JsonToken.START_ARRAY){
+                    statements = new ArrayList<>();
+                    while(parser.nextToken() != JsonToken.END_ARRAY){
+                        statements.add(JsonCommandPreProcessor.readStatement(parser, arguments));
+                    }
+                }
+                else if(Constants.ArgBatchStopOnError.equals(field)){
+                    isStopOnError = parser.getValueAsBoolean(false);
+                }
+                else{
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedCommandStatementException(getExpectedBatchMessage(), e);
+        }
+        if(statements == null){
+            throw new MalformedCommandStatementException(getExpectedBatchMessage());
+        }
+        return new CommandBatch<>(statements, isStopOnError);
+    }
+
+    @Override
+    public boolean isError(String result) {
+        if(result == null){
+            return true;
+        }
+        try (JsonParser parser = SharedJsonMapper.getFactory().createParser(result)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT){
+                return true;
+            }
+            while(parser.nextToken() == JsonToken.FIELD_NAME){
+                var field = parser.getCurrentName();
+                var token = parser.nextToken();
+                if(Constants.ResultError.equals(field)){
+                    return token != JsonToken.VALUE_NULL;
+                }
+                parser.skipChildren();
+            }
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public String joinResults(List<String> results) {
+        var response = new StringBuilder();
+        response.append("{\"").append(Constants.ResultError).append("\":null,\"")
+                .append(Constants.ResultPayload).append("\":[");
+        for(int i = 0; i < results.size(); i++){
+            if(i > 0){
+                response.append(',');
+            }
+            response.append(results.get(i));
+        }
+        response.append("],\"").append(Constants.ResultErrorCode).append("\":null}");
+        return response.toString();
+    }
+
+    private static String getExpectedBatchMessage(){
+        return String.format("Expected BATCH arguments: '{\"%s\": [{\"%s\":\"COMMAND_KEYWORD\", \"%s\":{...}}, ...], " +
+                        "\"%s\": false}'",
+                Constants.ArgBatchStatements, Constants.CommandFiled, Constants.ArgumentsField,
+                Constants.ArgBatchStopOnError);
+    }
+}
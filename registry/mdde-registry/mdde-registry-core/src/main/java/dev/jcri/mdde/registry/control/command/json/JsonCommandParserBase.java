@@ -1,21 +1,22 @@
 package dev.jcri.mdde.registry.control.command.json;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
-import dev.jcri.mdde.registry.shared.commands.ExpectedCommandArgument;
 import dev.jcri.mdde.registry.shared.commands.ICommand;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class JsonCommandParserBase {
 
     /**
-     * Parse arguments JSON object in accordance to the expected
+     * Parse arguments JSON object in accordance to the expected.
+     * The object is read in a single streaming pass, every known field is bound directly to the type of the
+     * corresponding command argument. Unknown fields are skipped, missing arguments are returned as null.
      * @param command Exact command that's being processed
      * @param arguments Serialized JSON object containing appropriate arguments
      * @return List of object in types and order corresponding to the ones defined in arguments property of ICommand
@@ -23,43 +24,69 @@ public abstract class JsonCommandParserBase {
      */
     public List<Object> parseArguments(ICommand command, String arguments)
             throws MalformedCommandStatementException {
-        var result = new ArrayList<Object>();
-        ObjectMapper mapper = new ObjectMapper();
+        if(arguments == null){
+            return parseArguments(command, (JsonParser) null);
+        }
+        try (JsonParser parser = SharedJsonMapper.getFactory().createParser(arguments)) {
+            return parseArguments(command, parser);
+        } catch (IOException e) {
+            throw new MalformedCommandStatementException("Failed to parse arguments", e);
+        }
+    }
+
+    /**
+     * Parse arguments object buffered by a pre-processor (for example decoded from a binary statement)
+     * @param command Exact command that's being processed
+     * @param arguments Buffered arguments object, null if the statement had no arguments
+     * @return List of object in types and order corresponding to the ones defined in arguments property of ICommand
+     * @throws MalformedCommandStatementException Command statement is unknown or malformed.
+     */
+    public List<Object> parseArguments(ICommand command, TokenBuffer arguments)
+            throws MalformedCommandStatementException {
+        if(arguments == null){
+            return parseArguments(command, (JsonParser) null);
+        }
+        try (JsonParser parser = arguments.asParser()) {
+            return parseArguments(command, parser);
+        } catch (IOException e) {
+            throw new MalformedCommandStatementException("Failed to parse arguments", e);
+        }
+    }
 
-        JsonNode parent= null;
+    /**
+     * Bind the arguments object from a streaming parser positioned before the start of the object
+     * @param command Exact command that's being processed
+     * @param parser Streaming parser of any Jackson supported format, null if there are no arguments
+     * @return List of object in types and order corresponding to the ones defined in arguments property of ICommand
+     * @throws MalformedCommandStatementException Command statement is unknown or malformed.
+     */
+    private List<Object> parseArguments(ICommand command, JsonParser parser)
+            throws MalformedCommandStatementException {
+        var descriptors = JsonArgumentDescriptor.forCommand(command);
+        var expectedArguments = command.getExpectedArguments();
+        var result = new ArrayList<Object>(Collections.nCopies(
+                expectedArguments != null ? expectedArguments.size() : 0, null));
+        if(parser == null || descriptors.isEmpty()){
+            return result;
+        }
         try {
-            parent = mapper.readTree(arguments);
-            for(var arg: command.getExpectedArguments()){
-                if(arg.getArgumentType() == ExpectedCommandArgument.ArgumentType.STRING){
-                    // Simple string value
-                    result.add(parent.get(arg.getTag()).asText());
-                }
-                else if(arg.getArgumentType() == ExpectedCommandArgument.ArgumentType.SET_STRINGS){
-                    // Set of strings
-                    var jsonNode = parent.get(arg.getTag());
-                    var content = mapper.convertValue(jsonNode, new TypeReference<HashSet<String>>() { });
-                    result.add(content);
-                }
-                else if(arg.getArgumentType() == ExpectedCommandArgument.ArgumentType.BOOLEAN){
-                    // Boolean value
-                    var jsonNode = parent.get(arg.getTag());
-                    var content = mapper.convertValue(jsonNode, Boolean.class);
-                    result.add(content);
-                }
-                else if(arg.getArgumentType() == ExpectedCommandArgument.ArgumentType.INTEGER){
-                    // Integer value
-                    var jsonNode = parent.get(arg.getTag());
-                    var content = mapper.convertValue(jsonNode, Integer.class);
-                    result.add(content);
-                }
-                else if(arg.getArgumentType() == ExpectedCommandArgument.ArgumentType.DOUBLE){
-                    // Double value
-                    var jsonNode = parent.get(arg.getTag());
-                    var content = mapper.convertValue(jsonNode, Double.class);
-                    result.add(content);
+            var token = parser.nextToken();
+            if(token == JsonToken.VALUE_NULL){
+                return result;
+            }
+            if(token != JsonToken.START_OBJECT){
+                throw new MalformedCommandStatementException("Arguments must be a JSON object");
+            }
+            while(parser.nextToken() == JsonToken.FIELD_NAME){
+                var descriptor = descriptors.get(parser.getCurrentName());
+                parser.nextToken();
+                if(descriptor == null){
+                    parser.skipChildren();
+                    continue;
                 }
+                result.set(descriptor.getIndex(), descriptor.read(parser));
             }
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             throw new MalformedCommandStatementException("Failed to parse arguments", e);
         }
 
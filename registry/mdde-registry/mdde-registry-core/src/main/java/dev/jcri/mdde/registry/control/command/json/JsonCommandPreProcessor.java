@@ -1,14 +1,18 @@
 package dev.jcri.mdde.registry.control.command.json;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import dev.jcri.mdde.registry.control.ICommandPreProcessor;
 import dev.jcri.mdde.registry.control.command.CommandComponents;
 import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
 
+import java.io.IOException;
+
 /**
- * Incoming statement processor. Splits the statement into the command tag string and JSON string containing arguments
+ * Incoming statement processor. Splits the statement into the command tag string and JSON string containing arguments.
+ *
+ * The statement is read with a streaming parser, the arguments object is not deserialized here but sliced out of the
+ * original statement as is.
  */
 public class JsonCommandPreProcessor implements ICommandPreProcessor<String, String> {
     public static final String COMMAND_FIELD = "cmd";
@@ -16,19 +20,53 @@ public class JsonCommandPreProcessor implements ICommandPreProcessor<String, Str
 
     @Override
     public CommandComponents<String> splitIncoming(String statement) throws MalformedCommandStatementException {
-        ObjectMapper mapper = new ObjectMapper();
+        try (JsonParser parser = SharedJsonMapper.getFactory().createParser(statement)) {
+            parser.nextToken();
+            return readStatement(parser, statement);
+        } catch (IOException e) {
+            throw new MalformedCommandStatementException(getExpectedJsonMessage(), e);
+        }
+    }
+
+    /**
+     * Read a single statement object.
+     * @param parser Streaming parser positioned at the start of the statement object.
+     * @param source Text the parser was created for, the arguments are sliced out of it.
+     * @return Split statement, the parser is positioned at the end of the statement object.
+     * @throws IOException Malformed JSON.
+     * @throws MalformedCommandStatementException Statement is not an object or has no command keyword.
+     */
+    static CommandComponents<String> readStatement(JsonParser parser, String source)
+            throws IOException, MalformedCommandStatementException {
+        if(parser.currentToken() != JsonToken.START_OBJECT){
+            throw new MalformedCommandStatementException(getExpectedJsonMessage());
+        }
         String command = null;
         String arguments = null;
-        try {
-            JsonNode rootNode = mapper.readTree(statement);
-            command = rootNode.get(COMMAND_FIELD).asText();
-            arguments = rootNode.get(ARGUMENTS_FIELD).toString();
-        } catch (JsonProcessingException e) {
-            var expectedJson = String.format("Expected JSON: '{\"%s\":\"COMMAND_KEYWORD\", \"%s\":{...}}'",
-                    COMMAND_FIELD, ARGUMENTS_FIELD);
-            throw new MalformedCommandStatementException(expectedJson, e);
+        while(parser.nextToken() == JsonToken.FIELD_NAME){
+            var field = parser.getCurrentName();
+            var token = parser.nextToken();
+            if(COMMAND_FIELD.equals(field)){
+                command = parser.getValueAsString();
+            }
+            else if(ARGUMENTS_FIELD.equals(field) && token.isStructStart()){
+                var start = (int) parser.getTokenLocation().getCharOffset();
+                parser.skipChildren();
+                var end = (int) parser.getCurrentLocation().getCharOffset();
+                arguments = source.substring(start, end);
+            }
+            else{
+                parser.skipChildren();
+            }
+        }
+        if(command == null || command.isEmpty()){
+            throw new MalformedCommandStatementException(getExpectedJsonMessage());
         }
-
         return new CommandComponents<>(command, arguments);
     }
+
+    private static String getExpectedJsonMessage(){
+        return String.format("Expected JSON: '{\"%s\":\"COMMAND_KEYWORD\", \"%s\":{...}}'",
+                COMMAND_FIELD, ARGUMENTS_FIELD);
+    }
 }
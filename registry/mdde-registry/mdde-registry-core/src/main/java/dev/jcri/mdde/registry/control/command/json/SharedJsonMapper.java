@@ -0,0 +1,48 @@
+package dev.jcri.mdde.registry.control.command.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Single JSON mapper (and its CBOR counterpart) shared by the command processing components. The mappers are
+ * configured once and are thread safe afterwards, so there is no need to create a new instance per statement.
+ */
+public final class SharedJsonMapper {
+    private static final ObjectMapper _mapper = new ObjectMapper();
+    private static final ObjectMapper _cborMapper = new ObjectMapper(new CBORFactory());
+
+    private SharedJsonMapper(){}
+
+    /**
+     * Get the shared mapper. Must not be reconfigured by the callers.
+     * @return ObjectMapper instance.
+     */
+    public static ObjectMapper getMapper(){
+        return _mapper;
+    }
+
+    /**
+     * Get the factory of the streaming parsers.
+     * @return JsonFactory of the shared mapper.
+     */
+    public static JsonFactory getFactory(){
+        return _mapper.getFactory();
+    }
+
+    /**
+     * Get the shared CBOR mapper. Must not be reconfigured by the callers.
+     * @return ObjectMapper instance backed by a CBORFactory.
+     */
+    public static ObjectMapper getCborMapper(){
+        return _cborMapper;
+    }
+
+    /**
+     * Get the factory of the streaming CBOR parsers.
+     * @return CBORFactory of the shared CBOR mapper.
+     */
+    public static CBORFactory getCborFactory(){
+        return (CBORFactory) _cborMapper.getFactory();
+    }
+}
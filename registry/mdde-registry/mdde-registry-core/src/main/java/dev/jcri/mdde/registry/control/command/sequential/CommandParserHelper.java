@@ -5,6 +5,7 @@ import dev.jcri.mdde.registry.control.exceptions.IllegalCommandArgumentException
 import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
 import dev.jcri.mdde.registry.shared.commands.ExpectedCommandArgument;
 import dev.jcri.mdde.registry.shared.commands.ICommand;
+import dev.jcri.mdde.registry.shared.commands.containers.args.ControlArgsCandidateActionContainer;
 
 import java.util.List;
 import java.util.Objects;
@@ -184,4 +185,38 @@ public class CommandParserHelper {
             return (Set<String>) tupleIdsArg;
         }
     }
+
+    /**
+     * Read argument as a list of the candidate action sequences from the position as specified in the corresponding
+     * ICommands.
+     * @param arguments List of arguments.
+     * @param command Command name.
+     * @param argument Argument description object.
+     * @return Argument value.
+     * @throws CommandException Malformed command statement.
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<ControlArgsCandidateActionContainer>> getPositionalArgumentAsActionSequences(
+            List<Object> arguments,
+            ICommand command,
+            ExpectedCommandArgument argument)
+            throws CommandException {
+        if(argument.getArgumentType() != ExpectedCommandArgument.ArgumentType.LIST_ACTION_SEQUENCES){
+            throw new IllegalArgumentException(String.format("Argument %s is not a list of action sequences",
+                    argument.toString()));
+        }
+
+        var argIndex = command.getExpectedArguments().indexOf(argument);
+        if(argIndex < 0){
+            throw new IllegalCommandArgumentException(getIllegalArgumentError(command, argument));
+        }
+        if(arguments.size() -1 < argIndex){
+            throw new MalformedCommandStatementException(getPositionalArgumentError(command, argument, argIndex));
+        }
+        var sequencesArg = arguments.get(argIndex);
+        if(!(sequencesArg instanceof List<?>)){
+            throw new MalformedCommandStatementException(getPositionalArgumentError(command, argument, argIndex));
+        }
+        return (List<List<ControlArgsCandidateActionContainer>>) sequencesArg;
+    }
 }
@@ -6,7 +6,9 @@ import dev.jcri.mdde.registry.control.exceptions.CommandException;
 import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
 import dev.jcri.mdde.registry.exceptions.MddeRegistryException;
 import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
 import dev.jcri.mdde.registry.store.RegistryStateCommandHandler;
 
 import java.io.IOException;
@@ -36,7 +38,7 @@ public class SequentialControlCommandParser<T> extends CommandParserControlBase<
     }
 
     @Override
-    protected Boolean processSetBenchmarkState() throws MddeRegistryException {
+    protected Boolean processSetBenchmarkState() throws MddeRegistryException, IOException {
         return _stateCommandHandler.switchToBenchmark();
     }
 
@@ -60,6 +62,11 @@ public class SequentialControlCommandParser<T> extends CommandParserControlBase<
         return _stateCommandHandler.syncRegistryToNodes();
     }
 
+    @Override
+    protected Boolean processShuffleBarrier() throws IOException, MddeRegistryException {
+        return _stateCommandHandler.awaitShuffleQueue();
+    }
+
     @Override
     protected String processExecuteBenchmarkCommand(List<Object> arguments)
             throws MddeRegistryException {
@@ -131,4 +138,48 @@ public class SequentialControlCommandParser<T> extends CommandParserControlBase<
 
         return _stateCommandHandler.retrieveCounterfeitBenchmarkStatus(adjustRangeStart, adjustRangeEnd);
     }
+
+    @Override
+    protected boolean processSetTraceCapture(List<Object> arguments) throws CommandException {
+        final EStateControlCommand thisCommand = EStateControlCommand.TRACE_CAPTURE;
+        CommandParserHelper.sharedInstance().validateNotNullArguments(arguments, thisCommand.toString());
+
+        var enabled = CommandParserHelper.sharedInstance()
+                .getPositionalArgumentAsBoolean(arguments, thisCommand, ARG_BENCH_TRACE_CAPTURE);
+        return _stateCommandHandler.setBenchmarkTraceCapture(Boolean.TRUE.equals(enabled));
+    }
+
+    @Override
+    protected BenchmarkStatus processGetReplayBenchmark() throws MddeRegistryException, IOException {
+        return _stateCommandHandler.retrieveReplayBenchmarkStatus();
+    }
+
+    @Override
+    protected BenchmarkCandidatesResult processGetCounterfeitCandidates(List<Object> arguments)
+            throws CommandException {
+        final EStateControlCommand thisCommand = EStateControlCommand.COUNTERFEIT_CANDIDATES;
+
+        CommandParserHelper.sharedInstance().validateNotNullArguments(arguments, thisCommand.toString());
+
+        Double adjustRangeStart = CommandParserHelper.sharedInstance()
+                .getPositionalArgumentAsDouble(arguments, thisCommand, ARG_BENCH_COUNTERFEIT_ADJUSTER_START);
+
+        Double adjustRangeEnd = CommandParserHelper.sharedInstance()
+                .getPositionalArgumentAsDouble(arguments, thisCommand, ARG_BENCH_COUNTERFEIT_ADJUSTER_END);
+
+        var candidates = CommandParserHelper.sharedInstance()
+                .getPositionalArgumentAsActionSequences(arguments, thisCommand, ARG_BENCH_CANDIDATES);
+
+        return _stateCommandHandler.retrieveCounterfeitCandidatesStatus(adjustRangeStart, adjustRangeEnd, candidates);
+    }
+
+    @Override
+    protected boolean processAbortBenchmark() {
+        return _stateCommandHandler.abortBenchmark();
+    }
+
+    @Override
+    protected RegistryMetricsSnapshot processGetMetrics() {
+        return _stateCommandHandler.getMetrics();
+    }
 }
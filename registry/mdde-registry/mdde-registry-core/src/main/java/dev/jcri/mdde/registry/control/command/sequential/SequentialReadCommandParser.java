@@ -7,6 +7,7 @@ import dev.jcri.mdde.registry.server.responders.ReadCommandResponder;
 import dev.jcri.mdde.registry.shared.commands.EReadCommand;
 import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
 import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
 import dev.jcri.mdde.registry.store.exceptions.ReadOperationException;
 import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
 
@@ -142,4 +143,14 @@ public class SequentialReadCommandParser<T> extends CommandParserReadBase<T, Lis
         var metaTagsGlobal = CommandParserHelper.sharedInstance().getPositionalArgumentAsSet(arguments, thisCommand, ARG_FRAGMENT_META_TAGS_GLOBAL);
         return _readCommandHandler.getFragmentCatalog(metaTagsLocal, metaTagsGlobal);
     }
+
+    @Override
+    protected PackedObservation processGetPackedObservation(List<Object> arguments) throws CommandException {
+        final EReadCommand thisCommand = EReadCommand.GET_PACKED_OBSERVATION;
+        CommandParserHelper.sharedInstance().validateNotNullArguments(arguments, thisCommand.toString());
+
+        var metaTagsLocal = CommandParserHelper.sharedInstance().getPositionalArgumentAsSet(arguments, thisCommand, ARG_FRAGMENT_META_TAGS_LOCAL);
+        var metaTagsGlobal = CommandParserHelper.sharedInstance().getPositionalArgumentAsSet(arguments, thisCommand, ARG_FRAGMENT_META_TAGS_GLOBAL);
+        return _readCommandHandler.getPackedObservation(metaTagsLocal, metaTagsGlobal);
+    }
 }
@@ -0,0 +1,14 @@
+package dev.jcri.mdde.registry.control.exceptions;
+
+import dev.jcri.mdde.registry.exceptions.EErrorCode;
+
+/**
+ * Write statement of a stop-on-error batch was applied and then undone because one of the following statements failed
+ */
+public class BatchStatementRolledBackException extends CommandException {
+    private final static EErrorCode _exCode = EErrorCode.CTRL_BATCH_STATEMENT_ROLLED_BACK;
+
+    public BatchStatementRolledBackException(String message) {
+        super(_exCode, message, null);
+    }
+}
@@ -0,0 +1,14 @@
+package dev.jcri.mdde.registry.control.exceptions;
+
+import dev.jcri.mdde.registry.exceptions.EErrorCode;
+
+/**
+ * Statement of a stop-on-error batch was not executed because one of the preceding statements failed
+ */
+public class BatchStatementSkippedException extends CommandException {
+    private final static EErrorCode _exCode = EErrorCode.CTRL_BATCH_STATEMENT_SKIPPED;
+
+    public BatchStatementSkippedException(String message) {
+        super(_exCode, message, null);
+    }
+}
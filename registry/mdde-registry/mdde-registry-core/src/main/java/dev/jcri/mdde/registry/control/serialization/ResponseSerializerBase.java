@@ -3,8 +3,11 @@ package dev.jcri.mdde.registry.control.serialization;
 import dev.jcri.mdde.registry.exceptions.EErrorCode;
 import dev.jcri.mdde.registry.exceptions.MddeRegistryException;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
 import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
 import dev.jcri.mdde.registry.store.exceptions.ResponseSerializationException;
 import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
 
@@ -25,6 +28,9 @@ public abstract class ResponseSerializerBase<T> implements IResponseExceptionSer
     public abstract T serialize(BenchmarkRunResult value) throws ResponseSerializationException;
     public abstract T serialize(BenchmarkStatus value) throws ResponseSerializationException;
     public abstract T serialize(FragmentCatalog value) throws ResponseSerializationException;
+    public abstract T serialize(BenchmarkCandidatesResult value) throws ResponseSerializationException;
+    public abstract T serialize(PackedObservation value) throws ResponseSerializationException;
+    public abstract T serialize(RegistryMetricsSnapshot value) throws ResponseSerializationException;
 
     @Override
     public final T serializeException(Throwable cause){
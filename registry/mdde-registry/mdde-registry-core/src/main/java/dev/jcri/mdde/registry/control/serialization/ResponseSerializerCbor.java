@@ -0,0 +1,178 @@
+package dev.jcri.mdde.registry.control.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.jcri.mdde.registry.exceptions.EErrorCode;
+import dev.jcri.mdde.registry.shared.commands.Constants;
+import dev.jcri.mdde.registry.shared.commands.containers.CommandResultContainer;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
+import dev.jcri.mdde.registry.store.exceptions.ResponseSerializationException;
+import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serialize responses to CBOR (binary JSON). The response structure is the same as the one produced by
+ * ResponseSerializerJson, so the clients can switch between the encodings without changing the response handling.
+ */
+public class ResponseSerializerCbor extends ResponseSerializerBase<byte[]> {
+    private final ObjectMapper _mapper;
+
+    public ResponseSerializerCbor(){
+        _mapper  = new ObjectMapper(new CBORFactory());
+    }
+
+    @Override
+    public byte[] serialize(String value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<String>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(List<String> value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(
+                    new CommandResultContainer<List<String>>(value)
+            );
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Set<String> value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(
+                    new CommandResultContainer<Set<String>>(value)
+            );
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(int value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<Integer>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(boolean value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(
+                    new CommandResultContainer<Boolean>(value)
+            );
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(FullRegistryAllocation value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<FullRegistryAllocation>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(BenchmarkRunResult value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<BenchmarkRunResult>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(BenchmarkStatus value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<BenchmarkStatus>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(FragmentCatalog value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<FragmentCatalog>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(BenchmarkCandidatesResult value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<BenchmarkCandidatesResult>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(PackedObservation value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<PackedObservation>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public byte[] serialize(RegistryMetricsSnapshot value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<RegistryMetricsSnapshot>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    protected byte[] serializeErrorWithCode(EErrorCode errorCode, String message) {
+        try {
+            return _mapper.writeValueAsBytes(new CommandResultContainer<String>(null, message, errorCode));
+        } catch (JsonProcessingException e) {
+            return getSerializationError(message, e);
+        }
+    }
+
+    /**
+     * Error serializing an error (for example if Jackson fails for some reason)
+     * @param causeMessage Optional original error message
+     * @param e Cause
+     * @return Serialization error encoded as CBOR
+     */
+    private byte[] getSerializationError(String causeMessage, JsonProcessingException e) {
+        String error = e.getMessage();
+        if (causeMessage != null) {
+            error = String.format("%s | %s", error, causeMessage);
+        }
+        Map<String, Object> container = new LinkedHashMap<>();
+        container.put(Constants.ResultPayload, null);
+        container.put(Constants.ResultError, error);
+        container.put(Constants.ResultErrorCode, EErrorCode.RESPONSE_SERIALIZATION_ERROR.getErrorCode());
+        try {
+            return _mapper.writeValueAsBytes(container);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize an error response", ex);
+        }
+    }
+}
@@ -6,8 +6,11 @@ import dev.jcri.mdde.registry.exceptions.EErrorCode;
 import dev.jcri.mdde.registry.shared.commands.Constants;
 import dev.jcri.mdde.registry.shared.commands.containers.CommandResultContainer;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
 import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
 import dev.jcri.mdde.registry.store.exceptions.ResponseSerializationException;
 import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
 
@@ -111,6 +114,33 @@ public class ResponseSerializerJson extends ResponseSerializerBase<String> {
         }
     }
 
+    @Override
+    public String serialize(BenchmarkCandidatesResult value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsString(new CommandResultContainer<BenchmarkCandidatesResult>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public String serialize(PackedObservation value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsString(new CommandResultContainer<PackedObservation>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
+    @Override
+    public String serialize(RegistryMetricsSnapshot value) throws ResponseSerializationException {
+        try {
+            return _mapper.writeValueAsString(new CommandResultContainer<RegistryMetricsSnapshot>(value));
+        } catch (JsonProcessingException e) {
+            throw new ResponseSerializationException(e);
+        }
+    }
+
     @Override
     protected String serializeErrorWithCode(EErrorCode errorCode, String message) {
         try {
@@ -2,8 +2,11 @@ package dev.jcri.mdde.registry.control.serialization;
 
 import dev.jcri.mdde.registry.exceptions.EErrorCode;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
 import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
 import dev.jcri.mdde.registry.store.exceptions.ResponseSerializationException;
 import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
 
@@ -62,6 +65,21 @@ public class ResponseSerializerPassThrough extends ResponseSerializerBase<Object
         return value;
     }
 
+    @Override
+    public Object serialize(BenchmarkCandidatesResult value) throws ResponseSerializationException {
+        return value;
+    }
+
+    @Override
+    public Object serialize(PackedObservation value) throws ResponseSerializationException {
+        return value;
+    }
+
+    @Override
+    public Object serialize(RegistryMetricsSnapshot value) throws ResponseSerializationException {
+        return value;
+    }
+
     @Override
     protected Object serializeErrorWithCode(EErrorCode errorCode, String message) {
         return String.format("%s | %s",
@@ -0,0 +1,129 @@
+package dev.jcri.mdde.registry.control.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.jcri.mdde.registry.exceptions.EErrorCode;
+import dev.jcri.mdde.registry.shared.commands.containers.CommandResultContainer;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
+import dev.jcri.mdde.registry.shared.commands.containers.result.events.RegistryEvent;
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
+import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Wraps the responses into {@link StreamedResponse} that are encoded by the transport straight into its output
+ * buffers. The encoding (JSON, CBOR) is defined by the mapper, the response structure is the same as the one
+ * produced by ResponseSerializerJson.
+ */
+public class ResponseSerializerStreamed extends ResponseSerializerBase<StreamedResponse> {
+    private final ObjectWriter _writer;
+
+    /**
+     * Constructor
+     * @param mapper Mapper of the target encoding.
+     */
+    public ResponseSerializerStreamed(ObjectMapper mapper){
+        Objects.requireNonNull(mapper, "mapper can't be null");
+        _writer = mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private <T> StreamedResponse respond(T value){
+        return new StreamedResponse(_writer, new CommandResultContainer<T>(value));
+    }
+
+    @Override
+    public StreamedResponse serialize(String value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(List<String> value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(Set<String> value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(int value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(boolean value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(FullRegistryAllocation value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(BenchmarkRunResult value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(BenchmarkStatus value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(FragmentCatalog value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(BenchmarkCandidatesResult value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(PackedObservation value) {
+        return respond(value);
+    }
+
+    @Override
+    public StreamedResponse serialize(RegistryMetricsSnapshot value) {
+        return respond(value);
+    }
+
+    /**
+     * Combine the responses of the BATCH statements into a single response
+     * @param responses Responses in the order of the statements.
+     * @return Response with the list of the individual responses as the result.
+     */
+    public StreamedResponse serializeBatch(List<StreamedResponse> responses){
+        List<CommandResultContainer<?>> containers = new ArrayList<>(responses.size());
+        for(var response: responses){
+            containers.add(response.getContainer());
+        }
+        return respond(containers);
+    }
+
+    /**
+     * Wrap a batch of the registry events pushed to a subscriber
+     * @param events Events in the order of publishing.
+     * @return Response with the list of the events as the result.
+     */
+    public StreamedResponse serializeEvents(List<RegistryEvent> events){
+        return respond(events);
+    }
+
+    @Override
+    protected StreamedResponse serializeErrorWithCode(EErrorCode errorCode, String message) {
+        return new StreamedResponse(_writer, new CommandResultContainer<String>(null, message, errorCode));
+    }
+}
@@ -0,0 +1,66 @@
+package dev.jcri.mdde.registry.control.serialization;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.jcri.mdde.registry.shared.commands.containers.CommandResultContainer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Response that is not serialized yet. The transport writes it directly into its own output buffer, so a large
+ * response is encoded once and is never materialized as an intermediate String or byte array.
+ */
+public final class StreamedResponse {
+    private final ObjectWriter _writer;
+    private final CommandResultContainer<?> _container;
+
+    /**
+     * Constructor
+     * @param writer Writer of the target encoding, must not close the output stream.
+     * @param container Response container.
+     */
+    StreamedResponse(ObjectWriter writer, CommandResultContainer<?> container){
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(container);
+        _writer = writer;
+        _container = container;
+    }
+
+    /**
+     * Get the response container
+     * @return Container with the result or error.
+     */
+    public CommandResultContainer<?> getContainer(){
+        return _container;
+    }
+
+    /**
+     * Check if the response reports an error
+     * @return True - error field is set.
+     */
+    public boolean isError(){
+        return _container.getError() != null;
+    }
+
+    /**
+     * Encode the response into the output stream. The stream is not closed.
+     * @param out Output stream.
+     * @throws IOException Serialization or output error.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        _writer.writeValue(out, _container);
+    }
+
+    /**
+     * Encode the response into a new byte array
+     * @return Encoded response.
+     * @throws IOException Serialization error.
+     */
+    public byte[] toByteArray() throws IOException {
+        var out = new ByteArrayOutputStream();
+        writeTo(out);
+        return out.toByteArray();
+    }
+}
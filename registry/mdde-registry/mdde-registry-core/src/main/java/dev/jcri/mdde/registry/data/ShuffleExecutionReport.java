@@ -0,0 +1,88 @@
+package dev.jcri.mdde.registry.data;
+
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of executing a window of the data shuffle queue actions.
+ */
+public class ShuffleExecutionReport {
+    private final List<ActionReport> _executed;
+    private final List<DataAction> _notExecuted;
+    private final Throwable _error;
+    private final long _wallNanos;
+
+    /**
+     * Constructor
+     * @param executed Actions that were executed, in the order of completion.
+     * @param notExecuted Actions that were not started due to an error, in the queue order.
+     * @param error First error, null if all of the actions were executed successfully.
+     * @param wallNanos Wall time of the execution (ns).
+     */
+    public ShuffleExecutionReport(List<ActionReport> executed,
+                                  List<DataAction> notExecuted,
+                                  Throwable error,
+                                  long wallNanos){
+        _executed = Collections.unmodifiableList(executed);
+        _notExecuted = Collections.unmodifiableList(notExecuted);
+        _error = error;
+        _wallNanos = wallNanos;
+    }
+
+    /**
+     * Actions that were executed (including the failed ones), in the order of completion
+     */
+    public List<ActionReport> getExecuted() {
+        return _executed;
+    }
+
+    /**
+     * Actions that were not started because the execution was stopped by an error, in the queue order
+     */
+    public List<DataAction> getNotExecuted() {
+        return _notExecuted;
+    }
+
+    /**
+     * First error, null if all of the actions were executed successfully
+     */
+    public Throwable getError() {
+        return _error;
+    }
+
+    public long getWallNanos() {
+        return _wallNanos;
+    }
+
+    /**
+     * Execution of a single action
+     */
+    public static class ActionReport {
+        private final DataAction _action;
+        private final long _nanos;
+        private final ShuffleKeysResult _result;
+
+        public ActionReport(DataAction action, long nanos, ShuffleKeysResult result){
+            _action = action;
+            _nanos = nanos;
+            _result = result;
+        }
+
+        public DataAction getAction() {
+            return _action;
+        }
+
+        /**
+         * Execution time (ns)
+         */
+        public long getNanos() {
+            return _nanos;
+        }
+
+        public ShuffleKeysResult getResult() {
+            return _result;
+        }
+    }
+}
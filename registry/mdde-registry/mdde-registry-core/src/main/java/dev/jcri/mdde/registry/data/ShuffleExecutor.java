@@ -0,0 +1,324 @@
+package dev.jcri.mdde.registry.data;
+
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
+import dev.jcri.mdde.registry.metrics.RegistryMetrics;
+import dev.jcri.mdde.registry.metrics.jfr.ShuffleActionEvent;
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes a window of the data shuffle queue actions concurrently.
+ *
+ * An action depends on the earlier actions of the window it conflicts with: the ones writing (COPY destination,
+ * DELETE) the tuples it reads or writes on the same node, and the ones reading (COPY source) the tuples it writes on
+ * the same node. Conflicting actions keep the queue order, the rest run on a bounded pool with a limited number of
+ * actions per data node. Scheduling is done by the calling thread.
+ *
+ * Execution stops at the first failed action: the running actions are awaited, the ones that were not started yet
+ * are returned to the caller.
+ */
+public class ShuffleExecutor {
+    private static final Logger logger = LogManager.getLogger(ShuffleExecutor.class);
+
+    private final IDataShuffler _dataShuffler;
+    private final ExecutorService _pool;
+    private final int _threads;
+    private final int _perNodeLimit;
+    private final RegistryMetrics _metrics = RegistryMetrics.getDefaultInstance();
+
+    /**
+     * Constructor
+     * @param dataShuffler Data nodes controller executing the actions.
+     * @param config Execution settings.
+     */
+    public ShuffleExecutor(IDataShuffler dataShuffler, ShuffleConfig config){
+        Objects.requireNonNull(dataShuffler, "Data shuffler can't be null");
+        Objects.requireNonNull(config, "Shuffle config can't be null");
+        if(config.getThreads() < 1){
+            throw new IllegalArgumentException("Number of the shuffle threads must be at least 1");
+        }
+        if(config.getPerNode() < 1){
+            throw new IllegalArgumentException("Number of the shuffle actions per node must be at least 1");
+        }
+        _dataShuffler = dataShuffler;
+        _threads = config.getThreads();
+        _perNodeLimit = config.getPerNode();
+        var threadCounter = new AtomicInteger();
+        _pool = Executors.newFixedThreadPool(_threads, r -> {
+            var thread = new Thread(r, "mdde-shuffle-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Execute the actions
+     * @param actions Actions in the queue order.
+     * @return Execution report.
+     * @throws InterruptedException Interrupted while waiting for the running actions.
+     */
+    public ShuffleExecutionReport execute(List<DataAction> actions) throws InterruptedException {
+        Objects.requireNonNull(actions, "Actions list can't be null");
+        final long start = System.nanoTime();
+        var tasks = buildGraph(actions);
+
+        LinkedList<Task> ready = new LinkedList<>();
+        for(var task: tasks){
+            if(task._pending == 0){
+                ready.add(task);
+            }
+        }
+        Map<String, Integer> activePerNode = new HashMap<>();
+        var completed = new LinkedBlockingQueue<Task>();
+        List<ShuffleExecutionReport.ActionReport> executed = new ArrayList<>(tasks.size());
+        Throwable error = null;
+        int inFlight = 0;
+        while(true){
+            if(error == null){
+                var readyIterator = ready.iterator();
+                while(inFlight < _threads && readyIterator.hasNext()){
+                    var task = readyIterator.next();
+                    if(!hasCapacity(task, activePerNode)){
+                        continue;
+                    }
+                    readyIterator.remove();
+                    for(var node: task._nodes){
+                        activePerNode.merge(node, 1, Integer::sum);
+                    }
+                    task._started = true;
+                    inFlight++;
+                    _pool.execute(() -> {
+                        run(task);
+                        completed.add(task);
+                    });
+                }
+            }
+            if(inFlight == 0){
+                break;
+            }
+            var done = completed.take();
+            inFlight--;
+            for(var node: done._nodes){
+                activePerNode.merge(node, -1, Integer::sum);
+            }
+            executed.add(new ShuffleExecutionReport.ActionReport(done._action, done._nanos, done._result));
+            if(done._error != null){
+                if(error == null){
+                    error = done._error;
+                }
+                continue;
+            }
+            for(var dependent: done._dependents){
+                if(--dependent._pending == 0){
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        List<DataAction> notExecuted = new ArrayList<>();
+        for(var task: tasks){
+            if(!task._started){
+                notExecuted.add(task._action);
+            }
+        }
+        var wallNanos = System.nanoTime() - start;
+        logger.info("Executed {} of {} shuffle actions in {} ms", executed.size(), tasks.size(), wallNanos / 1_000_000);
+        return new ShuffleExecutionReport(executed, notExecuted, error, wallNanos);
+    }
+
+    /**
+     * Stop the execution threads
+     */
+    public void shutdown(){
+        _pool.shutdownNow();
+    }
+
+    private boolean hasCapacity(Task task, Map<String, Integer> activePerNode){
+        for(var node: task._nodes){
+            if(activePerNode.getOrDefault(node, 0) >= _perNodeLimit){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void run(Task task){
+        var action = task._action;
+        var event = new ShuffleActionEvent();
+        event.begin();
+        final long start = System.nanoTime();
+        try {
+            switch (action.getActionType()) {
+                case DELETE:
+                    var delAction = (DataDeleteAction) action;
+                    event.sourceNode = delAction.getDataNode();
+                    event.tuples = delAction.getTupleIds().size();
+                    task._result = _dataShuffler.deleteTuples(delAction.getDataNode(), delAction.getTupleIds());
+                    break;
+                case COPY:
+                    var cpyAction = (DataCopyAction) action;
+                    event.sourceNode = cpyAction.getSourceNode();
+                    event.destinationNode = cpyAction.getDestinationNode();
+                    event.tuples = cpyAction.getTupleIds().size();
+                    task._result = _dataShuffler.copyTuples(cpyAction.getSourceNode(),
+                                                            cpyAction.getDestinationNode(),
+                                                            cpyAction.getTupleIds());
+                    break;
+                default:
+                    throw new IllegalStateException(String.format("Unknown data action type: %s",
+                                                                  action.getActionType().getTag()));
+            }
+            task._error = task._result.getError();
+        }
+        catch (Throwable e){
+            task._error = e;
+        }
+        task._nanos = System.nanoTime() - start;
+        _metrics.recordCommand(RegistryMetrics.TYPE_SHUFFLE, action.getActionType().name(), task._nanos, 0);
+        logger.info("Shuffle action {} {} of {} tuples ({} -> {}) took {} ms{}",
+                action.getActionId(), action.getActionType().getTag(), event.tuples,
+                event.sourceNode, event.destinationNode, task._nanos / 1_000_000,
+                task._error != null ? ", failed" : "");
+        event.end();
+        if(event.shouldCommit()){
+            event.action = action.getActionType().getTag();
+            if(task._result != null){
+                event.processedKeys = task._result.getProcessedKeys().size();
+                event.failedKeys = task._result.getFailedKeys().size();
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Build the dependencies between the actions
+     * @param actions Actions in the queue order.
+     * @return Tasks in the queue order.
+     */
+    static List<Task> buildGraph(List<DataAction> actions){
+        List<Task> tasks = new ArrayList<>(actions.size());
+        // Node -> tuple -> last write and the reads following it
+        Map<String, Map<String, TupleAccess>> accesses = new HashMap<>();
+        for(var action: actions){
+            var task = new Task(action);
+            Set<Task> dependencies = new LinkedHashSet<>();
+            switch (action.getActionType()){
+                case DELETE:
+                    var delAction = (DataDeleteAction) action;
+                    task._nodes = List.of(delAction.getDataNode());
+                    registerWrite(accesses, delAction.getDataNode(), delAction.getTupleIds(), task, dependencies);
+                    break;
+                case COPY:
+                    var cpyAction = (DataCopyAction) action;
+                    task._nodes = cpyAction.getSourceNode().equals(cpyAction.getDestinationNode())
+                            ? List.of(cpyAction.getSourceNode())
+                            : List.of(cpyAction.getSourceNode(), cpyAction.getDestinationNode());
+                    registerRead(accesses, cpyAction.getSourceNode(), cpyAction.getTupleIds(), task, dependencies);
+                    registerWrite(accesses, cpyAction.getDestinationNode(), cpyAction.getTupleIds(), task,
+                                  dependencies);
+                    break;
+                default:
+                    task._nodes = Collections.emptyList();
+            }
+            dependencies.remove(task);
+            task._pending = dependencies.size();
+            for(var dependency: dependencies){
+                dependency._dependents.add(task);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static void registerRead(Map<String, Map<String, TupleAccess>> accesses,
+                                     String node,
+                                     Set<String> tupleIds,
+                                     Task task,
+                                     Set<Task> dependencies){
+        var nodeAccesses = accesses.computeIfAbsent(node, k -> new HashMap<>());
+        for(var tupleId: tupleIds){
+            var access = nodeAccesses.computeIfAbsent(tupleId, k -> new TupleAccess());
+            if(access._lastWrite != null){
+                dependencies.add(access._lastWrite);
+            }
+            access._reads.add(task);
+        }
+    }
+
+    private static void registerWrite(Map<String, Map<String, TupleAccess>> accesses,
+                                      String node,
+                                      Set<String> tupleIds,
+                                      Task task,
+                                      Set<Task> dependencies){
+        var nodeAccesses = accesses.computeIfAbsent(node, k -> new HashMap<>());
+        for(var tupleId: tupleIds){
+            var access = nodeAccesses.computeIfAbsent(tupleId, k -> new TupleAccess());
+            if(access._lastWrite != null){
+                dependencies.add(access._lastWrite);
+            }
+            dependencies.addAll(access._reads);
+            access._reads.clear();
+            access._lastWrite = task;
+        }
+    }
+
+    /**
+     * Accesses to a single tuple on a single node
+     */
+    private static final class TupleAccess {
+        private Task _lastWrite = null;
+        private final List<Task> _reads = new ArrayList<>(1);
+    }
+
+    /**
+     * Action with its dependencies. Scheduling state is accessed only by the scheduling thread, execution state is
+     * published through the completion queue.
+     */
+    static final class Task {
+        private final DataAction _action;
+        private final List<Task> _dependents = new ArrayList<>();
+        private List<String> _nodes;
+        private int _pending;
+        private boolean _started = false;
+
+        private ShuffleKeysResult _result;
+        private Throwable _error;
+        private long _nanos;
+
+        private Task(DataAction action){
+            _action = action;
+        }
+
+        DataAction getAction() {
+            return _action;
+        }
+
+        /**
+         * Number of the actions this action waits for
+         */
+        int getPending() {
+            return _pending;
+        }
+
+        List<Task> getDependents() {
+            return _dependents;
+        }
+    }
+}
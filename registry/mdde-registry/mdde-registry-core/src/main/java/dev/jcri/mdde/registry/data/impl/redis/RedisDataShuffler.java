@@ -1,43 +1,128 @@
 package dev.jcri.mdde.registry.data.impl.redis;
 
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
 import dev.jcri.mdde.registry.data.IDataShuffler;
 import dev.jcri.mdde.registry.data.ShuffleKeysResult;
+import dev.jcri.mdde.registry.metrics.jfr.SnapshotNodeEvent;
 import dev.jcri.mdde.registry.shared.configuration.DBNetworkNodesConfiguration;
 import dev.jcri.mdde.registry.store.queue.actions.DataAction;
-import dev.jcri.mdde.registry.utility.ByteTools;
+import dev.jcri.mdde.registry.store.snapshot.container.ISnapshotRecordReader;
+import dev.jcri.mdde.registry.store.snapshot.container.LegacySnapshotRecordReader;
+import dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerReader;
+import dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.MigrateParams;
+import redis.clients.jedis.util.SafeEncoder;
 
 import java.io.*;
-import java.nio.channels.FileLock;
-import java.nio.channels.Pipe;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * Data shuffle for Redis non-clustered data nodes
  */
 public class RedisDataShuffler implements IDataShuffler {
+    private static final Logger logger = LogManager.getLogger(RedisDataShuffler.class);
+    /**
+     * Legacy snapshot with the node sections in sequence
+     */
+    private static final short SNAPSHOT_VERSION_SEQUENTIAL = 0;
+    private static final int SNAPSHOT_BUFFER_SIZE = 256 * 1024;
+    /**
+     * Upper bound of the number of keys restored in a single pipeline regardless of their size
+     */
+    private static final int RESTORE_BATCH_MAX_KEYS = 10000;
+    /**
+     * Snapshot container attribute holding the data plane the snapshot was taken with (ShuffleConfig.DATA_PLANE_*)
+     */
+    public static final String SNAPSHOT_ATTRIBUTE_DATA_PLANE = "data_plane";
+
     /**
      * NodeId : JedisPool
      */
     private final Map<String, JedisPool> _redisConnections;
+    /**
+     * NodeId : Node configuration
+     */
+    private final Map<String, DBNetworkNodesConfiguration> _redisNodes;
+    /**
+     * Tuples copy strategy (ShuffleConfig.COPY_*)
+     */
+    private final String _copyStrategy;
+    private final int _copyBatch;
+    private final int _migrateTimeout;
+    /**
+     * Number of the collection items read at a time by the streaming copy
+     */
+    private final int _copyChunkSize;
+    /**
+     * Maximum size of the collection items written to the destination but not yet acknowledged
+     */
+    private final long _copyInFlightBytes;
+    /**
+     * "source destination" pairs of the nodes where MIGRATE can't be used (see {@link #isMigrateUnavailable}),
+     * DUMP/RESTORE is used instead
+     */
+    private final Set<String> _migrateUnavailable = ConcurrentHashMap.newKeySet();
+    /**
+     * Maximum number of the nodes dumped or restored at the same time, 0 - all
+     */
+    private final int _snapshotThreads;
+    private final int _snapshotScanCount;
+    private final long _snapshotBatchBytes;
+    /**
+     * Data plane of the registry (ShuffleConfig.DATA_PLANE_*), recorded in the snapshots
+     */
+    private final String _dataPlane;
 
     /**
      * Constructor
      * @param redisNodes List of the Redis instances managed by this registry
      */
     public RedisDataShuffler(List<DBNetworkNodesConfiguration> redisNodes){
+        this(redisNodes, new ShuffleConfig());
+    }
+
+    /**
+     * Constructor
+     * @param redisNodes List of the Redis instances managed by this registry
+     * @param shuffleConfig Shuffle settings defining the tuples copy strategy
+     */
+    public RedisDataShuffler(List<DBNetworkNodesConfiguration> redisNodes, ShuffleConfig shuffleConfig){
         Objects.requireNonNull(redisNodes, "Redis nodes list is null");
+        Objects.requireNonNull(shuffleConfig, "Shuffle config is null");
         if(redisNodes.size() == 0){
             throw new IllegalArgumentException("List of Redis nodes is empty");
         }
+        var copyStrategy = shuffleConfig.getCopy() != null ? shuffleConfig.getCopy() : ShuffleConfig.COPY_MIGRATE;
+        if(!copyStrategy.equals(ShuffleConfig.COPY_MIGRATE)
+                && !copyStrategy.equals(ShuffleConfig.COPY_DUMP)
+                && !copyStrategy.equals(ShuffleConfig.COPY_VALUES)){
+            throw new IllegalArgumentException(String.format("Unknown tuples copy strategy: %s", copyStrategy));
+        }
+        _copyStrategy = copyStrategy;
+        _copyBatch = Math.max(1, shuffleConfig.getCopyBatch());
+        _migrateTimeout = shuffleConfig.getMigrateTimeout();
+        _copyChunkSize = Math.max(1, shuffleConfig.getCopyChunk());
+        _copyInFlightBytes = Math.max(1, shuffleConfig.getCopyInFlightBytes());
+        _snapshotThreads = Math.max(0, shuffleConfig.getSnapshotThreads());
+        _snapshotScanCount = Math.max(1, shuffleConfig.getSnapshotScan());
+        _snapshotBatchBytes = Math.max(1, shuffleConfig.getSnapshotBatchBytes());
+        _dataPlane = shuffleConfig.getDataPlane() != null
+                ? shuffleConfig.getDataPlane() : ShuffleConfig.DATA_PLANE_PHYSICAL;
 
         // Fill out connections pools for the registry data nodes
         _redisConnections = new HashMap<>();
+        _redisNodes = new HashMap<>();
         for(var dataNode: redisNodes){
+            _redisNodes.put(dataNode.getNodeId(), dataNode);
             var configPool = new JedisPoolConfig();
             if (dataNode.getPassword() != null) {
                 _redisConnections.put(dataNode.getNodeId(), new JedisPool(configPool,
@@ -78,6 +163,167 @@ public class RedisDataShuffler implements IDataShuffler {
                     String.format("Unable to find destination data node with id: %s", destinationNodeId));
         }
 
+        switch (_copyStrategy){
+            case ShuffleConfig.COPY_VALUES:
+                return copyTuplesByValues(sourcePool, destinationPool, tupleIds);
+            case ShuffleConfig.COPY_MIGRATE:
+                var pair = sourceNodeId + " " + destinationNodeId;
+                if(!_migrateUnavailable.contains(pair)){
+                    try {
+                        return copyTuplesMigrate(sourcePool, _redisNodes.get(destinationNodeId), tupleIds);
+                    }
+                    catch (JedisDataException e){
+                        // Keys migrated before the failure are copied again by DUMP/RESTORE (REPLACE)
+                        if(isMigrateUnavailable(e)){
+                            logger.warn("MIGRATE from '{}' to '{}' is unavailable, falling back to DUMP/RESTORE: {}",
+                                    sourceNodeId, destinationNodeId, e.getMessage());
+                            _migrateUnavailable.add(pair);
+                        }
+                        else{
+                            logger.warn("MIGRATE from '{}' to '{}' failed, copying with DUMP/RESTORE this time: {}",
+                                    sourceNodeId, destinationNodeId, e.getMessage());
+                        }
+                    }
+                }
+                return copyTuplesDumpRestore(sourcePool, destinationPool, tupleIds);
+            default:
+                return copyTuplesDumpRestore(sourcePool, destinationPool, tupleIds);
+        }
+    }
+
+    /**
+     * Check if the MIGRATE error persists for the node pair: the command is not supported (unknown or renamed command,
+     * no COPY/REPLACE options) or the source isn't authorized to use it or to write to the destination. Other errors,
+     * such as the IOERR timeouts, may be transient and MIGRATE is tried again for the next copy.
+     * @param e MIGRATE error
+     * @return True - MIGRATE shouldn't be used between the nodes anymore
+     */
+    static boolean isMigrateUnavailable(JedisDataException e){
+        var message = e.getMessage();
+        if(message == null){
+            return false;
+        }
+        return message.startsWith("ERR unknown command")
+                || message.startsWith("ERR syntax error")
+                || message.contains("NOAUTH")
+                || message.contains("WRONGPASS")
+                || message.contains("NOPERM");
+    }
+
+    /**
+     * Copy the tuples directly between the nodes with MIGRATE ... COPY REPLACE KEYS in batches. Existence of the keys
+     * is checked in the same pipeline.
+     * @throws JedisDataException MIGRATE error (unknown command, destination unreachable from the source, auth).
+     */
+    private ShuffleKeysResult copyTuplesMigrate(JedisPool sourcePool,
+                                                DBNetworkNodesConfiguration destination,
+                                                Set<String> tupleIds){
+        var params = MigrateParams.migrateParams().copy().replace();
+        if(destination.getPassword() != null){
+            params.auth(new String(destination.getPassword()));
+        }
+        Set<String> processedKeys = new HashSet<>();
+        Set<String> missingKeys = new HashSet<>();
+        for(var batch: splitToBatches(tupleIds)){
+            List<Response<Boolean>> exists = new ArrayList<>(batch.length);
+            Response<String> migrated;
+            try(Jedis jedis = sourcePool.getResource()){
+                try(Pipeline p = jedis.pipelined()) {
+                    for (var key : batch) {
+                        exists.add(p.exists(key));
+                    }
+                    migrated = p.migrate(destination.getHost(), destination.getPort(), 0, _migrateTimeout,
+                                         params, batch);
+                    p.sync();
+                }
+            }
+            migrated.get();
+            for(int i = 0; i < batch.length; i++){
+                if(Boolean.TRUE.equals(exists.get(i).get())){
+                    processedKeys.add(batch[i]);
+                }
+                else{
+                    missingKeys.add(batch[i]);
+                }
+            }
+        }
+        return copyResult(processedKeys, missingKeys);
+    }
+
+    /**
+     * Copy the serialized values through the registry with pipelined DUMP and RESTORE ... REPLACE in batches
+     */
+    private ShuffleKeysResult copyTuplesDumpRestore(JedisPool sourcePool,
+                                                    JedisPool destinationPool,
+                                                    Set<String> tupleIds){
+        Set<String> processedKeys = new HashSet<>();
+        Set<String> failedKeys = new HashSet<>();
+        for(var batch: splitToBatches(tupleIds)){
+            List<Response<byte[]>> dumps = new ArrayList<>(batch.length);
+            try(Jedis jedis = sourcePool.getResource()){
+                try(Pipeline p = jedis.pipelined()) {
+                    for (var key : batch) {
+                        dumps.add(p.dump(key));
+                    }
+                    p.sync();
+                }
+            }
+            Map<String, Response<String>> restored = new HashMap<>();
+            try(Jedis jedis = destinationPool.getResource()){
+                try(Pipeline p = jedis.pipelined()) {
+                    for (int i = 0; i < batch.length; i++) {
+                        var value = dumps.get(i).get();
+                        if(value == null){
+                            failedKeys.add(batch[i]);
+                            continue;
+                        }
+                        restored.put(batch[i], p.restoreReplace(batch[i], 0, value));
+                    }
+                    p.sync();
+                }
+            }
+            for(var result: restored.entrySet()){
+                try {
+                    if("OK".equals(result.getValue().get())){
+                        processedKeys.add(result.getKey());
+                        continue;
+                    }
+                }
+                catch (JedisDataException e){
+                    logger.error("Failed to restore key '{}': {}", result.getKey(), e.getMessage());
+                }
+                failedKeys.add(result.getKey());
+            }
+        }
+        return copyResult(processedKeys, failedKeys);
+    }
+
+    private List<String[]> splitToBatches(Set<String> tupleIds){
+        List<String[]> batches = new ArrayList<>(tupleIds.size() / _copyBatch + 1);
+        var iterator = tupleIds.iterator();
+        while(iterator.hasNext()){
+            var batch = new String[Math.min(_copyBatch, tupleIds.size() - batches.size() * _copyBatch)];
+            for(int i = 0; i < batch.length; i++){
+                batch[i] = iterator.next();
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static ShuffleKeysResult copyResult(Set<String> processedKeys, Set<String> failedKeys){
+        if(processedKeys.isEmpty()){
+            return new ShuffleKeysResult(null, failedKeys, new IOException("Unable to copy any of the keys."));
+        }
+        return new ShuffleKeysResult(processedKeys, failedKeys, null);
+    }
+
+    /**
+     * Copy the tuples by reading and writing the values by their Redis type
+     */
+    private ShuffleKeysResult copyTuplesByValues(JedisPool sourcePool,
+                                                 JedisPool destinationPool,
+                                                 Set<String> tupleIds){
         // Get types of the keys
         Map<String, Response<String>> keyTypes = new HashMap<>();
         try(Jedis jedis = sourcePool.getResource()){
@@ -107,39 +353,31 @@ public class RedisDataShuffler implements IDataShuffler {
         var stringKeys = getKeysOfType(keyTypes, redisKeyTypes.string);
         if(stringKeys.size() > 0){
             processedKeys.addAll(stringKeys);
-            var stringKeysArray = stringKeys.toArray(new String[0]);
-            List<String> results;
-            try(Jedis jedis = sourcePool.getResource()){
-                results = jedis.mget(stringKeysArray);
-            }
-            String[] keyValues = new String[stringKeysArray.length * 2];
-            int keyValuesWriteIdx = 0;
-            for (int i = 0; i < stringKeysArray.length; i++) {
-                String key = stringKeysArray[i];
-                String value = results.get(i);
-                keyValues[keyValuesWriteIdx ++] = key;
-                keyValues[keyValuesWriteIdx ++] = value;
-            }
-            try(Jedis jedis = destinationPool.getResource()){
-                var stringCopied = jedis.mset(keyValues);
+            for(var stringKeysArray: splitToBatches(stringKeys)){
+                List<String> results;
+                try(Jedis jedis = sourcePool.getResource()){
+                    results = jedis.mget(stringKeysArray);
+                }
+                String[] keyValues = new String[stringKeysArray.length * 2];
+                int keyValuesWriteIdx = 0;
+                for (int i = 0; i < stringKeysArray.length; i++) {
+                    keyValues[keyValuesWriteIdx ++] = stringKeysArray[i];
+                    keyValues[keyValuesWriteIdx ++] = results.get(i);
+                }
+                try(Jedis jedis = destinationPool.getResource()){
+                    jedis.mset(keyValues);
+                }
             }
         }
 
+        // Collections are streamed in windows, Redis SET, LIST and HASH size can be arbitrary, so we don't want to
+        // risk running out of RAM
         // Process SET keys
         var setKeys = getKeysOfType(keyTypes, redisKeyTypes.set);
         if(setKeys.size() > 0){
             processedKeys.addAll(setKeys);
-            // Done sequentially because Redis SET size can be arbitrary, so we don't want to risk running out of RAM
             for(var setKey: setKeys){
-                Set<String> sourceSetMembers;
-                try(Jedis jedis = sourcePool.getResource()){
-                    sourceSetMembers = jedis.smembers(setKey);
-                }
-                var sourceSetMembersArray = sourceSetMembers.toArray(new String[0]);
-                long addedMembers = 0;
-                try(Jedis jedis = destinationPool.getResource()){
-                    addedMembers = jedis.sadd(setKey, sourceSetMembersArray);
-                }
+                streamSet(sourcePool, destinationPool, setKey);
             }
         }
 
@@ -148,14 +386,7 @@ public class RedisDataShuffler implements IDataShuffler {
         if(listKeys.size() > 0){
             processedKeys.addAll(listKeys);
             for(var listKey: listKeys){
-                List<String> listItems;
-                try(Jedis jedis = sourcePool.getResource()){
-                    listItems = jedis.lrange(listKey, 0, -1);
-                }
-                long addedMembers = 0;
-                try(Jedis jedis = destinationPool.getResource()){
-                    addedMembers = jedis.rpush(listKey, listItems.toArray(new String[0]));
-                }
+                streamList(sourcePool, destinationPool, listKey);
             }
         }
 
@@ -164,17 +395,121 @@ public class RedisDataShuffler implements IDataShuffler {
         if(hashKeys.size() > 0){
             processedKeys.addAll(hashKeys);
             for(var hashKey: hashKeys){
-                Map<String, String> hashValues;
-                try(Jedis jedis = sourcePool.getResource()){
-                    hashValues = jedis.hgetAll(hashKey);
+                streamHash(sourcePool, destinationPool, hashKey);
+            }
+        }
+        return new ShuffleKeysResult(processedKeys, nullKeys, null);
+    }
+
+    /**
+     * Writes the chunks of a collection to the destination through a pipeline. The pipeline is synced whenever the
+     * size of the unacknowledged chunks exceeds the in-flight budget. The destination key is replaced.
+     */
+    private final class ChunkWriter implements AutoCloseable {
+        private final Jedis _jedis;
+        private final Pipeline _pipeline;
+        private long _inFlightBytes = 0;
+
+        private ChunkWriter(JedisPool destinationPool, String key){
+            _jedis = destinationPool.getResource();
+            _pipeline = _jedis.pipelined();
+            _pipeline.del(key);
+        }
+
+        private Pipeline pipeline(){
+            return _pipeline;
+        }
+
+        private void written(long bytes){
+            _inFlightBytes += bytes;
+            if(_inFlightBytes >= _copyInFlightBytes){
+                _pipeline.sync();
+                _inFlightBytes = 0;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                _pipeline.close();
+            }
+            finally {
+                _jedis.close();
+            }
+        }
+    }
+
+    private void streamSet(JedisPool sourcePool, JedisPool destinationPool, String key){
+        var params = new ScanParams().count(_copyChunkSize);
+        try(Jedis source = sourcePool.getResource(); var writer = new ChunkWriter(destinationPool, key)){
+            var cursor = ScanParams.SCAN_POINTER_START;
+            while(true) {
+                var scan = source.sscan(key, cursor, params);
+                cursor = scan.getCursor();
+                var members = scan.getResult();
+                if(members != null && !members.isEmpty()){
+                    writer.pipeline().sadd(key, members.toArray(new String[0]));
+                    writer.written(chunkSize(members));
                 }
-                long addedMembers = 0;
-                try(Jedis jedis = destinationPool.getResource()){
-                    addedMembers = jedis.hset(hashKey, hashValues);
+                if(scan.isCompleteIteration()){
+                    break;
                 }
             }
         }
-        return new ShuffleKeysResult(processedKeys, nullKeys, null);
+    }
+
+    private void streamList(JedisPool sourcePool, JedisPool destinationPool, String key){
+        try(Jedis source = sourcePool.getResource(); var writer = new ChunkWriter(destinationPool, key)){
+            long start = 0;
+            while(true){
+                var items = source.lrange(key, start, start + _copyChunkSize - 1);
+                if(items == null || items.isEmpty()){
+                    break;
+                }
+                writer.pipeline().rpush(key, items.toArray(new String[0]));
+                writer.written(chunkSize(items));
+                if(items.size() < _copyChunkSize){
+                    break;
+                }
+                start += items.size();
+            }
+        }
+    }
+
+    private void streamHash(JedisPool sourcePool, JedisPool destinationPool, String key){
+        var params = new ScanParams().count(_copyChunkSize);
+        try(Jedis source = sourcePool.getResource(); var writer = new ChunkWriter(destinationPool, key)){
+            var cursor = ScanParams.SCAN_POINTER_START;
+            while(true) {
+                var scan = source.hscan(key, cursor, params);
+                cursor = scan.getCursor();
+                var entries = scan.getResult();
+                if(entries != null && !entries.isEmpty()){
+                    Map<String, String> chunk = new HashMap<>(entries.size() * 2);
+                    long bytes = 0;
+                    for(var entry: entries){
+                        chunk.put(entry.getKey(), entry.getValue());
+                        bytes += entry.getKey().length() + (entry.getValue() != null ? entry.getValue().length() : 0);
+                    }
+                    writer.pipeline().hset(key, chunk);
+                    writer.written(bytes);
+                }
+                if(scan.isCompleteIteration()){
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Approximate size of the chunk (characters)
+     */
+    private static long chunkSize(Collection<String> items){
+        long size = 0;
+        for(var item: items){
+            size += item.length();
+        }
+        return size;
     }
 
     @Override
@@ -233,6 +568,11 @@ public class RedisDataShuffler implements IDataShuffler {
         return true;
     }
 
+    /**
+     * Dump the data nodes concurrently into a snapshot container, every node into its own stream. Keys of every SCAN
+     * page are dumped in a single pipeline. The data plane of the registry is recorded in the container. If any of the
+     * nodes fails, the incomplete snapshot file is removed.
+     */
     @Override
     public boolean dumpToFile(String pathToFile, boolean overwrite) throws IOException {
         File dumpFile = new File(pathToFile);
@@ -249,131 +589,249 @@ public class RedisDataShuffler implements IDataShuffler {
                 }
             }
         }
-        final Charset serializationCharset = StandardCharsets.UTF_8;
-        try(FileOutputStream out = new FileOutputStream(dumpFile)){
-            try(FileLock outLock = out.getChannel().lock()){
-                // Write version of the file
-                // 2 bytes
-                short version = 0;
-                out.write(ByteTools.shortToByteArray(version));
-                // Write number and ids of the nodes
-                // 4 bytes
-                var nodeIds = _redisConnections.keySet();
-                out.write(ByteTools.intToByteArray(nodeIds.size()));
-                // Write keys per node
-                for(var nodeId: nodeIds){
-                    // |node id len|node id val|
-                    // |2 bytes    |...
-                    byte[] nodeIdBytes = nodeId.getBytes(serializationCharset);
-                    out.write(ByteTools.shortToByteArray((short) nodeIdBytes.length));
-                    out.write(nodeIdBytes);
-                    // Write keys and values
-                    try(Jedis jedis = _redisConnections.get(nodeId).getResource()){
-                        // |number of keys in the node|
-                        // 8 bytes
-                        var nKeys = jedis.dbSize();
-                        out.write(ByteTools.longToByteArray(nKeys));
-
-                        String scanCursor = "0";
-                        while(true){
-                            // Read one by one, slower but easier on RAM
-                            ScanResult<String> scan = jedis.scan(scanCursor);
-                            scanCursor = scan.getCursor();
-                            if(scan.getResult() != null && scan.getResult().size() > 0){
-                                // Dump keys
-                                for(String key: scan.getResult()){
-                                    byte[] value = jedis.dump(key);
-                                    // |key len|key val|value len|value val|
-                                    // |4 bytes|...    |4 bytes  |...      |
-                                    // Key
-                                    var keyBytes = key.getBytes(serializationCharset);
-                                    out.write(ByteTools.intToByteArray(keyBytes.length));
-                                    out.write(keyBytes);
-                                    // Value
-                                    out.write(ByteTools.intToByteArray(value.length));
-                                    out.write(value);
-                                }
-                            }
-
-                            if(scan.isCompleteIteration()){
-                                break;
-                            }
-                        }
+        try(var container = new SnapshotContainerWriter(dumpFile)){
+            container.setAttribute(SNAPSHOT_ATTRIBUTE_DATA_PLANE, _dataPlane);
+            List<Callable<Void>> tasks = new ArrayList<>(_redisConnections.size());
+            for(var nodeId: _redisConnections.keySet()){
+                var stream = container.openStream(nodeId);
+                tasks.add(() -> {
+                    try(stream){
+                        dumpNode(nodeId, stream);
                     }
-                }
+                    return null;
+                });
             }
+            runSnapshotTasks(tasks);
+            container.commit();
         }
         return true;
     }
 
+    /**
+     * Dump all of the keys of the node into the snapshot stream
+     * @param nodeId Node ID
+     * @param stream Stream of the node
+     */
+    private void dumpNode(String nodeId, SnapshotContainerWriter.StreamWriter stream) throws IOException {
+        var event = new SnapshotNodeEvent();
+        event.begin();
+        long nodeBytes = 0;
+        var scanParams = new ScanParams().count(_snapshotScanCount);
+        try(Jedis jedis = _redisConnections.get(nodeId).getResource()){
+            byte[] scanCursor = ScanParams.SCAN_POINTER_START_BINARY;
+            ScanResult<byte[]> scan;
+            do {
+                scan = jedis.scan(scanCursor, scanParams);
+                scanCursor = scan.getCursorAsBytes();
+                var keys = scan.getResult();
+                if(keys == null || keys.isEmpty()){
+                    continue;
+                }
+                List<Response<byte[]>> values = new ArrayList<>(keys.size());
+                try(Pipeline pipeline = jedis.pipelined()){
+                    for(byte[] key: keys){
+                        values.add(pipeline.dump(key));
+                    }
+                }
+                for(int i = 0; i < keys.size(); i++){
+                    byte[] value = values.get(i).get();
+                    if(value == null){
+                        continue; // The key was removed after it was scanned
+                    }
+                    byte[] key = keys.get(i);
+                    stream.writeRecord(key, value);
+                    nodeBytes += key.length + value.length;
+                }
+            } while(!scan.isCompleteIteration());
+        }
+        event.operation = SnapshotNodeEvent.OPERATION_DUMP;
+        event.node = nodeId;
+        event.keys = stream.getRecords();
+        event.bytes = nodeBytes;
+        event.commit();
+    }
+
+    /**
+     * Restore the data nodes from a snapshot. The nodes of a snapshot container are restored concurrently, the legacy
+     * snapshots are restored node by node. A snapshot container taken with a different data plane is rejected.
+     */
     @Override
     public boolean restoreFromFile(String pathToFile) throws IOException{
         File dumpFile = new File(pathToFile);
         if(!dumpFile.exists()) {
             throw new FileNotFoundException("Unable to find the Redis dump file");
         }
-        final Charset serializationCharset = StandardCharsets.UTF_8;
-        try(FileInputStream in = new FileInputStream(dumpFile)) {
-            // Skip version (version exists for potential future use)
-            var skipped = in.skip(2);
-            // Get the # of nodes
-            final int numNodes = ByteTools.byteArrayToInt(in.readNBytes(4));
+        if(SnapshotContainerReader.isContainer(dumpFile)){
+            try(var container = new SnapshotContainerReader(dumpFile)){
+                verifyDataPlane(container, pathToFile);
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for(var nodeId: container.getStreamNames()){
+                    if(!_redisConnections.containsKey(nodeId)){
+                        throw new NoSuchElementException(String.format("Unknown node Id: %s", nodeId));
+                    }
+                    tasks.add(() -> {
+                        restoreNode(nodeId, container.openStream(nodeId));
+                        return null;
+                    });
+                }
+                runSnapshotTasks(tasks);
+            }
+            return true;
+        }
+        return restoreFromLegacyFile(dumpFile);
+    }
+
+    /**
+     * Make sure the snapshot was taken with the same data plane. Snapshots of the physical data plane hold every data
+     * node, snapshots of the virtual data plane hold only the canonical node, so neither can be restored with the
+     * other one. Containers that don't record the data plane are not verified.
+     * @param container Snapshot container
+     * @param pathToFile Path to the snapshot file
+     * @throws IOException The snapshot was taken with a different data plane
+     */
+    private void verifyDataPlane(SnapshotContainerReader container, String pathToFile) throws IOException {
+        var snapshotDataPlane = container.getAttribute(SNAPSHOT_ATTRIBUTE_DATA_PLANE);
+        if(snapshotDataPlane != null && !snapshotDataPlane.equals(_dataPlane)){
+            throw new IOException(String.format(
+                    "Snapshot '%s' was taken with the %s data plane and can't be restored with the %s data plane",
+                    pathToFile, snapshotDataPlane, _dataPlane));
+        }
+    }
 
+    /**
+     * Restore the uncompressed snapshot written before the snapshot container
+     * @param dumpFile Snapshot file
+     */
+    private boolean restoreFromLegacyFile(File dumpFile) throws IOException {
+        try(DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(dumpFile), SNAPSHOT_BUFFER_SIZE))) {
+            final short version = in.readShort();
+            if(version != SNAPSHOT_VERSION_SEQUENTIAL){
+                throw new IOException(String.format("Unsupported data snapshot version: %d", version));
+            }
+            // Get the # of nodes
+            final int numNodes = in.readInt();
             for(int i = 0; i < numNodes; i ++){
-                // Get node Id
-                short nodeIdLen = ByteTools.byteArrayToShort(in.readNBytes(2));
-                String nodeId = new String(in.readNBytes(nodeIdLen), serializationCharset);
-                processNodeRestoration(nodeId, in, serializationCharset);
+                String nodeId = readNodeId(in);
+                restoreNode(nodeId, new LegacySnapshotRecordReader(in, in.readLong()));
             }
         }
         return true;
     }
 
-    private void processNodeRestoration(String nodeId,
-                                        FileInputStream in,
-                                        Charset serializationCharset) throws IOException {
+    private static String readNodeId(DataInputStream in) throws IOException {
+        byte[] nodeIdBytes = new byte[in.readShort()];
+        in.readFully(nodeIdBytes);
+        return new String(nodeIdBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Restore the keys of a node. Keys are restored in pipelines of up to {@link #_snapshotBatchBytes} of serialized
+     * values, so the number of round trips adapts to the size of the values.
+     * @param nodeId Node ID
+     * @param records Records of the node
+     */
+    private void restoreNode(String nodeId, ISnapshotRecordReader records) throws IOException {
         // Get the node connection pool
         var connectionPool = _redisConnections.get(nodeId);
         if(connectionPool == null){
             throw new NoSuchElementException(String.format("Unknown node Id: %s", nodeId));
         }
-        // Read number of keys in the node
-        final long numKeys = ByteTools.byteArrayToLong(in.readNBytes(8));
+        var event = new SnapshotNodeEvent();
+        event.begin();
+        long nodeBytes = 0;
         long keysProcessed = 0;
-        final int batchSize = 25; // # number of keys to read and restore at a time
-        while(keysProcessed < numKeys){
-            final long batchLimit = Math.min(numKeys, keysProcessed + batchSize);
-            Map<String, byte[]> keyValues = new HashMap<>();
-            for(; keysProcessed < batchLimit; keysProcessed++){
-                // Read key
-                int keyLength = ByteTools.byteArrayToInt(in.readNBytes(4));
-                String key = new String(in.readNBytes(keyLength), serializationCharset);
-                // Read value
-                int valueLength = ByteTools.byteArrayToInt(in.readNBytes(4));
-                byte[] value = in.readNBytes(valueLength);
-                keyValues.put(key, value);
-            }
-            Map<String, Response<String>> responseMap = new HashMap<>();
-            try(Jedis jedis = connectionPool.getResource()) {
+        try(Jedis jedis = connectionPool.getResource()) {
+            boolean hasNext = records.next();
+            while(hasNext){
+                List<byte[]> keys = new ArrayList<>();
+                List<Response<String>> responses = new ArrayList<>();
+                long batchBytes = 0;
                 try(Pipeline p = jedis.pipelined()) {
-                    for (var keyValue : keyValues.entrySet()) {
-                        Response<String> rResponse = p.restore(keyValue.getKey(), 0, keyValue.getValue());
-                        responseMap.put(keyValue.getKey(), rResponse);
+                    while(hasNext
+                            && batchBytes < _snapshotBatchBytes
+                            && keys.size() < RESTORE_BATCH_MAX_KEYS){
+                        byte[] key = records.getKey();
+                        byte[] value = records.getValue();
+                        keys.add(key);
+                        responses.add(p.restore(key, 0, value));
+                        batchBytes += key.length + value.length;
+                        hasNext = records.next();
                     }
                 }
+                nodeBytes += batchBytes;
+                keysProcessed += keys.size();
+                // Make sure all were restored
+                List<String> failedKeys = new ArrayList<>();
+                for(int i = 0; i < keys.size(); i++){
+                    try {
+                        if(!"OK".equals(responses.get(i).get())){
+                            failedKeys.add(SafeEncoder.encode(keys.get(i)));
+                        }
+                    }
+                    catch (JedisDataException e){
+                        failedKeys.add(SafeEncoder.encode(keys.get(i)));
+                    }
+                }
+                if(failedKeys.size() > 0) {
+                    throw new IOException(
+                            String.format("Failed to restore for node '%s' following keys: %s",
+                                            nodeId,
+                                            String.join(",", failedKeys)));
+                }
+            }
+        }
+        event.operation = SnapshotNodeEvent.OPERATION_RESTORE;
+        event.node = nodeId;
+        event.keys = keysProcessed;
+        event.bytes = nodeBytes;
+        event.commit();
+    }
+
+    /**
+     * Run the per node snapshot tasks on up to {@link #_snapshotThreads} threads and wait for all of them
+     * @param tasks Tasks
+     * @throws IOException The first failure of the tasks
+     */
+    private void runSnapshotTasks(List<Callable<Void>> tasks) throws IOException {
+        if(tasks.isEmpty()){
+            return;
+        }
+        var threads = _snapshotThreads > 0 ? Math.min(_snapshotThreads, tasks.size()) : tasks.size();
+        var threadCounter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            var thread = new Thread(r, "mdde-snapshot-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>(tasks.size());
+            for(var task: tasks){
+                futures.add(pool.submit(task));
             }
-            // Make sure all were restored
-            var failedKeys = responseMap.entrySet()
-                                        .stream()
-                                        .filter(e -> !e.getValue().get().equals("OK"))
-                                        .map(Map.Entry::getKey).collect(Collectors.toSet());
-            if(failedKeys.size() > 0) {
-                throw new IOException(
-                        String.format("Failed to restore for node '%s' following keys: %s",
-                                        nodeId,
-                                        String.join(",", failedKeys)));
+            for(var future: futures){
+                try {
+                    future.get();
+                }
+                catch (ExecutionException e){
+                    var cause = e.getCause();
+                    if(cause instanceof IOException){
+                        throw (IOException) cause;
+                    }
+                    if(cause instanceof RuntimeException){
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException(cause);
+                }
             }
         }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the data nodes snapshot");
+        }
+        finally {
+            pool.shutdownNow();
+        }
     }
 
     /**
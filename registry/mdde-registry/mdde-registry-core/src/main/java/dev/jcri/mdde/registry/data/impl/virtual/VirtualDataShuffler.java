@@ -0,0 +1,114 @@
+package dev.jcri.mdde.registry.data.impl.virtual;
+
+import dev.jcri.mdde.registry.data.IDataShuffler;
+import dev.jcri.mdde.registry.data.ShuffleKeysResult;
+import dev.jcri.mdde.registry.shared.configuration.DBNetworkNodesConfiguration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Data shuffler of the virtual data plane.
+ *
+ * All of the data nodes known to the registry are logical: every record is stored once, in the instance of the
+ * canonical node, and the benchmark clients are configured to reach the canonical instance under the IDs of all of the
+ * nodes (see {@link #mapToCanonical(List, String)}). The registry still routes and accounts every read to the node
+ * holding the fragment in the registry, but copying and removing tuples doesn't move any data.
+ *
+ * Flush, dump and restore are delegated to the shuffler of the canonical instance, which must be configured with the
+ * virtual data plane, so its snapshots can't be restored with the physical data plane and vice versa.
+ */
+public class VirtualDataShuffler implements IDataShuffler {
+    private final IDataShuffler _canonicalShuffler;
+
+    /**
+     * Constructor
+     * @param canonicalShuffler Shuffler controlling only the canonical data node
+     */
+    public VirtualDataShuffler(IDataShuffler canonicalShuffler){
+        Objects.requireNonNull(canonicalShuffler, "Shuffler of the canonical node can't be null");
+        _canonicalShuffler = canonicalShuffler;
+    }
+
+    /**
+     * Select the canonical node
+     * @param nodes Data nodes from the registry configuration
+     * @param canonicalNodeId ID of the canonical node, null to select the first node
+     * @return Configuration of the canonical node
+     */
+    public static DBNetworkNodesConfiguration getCanonicalNode(List<DBNetworkNodesConfiguration> nodes,
+                                                               String canonicalNodeId){
+        if(nodes == null || nodes.isEmpty()){
+            throw new IllegalArgumentException("Data nodes settings are not specified");
+        }
+        if(canonicalNodeId == null || canonicalNodeId.isBlank()){
+            return nodes.get(0);
+        }
+        for(var node: nodes){
+            if(canonicalNodeId.equals(node.getNodeId())){
+                return node;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Canonical node %s is not a known data node",
+                canonicalNodeId));
+    }
+
+    /**
+     * Map all of the data nodes to the connection of the canonical node, keeping the node IDs
+     * @param nodes Data nodes from the registry configuration
+     * @param canonicalNodeId ID of the canonical node, null to select the first node
+     * @return Node settings for the benchmark clients
+     */
+    public static List<DBNetworkNodesConfiguration> mapToCanonical(List<DBNetworkNodesConfiguration> nodes,
+                                                                   String canonicalNodeId){
+        var canonical = getCanonicalNode(nodes, canonicalNodeId);
+        List<DBNetworkNodesConfiguration> result = new ArrayList<>(nodes.size());
+        for(var node: nodes){
+            var logicalNode = new DBNetworkNodesConfiguration();
+            logicalNode.setNodeId(node.getNodeId());
+            logicalNode.setDefaultNode(node.getDefaultNode());
+            logicalNode.setHost(canonical.getHost());
+            logicalNode.setPort(canonical.getPort());
+            logicalNode.setUsername(canonical.getUsername());
+            logicalNode.setPassword(canonical.getPassword());
+            logicalNode.setDirectory(canonical.getDirectory());
+            result.add(logicalNode);
+        }
+        return result;
+    }
+
+    /**
+     * Records are already readable under the destination node ID
+     */
+    @Override
+    public ShuffleKeysResult copyTuples(String sourceNodeId, String destinationNodeId, Set<String> tupleIds) {
+        return new ShuffleKeysResult(new HashSet<>(tupleIds));
+    }
+
+    /**
+     * The canonical copy is kept for the other nodes holding the records
+     */
+    @Override
+    public ShuffleKeysResult deleteTuples(String nodeId, Set<String> tupleIds) {
+        return new ShuffleKeysResult(new HashSet<>(tupleIds));
+    }
+
+    @Override
+    public boolean flushData() {
+        return _canonicalShuffler.flushData();
+    }
+
+    @Override
+    public boolean dumpToFile(String pathToFile, boolean overwrite) throws IOException {
+        return _canonicalShuffler.dumpToFile(pathToFile, overwrite);
+    }
+
+    @Override
+    public boolean restoreFromFile(String pathToFile) throws IOException {
+        return _canonicalShuffler.restoreFromFile(pathToFile);
+    }
+}
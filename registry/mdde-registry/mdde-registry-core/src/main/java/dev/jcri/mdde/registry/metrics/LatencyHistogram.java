@@ -0,0 +1,125 @@
+package dev.jcri.mdde.registry.metrics;
+
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.CommandLatencyStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram of a single command with fixed 1-2-5 buckets from 1 us to 10 s.
+ * Recording is cheap enough for the hot benchmark calls.
+ */
+public final class LatencyHistogram {
+    /**
+     * Inclusive upper bounds of the buckets (us), the last bucket holds everything above the last bound
+     */
+    private static final long[] BOUNDS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500,
+            1_000, 2_000, 5_000, 10_000, 20_000, 50_000, 100_000, 200_000, 500_000,
+            1_000_000, 2_000_000, 5_000_000, 10_000_000
+    };
+
+    /**
+     * Bucket bounds (us) as a list
+     */
+    public static final List<Long> BUCKET_BOUNDS;
+    static {
+        var bounds = new ArrayList<Long>(BOUNDS.length);
+        for(var bound: BOUNDS){
+            bounds.add(bound);
+        }
+        BUCKET_BOUNDS = Collections.unmodifiableList(bounds);
+    }
+
+    private final String _type;
+    private final String _command;
+    private final LongAdder[] _buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder _totalMicros = new LongAdder();
+    private final LongAccumulator _maxMicros = new LongAccumulator(Math::max, 0);
+    private final LongAdder _storeAccesses = new LongAdder();
+
+    /**
+     * Constructor
+     * @param type Command type.
+     * @param command Command name.
+     */
+    public LatencyHistogram(String type, String command){
+        _type = type;
+        _command = command;
+        for(int i = 0; i < _buckets.length; i++){
+            _buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a single call
+     * @param nanos Execution time (ns).
+     * @param storeAccesses Number of the registry store accesses made by the call.
+     */
+    public void record(long nanos, long storeAccesses){
+        var micros = Math.max(0, nanos / 1000);
+        var index = Arrays.binarySearch(BOUNDS, micros);
+        if(index < 0){
+            index = -index - 1;
+        }
+        _buckets[index].increment();
+        _totalMicros.add(micros);
+        _maxMicros.accumulate(micros);
+        if(storeAccesses > 0){
+            _storeAccesses.add(storeAccesses);
+        }
+    }
+
+    public String getType() {
+        return _type;
+    }
+
+    public String getCommand() {
+        return _command;
+    }
+
+    /**
+     * Get the current state of the histogram. Calls recorded concurrently may be partially reflected.
+     * @return Latency stats.
+     */
+    public CommandLatencyStats snapshot(){
+        var counts = new long[_buckets.length];
+        long count = 0;
+        for(int i = 0; i < counts.length; i++){
+            counts[i] = _buckets[i].sum();
+            count += counts[i];
+        }
+        var buckets = new ArrayList<Long>(counts.length);
+        for(var bucket: counts){
+            buckets.add(bucket);
+        }
+        var max = _maxMicros.get();
+        return new CommandLatencyStats(_type, _command, count, _totalMicros.sum(), max,
+                percentile(counts, count, 0.5, max),
+                percentile(counts, count, 0.9, max),
+                percentile(counts, count, 0.99, max),
+                _storeAccesses.sum(), buckets);
+    }
+
+    /**
+     * Upper bound of the bucket containing the percentile, capped by the observed maximum
+     */
+    private static long percentile(long[] counts, long total, double quantile, long max){
+        if(total == 0){
+            return 0;
+        }
+        var rank = (long) Math.ceil(quantile * total);
+        long cumulative = 0;
+        for(int i = 0; i < counts.length; i++){
+            cumulative += counts[i];
+            if(cumulative >= rank){
+                return i < BOUNDS.length ? Math.min(BOUNDS[i], max) : max;
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,81 @@
+package dev.jcri.mdde.registry.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically dumps the registry metrics in the Prometheus text format into a file. The file is replaced atomically,
+ * so it can be picked up by the node_exporter textfile collector or read by the experiment scripts at any time.
+ */
+public class MetricsFileWriter implements Closeable {
+    private static final Logger logger = LogManager.getLogger(MetricsFileWriter.class);
+
+    private final RegistryMetrics _metrics;
+    private final Path _target;
+    private final ScheduledExecutorService _scheduler;
+
+    /**
+     * Constructor
+     * @param metrics Dumped metrics.
+     * @param target Path to the metrics file.
+     * @param periodSeconds Interval between the dumps.
+     */
+    public MetricsFileWriter(RegistryMetrics metrics, Path target, long periodSeconds){
+        Objects.requireNonNull(metrics, "metrics can't be null");
+        Objects.requireNonNull(target, "target can't be null");
+        if(periodSeconds < 1){
+            throw new IllegalArgumentException("Dump period must be at least 1 second");
+        }
+        _metrics = metrics;
+        _target = target.toAbsolutePath();
+        _scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "mdde-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        _scheduler.scheduleAtFixedRate(this::dumpSafe, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Write the current metrics into the file
+     * @throws IOException Failed to write the file.
+     */
+    public void dump() throws IOException {
+        var text = PrometheusTextFormatter.format(_metrics.snapshot());
+        var parent = _target.getParent();
+        if(parent != null){
+            Files.createDirectories(parent);
+        }
+        var tmp = _target.resolveSibling(_target.getFileName() + ".tmp");
+        Files.write(tmp, text.getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, _target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void dumpSafe(){
+        try {
+            dump();
+        } catch (Exception e) {
+            logger.warn("Failed to dump the metrics into {}: {}", _target, e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the periodic dumps and write the final state
+     */
+    @Override
+    public void close() {
+        _scheduler.shutdownNow();
+        dumpSafe();
+    }
+}
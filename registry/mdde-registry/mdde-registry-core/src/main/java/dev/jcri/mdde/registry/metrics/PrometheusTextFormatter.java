@@ -0,0 +1,106 @@
+package dev.jcri.mdde.registry.metrics;
+
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Formats the registry metrics in the Prometheus text exposition format (version 0.0.4)
+ */
+public final class PrometheusTextFormatter {
+    private static final String LATENCY_METRIC = "mdde_command_latency_seconds";
+    private static final String STORE_ACCESSES_METRIC = "mdde_command_store_accesses_total";
+
+    private PrometheusTextFormatter(){}
+
+    /**
+     * Format the metrics snapshot
+     * @param snapshot Snapshot.
+     * @return Prometheus text.
+     */
+    public static String format(RegistryMetricsSnapshot snapshot){
+        var out = new StringBuilder();
+        out.append("# HELP mdde_uptime_seconds Seconds since the registry metrics collection was started\n");
+        out.append("# TYPE mdde_uptime_seconds gauge\n");
+        out.append("mdde_uptime_seconds ").append(snapshot.getUptime()).append('\n');
+
+        var bounds = snapshot.getBucketBounds();
+        var commands = snapshot.getCommands();
+        if(commands != null && !commands.isEmpty()){
+            out.append("# HELP ").append(LATENCY_METRIC).append(" Registry command execution time\n");
+            out.append("# TYPE ").append(LATENCY_METRIC).append(" histogram\n");
+            for(var command: commands){
+                var labels = "type=\"" + escape(command.getType()) + "\",cmd=\"" + escape(command.getCommand()) + "\"";
+                long cumulative = 0;
+                var buckets = command.getBuckets();
+                for(int i = 0; i < buckets.size(); i++){
+                    cumulative += buckets.get(i);
+                    var le = i < bounds.size() ? formatSeconds(bounds.get(i)) : "+Inf";
+                    out.append(LATENCY_METRIC).append("_bucket{").append(labels)
+                            .append(",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+                }
+                out.append(LATENCY_METRIC).append("_sum{").append(labels).append("} ")
+                        .append(formatSeconds(command.getTotalMicros())).append('\n');
+                out.append(LATENCY_METRIC).append("_count{").append(labels).append("} ")
+                        .append(command.getCount()).append('\n');
+            }
+            out.append("# HELP ").append(STORE_ACCESSES_METRIC).append(" Registry store accesses made by the command\n");
+            out.append("# TYPE ").append(STORE_ACCESSES_METRIC).append(" counter\n");
+            for(var command: commands){
+                out.append(STORE_ACCESSES_METRIC).append("{type=\"").append(escape(command.getType()))
+                        .append("\",cmd=\"").append(escape(command.getCommand())).append("\"} ")
+                        .append(command.getStoreAccesses()).append('\n');
+            }
+        }
+
+        var gauges = snapshot.getGauges();
+        if(gauges != null){
+            String lastName = null;
+            for(var gauge: gauges){
+                if(!gauge.getName().equals(lastName)){
+                    out.append("# TYPE ").append(gauge.getName()).append(" gauge\n");
+                    lastName = gauge.getName();
+                }
+                out.append(gauge.getName()).append(formatLabels(gauge.getLabels())).append(' ')
+                        .append(formatValue(gauge.getValue())).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String formatLabels(Map<String, String> labels){
+        if(labels == null || labels.isEmpty()){
+            return "";
+        }
+        var out = new StringBuilder("{");
+        for(var label: new TreeMap<>(labels).entrySet()){
+            if(out.length() > 1){
+                out.append(',');
+            }
+            out.append(label.getKey()).append("=\"").append(escape(label.getValue())).append('"');
+        }
+        return out.append('}').toString();
+    }
+
+    private static String formatSeconds(long micros){
+        return Double.toString(micros / 1_000_000.0);
+    }
+
+    private static String formatValue(double value){
+        if(Double.isNaN(value)){
+            return "NaN";
+        }
+        if(Double.isInfinite(value)){
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(value);
+    }
+
+    private static String escape(String value){
+        if(value == null){
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,143 @@
+package dev.jcri.mdde.registry.metrics;
+
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.CommandLatencyStats;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.MetricsGauge;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
+import dev.jcri.mdde.registry.utility.MutableCounter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Collects the per command latency histograms, the number of the registry store accesses per command and the
+ * resource gauges of the registry process.
+ */
+public final class RegistryMetrics {
+    private static final Logger logger = LogManager.getLogger(RegistryMetrics.class);
+
+    public static final String TYPE_READ = "read";
+    public static final String TYPE_WRITE = "write";
+    public static final String TYPE_CONTROL = "control";
+    public static final String TYPE_BATCH = "batch";
+    public static final String TYPE_BENCHMARK = "benchmark";
+    public static final String TYPE_SHUFFLE = "shuffle";
+
+    private static class LazyHolder {
+        private static final RegistryMetrics _instance = new RegistryMetrics();
+    }
+
+    /**
+     * Metrics of the registry process
+     * @return Shared instance.
+     */
+    public static RegistryMetrics getDefaultInstance(){
+        return LazyHolder._instance;
+    }
+
+    /**
+     * Registry store accesses made by the current thread
+     */
+    private static final ThreadLocal<MutableCounter> _storeAccesses = ThreadLocal.withInitial(MutableCounter::new);
+
+    private final long _startNanos = System.nanoTime();
+    private final Map<String, LatencyHistogram> _histograms = new ConcurrentHashMap<>();
+    private final List<Gauge> _gauges = new CopyOnWriteArrayList<>();
+
+    /**
+     * Count an access of the registry store by the current thread
+     */
+    public static void countStoreAccess(){
+        _storeAccesses.get().increment();
+    }
+
+    /**
+     * Get the number of the registry store accesses made by the current thread so far. The number of accesses made
+     * by a command is the difference of the values taken before and after the command.
+     * @return Number of accesses.
+     */
+    public static long getStoreAccessCount(){
+        return _storeAccesses.get().get();
+    }
+
+    /**
+     * Record an executed command
+     * @param type Command type (TYPE_*).
+     * @param command Command name.
+     * @param nanos Execution time (ns).
+     * @param storeAccesses Number of the registry store accesses made by the command.
+     */
+    public void recordCommand(String type, String command, long nanos, long storeAccesses){
+        getHistogram(type, command).record(nanos, storeAccesses);
+    }
+
+    /**
+     * Get the histogram of the command, creating it on the first use
+     * @param type Command type (TYPE_*).
+     * @param command Command name.
+     * @return Histogram.
+     */
+    public LatencyHistogram getHistogram(String type, String command){
+        return _histograms.computeIfAbsent(type + "." + command, k -> new LatencyHistogram(type, command));
+    }
+
+    /**
+     * Register a gauge evaluated every time a snapshot is taken
+     * @param name Metric name.
+     * @param labels Metric labels, may be empty.
+     * @param value Value supplier, must be cheap and thread-safe.
+     */
+    public void registerGauge(String name, Map<String, String> labels, DoubleSupplier value){
+        Objects.requireNonNull(name, "Gauge name can't be null");
+        Objects.requireNonNull(value, "Gauge value supplier can't be null");
+        _gauges.add(new Gauge(name, labels != null ? Map.copyOf(labels) : Collections.emptyMap(), value));
+    }
+
+    /**
+     * Get the current state of all metrics
+     * @return Metrics snapshot.
+     */
+    public RegistryMetricsSnapshot snapshot(){
+        List<CommandLatencyStats> commands = new ArrayList<>(_histograms.size());
+        for(var histogram: _histograms.values()){
+            commands.add(histogram.snapshot());
+        }
+        commands.sort(Comparator.comparing(CommandLatencyStats::getType).thenComparing(CommandLatencyStats::getCommand));
+        List<MetricsGauge> gauges = new ArrayList<>(_gauges.size());
+        for(var gauge: _gauges){
+            double value;
+            try {
+                value = gauge._value.getAsDouble();
+            }
+            catch (Exception ex){
+                logger.warn("Failed to evaluate gauge {}: {}", gauge._name, ex.getMessage());
+                value = Double.NaN;
+            }
+            gauges.add(new MetricsGauge(gauge._name, gauge._labels, value));
+        }
+        gauges.sort(Comparator.comparing(MetricsGauge::getName));
+        var uptime = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - _startNanos);
+        return new RegistryMetricsSnapshot(uptime, LatencyHistogram.BUCKET_BOUNDS, commands, gauges);
+    }
+
+    private static final class Gauge {
+        private final String _name;
+        private final Map<String, String> _labels;
+        private final DoubleSupplier _value;
+
+        private Gauge(String name, Map<String, String> labels, DoubleSupplier value){
+            _name = name;
+            _labels = labels;
+            _value = value;
+        }
+    }
+}
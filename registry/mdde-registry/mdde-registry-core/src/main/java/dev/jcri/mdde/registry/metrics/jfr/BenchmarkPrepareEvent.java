@@ -0,0 +1,27 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Switching the registry to the benchmark mode: tuple catalog fetch and the tuple locator build.
+ */
+@Name("dev.jcri.mdde.BenchmarkPrepare")
+@Label("Benchmark Prepare")
+@Category({"MDDE", "Benchmark"})
+@Description("Registry tuple catalog fetch and tuple locator build")
+public class BenchmarkPrepareEvent extends jdk.jfr.Event {
+    @Label("Nodes")
+    public int nodes;
+
+    @Label("Tuples")
+    public int tuples;
+
+    @Label("Catalog Fetch")
+    @Description("Time spent reading the tuple catalog from the registry store")
+    @Timespan(Timespan.NANOSECONDS)
+    public long catalogFetch;
+}
@@ -0,0 +1,22 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Single stage of a benchmark run, the event duration is the time the run spent in the stage.
+ */
+@Name("dev.jcri.mdde.BenchmarkStage")
+@Label("Benchmark Stage")
+@Category({"MDDE", "Benchmark"})
+public class BenchmarkStageEvent extends jdk.jfr.Event {
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,35 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import dev.jcri.mdde.registry.benchmark.IBenchmarkStageListener;
+import dev.jcri.mdde.registry.shared.benchmark.enums.EBenchmarkRunStage;
+
+/**
+ * Turns the benchmark stage transitions into {@link BenchmarkStageEvent}. The event of a stage is committed when the
+ * run enters the next stage.
+ */
+public class BenchmarkStageEventRecorder implements IBenchmarkStageListener {
+    private BenchmarkStageEvent _current = null;
+
+    @Override
+    public synchronized void onBenchmarkStageChanged(String runId, EBenchmarkRunStage stage, boolean failed) {
+        if(_current != null){
+            _current.end();
+            _current.failed = failed;
+            _current.commit();
+            _current = null;
+        }
+        if(stage == EBenchmarkRunStage.READY
+                || stage == EBenchmarkRunStage.DONE
+                || stage == EBenchmarkRunStage.ABORTED){
+            return;
+        }
+        var event = new BenchmarkStageEvent();
+        if(!event.isEnabled()){
+            return;
+        }
+        event.begin();
+        event.runId = runId;
+        event.stage = stage.toString();
+        _current = event;
+    }
+}
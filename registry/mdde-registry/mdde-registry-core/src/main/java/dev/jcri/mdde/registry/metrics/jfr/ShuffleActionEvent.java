@@ -0,0 +1,31 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Execution of a single data shuffle queue action on the data nodes.
+ */
+@Name("dev.jcri.mdde.ShuffleAction")
+@Label("Shuffle Action")
+@Category({"MDDE", "Shuffle"})
+public class ShuffleActionEvent extends jdk.jfr.Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Source Node")
+    public String sourceNode;
+
+    @Label("Destination Node")
+    public String destinationNode;
+
+    @Label("Tuples")
+    public int tuples;
+
+    @Label("Processed Keys")
+    public int processedKeys;
+
+    @Label("Failed Keys")
+    public int failedKeys;
+}
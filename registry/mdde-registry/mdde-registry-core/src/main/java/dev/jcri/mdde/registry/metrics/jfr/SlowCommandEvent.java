@@ -0,0 +1,27 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Registry statement that took longer than the threshold. The default threshold can be changed in the recording
+ * settings ({@code dev.jcri.mdde.SlowCommand#threshold}).
+ */
+@Name("dev.jcri.mdde.SlowCommand")
+@Label("Slow Command")
+@Category({"MDDE", "Commands"})
+@Description("Registry statement executed slower than the threshold")
+@Threshold("20 ms")
+public class SlowCommandEvent extends jdk.jfr.Event {
+    @Label("Type")
+    public String type;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Store Accesses")
+    public long storeAccesses;
+}
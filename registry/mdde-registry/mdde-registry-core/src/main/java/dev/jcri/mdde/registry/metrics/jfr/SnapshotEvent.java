@@ -0,0 +1,22 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Creation or loading of a registry snapshot, covers the registry store and all of the data nodes.
+ */
+@Name("dev.jcri.mdde.Snapshot")
+@Label("Snapshot")
+@Category({"MDDE", "Snapshot"})
+public class SnapshotEvent extends jdk.jfr.Event {
+    public static final String OPERATION_CREATE = "create";
+    public static final String OPERATION_LOAD = "load";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Snapshot ID")
+    public String snapshotId;
+}
@@ -0,0 +1,30 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Dump or restore of the data of a single data node as a part of a snapshot.
+ */
+@Name("dev.jcri.mdde.SnapshotNode")
+@Label("Snapshot Node")
+@Category({"MDDE", "Snapshot"})
+public class SnapshotNodeEvent extends jdk.jfr.Event {
+    public static final String OPERATION_DUMP = "dump";
+    public static final String OPERATION_RESTORE = "restore";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Node")
+    public String node;
+
+    @Label("Keys")
+    public long keys;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,9 @@
+/**
+ * Java Flight Recorder events of the expensive registry phases. The events cost next to nothing while no recording is
+ * running, so they are always emitted. Start the registry with
+ * {@code -XX:StartFlightRecording=settings=profile,filename=mdde.jfr} (or attach with {@code jcmd <pid> JFR.start})
+ * and filter the recording by the "MDDE" category.
+ *
+ * Event fields are public as JFR uses the field names as the names of the recorded values.
+ */
+package dev.jcri.mdde.registry.metrics.jfr;
@@ -1,17 +1,31 @@
 package dev.jcri.mdde.registry.server;
 
+import dev.jcri.mdde.registry.control.ICommandBatchCodec;
 import dev.jcri.mdde.registry.control.ICommandParser;
 import dev.jcri.mdde.registry.control.ICommandPreProcessor;
+import dev.jcri.mdde.registry.control.IWriteJournal;
+import dev.jcri.mdde.registry.control.command.CommandBatch;
 import dev.jcri.mdde.registry.control.command.CommandComponents;
+import dev.jcri.mdde.registry.control.exceptions.BatchStatementRolledBackException;
+import dev.jcri.mdde.registry.control.exceptions.BatchStatementSkippedException;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
 import dev.jcri.mdde.registry.control.serialization.IResponseExceptionSerializer;
+import dev.jcri.mdde.registry.metrics.RegistryMetrics;
+import dev.jcri.mdde.registry.metrics.jfr.SlowCommandEvent;
+import dev.jcri.mdde.registry.shared.commands.Constants;
 import dev.jcri.mdde.registry.shared.commands.EReadCommand;
 import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
 import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
 import dev.jcri.mdde.registry.store.exceptions.UnknownRegistryCommandExceptions;
+import dev.jcri.mdde.registry.store.exceptions.WriteOperationException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Entry point for the incoming Registry reading or altering commands. These are the interfaces used by the learners.
@@ -27,6 +41,24 @@ public final class CommandProcessor<TIn, TArgs, TOut> {
     private final ICommandParser<TOut, EReadCommand, TArgs> _readCommandParser;
     private final ICommandParser<TOut, EWriteCommand, TArgs> _writeCommandParser;
     private final IResponseExceptionSerializer<TOut> _errorSerializer;
+    /**
+     * BATCH statements support, null if the processor doesn't accept BATCH statements
+     */
+    private ICommandBatchCodec<TArgs, TOut> _batchCodec = null;
+    /**
+     * Stop-on-error batches hold the write lock, every other statement holds the read lock while being executed. The
+     * lock is shared by all of the processors working with the same registry (see
+     * {@link dev.jcri.mdde.registry.store.RegistryStateCommandHandler#getStatementLock()}).
+     */
+    private ReadWriteLock _statementLock = new ReentrantReadWriteLock();
+    /**
+     * Journal undoing the writes of the failed stop-on-error batches, null if such batches can't contain writes
+     */
+    private IWriteJournal _writeJournal = null;
+    /**
+     * Latency and store accesses of the executed statements
+     */
+    private final RegistryMetrics _metrics = RegistryMetrics.getDefaultInstance();
 
     /**
      * Constructor
@@ -57,44 +89,355 @@ public final class CommandProcessor<TIn, TArgs, TOut> {
         _errorSerializer = errorSerializer;
     }
 
+    /**
+     * Constructor of the processor that also accepts BATCH statements, using its own statement lock.
+     * @param commandPreProcessor Pre-processor of the incoming statement.
+     * @param controlCommandParser Initialized implementation of the registry state control statement parser.
+     * @param readCommandParser Initialized implementation of the registry read statement parser.
+     * @param writeCommandParser Initialized implementation of the registry write statement parser.
+     * @param errorSerializer Appropriate response serialize used to return a parsing or statement processing error.
+     * @param batchCodec Splits the BATCH statements and joins the results of the nested statements.
+     */
+    public CommandProcessor(ICommandPreProcessor<TArgs, TIn> commandPreProcessor,
+                            ICommandParser<TOut, EStateControlCommand, TArgs> controlCommandParser,
+                            ICommandParser<TOut, EReadCommand, TArgs> readCommandParser,
+                            ICommandParser<TOut, EWriteCommand, TArgs> writeCommandParser,
+                            IResponseExceptionSerializer<TOut> errorSerializer,
+                            ICommandBatchCodec<TArgs, TOut> batchCodec)
+    {
+        this(commandPreProcessor, controlCommandParser, readCommandParser, writeCommandParser, errorSerializer,
+                batchCodec, new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Constructor of the processor that also accepts BATCH statements.
+     * @param commandPreProcessor Pre-processor of the incoming statement.
+     * @param controlCommandParser Initialized implementation of the registry state control statement parser.
+     * @param readCommandParser Initialized implementation of the registry read statement parser.
+     * @param writeCommandParser Initialized implementation of the registry write statement parser.
+     * @param errorSerializer Appropriate response serialize used to return a parsing or statement processing error.
+     * @param batchCodec Splits the BATCH statements and joins the results of the nested statements.
+     * @param statementLock Lock shared by every processor and background task working with the same registry.
+     *                      Stop-on-error batches hold its write lock, other statements hold its read lock.
+     */
+    public CommandProcessor(ICommandPreProcessor<TArgs, TIn> commandPreProcessor,
+                            ICommandParser<TOut, EStateControlCommand, TArgs> controlCommandParser,
+                            ICommandParser<TOut, EReadCommand, TArgs> readCommandParser,
+                            ICommandParser<TOut, EWriteCommand, TArgs> writeCommandParser,
+                            IResponseExceptionSerializer<TOut> errorSerializer,
+                            ICommandBatchCodec<TArgs, TOut> batchCodec,
+                            ReadWriteLock statementLock)
+    {
+        this(commandPreProcessor, controlCommandParser, readCommandParser, writeCommandParser, errorSerializer);
+        Objects.requireNonNull(batchCodec, "batchCodec can't be null");
+        Objects.requireNonNull(statementLock, "statementLock can't be null");
+        _batchCodec = batchCodec;
+        _statementLock = statementLock;
+    }
+
+    /**
+     * Constructor of the processor that also accepts BATCH statements, undoing the writes of the failed stop-on-error
+     * batches.
+     * @param commandPreProcessor Pre-processor of the incoming statement.
+     * @param controlCommandParser Initialized implementation of the registry state control statement parser.
+     * @param readCommandParser Initialized implementation of the registry read statement parser.
+     * @param writeCommandParser Initialized implementation of the registry write statement parser.
+     * @param errorSerializer Appropriate response serialize used to return a parsing or statement processing error.
+     * @param batchCodec Splits the BATCH statements and joins the results of the nested statements.
+     * @param statementLock Lock shared by every processor and background task working with the same registry.
+     *                      Stop-on-error batches hold its write lock, other statements hold its read lock.
+     * @param writeJournal Journal of the writes executed by the write statement parser.
+     */
+    public CommandProcessor(ICommandPreProcessor<TArgs, TIn> commandPreProcessor,
+                            ICommandParser<TOut, EStateControlCommand, TArgs> controlCommandParser,
+                            ICommandParser<TOut, EReadCommand, TArgs> readCommandParser,
+                            ICommandParser<TOut, EWriteCommand, TArgs> writeCommandParser,
+                            IResponseExceptionSerializer<TOut> errorSerializer,
+                            ICommandBatchCodec<TArgs, TOut> batchCodec,
+                            ReadWriteLock statementLock,
+                            IWriteJournal writeJournal)
+    {
+        this(commandPreProcessor, controlCommandParser, readCommandParser, writeCommandParser, errorSerializer,
+                batchCodec, statementLock);
+        Objects.requireNonNull(writeJournal, "writeJournal can't be null");
+        _writeJournal = writeJournal;
+    }
+
     public TOut processIncomingStatement(TIn statement){
+        CommandComponents<TArgs> components = null;
         try {
-            Objects.requireNonNull(statement, "statement can't be null");
-            logger.trace("Incoming statement: '{}'", statement.toString());
-
-            // Split the statement (get keyword separately from the arguments)
-            CommandComponents<TArgs> components = null;
-            components = _commandPreProcessor.splitIncoming(statement);
-
-            // Determine type of the command
-            EReadCommand readCommand = null;
-            EWriteCommand writeCommand = null;
-            EStateControlCommand stateControlCommand = null;
-
-            TOut result = null;
-            if((stateControlCommand = components.tryGetIsStateControlCommandKeyword()) != null){
-                logger.trace("Incoming statement is CONTROL");
-                // Is state control command
-                result = _controlCommandParser.runCommand(stateControlCommand, components.getArgs());
+            components = splitIncomingStatement(statement);
+        } catch (Exception e) {
+            return _errorSerializer.serializeException(e);
+        }
+        return processIncomingStatement(components);
+    }
+
+    /**
+     * Split the statement into the keyword and arguments without executing it. Allows the caller to decide where
+     * the statement is executed (see {@link ECommandLane}) before calling
+     * {@link #processIncomingStatement(CommandComponents)}.
+     * @param statement Incoming statement.
+     * @return Split statement.
+     * @throws MalformedCommandStatementException Statement can't be split.
+     */
+    public CommandComponents<TArgs> splitIncomingStatement(TIn statement) throws MalformedCommandStatementException {
+        Objects.requireNonNull(statement, "statement can't be null");
+        logger.trace("Incoming statement: '{}'", statement.toString());
+        // Split the statement (get keyword separately from the arguments)
+        return _commandPreProcessor.splitIncoming(statement);
+    }
+
+    /**
+     * Execute a statement split by {@link #splitIncomingStatement(Object)}.
+     * @param components Split statement.
+     * @return Serialized result or error.
+     */
+    public TOut processIncomingStatement(CommandComponents<TArgs> components){
+        try {
+            Objects.requireNonNull(components, "components can't be null");
+            if(_batchCodec != null && Constants.BatchCommand.equals(components.getKeyword())){
+                logger.trace("Incoming statement is BATCH");
+                final long start = System.nanoTime();
+                final long storeAccessesStart = RegistryMetrics.getStoreAccessCount();
+                try {
+                    return processBatch(_batchCodec.splitBatch(components.getArgs()));
+                }
+                finally {
+                    _metrics.recordCommand(RegistryMetrics.TYPE_BATCH, Constants.BatchCommand,
+                            System.nanoTime() - start, RegistryMetrics.getStoreAccessCount() - storeAccessesStart);
+                }
             }
-            else if ((readCommand = components.tryGetIsReadCommandKeyword()) != null) {
-                logger.trace("Incoming statement is READ");
-                // It's read command
-                result = _readCommandParser.runCommand(readCommand, components.getArgs());
-            } else if (((writeCommand = components.tryGetIsWriteCommandKeyword())) != null) {
-                logger.trace("Incoming statement is WRITE");
-                // It's write command
-                result = _writeCommandParser.runCommand(writeCommand, components.getArgs());
-            } else {
-                logger.trace("Incoming statement is UNKNOWN");
-                // It's unknown command
-                throw new UnknownRegistryCommandExceptions(String.format("Command %s was not found in the registry",
-                        components.getKeyword()));
+
+            _statementLock.readLock().lock();
+            try {
+                return runStatement(components);
+            }
+            finally {
+                _statementLock.readLock().unlock();
             }
+        } catch (Exception e) {
+            return _errorSerializer.serializeException(e);
+        }
+    }
+
+    /**
+     * Serialize an error that occurred outside of the statement processing (for example the statement couldn't be
+     * scheduled for execution) the same way statement errors are serialized.
+     * @param cause Error.
+     * @return Serialized error.
+     */
+    public TOut serializeException(Throwable cause){
+        return _errorSerializer.serializeException(cause);
+    }
+
+    /**
+     * Execute the nested statements of a BATCH in order. The results are returned in a single response.
+     * Stop-on-error batches are validated before execution, executed exclusively (no other statement of any
+     * processor sharing the statement lock runs concurrently) and stop at the first failed statement, the remaining
+     * statements are reported as skipped. The writes of a stop-on-error batch are all-or-nothing: when a statement
+     * fails, the writes applied before it are undone through the write journal and reported as rolled back. Only the
+     * writes the journal can undo are allowed in such batches, the read and control statements are not undone.
+     * @param batch Split BATCH statement.
+     * @return Joined results of the nested statements.
+     * @throws UnknownRegistryCommandExceptions Stop-on-error batch contains an unknown or a nested BATCH statement.
+     * @throws MalformedCommandStatementException Stop-on-error batch contains a write that can't be undone.
+     */
+    private TOut processBatch(CommandBatch<TArgs> batch)
+            throws UnknownRegistryCommandExceptions, MalformedCommandStatementException {
+        var statements = batch.getStatements();
+        List<TOut> results = new ArrayList<>(statements.size());
+        if(!batch.isStopOnError()){
+            for(var components: statements){
+                results.add(processNestedStatement(components));
+            }
+            return _batchCodec.joinResults(results);
+        }
+        boolean hasWrites = false;
+        for(var components: statements){
+            hasWrites |= verifyStopOnErrorStatement(components);
+        }
+        _statementLock.writeLock().lock();
+        try {
+            if(hasWrites){
+                _writeJournal.begin();
+            }
+            // Positions of the successfully executed writes
+            List<Integer> appliedWrites = new ArrayList<>();
+            boolean failed = false;
+            try {
+                for(var components: statements){
+                    if(failed){
+                        results.add(_errorSerializer.serializeException(new BatchStatementSkippedException(
+                                String.format("Statement %s was skipped because a preceding statement of the " +
+                                        "batch has failed", components.getKeyword()))));
+                        continue;
+                    }
+                    var result = runNestedStatement(components);
+                    failed = _batchCodec.isError(result);
+                    if(!failed && components.tryGetIsWriteCommandKeyword() != null){
+                        appliedWrites.add(results.size());
+                    }
+                    results.add(result);
+                }
+            }
+            finally {
+                if(hasWrites){
+                    if(failed){
+                        rollbackWrites(statements, results, appliedWrites);
+                    }
+                    else{
+                        _writeJournal.commit();
+                    }
+                }
+            }
+        }
+        finally {
+            _statementLock.writeLock().unlock();
+        }
+        return _batchCodec.joinResults(results);
+    }
 
-            return result;
+    /**
+     * Undo the writes of a failed stop-on-error batch and replace their results. Must be called holding the write
+     * lock.
+     * @param statements Statements of the batch.
+     * @param results Results of the executed statements, the results of the undone writes are replaced.
+     * @param appliedWrites Positions of the successfully executed writes.
+     */
+    private void rollbackWrites(List<CommandComponents<TArgs>> statements,
+                                List<TOut> results,
+                                List<Integer> appliedWrites){
+        TOut rollbackError = null;
+        try {
+            _writeJournal.rollback();
+        } catch (WriteOperationException e) {
+            logger.error("Failed to roll back the writes of the batch", e);
+            rollbackError = _errorSerializer.serializeException(e);
+        }
+        for(var position: appliedWrites){
+            if(rollbackError != null){
+                results.set(position, rollbackError);
+                continue;
+            }
+            results.set(position, _errorSerializer.serializeException(new BatchStatementRolledBackException(
+                    String.format("Statement %s was rolled back because a subsequent statement of the batch has " +
+                            "failed", statements.get(position).getKeyword()))));
+        }
+    }
+
+    /**
+     * Execute a nested statement of a batch that doesn't stop on error.
+     * @param components Nested statement.
+     * @return Serialized result or error.
+     */
+    private TOut processNestedStatement(CommandComponents<TArgs> components){
+        _statementLock.readLock().lock();
+        try {
+            return runNestedStatement(components);
+        }
+        finally {
+            _statementLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Execute a nested statement, the lock must be already held by the caller.
+     * @param components Nested statement.
+     * @return Serialized result or error.
+     */
+    private TOut runNestedStatement(CommandComponents<TArgs> components){
+        try {
+            if(Constants.BatchCommand.equals(components.getKeyword())){
+                throw new MalformedCommandStatementException("BATCH statements can't be nested");
+            }
+            return runStatement(components);
         } catch (Exception e) {
             return _errorSerializer.serializeException(e);
         }
     }
+
+    /**
+     * Check that the statement is a known read or control statement, or a write that can be undone.
+     * @param components Statement.
+     * @return True - the statement is a write.
+     * @throws UnknownRegistryCommandExceptions Statement is unknown or is a nested BATCH.
+     * @throws MalformedCommandStatementException Statement is a write that can't be undone.
+     */
+    private boolean verifyStopOnErrorStatement(CommandComponents<TArgs> components)
+            throws UnknownRegistryCommandExceptions, MalformedCommandStatementException {
+        var writeCommand = components.tryGetIsWriteCommandKeyword();
+        if(writeCommand != null){
+            if(_writeJournal == null || !_writeJournal.isReversible(writeCommand)){
+                throw new MalformedCommandStatementException(String.format(
+                        "Statement %s can't be rolled back and is not allowed in a stop-on-error batch",
+                        components.getKeyword()));
+            }
+            return true;
+        }
+        if(components.tryGetIsStateControlCommandKeyword() == null
+                && components.tryGetIsReadCommandKeyword() == null){
+            throw new UnknownRegistryCommandExceptions(components.getKeyword());
+        }
+        return false;
+    }
+
+    /**
+     * Dispatch a single split statement to the appropriate parser.
+     * @param components Split statement.
+     * @return Serialized result.
+     * @throws UnknownRegistryCommandExceptions Keyword is not a known command.
+     */
+    private TOut runStatement(CommandComponents<TArgs> components) throws UnknownRegistryCommandExceptions {
+        // Determine type of the command
+        EReadCommand readCommand = null;
+        EWriteCommand writeCommand = null;
+        EStateControlCommand stateControlCommand = null;
+
+        TOut result = null;
+        final long start = System.nanoTime();
+        final long storeAccessesStart = RegistryMetrics.getStoreAccessCount();
+        final var event = new SlowCommandEvent();
+        event.begin();
+        if((stateControlCommand = components.tryGetIsStateControlCommandKeyword()) != null){
+            logger.trace("Incoming statement is CONTROL");
+            // Is state control command
+            result = _controlCommandParser.runCommand(stateControlCommand, components.getArgs());
+            recordStatement(RegistryMetrics.TYPE_CONTROL, stateControlCommand.getCommand(), start, storeAccessesStart,
+                    event);
+        }
+        else if ((readCommand = components.tryGetIsReadCommandKeyword()) != null) {
+            logger.trace("Incoming statement is READ");
+            // It's read command
+            result = _readCommandParser.runCommand(readCommand, components.getArgs());
+            recordStatement(RegistryMetrics.TYPE_READ, readCommand.getCommand(), start, storeAccessesStart, event);
+        } else if (((writeCommand = components.tryGetIsWriteCommandKeyword())) != null) {
+            logger.trace("Incoming statement is WRITE");
+            // It's write command
+            result = _writeCommandParser.runCommand(writeCommand, components.getArgs());
+            recordStatement(RegistryMetrics.TYPE_WRITE, writeCommand.getCommand(), start, storeAccessesStart, event);
+        } else {
+            logger.trace("Incoming statement is UNKNOWN");
+            // It's unknown command
+            throw new UnknownRegistryCommandExceptions(components.getKeyword());
+        }
+
+        return result;
+    }
+
+    private void recordStatement(String type,
+                                 String command,
+                                 long start,
+                                 long storeAccessesStart,
+                                 SlowCommandEvent event){
+        final long storeAccesses = RegistryMetrics.getStoreAccessCount() - storeAccessesStart;
+        _metrics.recordCommand(type, command, System.nanoTime() - start, storeAccesses);
+        event.end();
+        if(event.shouldCommit()){
+            event.type = type;
+            event.command = command;
+            event.storeAccesses = storeAccesses;
+            event.commit();
+        }
+    }
 }
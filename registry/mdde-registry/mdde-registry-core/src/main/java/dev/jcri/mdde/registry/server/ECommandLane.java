@@ -0,0 +1,60 @@
+package dev.jcri.mdde.registry.server;
+
+import dev.jcri.mdde.registry.control.command.CommandComponents;
+import dev.jcri.mdde.registry.shared.commands.Constants;
+import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Execution lanes of the incoming statements. Statements of different lanes are executed independently from each
+ * other, so a long running control command doesn't delay the reads and writes sent over the other connections.
+ */
+public enum ECommandLane {
+    /**
+     * Registry reads and the short state queries
+     */
+    READ,
+    /**
+     * Registry writes
+     */
+    WRITE,
+    /**
+     * Long running state control commands (shuffle, snapshots, benchmark, reset) and BATCH statements
+     */
+    CONTROL;
+
+    /**
+     * Control commands that only query or signal the state and must not wait behind the long running ones
+     */
+    private static final Set<EStateControlCommand> _lightControlCommands = EnumSet.of(
+            EStateControlCommand.GET_BENCHMARK,
+            EStateControlCommand.ABORT_BENCHMARK,
+            EStateControlCommand.GET_REGISTRY_MODE,
+            EStateControlCommand.GET_METRICS);
+
+    /**
+     * Get the lane of a split statement
+     * @param components Split statement.
+     * @return Lane, unknown keywords are assigned to READ as these are answered with an error right away.
+     */
+    public static ECommandLane of(CommandComponents<?> components){
+        var keyword = components.getKeyword();
+        if(keyword == null || keyword.isEmpty()){
+            return READ;
+        }
+        if(Constants.BatchCommand.equals(keyword)){
+            // BATCH may contain any statement
+            return CONTROL;
+        }
+        var control = components.tryGetIsStateControlCommandKeyword();
+        if(control != null){
+            return _lightControlCommands.contains(control) ? READ : CONTROL;
+        }
+        if(components.tryGetIsWriteCommandKeyword() != null){
+            return WRITE;
+        }
+        return READ;
+    }
+}
@@ -0,0 +1,109 @@
+package dev.jcri.mdde.registry.server.events;
+
+import dev.jcri.mdde.registry.benchmark.IBenchmarkStageListener;
+import dev.jcri.mdde.registry.shared.benchmark.enums.EBenchmarkRunStage;
+import dev.jcri.mdde.registry.shared.commands.containers.result.events.ERegistryEventType;
+import dev.jcri.mdde.registry.shared.commands.containers.result.events.RegistryEvent;
+import dev.jcri.mdde.registry.store.IAllocationChangeListener;
+import dev.jcri.mdde.registry.store.IFragmentMetaChangeListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongFunction;
+
+/**
+ * Fans out the committed registry changes and the benchmark stage transitions to the subscribers.
+ * Subscribe it to the registry state handler (allocation), the write command handler (meta) and the benchmark runner
+ * (stages).
+ *
+ * Publishing only queues the event in every subscription, it doesn't wait for the subscribers.
+ */
+public class RegistryEventHub implements IAllocationChangeListener, IFragmentMetaChangeListener, IBenchmarkStageListener {
+    private static final Logger logger = LogManager.getLogger(RegistryEventHub.class);
+    /**
+     * Default maximum number of the queued events per subscriber
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final List<RegistryEventSubscription> _subscriptions = new CopyOnWriteArrayList<>();
+    /**
+     * Sequence number of the latest published event. Guarded by this.
+     */
+    private long _sequence = 0;
+
+    /**
+     * Subscribe to the events
+     * @param capacity Maximum number of the queued events of this subscriber.
+     * @param onAvailable Called when the events become available for {@link RegistryEventSubscription#poll(int)}.
+     * @return New subscription.
+     */
+    public RegistryEventSubscription subscribe(int capacity, Runnable onAvailable){
+        var subscription = new RegistryEventSubscription(capacity, onAvailable);
+        _subscriptions.add(subscription);
+        logger.debug("New registry events subscription, total: {}", _subscriptions.size());
+        return subscription;
+    }
+
+    /**
+     * Cancel the subscription, the queued events are discarded
+     * @param subscription Subscription returned by {@link #subscribe(int, Runnable)}.
+     */
+    public void unsubscribe(RegistryEventSubscription subscription){
+        if(subscription == null){
+            return;
+        }
+        subscription.close();
+        _subscriptions.remove(subscription);
+    }
+
+    public int getSubscriptionsCount(){
+        return _subscriptions.size();
+    }
+
+    private synchronized void publish(LongFunction<RegistryEvent> eventFactory){
+        if(_subscriptions.isEmpty()){
+            return;
+        }
+        var event = eventFactory.apply(++_sequence);
+        for(var subscription: _subscriptions){
+            subscription.offer(event);
+        }
+    }
+
+    @Override
+    public void onFragmentExemplarAdded(String fragmentId, String nodeId) {
+        publish(seq -> RegistryEvent.fragmentExemplar(seq, true, fragmentId, nodeId));
+    }
+
+    @Override
+    public void onFragmentExemplarRemoved(String fragmentId, String nodeId) {
+        publish(seq -> RegistryEvent.fragmentExemplar(seq, false, fragmentId, nodeId));
+    }
+
+    @Override
+    public void onAllocationReset() {
+        publish(seq -> new RegistryEvent(ERegistryEventType.ALLOCATION_RESET, seq));
+    }
+
+    @Override
+    public void onFragmentMetaGlobalChanged(String fragmentId, String metaTag, String metaValue) {
+        publish(seq -> RegistryEvent.meta(seq, fragmentId, null, metaTag, metaValue));
+    }
+
+    @Override
+    public void onFragmentMetaExemplarChanged(String fragmentId, String nodeId, String metaTag, String metaValue) {
+        publish(seq -> RegistryEvent.meta(seq, fragmentId, nodeId, metaTag, metaValue));
+    }
+
+    @Override
+    public void onFragmentsMetaReset() {
+        publish(seq -> new RegistryEvent(ERegistryEventType.META_RESET, seq));
+    }
+
+    @Override
+    public void onBenchmarkStageChanged(String runId, EBenchmarkRunStage stage, boolean failed) {
+        publish(seq -> RegistryEvent.benchmarkStage(seq, runId, stage.toString(), failed));
+    }
+}
@@ -0,0 +1,115 @@
+package dev.jcri.mdde.registry.server.events;
+
+import dev.jcri.mdde.registry.shared.commands.containers.result.events.ERegistryEventType;
+import dev.jcri.mdde.registry.shared.commands.containers.result.events.RegistryEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Bounded queue of the registry events of a single subscriber.
+ *
+ * The subscriber is signalled once when events become available and then pulls them in batches with
+ * {@link #poll(int)} at its own pace. The signal is re-armed only when a poll finds the queue empty, so a subscriber
+ * that stopped pulling (e.g. its connection is not writable) isn't signalled again until it catches up.
+ * If the queue is full, all of the queued events are dropped and replaced by a single
+ * {@link ERegistryEventType#OVERFLOW} event, telling the subscriber to re-read the registry.
+ */
+public final class RegistryEventSubscription {
+    private final int _capacity;
+    private final Runnable _onAvailable;
+    private final ArrayDeque<RegistryEvent> _events = new ArrayDeque<>();
+    /**
+     * The subscriber was signalled and hasn't yet drained the queue
+     */
+    private boolean _signalled = false;
+    private boolean _closed = false;
+    private long _droppedCount = 0;
+
+    /**
+     * Constructor
+     * @param capacity Maximum number of the queued events.
+     * @param onAvailable Called (from the publishing thread) when the events become available, must not block.
+     */
+    RegistryEventSubscription(int capacity, Runnable onAvailable){
+        if(capacity < 2){
+            throw new IllegalArgumentException("Subscription capacity must be at least 2");
+        }
+        Objects.requireNonNull(onAvailable, "onAvailable callback can't be null");
+        _capacity = capacity;
+        _onAvailable = onAvailable;
+    }
+
+    /**
+     * Queue the event
+     * @param event Published event.
+     */
+    void offer(RegistryEvent event){
+        boolean signal;
+        synchronized (this){
+            if(_closed){
+                return;
+            }
+            if(_events.size() >= _capacity){
+                _droppedCount += _events.size();
+                _events.clear();
+                _events.add(new RegistryEvent(ERegistryEventType.OVERFLOW, event.getSequence()));
+            }
+            _events.add(event);
+            signal = !_signalled;
+            _signalled = true;
+        }
+        if(signal){
+            _onAvailable.run();
+        }
+    }
+
+    /**
+     * Take the next batch of the queued events.
+     * @param maxBatchSize Maximum number of the returned events.
+     * @return Events in the order of publishing. Empty list if there are no more events, in which case the
+     * subscriber will be signalled again when new events arrive.
+     */
+    public List<RegistryEvent> poll(int maxBatchSize){
+        if(maxBatchSize < 1){
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        synchronized (this){
+            var batch = new ArrayList<RegistryEvent>(Math.min(maxBatchSize, _events.size()));
+            RegistryEvent event;
+            while(batch.size() < maxBatchSize && (event = _events.poll()) != null){
+                batch.add(event);
+            }
+            if(batch.isEmpty()){
+                _signalled = false;
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * Stop receiving events and discard the queued ones
+     */
+    synchronized void close(){
+        _closed = true;
+        _events.clear();
+    }
+
+    public synchronized boolean isClosed(){
+        return _closed;
+    }
+
+    /**
+     * Number of the events dropped because the subscriber didn't keep up
+     * @return Number of the dropped events.
+     */
+    public synchronized long getDroppedCount(){
+        return _droppedCount;
+    }
+
+    public int getCapacity(){
+        return _capacity;
+    }
+}
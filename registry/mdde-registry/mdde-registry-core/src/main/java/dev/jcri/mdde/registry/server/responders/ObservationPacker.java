@@ -0,0 +1,137 @@
+package dev.jcri.mdde.registry.server.responders;
+
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Packs the fragment catalog into the {@link PackedObservation} layout.
+ */
+public final class ObservationPacker {
+    private ObservationPacker(){}
+
+    /**
+     * Pack the catalog
+     * @param catalog Fragment catalog with the requested meta values.
+     * @return Packed observation.
+     */
+    public static PackedObservation pack(FragmentCatalog catalog){
+        Objects.requireNonNull(catalog, "Fragment catalog can't be null");
+        var nodes = sortedKeys(catalog.getNodes());
+        var fragments = sortedKeys(catalog.getFragments());
+        var tagsExemplar = catalog.getMetaTagsExemplar() != null ? catalog.getMetaTagsExemplar() : List.<String>of();
+        var tagsGlobal = catalog.getMetaTagsGlobal() != null ? catalog.getMetaTagsGlobal() : List.<String>of();
+        // Catalog local keys to the row and column positions
+        var rows = positions(catalog.getNodes(), nodes);
+        var columns = positions(catalog.getFragments(), fragments);
+
+        final int nodeCount = nodes.size();
+        final int fragmentCount = fragments.size();
+        final int rowBytes = (fragmentCount + 7) / 8;
+        final int allocationOffset = 0;
+        final int exemplarMetaOffset = align(allocationOffset + nodeCount * rowBytes);
+        final int globalMetaOffset = align(exemplarMetaOffset + tagsExemplar.size() * nodeCount * fragmentCount * 4);
+        final int length = globalMetaOffset + tagsGlobal.size() * fragmentCount * 4;
+
+        var data = new byte[length];
+        var buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        for(int offset = exemplarMetaOffset; offset + 4 <= length; offset += 4){
+            buffer.putFloat(offset, Float.NaN);
+        }
+
+        if(catalog.getNodeContent() != null){
+            for(var nodeContent: catalog.getNodeContent().entrySet()){
+                var row = rows.get(nodeContent.getKey());
+                if(row == null || nodeContent.getValue() == null){
+                    continue;
+                }
+                var rowOffset = allocationOffset + row * rowBytes;
+                for(var fragmentKey: nodeContent.getValue()){
+                    var column = columns.get(fragmentKey);
+                    if(column != null){
+                        data[rowOffset + (column >>> 3)] |= (byte) (1 << (column & 7));
+                    }
+                }
+            }
+        }
+
+        if(catalog.getMetaValuesExemplar() != null){
+            for(var nodeValues: catalog.getMetaValuesExemplar().entrySet()){
+                var row = rows.get(nodeValues.getKey());
+                if(row == null || nodeValues.getValue() == null){
+                    continue;
+                }
+                for(var fragmentValues: nodeValues.getValue().entrySet()){
+                    var column = columns.get(fragmentValues.getKey());
+                    if(column == null){
+                        continue;
+                    }
+                    var values = fragmentValues.getValue();
+                    for(int t = 0; values != null && t < Math.min(values.size(), tagsExemplar.size()); t++){
+                        var index = ((t * nodeCount) + row) * fragmentCount + column;
+                        buffer.putFloat(exemplarMetaOffset + index * 4, toFloat(values.get(t)));
+                    }
+                }
+            }
+        }
+
+        if(catalog.getMetaValuesGlobal() != null){
+            for(var fragmentValues: catalog.getMetaValuesGlobal().entrySet()){
+                var column = columns.get(fragmentValues.getKey());
+                if(column == null){
+                    continue;
+                }
+                var values = fragmentValues.getValue();
+                for(int t = 0; values != null && t < Math.min(values.size(), tagsGlobal.size()); t++){
+                    buffer.putFloat(globalMetaOffset + (t * fragmentCount + column) * 4, toFloat(values.get(t)));
+                }
+            }
+        }
+
+        return new PackedObservation(nodes, fragments, tagsExemplar, tagsGlobal,
+                rowBytes, allocationOffset, exemplarMetaOffset, globalMetaOffset, data);
+    }
+
+    private static List<String> sortedKeys(Map<String, Integer> source){
+        if(source == null){
+            return new ArrayList<>();
+        }
+        var result = new ArrayList<>(source.keySet());
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Map the catalog local keys to the positions of the IDs in the sorted list
+     */
+    private static Map<Integer, Integer> positions(Map<String, Integer> source, List<String> sorted){
+        Map<Integer, Integer> result = new HashMap<>();
+        for(int i = 0; i < sorted.size(); i++){
+            result.put(source.get(sorted.get(i)), i);
+        }
+        return result;
+    }
+
+    private static int align(int offset){
+        return (offset + 7) & ~7;
+    }
+
+    private static float toFloat(String value){
+        if(value == null){
+            return Float.NaN;
+        }
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dev.jcri.mdde.registry.server.responders;
 import dev.jcri.mdde.registry.shared.commands.EReadCommand;
 import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
 import dev.jcri.mdde.registry.shared.store.response.FullRegistryAllocation;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
 import dev.jcri.mdde.registry.store.IReadCommandHandler;
 import dev.jcri.mdde.registry.store.exceptions.ReadOperationException;
 import org.apache.logging.log4j.LogManager;
@@ -88,4 +89,9 @@ public class ReadCommandResponder {
         logger.trace("Responding to READ: {}", EReadCommand.GET_ALL_FRAGMENTS_NODES_WITH_META.toString());
         return _readHandler.getFragmentCatalog(metaTagsExemplar, metaTagsGlobal);
     }
+
+    public PackedObservation getPackedObservation(Set<String> metaTagsExemplar, Set<String> metaTagsGlobal){
+        logger.trace("Responding to READ: {}", EReadCommand.GET_PACKED_OBSERVATION.toString());
+        return ObservationPacker.pack(_readHandler.getFragmentCatalog(metaTagsExemplar, metaTagsGlobal));
+    }
 }
@@ -1,26 +1,48 @@
 package dev.jcri.mdde.registry.server.responders;
 
+import dev.jcri.mdde.registry.control.IWriteJournal;
 import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
 import dev.jcri.mdde.registry.store.IReadCommandHandler;
 import dev.jcri.mdde.registry.store.IWriteCommandHandler;
 import dev.jcri.mdde.registry.store.exceptions.*;
 import dev.jcri.mdde.registry.store.exceptions.action.IllegalRegistryActionException;
 import dev.jcri.mdde.registry.store.queue.IDataShuffleQueue;
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
 import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
 import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
-public class WriteCommandResponder {
+/**
+ * Executes the registry writes, queueing the data shuffle actions of the writes that move the fragments. The inverses
+ * of the fragment exemplar copies, removals and meta values can be journaled (see {@link IWriteJournal}).
+ */
+public class WriteCommandResponder implements IWriteJournal {
     private static final Logger logger = LogManager.getLogger(WriteCommandResponder.class);
+    /**
+     * Commands which inverses are recorded by the journal
+     */
+    private static final Set<EWriteCommand> REVERSIBLE_COMMANDS = EnumSet.of(EWriteCommand.REPLICATE_FRAGMENT_DATA,
+                                                                              EWriteCommand.DELETE_FRAGMENT_DATA,
+                                                                              EWriteCommand.META_FRAGMENT_EXEMPLAR,
+                                                                              EWriteCommand.META_FRAGMENT_GLOBAL);
 
     private final IWriteCommandHandler _writeHandler;
     private final IReadCommandHandler _readHandler;
     private final IDataShuffleQueue _dataShuffleQueue;
+    /**
+     * Inverses of the writes applied since {@link #begin()}, the latest first. Null if the journal isn't open.
+     */
+    private Deque<IWriteInverse> _journal = null;
 
     public WriteCommandResponder(IWriteCommandHandler writeHandler,
                                  IReadCommandHandler readHandler,
@@ -77,14 +99,18 @@ public class WriteCommandResponder {
             return false;
         }
         // Put action to the data shuffle queue
+        boolean queued;
         try {
-            return _dataShuffleQueue.add(new DataCopyAction(tuples, sourceNodeId, destinationNodeId));
+            queued = _dataShuffleQueue.add(new DataCopyAction(fragmentId, tuples, sourceNodeId, destinationNodeId));
         } catch (IOException e) {
             // Roll back the registry
             _writeHandler.deleteFragmentExemplar(fragmentId, destinationNodeId);
             // Fail the operation
             throw new WriteOperationException("Unable to put COPY action to the data shuffler queue", e);
         }
+        // The removal of the copy queues the removal of the copied data
+        journal(() -> deleteFragmentExemplar(fragmentId, destinationNodeId));
+        return queued;
     }
 
     public boolean deleteFragmentExemplar(final String fragmentId, final String nodeId)
@@ -110,6 +136,16 @@ public class WriteCommandResponder {
             // Fail the operation
             throw new WriteOperationException("Unable to put DELETE action to the data shuffler queue", e);
         }
+        // The exemplar is copied back from one of the remaining exemplars, together with the meta values of that one
+        journal(() -> {
+            var fragmentNodes = _readHandler.getFragmentNodes(fragmentId);
+            if(fragmentNodes == null || fragmentNodes.isEmpty()){
+                throw new WriteOperationException(
+                        String.format("No exemplar of fragment %s is left to restore it on node %s",
+                                fragmentId, nodeId));
+            }
+            replicateFragment(fragmentId, fragmentNodes.iterator().next(), nodeId);
+        });
         return true;
     }
 
@@ -121,9 +157,11 @@ public class WriteCommandResponder {
 
         var result = _writeHandler.deleteFragmentCompletely(fragmentId);
         try {
+            List<DataAction> deleteActions = new ArrayList<>(fragmentNodes.size());
             for(var nodeId: fragmentNodes){
-                    _dataShuffleQueue.add(new DataDeleteAction(tuples, nodeId));
+                deleteActions.add(new DataDeleteAction(tuples, nodeId));
             }
+            _dataShuffleQueue.addAll(deleteActions);
         } catch (IOException e) {
             throw new WriteOperationException("Unable to put DELETE action to the data shuffler queue", e);
         }
@@ -139,7 +177,11 @@ public class WriteCommandResponder {
     public boolean addMetaToFragmentGlobal(final String fragmentId, final String metaField, final String metaValue)
             throws UnknownEntityIdException, WriteOperationException{
         logger.trace("Responding to WRITE: {}", EWriteCommand.META_FRAGMENT_GLOBAL.toString());
-        return _writeHandler.addMetaToFragmentGlobal(fragmentId, metaField, metaValue);
+        var previousValue = _journal != null ? _readHandler.getMetaFragmentGlobal(fragmentId, metaField) : null;
+        var result = _writeHandler.addMetaToFragmentGlobal(fragmentId, metaField, metaValue);
+        // Null value removes the meta field
+        journal(() -> _writeHandler.addMetaToFragmentGlobal(fragmentId, metaField, previousValue));
+        return result;
     }
 
     public boolean addMetaToFragmentExemplar(final String fragmentId,
@@ -148,10 +190,79 @@ public class WriteCommandResponder {
                                                final String metaValue)
             throws UnknownEntityIdException, WriteOperationException{
         logger.trace("Responding to WRITE: {}", EWriteCommand.META_FRAGMENT_EXEMPLAR.toString());
-        return _writeHandler.addMetaToFragmentExemplar(fragmentId, nodeId, metaField, metaValue);
+        var previousValue = _journal != null
+                ? _readHandler.getMetaFragmentExemplar(fragmentId, nodeId, metaField)
+                : null;
+        var result = _writeHandler.addMetaToFragmentExemplar(fragmentId, nodeId, metaField, metaValue);
+        // Null value removes the meta field
+        journal(() -> _writeHandler.addMetaToFragmentExemplar(fragmentId, nodeId, metaField, previousValue));
+        return result;
     }
 
     private void resetFragmentsMeta(){
         _writeHandler.resetFragmentsMeta();
     }
+
+    @Override
+    public boolean isReversible(EWriteCommand command) {
+        return REVERSIBLE_COMMANDS.contains(command);
+    }
+
+    @Override
+    public void begin() {
+        if(_journal != null){
+            throw new IllegalStateException("Write journal is already open");
+        }
+        _journal = new ArrayDeque<>();
+    }
+
+    @Override
+    public void commit() {
+        _journal = null;
+    }
+
+    @Override
+    public void rollback() throws WriteOperationException {
+        var journal = _journal;
+        // The inverses themselves are not journaled
+        _journal = null;
+        if(journal == null){
+            return;
+        }
+        WriteOperationException error = null;
+        for(var inverse: journal){
+            try {
+                inverse.apply();
+            } catch (Exception e) {
+                logger.error("Unable to undo a write of the batch", e);
+                if(error == null){
+                    error = new WriteOperationException("Unable to undo some of the writes of the batch", e);
+                }
+                else{
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if(error != null){
+            throw error;
+        }
+    }
+
+    /**
+     * Record the inverse of an applied write if the journal is open
+     * @param inverse Inverse of the write
+     */
+    private void journal(IWriteInverse inverse){
+        if(_journal != null){
+            _journal.addFirst(inverse);
+        }
+    }
+
+    /**
+     * Write undoing an applied write
+     */
+    @FunctionalInterface
+    private interface IWriteInverse {
+        void apply() throws Exception;
+    }
 }
@@ -0,0 +1,31 @@
+package dev.jcri.mdde.registry.store;
+
+/**
+ * Receiver of the notifications about changes of the fragments allocation in the registry.
+ * Allows components that maintain their own view of the allocation to update it incrementally instead of re-reading
+ * the whole fragment catalog after every write.
+ *
+ * Notifications are delivered synchronously, after the change was successfully written to the registry store.
+ */
+public interface IAllocationChangeListener {
+    /**
+     * A new exemplar of the fragment was placed on the node.
+     * @param fragmentId Fragment ID.
+     * @param nodeId Node ID where the new exemplar is located.
+     */
+    void onFragmentExemplarAdded(String fragmentId, String nodeId);
+
+    /**
+     * An exemplar of the fragment was removed from the node.
+     * @param fragmentId Fragment ID.
+     * @param nodeId Node ID from which the exemplar was removed.
+     */
+    void onFragmentExemplarRemoved(String fragmentId, String nodeId);
+
+    /**
+     * Allocation was changed in a way that can't be expressed as a set of exemplar changes (nodes population, forming
+     * or complete removal of fragments, changes of the fragments content, flush, snapshot restore). Any cached view of
+     * the allocation must be discarded.
+     */
+    void onAllocationReset();
+}
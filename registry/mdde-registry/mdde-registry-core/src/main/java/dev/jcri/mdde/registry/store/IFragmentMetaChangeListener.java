@@ -0,0 +1,30 @@
+package dev.jcri.mdde.registry.store;
+
+/**
+ * Receiver of the notifications about changes of the fragments meta values in the registry.
+ *
+ * Notifications are delivered synchronously, after the change was successfully written to the registry store.
+ */
+public interface IFragmentMetaChangeListener {
+    /**
+     * Global meta value of the fragment was set.
+     * @param fragmentId Fragment ID.
+     * @param metaTag Meta value name.
+     * @param metaValue Value.
+     */
+    void onFragmentMetaGlobalChanged(String fragmentId, String metaTag, String metaValue);
+
+    /**
+     * Meta value of the fragment exemplar located on the node was set.
+     * @param fragmentId Fragment ID.
+     * @param nodeId Node ID where the exemplar is located.
+     * @param metaTag Meta value name.
+     * @param metaValue Value.
+     */
+    void onFragmentMetaExemplarChanged(String fragmentId, String nodeId, String metaTag, String metaValue);
+
+    /**
+     * All meta values of all fragments were removed.
+     */
+    void onFragmentsMetaReset();
+}
@@ -130,4 +130,16 @@ public interface IWriteCommandHandler {
      * Completely flush the store by removing all of the data
      */
     boolean flush() throws WriteOperationException;
+
+    /**
+     * Subscribe to the notifications about the changes of the fragments allocation performed through this handler
+     * @param listener Allocation change listener
+     */
+    void addAllocationChangeListener(IAllocationChangeListener listener);
+
+    /**
+     * Subscribe to the notifications about the changes of the fragments meta values performed through this handler
+     * @param listener Meta change listener
+     */
+    void addMetaChangeListener(IFragmentMetaChangeListener listener);
 }
@@ -1,18 +1,25 @@
 package dev.jcri.mdde.registry.store;
 
 import dev.jcri.mdde.registry.benchmark.BenchmarkRunner;
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
 import dev.jcri.mdde.registry.data.IDataShuffler;
-import dev.jcri.mdde.registry.data.ShuffleKeysResult;
+import dev.jcri.mdde.registry.data.ShuffleExecutionReport;
+import dev.jcri.mdde.registry.data.ShuffleExecutor;
 import dev.jcri.mdde.registry.exceptions.MddeRegistryException;
+import dev.jcri.mdde.registry.metrics.RegistryMetrics;
+import dev.jcri.mdde.registry.metrics.jfr.SnapshotEvent;
+import dev.jcri.mdde.registry.shared.commands.containers.args.ControlArgsCandidateActionContainer;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkCandidatesResult;
 import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkStatus;
+import dev.jcri.mdde.registry.shared.commands.containers.result.metrics.RegistryMetricsSnapshot;
 import dev.jcri.mdde.registry.shared.configuration.DBNetworkNodesConfiguration;
 import dev.jcri.mdde.registry.store.exceptions.IllegalRegistryModeException;
 import dev.jcri.mdde.registry.store.exceptions.RegistryModeAlreadySetException;
 import dev.jcri.mdde.registry.store.exceptions.WriteOperationException;
 import dev.jcri.mdde.registry.store.exceptions.action.IllegalRegistryActionException;
 import dev.jcri.mdde.registry.store.queue.IDataShuffleQueue;
-import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
-import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import dev.jcri.mdde.registry.store.queue.ShuffleQueueCompactor;
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
 import dev.jcri.mdde.registry.store.snapshot.FileBasedSnapshotManager;
 import dev.jcri.mdde.registry.store.snapshot.StoreSnapshotManagerBase;
 import org.apache.logging.log4j.LogManager;
@@ -24,22 +31,74 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public final class RegistryStateCommandHandler {
     private static final Logger logger = LogManager.getLogger(RegistryStateCommandHandler.class);
 
+    /**
+     * Pause of the background shuffle worker after a failed window, multiple of the idle interval
+     */
+    private static final int BACKGROUND_ERROR_BACKOFF_FACTOR = 50;
+
     private final ReentrantLock _commandExecutionLock = new ReentrantLock();
+    /**
+     * Statements executed exclusively (stop-on-error batches) hold the write lock, all other statements and the
+     * background shuffle windows hold the read lock. Always acquired before the command execution lock.
+     */
+    private final ReentrantReadWriteLock _statementLock = new ReentrantReadWriteLock();
+    /**
+     * Signalled every time a window of the shuffle queue was executed
+     */
+    private final Condition _shuffleProgress = _commandExecutionLock.newCondition();
     private final BenchmarkRunner _benchmarkRunner;
     private final IWriteCommandHandler _writeCommandHandler;
     private final List<DBNetworkNodesConfiguration> _dataNodes;
     private final IDataShuffler _dataShuffler;
     private final IDataShuffleQueue _dataShuffleQueue;
+    private final ShuffleExecutor _shuffleExecutor;
+    /**
+     * Maximum number of the queued actions executed concurrently
+     */
+    private final int _shuffleBatchSize;
+    /**
+     * Reduce the queued actions to the net data movement before the execution
+     */
+    private final boolean _shuffleCompact;
+    /**
+     * Maximum number of actions executed by the background worker per second, 0 - unlimited
+     */
+    private final int _backgroundShuffleRate;
+    /**
+     * Interval between the checks of an empty queue by the background worker (ms)
+     */
+    private final int _backgroundShuffleIdle;
+    /**
+     * Background shuffle worker, null if the queue is only executed by RUNSHUFFLE
+     */
+    private final Thread _backgroundShuffle;
+    private final CountDownLatch _backgroundShuffleStop = new CountDownLatch(1);
+    /**
+     * The latest failure of the background worker not yet reported to the client, cleared once the worker executes
+     * a window successfully
+     */
+    private volatile Exception _backgroundShuffleError;
     private final IStoreManager _registryStoreManager;
 
     private final StoreSnapshotManagerBase _snapshotsManager;
 
     private ERegistryState _registryState = ERegistryState.shuffle;
+    /**
+     * Subscribers to the allocation changes, notified of the changes bypassing the write command handler
+     * (flush, snapshot restore)
+     */
+    private final List<IAllocationChangeListener> _allocationListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor
@@ -57,7 +116,30 @@ public final class RegistryStateCommandHandler {
             BenchmarkRunner benchmarkRunner,
             List<DBNetworkNodesConfiguration> dataNodes,
             String snapshotsDir){
+        this(writeCommandHandler, registryStoreManager, nodeDataShuffler, nodeDataShuffleQueue, benchmarkRunner,
+                dataNodes, snapshotsDir, new ShuffleConfig());
+    }
+
+    /**
+     * Constructor
+     * @param writeCommandHandler Current instance of the write command handler for the registry
+     * @param registryStoreManager Implementation of the management functions for the registry store
+     * @param nodeDataShuffler Implementation of the data nodes controller
+     * @param benchmarkRunner Benchmark runner object controlled by this handler
+     * @param dataNodes List of all nodes known to this registry (from the config file)
+     * @param shuffleConfig Data shuffle queue execution settings
+     */
+    public RegistryStateCommandHandler(
+            IWriteCommandHandler writeCommandHandler,
+            IStoreManager registryStoreManager,
+            IDataShuffler nodeDataShuffler,
+            IDataShuffleQueue nodeDataShuffleQueue,
+            BenchmarkRunner benchmarkRunner,
+            List<DBNetworkNodesConfiguration> dataNodes,
+            String snapshotsDir,
+            ShuffleConfig shuffleConfig){
         Objects.requireNonNull(benchmarkRunner);
+        Objects.requireNonNull(shuffleConfig);
         Objects.requireNonNull(writeCommandHandler);
         Objects.requireNonNull(nodeDataShuffler);
         Objects.requireNonNull(nodeDataShuffleQueue);
@@ -73,22 +155,102 @@ public final class RegistryStateCommandHandler {
         _dataNodes = dataNodes;
         _dataShuffler = nodeDataShuffler;
         _dataShuffleQueue = nodeDataShuffleQueue;
+        _shuffleExecutor = new ShuffleExecutor(_dataShuffler, shuffleConfig);
+        _shuffleBatchSize = Math.max(1, shuffleConfig.getBatch());
+        _shuffleCompact = shuffleConfig.getCompact();
+        _backgroundShuffleRate = Math.max(0, shuffleConfig.getBackgroundRate());
+        _backgroundShuffleIdle = Math.max(1, shuffleConfig.getBackgroundIdle());
         _registryStoreManager = registryStoreManager;
 
         _snapshotsManager = new FileBasedSnapshotManager(snapshotsDir, _dataShuffler, _registryStoreManager);
+        addAllocationChangeListener(_benchmarkRunner.getAllocationChangeListener());
+
+        if(shuffleConfig.getBackground()){
+            _backgroundShuffle = new Thread(this::runBackgroundShuffle, "mdde-shuffle-worker");
+            _backgroundShuffle.setDaemon(true);
+            _backgroundShuffle.start();
+        }
+        else{
+            _backgroundShuffle = null;
+        }
+    }
+
+    /**
+     * Stop the background shuffle worker. The window that is currently executed is finished, the rest of the queue
+     * remains for the next start.
+     * @param timeout Maximum time to wait for the worker
+     * @param unit Time unit of the timeout
+     */
+    public void stopBackgroundShuffle(long timeout, TimeUnit unit){
+        if(_backgroundShuffle == null){
+            return;
+        }
+        _backgroundShuffleStop.countDown();
+        try {
+            _backgroundShuffle.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Close the registry state handler: stop the background shuffle worker and the data shuffle execution threads.
+     * The data shuffle queue can't be executed after the handler is closed.
+     * @param timeout Maximum time to wait for the background worker
+     * @param unit Time unit of the timeout
+     */
+    public void close(long timeout, TimeUnit unit){
+        stopBackgroundShuffle(timeout, unit);
+        _shuffleExecutor.shutdown();
+    }
+
+    /**
+     * Get the lock shared by all of the statement processors working with this registry. Statements that must not be
+     * interleaved with any other statement or with the background data shuffle take the write lock, every other
+     * statement takes the read lock.
+     * @return Statement lock
+     */
+    public ReadWriteLock getStatementLock(){
+        return _statementLock;
+    }
+
+    /**
+     * Subscribe to all of the allocation changes: ones performed through the write command handler and the ones
+     * performed by the state commands directly in the registry store
+     * @param listener Allocation change listener
+     */
+    public void addAllocationChangeListener(IAllocationChangeListener listener){
+        Objects.requireNonNull(listener, "Allocation change listener can't be null");
+        _writeCommandHandler.addAllocationChangeListener(listener);
+        _allocationListeners.add(listener);
+    }
+
+    /**
+     * Notify the subscribers that the registry store was changed bypassing the write command handler
+     */
+    private void notifyAllocationReset(){
+        for(var listener: _allocationListeners){
+            listener.onAllocationReset();
+        }
     }
 
     /**
-     * Prepare the registry to run benchmarks
+     * Prepare the registry to run benchmarks. If the shuffle queue is executed in the background, the actions that
+     * are still in the queue are executed first.
      * @throws MddeRegistryException
+     * @throws IOException Failed to execute the outstanding shuffle actions
      */
-    public synchronized boolean switchToBenchmark() throws MddeRegistryException {
+    public synchronized boolean switchToBenchmark() throws MddeRegistryException, IOException {
         _commandExecutionLock.lock();
         logger.trace("Switching to benchmark mode");
         try {
             if(_registryState ==  ERegistryState.benchmark){
                 throw new RegistryModeAlreadySetException("Registry is already in the benchmark mode");
             }
+            if(_backgroundShuffle != null){
+                executeQueue();
+                logger.trace("Outstanding shuffle actions were executed");
+            }
             _benchmarkRunner.prepareBenchmarkEnvironment();
             logger.trace("Benchmark environment was prepared");
             _registryState = ERegistryState.benchmark;
@@ -233,6 +395,59 @@ public final class RegistryStateCommandHandler {
         return _benchmarkRunner.getCounterfeitStatus(adjustRangeStart, adjustRangeEnd);
     }
 
+    /**
+     * Estimate the benchmark results of several hypothetical action sequences without changing the registry.
+     * @param adjustRangeStart Adjustment range start.
+     * @param adjustRangeEnd Adjustment range end.
+     * @param candidates Sequences of the fragment replication and exemplar removal actions.
+     * @return Per candidate estimations.
+     */
+    public synchronized BenchmarkCandidatesResult retrieveCounterfeitCandidatesStatus(
+            double adjustRangeStart,
+            double adjustRangeEnd,
+            List<List<ControlArgsCandidateActionContainer>> candidates){
+        return _benchmarkRunner.getCounterfeitCandidates(adjustRangeStart, adjustRangeEnd, candidates);
+    }
+
+    /**
+     * Enable or disable capturing of the tuple location requests trace during the real benchmark runs.
+     * @param enabled True - capture the trace of the subsequent runs.
+     * @return Current value of the flag.
+     */
+    public synchronized boolean setBenchmarkTraceCapture(boolean enabled){
+        return _benchmarkRunner.setTraceCapture(enabled);
+    }
+
+    /**
+     * Replay the latest captured benchmark trace against the current allocation.
+     * @return Replay benchmark status. Failed if no trace was captured prior to this call.
+     */
+    public synchronized BenchmarkStatus retrieveReplayBenchmarkStatus() throws MddeRegistryException, IOException {
+        _commandExecutionLock.lock();
+        try {
+            return _benchmarkRunner.getReplayStatus();
+        }
+        finally {
+            _commandExecutionLock.unlock();
+        }
+    }
+
+    /**
+     * Stop the currently running benchmark.
+     * @return True - the running benchmark was requested to stop, False - there is no running benchmark.
+     */
+    public synchronized boolean abortBenchmark(){
+        return _benchmarkRunner.abortBenchmark();
+    }
+
+    /**
+     * Get the registry metrics. Doesn't wait for the running state commands.
+     * @return Current metrics snapshot.
+     */
+    public RegistryMetricsSnapshot getMetrics(){
+        return RegistryMetrics.getDefaultInstance().snapshot();
+    }
+
     /**
      * Completely reset the environment (including erasing all of the data).
      * Next step after this is loading (generating) data in the environment
@@ -265,7 +480,9 @@ public final class RegistryStateCommandHandler {
                 return _writeCommandHandler.populateNodes(defaultNodesParam);
             }
             else{
-                return _snapshotsManager.loadSnapshot(defaultSnapshotId);
+                var result = _snapshotsManager.loadSnapshot(defaultSnapshotId);
+                notifyAllocationReset();
+                return result;
             }
         } catch (WriteOperationException | IllegalRegistryActionException e) {
             logger.error("Failed flushing all", e);
@@ -292,6 +509,7 @@ public final class RegistryStateCommandHandler {
 
             _dataShuffler.flushData();
             _registryStoreManager.flushAllData();
+            notifyAllocationReset();
             _benchmarkRunner.flushData();
             _snapshotsManager.flushSnapshots();
             return true;
@@ -313,10 +531,16 @@ public final class RegistryStateCommandHandler {
      */
     public String createSnapshot(boolean isDefault) throws IOException {
         _commandExecutionLock.lock();
+        var event = new SnapshotEvent();
+        event.begin();
         try {
-            return _snapshotsManager.createSnapshot(isDefault);
+            var snapshotId = _snapshotsManager.createSnapshot(isDefault);
+            event.snapshotId = snapshotId;
+            return snapshotId;
         }
         finally {
+            event.operation = SnapshotEvent.OPERATION_CREATE;
+            event.commit();
             _commandExecutionLock.unlock();
         }
     }
@@ -329,10 +553,17 @@ public final class RegistryStateCommandHandler {
      */
     public boolean loadSnapshot(String snapshotId) throws IOException {
         _commandExecutionLock.lock();
+        var event = new SnapshotEvent();
+        event.begin();
         try {
-            return _snapshotsManager.loadSnapshot(snapshotId);
+            var result = _snapshotsManager.loadSnapshot(snapshotId);
+            notifyAllocationReset();
+            return result;
         }
         finally {
+            event.operation = SnapshotEvent.OPERATION_LOAD;
+            event.snapshotId = snapshotId;
+            event.commit();
             _commandExecutionLock.unlock();
         }
     }
@@ -349,34 +580,7 @@ public final class RegistryStateCommandHandler {
                 throw new IllegalStateException("Registry is in the benchmark mode");
             }
             logger.info("Starting the data shuffle queue execution.");
-            while(!_dataShuffleQueue.isEmpty()){
-                var nextAction = _dataShuffleQueue.poll();
-                ShuffleKeysResult shuffleResult = null;
-                switch (nextAction.getActionType()){
-                    case DELETE:
-                        DataDeleteAction delAction = (DataDeleteAction) nextAction;
-                        logger.info("Executing DELETE action from queue: Del '{}' from node '{}'",
-                                String.join(";", delAction.getTupleIds()),delAction.getDataNode());
-                        shuffleResult = _dataShuffler.deleteTuples(delAction.getDataNode(), delAction.getTupleIds());
-                        break;
-                    case COPY:
-                        DataCopyAction cpyAction = (DataCopyAction) nextAction;
-                        logger.info("Executing COPY action from queue: Copy '{}' from node '{}' to node '{}'",
-                                String.join(";", cpyAction.getTupleIds()),
-                                cpyAction.getSourceNode(),
-                                cpyAction.getDestinationNode());
-                        shuffleResult= _dataShuffler.copyTuples(cpyAction.getSourceNode(),
-                                                                cpyAction.getDestinationNode(),
-                                                                cpyAction.getTupleIds());
-                        break;
-                    default:
-                        throw new RuntimeException(String.format("Unknown data type returned from the queue: %s",
-                                                                nextAction.getActionType().getTag()));
-                }
-                if(shuffleResult.getError() != null){
-                    throw shuffleResult.getError();
-                }
-            }
+            executeQueue();
             logger.info("Finished the data shuffle queue execution.");
             return true;
         }
@@ -391,6 +595,177 @@ public final class RegistryStateCommandHandler {
         }
     }
 
+    /**
+     * Wait until the data shuffle queue is executed by the background worker. If there is no background worker or
+     * it was stopped, the queue is executed right away as with {@link #syncRegistryToNodes()}.
+     * @return True if the queue is empty
+     * @throws IOException The background worker failed executing the queue and hasn't executed a window successfully
+     * since
+     */
+    public boolean awaitShuffleQueue() throws IOException, MddeRegistryException {
+        if(_backgroundShuffle == null || _statementLock.isWriteLockedByCurrentThread()){
+            // The worker is excluded while a statement is executed exclusively, execute the queue right here
+            return syncRegistryToNodes();
+        }
+        _commandExecutionLock.lock();
+        try {
+            while(true){
+                var error = _backgroundShuffleError;
+                if(error != null){
+                    _backgroundShuffleError = null;
+                    throw new IOException("Background data shuffle failed", error);
+                }
+                if(_dataShuffleQueue.isEmpty()){
+                    return true;
+                }
+                if(_registryState != ERegistryState.shuffle){
+                    throw new IllegalRegistryModeException(_registryState, ERegistryState.shuffle);
+                }
+                if(_backgroundShuffleStop.getCount() == 0){
+                    // The worker was stopped and won't drain the rest of the queue
+                    break;
+                }
+                _shuffleProgress.await(_backgroundShuffleIdle, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the data shuffle queue", e);
+        } finally {
+            _commandExecutionLock.unlock();
+        }
+        return syncRegistryToNodes();
+    }
+
+    /**
+     * Execute the data shuffle queue until it's empty. Must be called holding the command execution lock.
+     * @throws IOException Queue access or execution error, the failed window is returned to the queue
+     */
+    private void executeQueue() throws IOException {
+        List<DataAction> window;
+        while(!(window = _dataShuffleQueue.drain(_shuffleBatchSize)).isEmpty()){
+            executeWindow(window);
+        }
+    }
+
+    /**
+     * Execute a window of the actions taken from the queue head. Must be called holding the command execution lock.
+     * @param window Actions in the queue order
+     * @throws IOException Execution error, the actions that were not executed are returned to the queue. If the
+     * execution itself failed or was interrupted, the whole window is returned.
+     */
+    private void executeWindow(List<DataAction> window) throws IOException {
+        ShuffleExecutionReport report;
+        try {
+            if(_shuffleCompact){
+                var compacted = ShuffleQueueCompactor.compact(window);
+                logger.info("Shuffle queue window of {} actions compacted to {}", window.size(), compacted.size());
+                window = compacted;
+            }
+            report = _shuffleExecutor.execute(window);
+        } catch (InterruptedException e) {
+            // Some of the actions might have been executed already, re-executing the window in order is harmless
+            Thread.currentThread().interrupt();
+            returnToQueueHead(window);
+            throw new IOException("Interrupted while executing the data shuffle queue", e);
+        } catch (RuntimeException e) {
+            returnToQueueHead(window);
+            throw new IOException("Failed to execute the data shuffle queue window", e);
+        }
+        _shuffleProgress.signalAll();
+        if(report.getError() != null){
+            returnToQueueHead(report.getNotExecuted());
+            var error = report.getError();
+            throw error instanceof IOException ? (IOException) error : new IOException(error);
+        }
+    }
+
+    /**
+     * Background shuffle worker loop: executes the queue in windows while the registry is in the shuffle mode,
+     * releasing the command execution lock between the windows so the state commands aren't blocked for longer than
+     * a single window.
+     */
+    private void runBackgroundShuffle(){
+        logger.info("Background data shuffle worker started");
+        while(_backgroundShuffleStop.getCount() > 0){
+            long pauseMillis;
+            try {
+                var started = System.nanoTime();
+                var executed = executeBackgroundWindow();
+                if(executed == 0){
+                    pauseMillis = _backgroundShuffleIdle;
+                }
+                else if(_backgroundShuffleRate > 0){
+                    pauseMillis = executed * 1000L / _backgroundShuffleRate
+                            - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                }
+                else{
+                    pauseMillis = 0;
+                }
+            } catch (Exception e) {
+                logger.error("Background data shuffle failed", e);
+                pauseMillis = (long) _backgroundShuffleIdle * BACKGROUND_ERROR_BACKOFF_FACTOR;
+            }
+            if(pauseMillis > 0){
+                try {
+                    _backgroundShuffleStop.await(pauseMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        logger.info("Background data shuffle worker stopped");
+    }
+
+    /**
+     * Execute a single window of the queue if the registry is in the shuffle mode and no statement is executed
+     * exclusively
+     * @return Number of the actions taken from the queue
+     * @throws IOException Queue access or execution error, the actions that were not executed are returned to the queue
+     */
+    private int executeBackgroundWindow() throws IOException {
+        // Don't queue behind a waiting exclusive statement, it may wait for a statement that awaits this worker
+        if(!_statementLock.readLock().tryLock()){
+            return 0;
+        }
+        _commandExecutionLock.lock();
+        try {
+            if(_registryState != ERegistryState.shuffle){
+                return 0;
+            }
+            var limit = _backgroundShuffleRate > 0
+                    ? Math.min(_shuffleBatchSize, _backgroundShuffleRate)
+                    : _shuffleBatchSize;
+            var window = _dataShuffleQueue.drain(limit);
+            if(!window.isEmpty()){
+                executeWindow(window);
+                // The queue progresses again, the earlier failure is no longer reported
+                _backgroundShuffleError = null;
+            }
+            return window.size();
+        } catch (IOException | RuntimeException e) {
+            // Published before the waiting clients are signalled, so they don't see a drained queue without the error
+            _backgroundShuffleError = e;
+            throw e;
+        } finally {
+            _shuffleProgress.signalAll();
+            _commandExecutionLock.unlock();
+            _statementLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Put the actions that were not executed back in front of the remaining queue
+     * @param actions Actions in the queue order
+     * @throws IOException Queue access error
+     */
+    private void returnToQueueHead(List<DataAction> actions) throws IOException {
+        if(actions.isEmpty()){
+            return;
+        }
+        _dataShuffleQueue.addAllFirst(actions);
+        logger.info("{} shuffle actions were not executed and returned to the queue", actions.size());
+    }
+
 
     /**
      * Get the current state of the Registry
@@ -1,11 +1,14 @@
 package dev.jcri.mdde.registry.store.impl;
 
+import dev.jcri.mdde.registry.store.IAllocationChangeListener;
+import dev.jcri.mdde.registry.store.IFragmentMetaChangeListener;
 import dev.jcri.mdde.registry.store.IReadCommandHandler;
 import dev.jcri.mdde.registry.store.IWriteCommandHandler;
 import dev.jcri.mdde.registry.store.exceptions.*;
 import dev.jcri.mdde.registry.store.exceptions.action.*;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -25,11 +28,40 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
      */
     protected final IReadCommandHandler readCommandHandler;
 
+    /**
+     * Subscribers to the allocation changes
+     */
+    private final List<IAllocationChangeListener> _allocationListeners = new CopyOnWriteArrayList<>();
+    /**
+     * Subscribers to the meta values changes
+     */
+    private final List<IFragmentMetaChangeListener> _metaListeners = new CopyOnWriteArrayList<>();
+
     public WriteCommandHandler(IReadCommandHandler readCommandHandler){
         Objects.requireNonNull(readCommandHandler, "Handler for reads can't be null");
         this.readCommandHandler = readCommandHandler;
     }
 
+    /**
+     * Subscribe to the notifications about the fragments allocation changes
+     * @param listener Listener
+     */
+    @Override
+    public final void addAllocationChangeListener(IAllocationChangeListener listener){
+        Objects.requireNonNull(listener, "Allocation change listener can't be null");
+        _allocationListeners.add(listener);
+    }
+
+    /**
+     * Subscribe to the notifications about the fragments meta values changes
+     * @param listener Listener
+     */
+    @Override
+    public final void addMetaChangeListener(IFragmentMetaChangeListener listener){
+        Objects.requireNonNull(listener, "Meta change listener can't be null");
+        _metaListeners.add(listener);
+    }
+
 //region Public direct programmatic commands
     /**
      * Insert tuple id to the specified node, optionally assigning it to a fragment
@@ -78,7 +110,9 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
     public final boolean deleteTuple(final String tupleId) throws UnknownEntityIdException, WriteOperationException {
         _commandExecutionLock.lock();
         try {
-            return runCompleteTupleDeletion(tupleId);
+            var result = runCompleteTupleDeletion(tupleId);
+            notifyAllocationReset();
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -97,7 +131,9 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
             throws UnknownEntityIdException, WriteOperationException, DuplicateEntityRecordException, IllegalRegistryActionException {
         _commandExecutionLock.lock();
         try {
-            return verifyAndRunFormFragment(tupleIds, fragmentId);
+            var result = verifyAndRunFormFragment(tupleIds, fragmentId);
+            notifyAllocationReset();
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -108,7 +144,12 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
             throws DuplicateEntityRecordException, UnknownEntityIdException, WriteOperationException {
         _commandExecutionLock.lock();
         try {
-            return verifyAndRunAppendTupleToFragment(tupleId, fragmentId);
+            var result = verifyAndRunAppendTupleToFragment(tupleId, fragmentId);
+            if(result){
+                // Content of the fragment changed on all of its exemplars
+                notifyAllocationReset();
+            }
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -119,7 +160,13 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
             throws UnknownEntityIdException, WriteOperationException, IllegalRegistryActionException {
         _commandExecutionLock.lock();
         try {
-            return verifyAndRunReplicateFragment(fragmentId, sourceNodeId, destinationNodeId);
+            var result = verifyAndRunReplicateFragment(fragmentId, sourceNodeId, destinationNodeId);
+            if(result){
+                for(var listener: _allocationListeners){
+                    listener.onFragmentExemplarAdded(fragmentId, destinationNodeId);
+                }
+            }
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -137,7 +184,13 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
             throws UnknownEntityIdException, WriteOperationException, IllegalRegistryActionException {
         _commandExecutionLock.lock();
         try {
-            return verifyAndRunDeleteFragmentExemplar(fragmentId, nodeId);
+            var result = verifyAndRunDeleteFragmentExemplar(fragmentId, nodeId);
+            if(result){
+                for(var listener: _allocationListeners){
+                    listener.onFragmentExemplarRemoved(fragmentId, nodeId);
+                }
+            }
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -154,7 +207,9 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
             throws UnknownEntityIdException {
         _commandExecutionLock.lock();
         try {
-            return verifyAndRunCompleteFragmentDeletion(fragmentId);
+            var result = verifyAndRunCompleteFragmentDeletion(fragmentId);
+            notifyAllocationReset();
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -170,7 +225,9 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
                 throw new SeedNonEmptyRegistryException("Nodes population is now allowed in non-empty registry");
             }
 
-            return runPopulateNodes((Set<String>)nodeIds);
+            var result = runPopulateNodes((Set<String>)nodeIds);
+            notifyAllocationReset();
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -191,7 +248,13 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
             if(!readCommandHandler.getIsFragmentExists(fragmentId)){
                 throw new UnknownEntityIdException(RegistryEntityType.Fragment, fragmentId);
             }
-            return runAddMetaToFragmentGlobal(fragmentId, metaField, metaValue);
+            var result = runAddMetaToFragmentGlobal(fragmentId, metaField, metaValue);
+            if(result){
+                for(var listener: _metaListeners){
+                    listener.onFragmentMetaGlobalChanged(fragmentId, metaField, metaValue);
+                }
+            }
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -215,7 +278,13 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
             if(!readCommandHandler.getIsNodeContainsFragment(nodeId, fragmentId)){
                 throw new UnknownEntityIdException(RegistryEntityType.Fragment, fragmentId);
             }
-            return runAddMetaToFragmentExemplar(fragmentId, nodeId, metaField, metaValue);
+            var result = runAddMetaToFragmentExemplar(fragmentId, nodeId, metaField, metaValue);
+            if(result){
+                for(var listener: _metaListeners){
+                    listener.onFragmentMetaExemplarChanged(fragmentId, nodeId, metaField, metaValue);
+                }
+            }
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -229,7 +298,11 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
     public final boolean resetFragmentsMeta(){
         _commandExecutionLock.lock();
         try {
-            return runResetFragmentsMeta();
+            var result = runResetFragmentsMeta();
+            for(var listener: _metaListeners){
+                listener.onFragmentsMetaReset();
+            }
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
@@ -243,13 +316,24 @@ public abstract class WriteCommandHandler implements IWriteCommandHandler {
     public final boolean flush() throws WriteOperationException {
         _commandExecutionLock.lock();
         try {
-            return runFlush();
+            var result = runFlush();
+            notifyAllocationReset();
+            return result;
         }
         finally {
             _commandExecutionLock.unlock();
         }
     }
 
+    /**
+     * Notify the subscribers that their view of the allocation is no longer valid
+     */
+    private void notifyAllocationReset(){
+        for(var listener: _allocationListeners){
+            listener.onAllocationReset();
+        }
+    }
+
 //endregion
 //region Verify the correctness and validity of the invoked operation
     private boolean verifyAndRunInsertTuple(final String tupleId, final String nodeId)
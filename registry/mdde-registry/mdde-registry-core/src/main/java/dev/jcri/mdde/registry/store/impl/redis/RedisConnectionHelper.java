@@ -1,11 +1,13 @@
 package dev.jcri.mdde.registry.store.impl.redis;
 
 import dev.jcri.mdde.registry.configuration.redis.RegistryStoreConfigRedis;
+import dev.jcri.mdde.registry.metrics.RegistryMetrics;
 import redis.clients.jedis.*;
 
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -53,9 +55,26 @@ public final class RedisConnectionHelper implements Closeable {
         if(_jedisPool == null){
             throw new IllegalStateException("Redis connection pool is not initialized");
         }
+        RegistryMetrics.countStoreAccess();
         return _jedisPool.getResource();
     }
 
+    /**
+     * Publish the utilization of the connection pool
+     * @param metrics Registry metrics.
+     * @param poolName Name of the pool distinguishing it from the other pools of the registry.
+     */
+    public void registerMetrics(RegistryMetrics metrics, String poolName){
+        var labels = Map.of("pool", poolName);
+        metrics.registerGauge("mdde_store_pool_active", labels, () -> _jedisPool.getNumActive());
+        metrics.registerGauge("mdde_store_pool_idle", labels, () -> _jedisPool.getNumIdle());
+        metrics.registerGauge("mdde_store_pool_waiters", labels, () -> _jedisPool.getNumWaiters());
+        metrics.registerGauge("mdde_store_pool_borrow_wait_mean_ms", labels,
+                () -> _jedisPool.getMeanBorrowWaitTimeMillis());
+        metrics.registerGauge("mdde_store_pool_borrow_wait_max_ms", labels,
+                () -> _jedisPool.getMaxBorrowWaitTimeMillis());
+    }
+
     /**
      * Open a transaction.
      * Remember to make sure to execute Transaction.exec() after declaring all of the statements to it.
@@ -1,23 +1,26 @@
 package dev.jcri.mdde.registry.store.impl.redis;
 
 import dev.jcri.mdde.registry.store.IStoreManager;
-import dev.jcri.mdde.registry.utility.ByteTools;
+import dev.jcri.mdde.registry.store.snapshot.container.ISnapshotRecordReader;
+import dev.jcri.mdde.registry.store.snapshot.container.LegacySnapshotRecordReader;
+import dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerReader;
+import dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisDataException;
 
 import java.io.*;
-import java.nio.channels.FileLock;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class RedisStoreManager implements IStoreManager {
     private static final Logger logger = LogManager.getLogger(RedisStoreManager.class);
@@ -30,6 +33,26 @@ public class RedisStoreManager implements IStoreManager {
     }
 
     private static final Charset _dumpCharset = StandardCharsets.UTF_8;
+    /**
+     * Name of the snapshot container stream holding the registry keys
+     */
+    private static final String REGISTRY_STREAM = "registry";
+    /**
+     * SCAN COUNT hint, keys of every SCAN page are dumped in a single pipeline
+     */
+    private static final int DUMP_SCAN_COUNT = 1000;
+    /**
+     * Size of the serialized values restored in a single pipeline, a block of the snapshot container
+     */
+    private static final long RESTORE_BATCH_BYTES = SnapshotContainerWriter.DEFAULT_BLOCK_SIZE;
+    /**
+     * Upper bound of the number of keys restored in a single pipeline regardless of their size
+     */
+    private static final int RESTORE_BATCH_MAX_KEYS = 10000;
+
+    /**
+     * Dump the registry keys into a single stream of a snapshot container
+     */
     @Override
     public boolean dumpToFile(String pathToFile, boolean overwrite) throws IOException {
         File dumpFile = new File(pathToFile);
@@ -47,83 +70,98 @@ public class RedisStoreManager implements IStoreManager {
             }
         }
 
-        try(FileOutputStream out = new FileOutputStream(dumpFile)) {
-            try (FileLock outLock = out.getChannel().lock()) {
-                try(Jedis jedis = _redisConnection.getRedisCommands()){
-                    // |number of keys in the registry instance of Redis|
-                    // 8 bytes
-                    var nKeys = jedis.dbSize();
-                    out.write(ByteTools.longToByteArray(nKeys));
-
-                    String scanCursor = "0";
-                    while(true){
-                        // Read one by one, slower but easier on RAM
-                        ScanResult<String> scan = jedis.scan(scanCursor);
-                        scanCursor = scan.getCursor();
-                        if(scan.getResult() != null && scan.getResult().size() > 0){
-                            // Dump keys
-                            for(String key: scan.getResult()){
-                                byte[] value = jedis.dump(key);
-                                // |key len|key val|value len|value val|
-                                // |4 bytes|...    |4 bytes  |...      |
-                                // Key
-                                var keyBytes = key.getBytes(_dumpCharset);
-                                out.write(ByteTools.intToByteArray(keyBytes.length));
-                                out.write(keyBytes);
-                                // Value
-                                out.write(ByteTools.intToByteArray(value.length));
-                                out.write(value);
-                            }
+        // The incomplete file is removed if the dump fails
+        try(var container = new SnapshotContainerWriter(dumpFile)){
+            try(var stream = container.openStream(REGISTRY_STREAM);
+                Jedis jedis = _redisConnection.getRedisCommands()){
+                var scanParams = new ScanParams().count(DUMP_SCAN_COUNT);
+                byte[] scanCursor = ScanParams.SCAN_POINTER_START_BINARY;
+                ScanResult<byte[]> scan;
+                do {
+                    scan = jedis.scan(scanCursor, scanParams);
+                    scanCursor = scan.getCursorAsBytes();
+                    var keys = scan.getResult();
+                    if(keys == null || keys.isEmpty()){
+                        continue;
+                    }
+                    // Dump keys of the page in a single round trip
+                    List<Response<byte[]>> values = new ArrayList<>(keys.size());
+                    try(Pipeline p = jedis.pipelined()){
+                        for(byte[] key: keys){
+                            values.add(p.dump(key));
                         }
-
-                        if(scan.isCompleteIteration()){
-                            break;
+                    }
+                    for(int i = 0; i < keys.size(); i++){
+                        byte[] value = values.get(i).get();
+                        if(value != null){
+                            stream.writeRecord(keys.get(i), value);
                         }
                     }
-                }
+                } while(!scan.isCompleteIteration());
             }
+            container.commit();
         }
         return true;
     }
 
+    /**
+     * Restore the registry from a snapshot container or from a legacy uncompressed dump
+     */
     @Override
     public boolean restoreFromFile(String pathToFile) throws IOException {
         File dumpFile = new File(pathToFile);
         if(!dumpFile.exists()) {
             throw new FileNotFoundException("Unable to find the Redis dump file");
         }
-
-        try(FileInputStream in = new FileInputStream(dumpFile)) {
+        if(SnapshotContainerReader.isContainer(dumpFile)){
+            try(var container = new SnapshotContainerReader(dumpFile)){
+                restoreRecords(container.openStream(REGISTRY_STREAM));
+            }
+            return true;
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dumpFile)))) {
             // Read number of keys in the node
-            final long numKeys = ByteTools.byteArrayToLong(in.readNBytes(8));
-            long keysProcessed = 0;
-            final int batchSize = 25; // # number of keys to read and restore at a time
-            while(keysProcessed < numKeys){
-                final long batchLimit = Math.min(numKeys, keysProcessed + batchSize);
-                Map<String, byte[]> keyValues = new HashMap<>();
-                for(; keysProcessed < batchLimit; keysProcessed++){
-                    // Read key
-                    int keyLength = ByteTools.byteArrayToInt(in.readNBytes(4));
-                    String key = new String(in.readNBytes(keyLength), _dumpCharset);
-                    // Read value
-                    int valueLength = ByteTools.byteArrayToInt(in.readNBytes(4));
-                    byte[] value = in.readNBytes(valueLength);
-                    keyValues.put(key, value);
+            final long numKeys = in.readLong();
+            restoreRecords(new LegacySnapshotRecordReader(in, numKeys));
+        }
+        return true;
+    }
+
+    /**
+     * Restore the keys in pipelines of up to {@link #RESTORE_BATCH_BYTES} of serialized values, a block of the
+     * snapshot container is restored in about a single round trip regardless of the size of the values
+     * @param records Records of the registry
+     * @throws IOException Unable to read the records or some of the keys weren't restored
+     */
+    private void restoreRecords(ISnapshotRecordReader records) throws IOException {
+        try(Jedis jedis = _redisConnection.getRedisCommands()) {
+            boolean hasNext = records.next();
+            while(hasNext){
+                List<byte[]> keys = new ArrayList<>();
+                List<Response<String>> responses = new ArrayList<>();
+                long batchBytes = 0;
+                try(Pipeline p = jedis.pipelined()) {
+                    while(hasNext && batchBytes < RESTORE_BATCH_BYTES && keys.size() < RESTORE_BATCH_MAX_KEYS){
+                        byte[] key = records.getKey();
+                        byte[] value = records.getValue();
+                        keys.add(key);
+                        responses.add(p.restore(key, 0, value));
+                        batchBytes += key.length + value.length;
+                        hasNext = records.next();
+                    }
                 }
-                Map<String, Response<String>> responseMap = new HashMap<>();
-                try(Jedis jedis = _redisConnection.getRedisCommands()) {
-                    try(Pipeline p = jedis.pipelined()) {
-                        for (var keyValue : keyValues.entrySet()) {
-                            Response<String> rResponse = p.restore(keyValue.getKey(), 0, keyValue.getValue());
-                            responseMap.put(keyValue.getKey(), rResponse);
+                // Make sure all were restored
+                List<String> failedKeys = new ArrayList<>();
+                for(int i = 0; i < keys.size(); i++){
+                    try {
+                        if(!"OK".equals(responses.get(i).get())){
+                            failedKeys.add(new String(keys.get(i), _dumpCharset));
                         }
                     }
+                    catch (JedisDataException e){
+                        failedKeys.add(new String(keys.get(i), _dumpCharset));
+                    }
                 }
-                // Make sure all were restored
-                var failedKeys = responseMap.entrySet()
-                        .stream()
-                        .filter(e -> !e.getValue().get().equals("OK"))
-                        .map(Map.Entry::getKey).collect(Collectors.toSet());
                 if(failedKeys.size() > 0) {
                     throw new IOException(
                             String.format("Failed to restore for following keys: %s",
@@ -131,7 +169,6 @@ public class RedisStoreManager implements IStoreManager {
                 }
             }
         }
-        return true;
     }
 
     @Override
@@ -2,6 +2,10 @@ package dev.jcri.mdde.registry.store.queue;
 
 import dev.jcri.mdde.registry.store.queue.actions.DataAction;
 import dev.jcri.mdde.registry.utility.QueueThrowing;
+
+import java.io.IOException;
+import java.util.List;
+
 /**
  * Queue of the operations to be performed in the backend data store
  */
@@ -10,4 +14,21 @@ public interface IDataShuffleQueue extends QueueThrowing<DataAction> {
     // methods. Such as IOException without inappropriately wrapping into RuntimeException or a similar one.
     // Implementation for this queue might be a database, a file or anything else. If you want an in-memory queue,
     // just wrap an implementation of Queue<DataAction> into this interface
+
+    /**
+     * Atomically remove up to the specified number of actions from the head of the queue
+     * @param maxItems Maximum number of actions to retrieve
+     * @return Actions in the queue order, empty list if the queue is empty
+     * @throws IOException Queue access error
+     */
+    List<DataAction> drain(int maxItems) throws IOException;
+
+    /**
+     * Put the actions in front of the queue keeping their relative order, so the first action of the list becomes
+     * the head of the queue
+     * @param actions Actions in the queue order
+     * @return True if the actions were added
+     * @throws IOException Queue access error
+     */
+    boolean addAllFirst(List<DataAction> actions) throws IOException;
 }
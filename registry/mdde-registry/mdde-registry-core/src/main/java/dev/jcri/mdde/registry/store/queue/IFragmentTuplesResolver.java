@@ -0,0 +1,18 @@
+package dev.jcri.mdde.registry.store.queue;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Resolves the tuples of the fragments referenced by the queued data actions at the time of their execution
+ */
+@FunctionalInterface
+public interface IFragmentTuplesResolver {
+    /**
+     * Get the current tuples of the fragment from the registry
+     * @param fragmentId Fragment ID
+     * @return Tuple IDs, null if the fragment is no longer known to the registry
+     * @throws IOException Registry access error
+     */
+    Set<String> getFragmentTuples(String fragmentId) throws IOException;
+}
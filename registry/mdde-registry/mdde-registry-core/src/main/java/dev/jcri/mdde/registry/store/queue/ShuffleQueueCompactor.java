@@ -0,0 +1,173 @@
+package dev.jcri.mdde.registry.store.queue;
+
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reduces a sequence of the data shuffle queue actions to the net data movement:
+ * <ul>
+ *     <li>DELETE of tuples copied to the node earlier in the sequence cancels the copy of these tuples together with
+ *     the delete itself, as the data was never materialized on the node;</li>
+ *     <li>COPY between the same pair of nodes as an earlier COPY is merged into it, if none of the actions in between
+ *     touches the same tuples on these nodes.</li>
+ * </ul>
+ * Cancellation relies on the registry not allowing a fragment to be copied to a node that already holds it. Tuples
+ * that are read from the node (COPY source) or deleted on it between the copy and the delete are not cancelled.
+ */
+public final class ShuffleQueueCompactor {
+    private ShuffleQueueCompactor(){}
+
+    /**
+     * Compact the actions
+     * @param actions Actions in the queue order.
+     * @return Equivalent actions in the queue order. Actions that were not changed are returned as is.
+     */
+    public static List<DataAction> compact(List<DataAction> actions){
+        Objects.requireNonNull(actions, "Actions list can't be null");
+        List<Entry> entries = new ArrayList<>(actions.size());
+        for(var action: actions){
+            switch (action.getActionType()){
+                case COPY:
+                    var copy = new Entry(action);
+                    if(!mergeCopy(entries, copy)){
+                        entries.add(copy);
+                    }
+                    break;
+                case DELETE:
+                    var delete = new Entry(action);
+                    cancelDelete(entries, delete);
+                    if(!delete._tupleIds.isEmpty()){
+                        entries.add(delete);
+                    }
+                    break;
+                default:
+                    entries.add(new Entry(action));
+            }
+        }
+
+        List<DataAction> result = new ArrayList<>(entries.size());
+        for(var entry: entries){
+            if(entry._tupleIds.isEmpty()){
+                continue;
+            }
+            result.add(entry.toAction());
+        }
+        return result;
+    }
+
+    /**
+     * Merge the copy into the latest copy between the same nodes
+     * @return True - merged
+     */
+    private static boolean mergeCopy(List<Entry> entries, Entry copy){
+        for(int i = entries.size() - 1; i >= 0; i--){
+            var entry = entries.get(i);
+            if(entry.isCopy()
+                    && entry._sourceNode.equals(copy._sourceNode)
+                    && entry._destinationNode.equals(copy._destinationNode)){
+                entry._tupleIds.addAll(copy._tupleIds);
+                entry._changed = true;
+                return true;
+            }
+            if((entry.touches(copy._sourceNode) || entry.touches(copy._destinationNode))
+                    && intersects(entry._tupleIds, copy._tupleIds)){
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cancel the copies to the node of the delete, the cancelled tuples are removed from both
+     */
+    private static void cancelDelete(List<Entry> entries, Entry delete){
+        final String node = delete._destinationNode;
+        Set<String> blocked = new HashSet<>();
+        for(int i = entries.size() - 1; i >= 0 && !delete._tupleIds.isEmpty(); i--){
+            var entry = entries.get(i);
+            if(entry.isCopy() && entry._destinationNode.equals(node)){
+                var iterator = entry._tupleIds.iterator();
+                while(iterator.hasNext()){
+                    var tupleId = iterator.next();
+                    if(!blocked.contains(tupleId) && delete._tupleIds.remove(tupleId)){
+                        iterator.remove();
+                        entry._changed = true;
+                        delete._changed = true;
+                    }
+                }
+            }
+            if(entry.isCopy() ? entry._sourceNode.equals(node) : entry._destinationNode.equals(node)){
+                // Read from the node or already deleted there
+                blocked.addAll(entry._tupleIds);
+            }
+        }
+    }
+
+    private static boolean intersects(Set<String> a, Set<String> b){
+        var smaller = a.size() < b.size() ? a : b;
+        var larger = smaller == a ? b : a;
+        for(var item: smaller){
+            if(larger.contains(item)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mutable view of an action. For DELETE the node is stored as the destination.
+     */
+    private static final class Entry {
+        private final DataAction _action;
+        private final Set<String> _tupleIds;
+        private final String _sourceNode;
+        private final String _destinationNode;
+        private boolean _changed = false;
+
+        private Entry(DataAction action){
+            _action = action;
+            switch (action.getActionType()){
+                case COPY:
+                    var copy = (DataCopyAction) action;
+                    _tupleIds = new LinkedHashSet<>(copy.getTupleIds());
+                    _sourceNode = copy.getSourceNode();
+                    _destinationNode = copy.getDestinationNode();
+                    break;
+                case DELETE:
+                    var delete = (DataDeleteAction) action;
+                    _tupleIds = new LinkedHashSet<>(delete.getTupleIds());
+                    _sourceNode = null;
+                    _destinationNode = delete.getDataNode();
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown data action type: %s",
+                                                                     action.getActionType().getTag()));
+            }
+        }
+
+        private boolean isCopy(){
+            return _sourceNode != null;
+        }
+
+        private boolean touches(String node){
+            return node.equals(_destinationNode) || node.equals(_sourceNode);
+        }
+
+        private DataAction toAction(){
+            if(!_changed){
+                return _action;
+            }
+            return isCopy()
+                    ? new DataCopyAction(_tupleIds, _sourceNode, _destinationNode)
+                    : new DataDeleteAction(_tupleIds, _destinationNode);
+        }
+    }
+}
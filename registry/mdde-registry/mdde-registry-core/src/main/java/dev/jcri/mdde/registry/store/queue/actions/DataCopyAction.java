@@ -9,6 +9,7 @@ public class DataCopyAction extends DataAction {
     private Set<String> _tupleIds;
     private String _sourceNode;
     private String _destinationNode;
+    private FragmentTuplesReference _fragment;
 
     /**
      * Constructor
@@ -24,6 +25,19 @@ public class DataCopyAction extends DataAction {
         setDestinationNode(destinationNode);
     }
 
+    /**
+     * Constructor of a copy of the complete fragment. The queue may store the action as a reference to the fragment
+     * instead of the tuple IDs and resolve them at the execution.
+     * @param fragmentId ID of the copied fragment
+     * @param tupleIds Current tuples of the fragment
+     * @param sourceNode Registry ID of the source
+     * @param destinationNode Registry ID of the destination node
+     */
+    public DataCopyAction(String fragmentId, Set<String> tupleIds, String sourceNode, String destinationNode) {
+        this(tupleIds, sourceNode, destinationNode);
+        setFragment(FragmentTuplesReference.of(fragmentId, tupleIds));
+    }
+
     /**
      * Default protected constructor
      */
@@ -36,9 +50,33 @@ public class DataCopyAction extends DataAction {
      * @return
      */
     public Set<String> getTupleIds() {
+        if(_tupleIds == null && _fragment != null){
+            throw new IllegalStateException(
+                    String.format("Tuples of the referenced fragment %s were not resolved", _fragment));
+        }
         return _tupleIds;
     }
 
+    /**
+     * True if the tuple IDs are known, false if the action only references a fragment whose tuples were not resolved
+     * yet
+     */
+    public boolean isResolved(){
+        return _tupleIds != null;
+    }
+
+    /**
+     * Fragment that is copied by this action
+     * @return Reference to the fragment, null if the action copies an arbitrary set of tuples
+     */
+    public FragmentTuplesReference getFragment() {
+        return _fragment;
+    }
+
+    protected void setFragment(FragmentTuplesReference fragment){
+        _fragment = fragment;
+    }
+
     protected void setTupleIds(Set<String> tupleIds){
         if(tupleIds == null || tupleIds.isEmpty()){
             throw new IllegalArgumentException("Set of the tuple IDs can't be empty to perform a COPY operation");
@@ -0,0 +1,90 @@
+package dev.jcri.mdde.registry.store.queue.actions;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Reference to the tuples of a fragment as they were in the registry at the moment the action was queued. Instead of
+ * the tuple IDs the reference stores the number of tuples and an order independent fingerprint of the tuple set,
+ * which serve as the version of the fragment content.
+ */
+public final class FragmentTuplesReference {
+    private final String _fragmentId;
+    private final int _tupleCount;
+    private final long _fingerprint;
+
+    /**
+     * Constructor
+     * @param fragmentId Fragment ID
+     * @param tupleCount Number of tuples in the fragment
+     * @param fingerprint Fingerprint of the fragment tuple set
+     */
+    public FragmentTuplesReference(String fragmentId, int tupleCount, long fingerprint){
+        if(fragmentId == null || fragmentId.isBlank()){
+            throw new IllegalArgumentException("Fragment ID can't be null or empty");
+        }
+        _fragmentId = fragmentId;
+        _tupleCount = tupleCount;
+        _fingerprint = fingerprint;
+    }
+
+    /**
+     * Create a reference to the current version of the fragment
+     * @param fragmentId Fragment ID
+     * @param tupleIds Tuples of the fragment
+     * @return Reference
+     */
+    public static FragmentTuplesReference of(String fragmentId, Collection<String> tupleIds){
+        Objects.requireNonNull(tupleIds, "Tuple IDs can't be null");
+        return new FragmentTuplesReference(fragmentId, tupleIds.size(), fingerprint(tupleIds));
+    }
+
+    public String getFragmentId() {
+        return _fragmentId;
+    }
+
+    public int getTupleCount() {
+        return _tupleCount;
+    }
+
+    public long getFingerprint() {
+        return _fingerprint;
+    }
+
+    /**
+     * Check if the tuple set is the same version of the fragment content as the one referenced
+     * @param tupleIds Current tuples of the fragment
+     * @return True if the number of tuples and the fingerprint match
+     */
+    public boolean matches(Collection<String> tupleIds){
+        return tupleIds != null
+                && tupleIds.size() == _tupleCount
+                && fingerprint(tupleIds) == _fingerprint;
+    }
+
+    /**
+     * Order independent 64 bit fingerprint of a tuple set: sum of the mixed FNV-1a hashes of the tuple IDs
+     * @param tupleIds Tuple IDs
+     * @return Fingerprint
+     */
+    public static long fingerprint(Collection<String> tupleIds){
+        long result = 0;
+        for(String tupleId: tupleIds){
+            long hash = 0xcbf29ce484222325L;
+            for(int i = 0; i < tupleId.length(); i++){
+                hash ^= tupleId.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            // SplitMix64 finalizer, spreads the FNV bits before the summation
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            result += hash ^ (hash >>> 31);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d tuples, %016x)", _fragmentId, _tupleCount, _fingerprint);
+    }
+}
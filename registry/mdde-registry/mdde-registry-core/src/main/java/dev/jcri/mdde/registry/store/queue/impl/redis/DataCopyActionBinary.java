@@ -0,0 +1,30 @@
+package dev.jcri.mdde.registry.store.queue.impl.redis;
+
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
+import dev.jcri.mdde.registry.store.queue.actions.FragmentTuplesReference;
+
+import java.util.Set;
+import java.util.UUID;
+
+class DataCopyActionBinary extends DataCopyAction {
+    @Override
+    public void setActionId(UUID actionId){
+        super.setActionId(actionId);
+    }
+    @Override
+    public void setTupleIds(Set<String> tupleIds){
+        super.setTupleIds(tupleIds);
+    }
+    @Override
+    public void setSourceNode(String node){
+        super.setSourceNode(node);
+    }
+    @Override
+    public void setDestinationNode(String node){
+        super.setDestinationNode(node);
+    }
+    @Override
+    public void setFragment(FragmentTuplesReference fragment){
+        super.setFragment(fragment);
+    }
+}
@@ -0,0 +1,21 @@
+package dev.jcri.mdde.registry.store.queue.impl.redis;
+
+import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+
+import java.util.Set;
+import java.util.UUID;
+
+class DataDeleteActionBinary extends DataDeleteAction {
+    @Override
+    public void setActionId(UUID actionId){
+        super.setActionId(actionId);
+    }
+    @Override
+    public void setTupleIds(Set<String> tupleIds){
+        super.setTupleIds(tupleIds);
+    }
+    @Override
+    public void setDataNode(String node){
+        super.setDataNode(node);
+    }
+}
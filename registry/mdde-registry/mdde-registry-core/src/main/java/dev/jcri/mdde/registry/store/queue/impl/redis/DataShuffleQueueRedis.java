@@ -3,20 +3,41 @@ package dev.jcri.mdde.registry.store.queue.impl.redis;
 import dev.jcri.mdde.registry.store.impl.redis.Constants;
 import dev.jcri.mdde.registry.store.impl.redis.RedisConnectionHelper;
 import dev.jcri.mdde.registry.store.queue.IDataShuffleQueue;
+import dev.jcri.mdde.registry.store.queue.IFragmentTuplesResolver;
 import dev.jcri.mdde.registry.store.queue.actions.DataAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
 import dev.jcri.mdde.registry.utility.IteratorThrowing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.util.SafeEncoder;
 
 import java.io.IOException;
-import java.util.NoSuchElementException;
-import java.util.Objects;
+import java.util.*;
 
 /**
- * A queue backed by Redis
+ * A queue backed by Redis.
+ *
+ * Actions are stored in the binary format of {@link Serializer}, values in the legacy text format are still decoded.
+ * Copies of complete fragments are stored as references to the fragment and their tuples are resolved with the
+ * {@link IFragmentTuplesResolver} when the actions are read from the queue. A copy of a fragment that no longer exists
+ * in the registry is skipped: the fragment was destroyed and the registry queued the removal of its data after the
+ * copy. If the tuples of the fragment changed since the action was queued (tuples appended or deleted), the current
+ * tuples of the fragment are copied, as the registry already considers them allocated to the destination.
  */
 public class DataShuffleQueueRedis implements IDataShuffleQueue {
+    private static final Logger logger = LogManager.getLogger(DataShuffleQueueRedis.class);
+    /**
+     * Number of the queue elements retrieved by the iterator per round trip
+     */
+    public static final int ITERATOR_PAGE_SIZE = 256;
+
     private final RedisConnectionHelper _redisConnectionHelper;
     private final String _redisListKey;
+    private final byte[] _redisListKeyBytes;
+    private final IFragmentTuplesResolver _fragmentTuplesResolver;
 
     /**
      * Constructor (using default queue Registry key)
@@ -26,18 +47,43 @@ public class DataShuffleQueueRedis implements IDataShuffleQueue {
         this(redisConnectionHelper, Constants.DATA_SHUFFLE_QUEUE_KEY);
     }
 
+    /**
+     * Constructor (using default queue Registry key)
+     * @param redisConnectionHelper Initialized Redis connection pool to the Registry
+     * @param fragmentTuplesResolver Resolver of the tuples of the fragments referenced by the queued actions
+     */
+    public DataShuffleQueueRedis(RedisConnectionHelper redisConnectionHelper,
+                                 IFragmentTuplesResolver fragmentTuplesResolver){
+        this(redisConnectionHelper, Constants.DATA_SHUFFLE_QUEUE_KEY, fragmentTuplesResolver);
+    }
+
     /**
      * Constructor
      * @param redisConnectionHelper Initialized Redis connection pool to the Registry
      * @param redisListKey Key in the specified Redis instance that holds the queue
      */
     public DataShuffleQueueRedis(RedisConnectionHelper redisConnectionHelper, String redisListKey){
+        this(redisConnectionHelper, redisListKey, null);
+    }
+
+    /**
+     * Constructor
+     * @param redisConnectionHelper Initialized Redis connection pool to the Registry
+     * @param redisListKey Key in the specified Redis instance that holds the queue
+     * @param fragmentTuplesResolver Resolver of the tuples of the fragments referenced by the queued actions. If null,
+     *                               reading a fragment reference from the queue fails.
+     */
+    public DataShuffleQueueRedis(RedisConnectionHelper redisConnectionHelper,
+                                 String redisListKey,
+                                 IFragmentTuplesResolver fragmentTuplesResolver){
         Objects.requireNonNull(redisConnectionHelper, "Redis connection helper can't be null");
         if(redisListKey == null || redisListKey.isBlank()){
             throw new IllegalArgumentException("redisListKey can't be null or empty");
         }
         _redisConnectionHelper = redisConnectionHelper;
         _redisListKey = redisListKey;
+        _redisListKeyBytes = SafeEncoder.encode(redisListKey);
+        _fragmentTuplesResolver = fragmentTuplesResolver;
     }
 
 
@@ -66,24 +112,50 @@ public class DataShuffleQueueRedis implements IDataShuffleQueue {
         return false;
     }
 
+    /**
+     * Iterator retrieving the queue in pages of {@link #ITERATOR_PAGE_SIZE} elements. The queue isn't locked, if it's
+     * modified during the iteration, the elements might be skipped or returned twice.
+     */
     @Override
     public IteratorThrowing<DataAction> iterator() {
         IteratorThrowing<DataAction> it = new IteratorThrowing<DataAction>() {
-            private int currentIndex = 0;
+            private List<byte[]> page = Collections.emptyList();
+            private int pageStart = 0;
+            private int pageIndex = 0;
+            private boolean exhausted = false;
+            private DataAction nextAction = null;
 
             @Override
             public boolean hasNext() throws IOException  {
-                try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-                    return currentIndex < Math.toIntExact(jedis.llen(_redisListKey));
+                while(nextAction == null){
+                    if(pageIndex >= page.size()){
+                        if(exhausted){
+                            return false;
+                        }
+                        pageStart += page.size();
+                        pageIndex = 0;
+                        try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
+                            page = jedis.lrange(_redisListKeyBytes, pageStart, pageStart + ITERATOR_PAGE_SIZE - 1);
+                        }
+                        if(page == null){
+                            page = Collections.emptyList();
+                        }
+                        exhausted = page.size() < ITERATOR_PAGE_SIZE;
+                        continue;
+                    }
+                    nextAction = decode(page.get(pageIndex++));
                 }
+                return true;
             }
 
             @Override
             public DataAction next() throws IOException {
-                try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-                    var element = jedis.lindex(_redisListKey, currentIndex++);
-                    return Serializer.deserialize(element);
+                if(!hasNext()){
+                    throw new NoSuchElementException();
                 }
+                var result = nextAction;
+                nextAction = null;
+                return result;
             }
         };
         return it;
@@ -97,25 +169,19 @@ public class DataShuffleQueueRedis implements IDataShuffleQueue {
     @Override
     public DataAction[] toArray(DataAction[] a) throws IOException {
         try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-            var allElements = jedis.lrange(_redisListKey, 0, -1);
+            var allElements = jedis.lrange(_redisListKeyBytes, 0, -1);
             if(allElements == null || allElements.size() == 0){
                 return a;
             }
-            DataAction[] result = new DataAction[allElements.size()];
-            System.arraycopy(a, 0, result, 0, 0);
-            for (int i = 0; i < allElements.size(); i++) {
-                String element = allElements.get(i);
-                result[i] = Serializer.deserialize(element);
-            }
-            return result;
+            return decodeAll(allElements).toArray(new DataAction[0]);
         }
     }
 
     @Override
     public boolean add(DataAction dataAction) throws IOException {
-        var serialized = Serializer.serialize(dataAction);
+        var serialized = Serializer.serializeBinary(dataAction);
         try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-            var res = jedis.rpush(_redisListKey, serialized);
+            var res = jedis.rpush(_redisListKeyBytes, serialized);
             if(res > 0){
                 return true;
             }
@@ -123,6 +189,79 @@ public class DataShuffleQueueRedis implements IDataShuffleQueue {
         return false;
     }
 
+    /**
+     * Append all of the actions to the queue with a single RPUSH
+     */
+    @Override
+    public boolean addAll(Collection<? extends DataAction> actions) throws IOException {
+        Objects.requireNonNull(actions, "actions can't be null");
+        if(actions.isEmpty()){
+            return false;
+        }
+        byte[][] serialized = new byte[actions.size()][];
+        int i = 0;
+        for(DataAction action: actions){
+            serialized[i++] = Serializer.serializeBinary(action);
+        }
+        try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
+            return jedis.rpush(_redisListKeyBytes, serialized) > 0;
+        }
+    }
+
+    /**
+     * Prepend the actions with a single LPUSH. LPUSH inserts its arguments one after another at the head of the list,
+     * so they're passed in the reverse order.
+     */
+    @Override
+    public boolean addAllFirst(List<DataAction> actions) throws IOException {
+        Objects.requireNonNull(actions, "actions can't be null");
+        if(actions.isEmpty()){
+            return false;
+        }
+        byte[][] serialized = new byte[actions.size()][];
+        for(int i = 0; i < actions.size(); i++){
+            serialized[actions.size() - 1 - i] = Serializer.serializeBinary(actions.get(i));
+        }
+        try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
+            return jedis.lpush(_redisListKeyBytes, serialized) > 0;
+        }
+    }
+
+    /**
+     * Retrieve and trim the head of the queue within a single MULTI/EXEC transaction. If the retrieved actions can't
+     * be decoded or resolved, they're put back in front of the queue.
+     */
+    @Override
+    public List<DataAction> drain(int maxItems) throws IOException {
+        if(maxItems < 1){
+            throw new IllegalArgumentException("maxItems must be a positive number");
+        }
+        Response<List<byte[]>> elements;
+        try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
+            Transaction transaction = jedis.multi();
+            elements = transaction.lrange(_redisListKeyBytes, 0, maxItems - 1);
+            transaction.ltrim(_redisListKeyBytes, maxItems, -1);
+            transaction.exec();
+        }
+        var serialized = elements.get();
+        if(serialized == null || serialized.isEmpty()){
+            return new ArrayList<>();
+        }
+        try {
+            return decodeAll(serialized);
+        }
+        catch (IOException | RuntimeException e){
+            byte[][] returned = new byte[serialized.size()][];
+            for(int i = 0; i < serialized.size(); i++){
+                returned[serialized.size() - 1 - i] = serialized.get(i);
+            }
+            try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
+                jedis.lpush(_redisListKeyBytes, returned);
+            }
+            throw e;
+        }
+    }
+
     @Override
     public void clear() throws IOException {
         try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
@@ -132,49 +271,99 @@ public class DataShuffleQueueRedis implements IDataShuffleQueue {
 
     @Override
     public DataAction remove() throws IOException {
-        try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-            // get the left most element
-            var element = jedis.lpop(_redisListKey);
-            if(element == null){
-                throw new NoSuchElementException();
-            }
-            return Serializer.deserialize(element);
+        var element = poll();
+        if(element == null){
+            throw new NoSuchElementException();
         }
+        return element;
     }
 
     @Override
     public DataAction poll() throws IOException {
         try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-            // get the left most element
-            var element = jedis.lpop(_redisListKey);
-            if(element == null){
-                return null;
+            byte[] element;
+            // get the left most element, skipping the copies of the destroyed fragments
+            while((element = jedis.lpop(_redisListKeyBytes)) != null){
+                var action = decode(element);
+                if(action != null){
+                    return action;
+                }
             }
-            return Serializer.deserialize(element);
+            return null;
         }
     }
 
     @Override
     public DataAction element() throws IOException {
-        try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-            // get the left most element
-            var elements = jedis.lrange(_redisListKey, 0,0);
-            if(elements == null || elements.size() == 0){
-                throw new NoSuchElementException();
-            }
-            return Serializer.deserialize(elements.get(0));
+        var element = peek();
+        if(element == null){
+            throw new NoSuchElementException();
         }
+        return element;
     }
 
     @Override
     public DataAction peek() throws IOException {
-        try(Jedis jedis = _redisConnectionHelper.getRedisCommands()){
-            // get the left most element
-            var elements = jedis.lrange(_redisListKey, 0,0);
-            if(elements == null || elements.size() == 0){
-                return null;
+        // get the left most element
+        var it = iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    private List<DataAction> decodeAll(List<byte[]> elements) throws IOException {
+        List<DataAction> result = new ArrayList<>(elements.size());
+        for(byte[] element: elements){
+            var action = decode(element);
+            if(action != null){
+                result.add(action);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deserialize the queue element and resolve the fragment reference
+     * @param element Serialized action
+     * @return Action ready for the execution or null if the action must be skipped
+     * @throws IOException Malformed element or failure to resolve the fragment
+     */
+    private DataAction decode(byte[] element) throws IOException {
+        return decode(element, _fragmentTuplesResolver);
+    }
+
+    /**
+     * Deserialize the queue element and resolve the fragment reference
+     * @param element Serialized action
+     * @param fragmentTuplesResolver Resolver of the fragment tuples, may be null
+     * @return Action ready for the execution or null if the action must be skipped
+     * @throws IOException Malformed element or failure to resolve the fragment
+     */
+    static DataAction decode(byte[] element, IFragmentTuplesResolver fragmentTuplesResolver) throws IOException {
+        var action = Serializer.deserialize(element);
+        if(action.getActionType() != DataAction.EActionType.COPY){
+            return action;
+        }
+        var copyAction = (DataCopyAction) action;
+        if(copyAction.isResolved()){
+            return copyAction;
+        }
+        var fragment = copyAction.getFragment();
+        if(fragmentTuplesResolver == null){
+            throw new IOException(String.format("Unable to resolve the tuples of fragment %s, the queue has no " +
+                    "fragment resolver", fragment.getFragmentId()));
+        }
+        var tupleIds = fragmentTuplesResolver.getFragmentTuples(fragment.getFragmentId());
+        if(tupleIds == null){
+            logger.warn("Fragment {} copied by the queued action {} was destroyed, the copy is skipped",
+                    fragment, copyAction.getActionId());
+            return null;
+        }
+        if(!fragment.matches(tupleIds)){
+            logger.info("Tuples of fragment {} copied by the queued action {} changed, copying {} current tuples",
+                    fragment, copyAction.getActionId(), tupleIds.size());
+            if(tupleIds.isEmpty()){
+                return null; // All of the tuples were deleted, nothing to copy
             }
-            return Serializer.deserialize(elements.get(0));
         }
+        return Serializer.resolve(copyAction, tupleIds);
     }
 }
@@ -6,12 +6,43 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.jcri.mdde.registry.store.queue.actions.DataAction;
 import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
 import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import dev.jcri.mdde.registry.store.queue.actions.FragmentTuplesReference;
 
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Serialization of the data actions placed into the Redis queue.
+ *
+ * Two formats are supported. The legacy text format is a 3 digit operation code followed by the JSON of the action.
+ * The binary format ({@link #serializeBinary(DataAction)}) is:
+ * <ul>
+ *     <li>{@link #BINARY_MARKER}, can't be the first byte of a legacy value as it's never a part of UTF-8;</li>
+ *     <li>format version (byte), operation code (byte), action ID (2 longs), flags (byte);</li>
+ *     <li>COPY: source node, destination node; DELETE: data node (modified UTF-8);</li>
+ *     <li>if {@link #FLAG_FRAGMENT_REFERENCE} is set: fragment ID, number of tuples (int) and the tuples
+ *     fingerprint (long), otherwise the number of tuples (int) followed by the tuple IDs.</li>
+ * </ul>
+ * {@link #deserialize(byte[])} decodes both formats, so the queues written by the earlier versions can be drained.
+ */
 public class Serializer {
+    /**
+     * First byte of the values in the binary format
+     */
+    public static final byte BINARY_MARKER = (byte) 0xFE;
+    /**
+     * Current version of the binary format
+     */
+    public static final byte BINARY_VERSION = 1;
+    /**
+     * The action stores a reference to the fragment instead of the tuple IDs
+     */
+    private static final byte FLAG_FRAGMENT_REFERENCE = 0x01;
 
     private static ObjectMapper _mapperObject;
     private static ReentrantLock _mapperLock  = new ReentrantLock();
@@ -26,6 +57,7 @@ public class Serializer {
             }
             var newMapper = new ObjectMapper();
             newMapper.addMixIn(DataAction.class, TagIgnoreMixin.class);
+            newMapper.addMixIn(DataCopyAction.class, FragmentIgnoreMixin.class);
             _mapperObject = newMapper;
             return _mapperObject;
         }
@@ -35,6 +67,12 @@ public class Serializer {
     }
 
 
+    /**
+     * Serialize the action in the legacy text format
+     * @param action Data action
+     * @return Operation code followed by the JSON of the action
+     * @throws IOException Serialization error
+     */
     public static String serialize(DataAction action) throws IOException {
         switch (action.getActionType()){
             case DELETE:
@@ -52,6 +90,137 @@ public class Serializer {
         }
     }
 
+    /**
+     * Serialize the action in the binary format. Copies of complete fragments are stored as references to the
+     * fragment.
+     * @param action Data action
+     * @return Binary value
+     * @throws IOException Serialization error
+     */
+    public static byte[] serializeBinary(DataAction action) throws IOException {
+        if(action == null){
+            throw new IllegalArgumentException("null DataAction");
+        }
+        var bytes = new ByteArrayOutputStream(64);
+        var out = new DataOutputStream(bytes);
+        out.writeByte(BINARY_MARKER);
+        out.writeByte(BINARY_VERSION);
+        out.writeByte(action.getActionType().getCode());
+        out.writeLong(action.getActionId().getMostSignificantBits());
+        out.writeLong(action.getActionId().getLeastSignificantBits());
+        switch (action.getActionType()){
+            case DELETE:
+                var delAction = (DataDeleteAction) action;
+                out.writeByte(0);
+                out.writeUTF(delAction.getDataNode());
+                writeTuples(out, delAction.getTupleIds());
+                break;
+            case COPY:
+                var copyAction = (DataCopyAction) action;
+                var fragment = copyAction.getFragment();
+                out.writeByte(fragment != null ? FLAG_FRAGMENT_REFERENCE : 0);
+                out.writeUTF(copyAction.getSourceNode());
+                out.writeUTF(copyAction.getDestinationNode());
+                if(fragment != null){
+                    out.writeUTF(fragment.getFragmentId());
+                    out.writeInt(fragment.getTupleCount());
+                    out.writeLong(fragment.getFingerprint());
+                }
+                else{
+                    writeTuples(out, copyAction.getTupleIds());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Unknown data action %s", action.getActionType().getTag()));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserialize the action stored in either binary or legacy text format. Copies stored as fragment references are
+     * returned unresolved, see {@link DataCopyAction#isResolved()}.
+     * @param serializedValue Serialized value
+     * @return Data action
+     * @throws IOException Malformed value
+     */
+    public static DataAction deserialize(byte[] serializedValue) throws IOException {
+        if(serializedValue == null || serializedValue.length == 0){
+            throw new IllegalArgumentException("Serialized value can't be empty");
+        }
+        if(serializedValue[0] != BINARY_MARKER){
+            return deserialize(new String(serializedValue, StandardCharsets.UTF_8));
+        }
+        var in = new DataInputStream(new ByteArrayInputStream(serializedValue, 1, serializedValue.length - 1));
+        var version = in.readByte();
+        if(version != BINARY_VERSION){
+            throw new IOException(String.format("Unsupported data action format version: %d", version));
+        }
+        var opCode = in.readByte();
+        var actionId = new UUID(in.readLong(), in.readLong());
+        var flags = in.readByte();
+        if(opCode == DataAction.EActionType.DELETE.getCode()){
+            var result = new DataDeleteActionBinary();
+            result.setActionId(actionId);
+            result.setDataNode(in.readUTF());
+            result.setTupleIds(readTuples(in));
+            return result;
+        }
+        if(opCode == DataAction.EActionType.COPY.getCode()){
+            var result = new DataCopyActionBinary();
+            result.setActionId(actionId);
+            result.setSourceNode(in.readUTF());
+            result.setDestinationNode(in.readUTF());
+            if((flags & FLAG_FRAGMENT_REFERENCE) != 0){
+                result.setFragment(new FragmentTuplesReference(in.readUTF(), in.readInt(), in.readLong()));
+            }
+            else{
+                result.setTupleIds(readTuples(in));
+            }
+            return result;
+        }
+        throw new IllegalArgumentException(String.format("Unknown data action code %d", opCode));
+    }
+
+    /**
+     * Return a copy of the action referencing a fragment with the resolved tuples
+     * @param action Unresolved copy action
+     * @param tupleIds Tuples of the referenced fragment
+     * @return Resolved action with the same ID
+     */
+    static DataCopyAction resolve(DataCopyAction action, Set<String> tupleIds){
+        var result = new DataCopyActionBinary();
+        result.setActionId(action.getActionId());
+        result.setSourceNode(action.getSourceNode());
+        result.setDestinationNode(action.getDestinationNode());
+        result.setFragment(action.getFragment());
+        result.setTupleIds(tupleIds);
+        return result;
+    }
+
+    private static void writeTuples(DataOutputStream out, Set<String> tupleIds) throws IOException {
+        out.writeInt(tupleIds.size());
+        for(String tupleId: tupleIds){
+            out.writeUTF(tupleId);
+        }
+    }
+
+    private static Set<String> readTuples(DataInputStream in) throws IOException {
+        var count = in.readInt();
+        Set<String> result = new HashSet<>(Math.max(16, (int) (count / .75f) + 1));
+        for(int i = 0; i < count; i++){
+            result.add(in.readUTF());
+        }
+        return result;
+    }
+
+    /**
+     * Deserialize the action stored in the legacy text format
+     * @param serializedValue Operation code followed by the JSON of the action
+     * @return Data action
+     * @throws IOException Malformed value
+     */
     public static DataAction deserialize(String serializedValue) throws IOException{
         var opCode = parseOperationCode(serializedValue);
         if(opCode == null){
@@ -110,4 +279,11 @@ public class Serializer {
         @JsonIgnore
         public abstract DataAction.EActionType getActionType();
     }
+
+    abstract class FragmentIgnoreMixin {
+        @JsonIgnore
+        public abstract FragmentTuplesReference getFragment();
+        @JsonIgnore
+        public abstract boolean isResolved();
+    }
 }
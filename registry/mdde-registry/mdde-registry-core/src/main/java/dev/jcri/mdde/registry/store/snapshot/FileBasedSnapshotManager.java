@@ -2,6 +2,7 @@ package dev.jcri.mdde.registry.store.snapshot;
 
 import dev.jcri.mdde.registry.data.IDataShuffler;
 import dev.jcri.mdde.registry.store.IStoreManager;
+import dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -16,6 +17,9 @@ import java.util.UUID;
 
 /**
  * Snapshots manager with an SQLLite based catalog.
+ *
+ * New snapshots are written as compressed and checksummed snapshot containers ({@link SnapshotContainerReader}),
+ * snapshots in the legacy uncompressed layout are still loaded.
  */
 public class FileBasedSnapshotManager extends StoreSnapshotManagerBase {
     private static final Logger logger = LogManager.getLogger(FileBasedSnapshotManager.class);
@@ -207,6 +211,9 @@ public class FileBasedSnapshotManager extends StoreSnapshotManagerBase {
                 throw new FileNotFoundException(snapDataNodesFile);
             }
 
+            // Snapshots written before the container format are restored from the legacy layout
+            logger.info("Loading snapshot {} (registry: {}, data: {})", snapshotId,
+                    getSnapshotFileFormat(snapRegistryFile), getSnapshotFileFormat(snapDataNodesFile));
             var dataRestored = _dataShuffler.restoreFromFile(snapDataNodesFile);
             var registryRestored = _registryStoreManager.restoreFromFile(snapRegistryFile);
 
@@ -217,4 +224,14 @@ public class FileBasedSnapshotManager extends StoreSnapshotManagerBase {
             throw ex;
         }
     }
+
+    /**
+     * Get the name of the snapshot file format for logging
+     * @param snapshotFile Path to the registry or data snapshot file
+     * @return "container" or "legacy"
+     * @throws IOException Unable to read the file
+     */
+    private static String getSnapshotFileFormat(String snapshotFile) throws IOException {
+        return SnapshotContainerReader.isContainer(new File(snapshotFile)) ? "container" : "legacy";
+    }
 }
@@ -0,0 +1,25 @@
+package dev.jcri.mdde.registry.store.snapshot.container;
+
+import java.io.IOException;
+
+/**
+ * Sequential reader of the key / value records of a snapshot
+ */
+public interface ISnapshotRecordReader {
+    /**
+     * Move to the next record
+     * @return False if there are no more records
+     * @throws IOException Read error or corrupted snapshot
+     */
+    boolean next() throws IOException;
+
+    /**
+     * @return Key of the current record
+     */
+    byte[] getKey();
+
+    /**
+     * @return Value of the current record
+     */
+    byte[] getValue();
+}
@@ -0,0 +1,52 @@
+package dev.jcri.mdde.registry.store.snapshot.container;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Reader of the records in the uncompressed snapshot layout preceding the container: a known number of
+ * |key len|key val|value len|value val| records with 4 byte big endian lengths
+ */
+public class LegacySnapshotRecordReader implements ISnapshotRecordReader {
+    private final DataInputStream _in;
+    private long _remaining;
+    private byte[] _key = null;
+    private byte[] _value = null;
+
+    /**
+     * Constructor
+     * @param in Stream positioned at the first record
+     * @param numRecords Number of records to read
+     */
+    public LegacySnapshotRecordReader(DataInputStream in, long numRecords){
+        Objects.requireNonNull(in, "in can't be null");
+        _in = in;
+        _remaining = numRecords;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if(_remaining <= 0){
+            _key = null;
+            _value = null;
+            return false;
+        }
+        _key = new byte[_in.readInt()];
+        _in.readFully(_key);
+        _value = new byte[_in.readInt()];
+        _in.readFully(_value);
+        _remaining--;
+        return true;
+    }
+
+    @Override
+    public byte[] getKey() {
+        return _key;
+    }
+
+    @Override
+    public byte[] getValue() {
+        return _value;
+    }
+}
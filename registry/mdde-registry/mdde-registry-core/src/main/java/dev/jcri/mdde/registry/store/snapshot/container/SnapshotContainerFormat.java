@@ -0,0 +1,55 @@
+package dev.jcri.mdde.registry.store.snapshot.container;
+
+/**
+ * Layout of the snapshot container, all numbers are big endian.
+ *
+ * |magic  |version|blocks|index|trailer|
+ * |4 bytes|2 bytes|...   |...  |20 bytes|
+ *
+ * Block: |codec |stored length|raw length|CRC32C of the raw records|stored records|
+ *        |1 byte|4 bytes      |4 bytes   |4 bytes                  |...           |
+ * Raw records: |key len|key val|value len|value val| with 4 byte lengths. A record never spans two blocks.
+ *
+ * Index: |streams|per stream: |name len|name|records|blocks |per block: |offset |length |records|
+ *        |4 bytes|            |2 bytes |... |8 bytes|4 bytes|           |8 bytes|4 bytes|4 bytes|
+ *        |attributes|per attribute: |name len|name|value len|value|
+ *        |4 bytes   |               |2 bytes |... |2 bytes  |... |
+ * Attributes are UTF-8 strings describing the snapshot.
+ *
+ * Trailer: |index offset|index length|CRC32C of the index|magic  |
+ *          |8 bytes     |4 bytes     |4 bytes            |4 bytes|
+ */
+final class SnapshotContainerFormat {
+    /**
+     * "MDSC". Legacy snapshots start with a key count or a version number, neither of which can match.
+     */
+    static final int MAGIC = 0x4D445343;
+    static final short VERSION = 1;
+
+    static final int FILE_HEADER_LENGTH = 6;
+    static final int BLOCK_HEADER_LENGTH = 13;
+    static final int TRAILER_LENGTH = 20;
+
+    static final byte CODEC_NONE = 0;
+    static final byte CODEC_LZ4 = 1;
+
+    private SnapshotContainerFormat(){}
+
+    /**
+     * Index entry of a block
+     */
+    static final class BlockEntry {
+        final long offset;
+        /**
+         * Length of the block including its header
+         */
+        final int length;
+        final int records;
+
+        BlockEntry(long offset, int length, int records){
+            this.offset = offset;
+            this.length = length;
+            this.records = records;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package dev.jcri.mdde.registry.store.snapshot.container;
+
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+
+import static dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerFormat.*;
+
+/**
+ * Reader of the snapshot container written by {@link SnapshotContainerWriter}.
+ *
+ * Blocks are read with positional reads, so different streams can be read concurrently. Every block is verified
+ * against its CRC32C before its records are returned.
+ */
+public class SnapshotContainerReader implements Closeable {
+    private final File _file;
+    private final FileChannel _channel;
+    private final LZ4SafeDecompressor _decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+    private final Map<String, StreamEntry> _streams = new LinkedHashMap<>();
+    private final Map<String, String> _attributes = new LinkedHashMap<>();
+
+    /**
+     * Check if the file is a snapshot container
+     * @param file Snapshot file
+     * @return True - the file starts with the container header, false - legacy snapshot
+     * @throws IOException Unable to read the file
+     */
+    public static boolean isContainer(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            if(channel.size() < FILE_HEADER_LENGTH + TRAILER_LENGTH){
+                return false;
+            }
+            return read(channel, 0, 4).getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Constructor, reads the index of the container
+     * @param file Snapshot file
+     * @throws IOException Unable to read the file or the file is not a complete snapshot container
+     */
+    public SnapshotContainerReader(File file) throws IOException {
+        _file = file;
+        _channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            readIndex();
+        }
+        catch (IOException | RuntimeException e){
+            _channel.close();
+            throw e;
+        }
+    }
+
+    private void readIndex() throws IOException {
+        var size = _channel.size();
+        if(size < FILE_HEADER_LENGTH + TRAILER_LENGTH){
+            throw corrupted("the file is truncated");
+        }
+        var header = read(_channel, 0, FILE_HEADER_LENGTH);
+        if(header.getInt() != MAGIC){
+            throw corrupted("not a snapshot container");
+        }
+        var version = header.getShort();
+        if(version != VERSION){
+            throw new IOException(String.format("Unsupported snapshot container version %d: %s", version, _file));
+        }
+        var trailer = read(_channel, size - TRAILER_LENGTH, TRAILER_LENGTH);
+        var indexOffset = trailer.getLong();
+        var indexLength = trailer.getInt();
+        var indexCrc = trailer.getInt();
+        if(trailer.getInt() != MAGIC
+                || indexOffset < FILE_HEADER_LENGTH
+                || indexLength < 0
+                || indexOffset + indexLength != size - TRAILER_LENGTH){
+            throw corrupted("the index is missing, the snapshot wasn't completed");
+        }
+        var index = read(_channel, indexOffset, indexLength);
+        var crc = new CRC32C();
+        crc.update(index.array(), 0, indexLength);
+        if((int) crc.getValue() != indexCrc){
+            throw corrupted("the index checksum doesn't match");
+        }
+        try {
+            var streams = index.getInt();
+            for(int i = 0; i < streams; i++){
+                var name = readString(index);
+                var records = index.getLong();
+                var blocks = index.getInt();
+                List<BlockEntry> blockEntries = new ArrayList<>(blocks);
+                for(int j = 0; j < blocks; j++){
+                    blockEntries.add(new BlockEntry(index.getLong(), index.getInt(), index.getInt()));
+                }
+                _streams.put(name, new StreamEntry(records, blockEntries));
+            }
+            var attributes = index.getInt();
+            for(int i = 0; i < attributes; i++){
+                _attributes.put(readString(index), readString(index));
+            }
+        }
+        catch (BufferUnderflowException | IllegalArgumentException e){
+            throw new IOException(String.format("Malformed index of the snapshot %s", _file), e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param name Attribute name
+     * @return Value of the snapshot attribute, null if it wasn't set by the writer
+     */
+    public String getAttribute(String name){
+        return _attributes.get(name);
+    }
+
+    /**
+     * @return Names of the streams in the order they were opened by the writer
+     */
+    public List<String> getStreamNames(){
+        return new ArrayList<>(_streams.keySet());
+    }
+
+    /**
+     * @param name Stream name
+     * @return Number of records in the stream
+     */
+    public long getRecordsCount(String name){
+        return getStream(name).records;
+    }
+
+    /**
+     * Open a reader of the stream records. Readers of the different streams can be used by different threads.
+     * @param name Stream name
+     * @return Record reader
+     */
+    public ISnapshotRecordReader openStream(String name){
+        return new StreamReader(getStream(name));
+    }
+
+    private StreamEntry getStream(String name){
+        var stream = _streams.get(name);
+        if(stream == null){
+            throw new NoSuchElementException(String.format("Stream '%s' is not found in the snapshot %s",
+                    name, _file));
+        }
+        return stream;
+    }
+
+    /**
+     * Read, decompress and verify a block
+     * @param block Index entry of the block
+     * @return Raw records of the block
+     * @throws IOException Read error or the block is corrupted
+     */
+    private byte[] readBlock(BlockEntry block) throws IOException {
+        if(block.length < BLOCK_HEADER_LENGTH){
+            throw corrupted(block, "invalid block length");
+        }
+        var data = read(_channel, block.offset, block.length);
+        var codec = data.get();
+        var storedLength = data.getInt();
+        var rawLength = data.getInt();
+        var expectedCrc = data.getInt();
+        if(storedLength != block.length - BLOCK_HEADER_LENGTH || rawLength < 0){
+            throw corrupted(block, "invalid block header");
+        }
+        byte[] raw = new byte[rawLength];
+        switch (codec){
+            case CODEC_NONE:
+                if(rawLength != storedLength){
+                    throw corrupted(block, "invalid block header");
+                }
+                data.get(raw);
+                break;
+            case CODEC_LZ4:
+                try {
+                    var decompressed = _decompressor.decompress(data.array(), BLOCK_HEADER_LENGTH, storedLength,
+                                                                raw, 0, rawLength);
+                    if(decompressed != rawLength){
+                        throw corrupted(block, "unexpected decompressed length");
+                    }
+                }
+                catch (LZ4Exception e){
+                    throw new IOException(String.format("Snapshot block at %d of %s can't be decompressed",
+                            block.offset, _file), e);
+                }
+                break;
+            default:
+                throw new IOException(String.format("Unsupported compression codec %d of the snapshot block at %d " +
+                        "of %s", codec, block.offset, _file));
+        }
+        var crc = new CRC32C();
+        crc.update(raw, 0, raw.length);
+        if((int) crc.getValue() != expectedCrc){
+            throw corrupted(block, "checksum doesn't match");
+        }
+        return raw;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, position + buffer.position()) < 0){
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private IOException corrupted(String reason){
+        return new IOException(String.format("Corrupted snapshot %s: %s", _file, reason));
+    }
+
+    private IOException corrupted(BlockEntry block, String reason){
+        return new IOException(String.format("Corrupted snapshot block at %d of %s: %s",
+                block.offset, _file, reason));
+    }
+
+    @Override
+    public void close() throws IOException {
+        _channel.close();
+    }
+
+    private static final class StreamEntry {
+        private final long records;
+        private final List<BlockEntry> blocks;
+
+        private StreamEntry(long records, List<BlockEntry> blocks){
+            this.records = records;
+            this.blocks = blocks;
+        }
+    }
+
+    private final class StreamReader implements ISnapshotRecordReader {
+        private final StreamEntry _stream;
+        private int _nextBlock = 0;
+        private ByteBuffer _block = null;
+        private int _blockRecordsLeft = 0;
+        private byte[] _key = null;
+        private byte[] _value = null;
+
+        private StreamReader(StreamEntry stream){
+            _stream = stream;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while(_blockRecordsLeft == 0){
+                if(_nextBlock >= _stream.blocks.size()){
+                    _key = null;
+                    _value = null;
+                    return false;
+                }
+                var entry = _stream.blocks.get(_nextBlock++);
+                _block = ByteBuffer.wrap(readBlock(entry));
+                _blockRecordsLeft = entry.records;
+            }
+            try {
+                _key = new byte[_block.getInt()];
+                _block.get(_key);
+                _value = new byte[_block.getInt()];
+                _block.get(_value);
+            }
+            catch (BufferUnderflowException | NegativeArraySizeException e){
+                throw new IOException(String.format("Malformed records in the snapshot %s", _file), e);
+            }
+            _blockRecordsLeft--;
+            return true;
+        }
+
+        @Override
+        public byte[] getKey() {
+            return _key;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return _value;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package dev.jcri.mdde.registry.store.snapshot.container;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+import static dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerFormat.*;
+
+/**
+ * Writer of the snapshot container (see {@link SnapshotContainerFormat}).
+ *
+ * Records are written into named streams, such as the data of a single node. Every stream must be written by a single
+ * thread, different streams can be written concurrently. Records are grouped into blocks of about
+ * {@link #getBlockSize()} bytes, every block is LZ4 compressed, or stored as is if it doesn't compress, and carries
+ * the CRC32C of its records. Blocks of the different streams are interleaved in the file, the index appended by
+ * {@link #commit()} lists the blocks of every stream, so the streams can be restored independently.
+ *
+ * A container that is closed without being committed is incomplete and its file is deleted, so a failed dump never
+ * leaves a snapshot that looks valid.
+ */
+public class SnapshotContainerWriter implements Closeable {
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final File _file;
+    private final FileChannel _channel;
+    private final FileLock _lock;
+    private final LZ4Compressor _compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final int _blockSize;
+    private final Map<String, StreamWriter> _streams = new LinkedHashMap<>();
+    private final Map<String, String> _attributes = new LinkedHashMap<>();
+    private long _position = 0;
+    private boolean _committed = false;
+    private boolean _closed = false;
+
+    /**
+     * Constructor (using the default block size)
+     * @param file Snapshot file, overwritten if exists
+     * @throws IOException Unable to create the file
+     */
+    public SnapshotContainerWriter(File file) throws IOException {
+        this(file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param file Snapshot file, overwritten if exists
+     * @param blockSize Size of the uncompressed records grouped into a block (bytes)
+     * @throws IOException Unable to create the file
+     */
+    public SnapshotContainerWriter(File file, int blockSize) throws IOException {
+        Objects.requireNonNull(file, "file can't be null");
+        if(blockSize < 1){
+            throw new IllegalArgumentException("blockSize must be a positive number");
+        }
+        _file = file;
+        _blockSize = blockSize;
+        _channel = FileChannel.open(file.toPath(),
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                    StandardOpenOption.WRITE);
+        try {
+            _lock = _channel.lock();
+            append(ByteBuffer.allocate(FILE_HEADER_LENGTH).putInt(MAGIC).putShort(VERSION).flip());
+        }
+        catch (IOException | RuntimeException e){
+            _channel.close();
+            throw e;
+        }
+    }
+
+    public int getBlockSize() {
+        return _blockSize;
+    }
+
+    /**
+     * Open a new stream
+     * @param name Unique name of the stream
+     * @return Stream writer
+     */
+    public synchronized StreamWriter openStream(String name){
+        Objects.requireNonNull(name, "Stream name can't be null");
+        ensureWritable();
+        if(_streams.containsKey(name)){
+            throw new IllegalArgumentException(String.format("Stream '%s' is already open", name));
+        }
+        var stream = new StreamWriter(name);
+        _streams.put(name, stream);
+        return stream;
+    }
+
+    /**
+     * Set an attribute of the snapshot, written into the index
+     * @param name Attribute name
+     * @param value Attribute value
+     */
+    public synchronized void setAttribute(String name, String value){
+        Objects.requireNonNull(name, "Attribute name can't be null");
+        Objects.requireNonNull(value, "Attribute value can't be null");
+        ensureWritable();
+        _attributes.put(name, value);
+    }
+
+    private void ensureWritable(){
+        if(_closed){
+            throw new IllegalStateException("The snapshot container is closed");
+        }
+        if(_committed){
+            throw new IllegalStateException("The snapshot container is already committed");
+        }
+    }
+
+    private synchronized long append(ByteBuffer data) throws IOException {
+        ensureWritable();
+        var offset = _position;
+        while(data.hasRemaining()){
+            _position += _channel.write(data, _position);
+        }
+        return offset;
+    }
+
+    private synchronized void appendBlock(StreamWriter stream, ByteBuffer block, int records) throws IOException {
+        var length = block.remaining();
+        var offset = append(block);
+        stream._blocks.add(new BlockEntry(offset, length, records));
+    }
+
+    /**
+     * Append the index and the trailer, completing the snapshot. All of the streams must be closed.
+     * @throws IOException Write error
+     */
+    public synchronized void commit() throws IOException {
+        ensureWritable();
+        for(var stream: _streams.values()){
+            if(!stream._isClosed){
+                throw new IllegalStateException(String.format("Stream '%s' wasn't closed", stream._name));
+            }
+        }
+        var indexBytes = new ByteArrayOutputStream();
+        var index = new DataOutputStream(indexBytes);
+        index.writeInt(_streams.size());
+        for(var stream: _streams.values()){
+            writeString(index, stream._name);
+            long records = 0;
+            for(var block: stream._blocks){
+                records += block.records;
+            }
+            index.writeLong(records);
+            index.writeInt(stream._blocks.size());
+            for(var block: stream._blocks){
+                index.writeLong(block.offset);
+                index.writeInt(block.length);
+                index.writeInt(block.records);
+            }
+        }
+        index.writeInt(_attributes.size());
+        for(var attribute: _attributes.entrySet()){
+            writeString(index, attribute.getKey());
+            writeString(index, attribute.getValue());
+        }
+        byte[] indexData = indexBytes.toByteArray();
+        var crc = new CRC32C();
+        crc.update(indexData, 0, indexData.length);
+        var indexOffset = append(ByteBuffer.wrap(indexData));
+        append(ByteBuffer.allocate(TRAILER_LENGTH)
+                .putLong(indexOffset)
+                .putInt(indexData.length)
+                .putInt((int) crc.getValue())
+                .putInt(MAGIC)
+                .flip());
+        _channel.force(false);
+        _committed = true;
+    }
+
+    /**
+     * Close the file. If the container wasn't committed, the incomplete file is deleted.
+     * @throws IOException Unable to close or to delete the file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(_closed){
+            return;
+        }
+        _closed = true;
+        try {
+            _lock.release();
+        }
+        finally {
+            _channel.close();
+        }
+        if(!_committed && _file.exists() && !_file.delete()){
+            throw new IOException(String.format("Unable to delete the incomplete snapshot: '%s'", _file));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > 0xFFFF){
+            throw new IllegalArgumentException(String.format("String is too long for the snapshot index: %s", value));
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writer of a single stream. Not thread safe.
+     */
+    public final class StreamWriter implements Closeable {
+        private final String _name;
+        /**
+         * Written blocks, guarded by the container writer
+         */
+        private final List<BlockEntry> _blocks = new ArrayList<>();
+        private byte[] _buffer = new byte[Math.min(_blockSize, 64 * 1024)];
+        private int _length = 0;
+        private int _blockRecords = 0;
+        private byte[] _block = new byte[0];
+        private long _records = 0;
+        private boolean _isClosed = false;
+
+        private StreamWriter(String name){
+            _name = name;
+        }
+
+        /**
+         * Add a record to the stream
+         * @param key Key
+         * @param value Value
+         * @throws IOException Failed to write the block completed by the record
+         */
+        public void writeRecord(byte[] key, byte[] value) throws IOException {
+            var recordLength = 8 + key.length + value.length;
+            if(_length > 0 && _length + recordLength > _blockSize){
+                flush();
+            }
+            if(_buffer.length < _length + recordLength){
+                _buffer = Arrays.copyOf(_buffer, Math.max(_buffer.length * 2, _length + recordLength));
+            }
+            var buffer = ByteBuffer.wrap(_buffer, _length, recordLength);
+            buffer.putInt(key.length).put(key).putInt(value.length).put(value);
+            _length += recordLength;
+            _blockRecords++;
+            _records++;
+        }
+
+        /**
+         * @return Number of records written to the stream
+         */
+        public long getRecords() {
+            return _records;
+        }
+
+        /**
+         * Compress and write the pending records as a block
+         * @throws IOException Write error
+         */
+        public void flush() throws IOException {
+            if(_blockRecords == 0){
+                return;
+            }
+            var crc = new CRC32C();
+            crc.update(_buffer, 0, _length);
+            var maxLength = _compressor.maxCompressedLength(_length);
+            if(_block.length < BLOCK_HEADER_LENGTH + maxLength){
+                _block = new byte[BLOCK_HEADER_LENGTH + maxLength];
+            }
+            var codec = CODEC_LZ4;
+            var storedLength = _compressor.compress(_buffer, 0, _length, _block, BLOCK_HEADER_LENGTH, maxLength);
+            if(storedLength >= _length){
+                codec = CODEC_NONE;
+                System.arraycopy(_buffer, 0, _block, BLOCK_HEADER_LENGTH, _length);
+                storedLength = _length;
+            }
+            ByteBuffer.wrap(_block, 0, BLOCK_HEADER_LENGTH)
+                    .put(codec)
+                    .putInt(storedLength)
+                    .putInt(_length)
+                    .putInt((int) crc.getValue());
+            appendBlock(this, ByteBuffer.wrap(_block, 0, BLOCK_HEADER_LENGTH + storedLength), _blockRecords);
+            _length = 0;
+            _blockRecords = 0;
+        }
+
+        /**
+         * Write the pending records and complete the stream
+         */
+        @Override
+        public void close() throws IOException {
+            if(_isClosed){
+                return;
+            }
+            flush();
+            synchronized (SnapshotContainerWriter.this){
+                _isClosed = true;
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.jcri.mdde.registry.utility;
 import java.io.IOException;
+import java.util.Collection;
 
 public interface QueueThrowing<T> {
     int size() throws IOException;
@@ -16,6 +17,8 @@ public interface QueueThrowing<T> {
 
     boolean add(T dataAction) throws IOException;
 
+    boolean addAll(Collection<? extends T> c) throws IOException;
+
     void clear() throws IOException;
 
     T remove() throws IOException;
@@ -0,0 +1,138 @@
+package dev.jcri.mdde.registry.benchmark.cache;
+
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.store.IReadCommandHandler;
+import dev.jcri.mdde.registry.store.exceptions.ReadOperationException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAllocationFingerprint {
+    /**
+     * Every fragment contains a single tuple named after the fragment
+     */
+    private static final AllocationFingerprint.IFragmentHashSource SINGLE_TUPLE_FRAGMENTS =
+            fragmentId -> AllocationFingerprint.fragmentHash(fragmentId, Set.of("t_" + fragmentId));
+
+    private static long exemplarHash(String fragmentId, String nodeId) throws ReadOperationException {
+        return AllocationFingerprint.exemplarHash(SINGLE_TUPLE_FRAGMENTS.getFragmentHash(fragmentId), nodeId);
+    }
+
+    private static FragmentCatalog buildCatalog(List<String> nodes, List<String> fragments,
+                                                Map<String, Set<String>> allocation){
+        Map<String, Integer> catalogNodes = new HashMap<>();
+        Map<String, Integer> catalogFragments = new HashMap<>();
+        Map<Integer, List<Integer>> content = new HashMap<>();
+        for(var node: nodes){
+            var nodeKey = catalogNodes.size();
+            catalogNodes.put(node, nodeKey);
+            content.put(nodeKey, new ArrayList<>());
+        }
+        for(var fragment: fragments){
+            var fragmentKey = catalogFragments.size();
+            catalogFragments.put(fragment, fragmentKey);
+            for(var node: allocation.getOrDefault(fragment, Set.of())){
+                content.get(catalogNodes.get(node)).add(fragmentKey);
+            }
+        }
+        return new FragmentCatalog(catalogNodes, catalogFragments, content, null, null, null, null);
+    }
+
+    @Test
+    public void testOrderIndependence() throws ReadOperationException {
+        var allocation = Map.of("f1", Set.of("n1", "n2"), "f2", Set.of("n2"), "f3", Set.of("n1"));
+        var a = AllocationFingerprint.of(buildCatalog(List.of("n1", "n2"), List.of("f1", "f2", "f3"), allocation),
+                SINGLE_TUPLE_FRAGMENTS);
+        var b = AllocationFingerprint.of(buildCatalog(List.of("n2", "n1"), List.of("f3", "f1", "f2"), allocation),
+                SINGLE_TUPLE_FRAGMENTS);
+        assertEquals(a, b);
+
+        var moved = Map.of("f1", Set.of("n1", "n2"), "f2", Set.of("n1"), "f3", Set.of("n2"));
+        var c = AllocationFingerprint.of(buildCatalog(List.of("n1", "n2"), List.of("f1", "f2", "f3"), moved),
+                SINGLE_TUPLE_FRAGMENTS);
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchRecompute() throws ReadOperationException {
+        final var random = new Random(7);
+        final var nodes = List.of("n0", "n1", "n2", "n3");
+        final List<String> fragments = new ArrayList<>();
+        Map<String, Set<String>> allocation = new HashMap<>();
+        for(int f = 0; f < 50; f++){
+            fragments.add("f" + f);
+            allocation.put("f" + f, new HashSet<>(List.of(nodes.get(random.nextInt(nodes.size())))));
+        }
+        long value = AllocationFingerprint.of(buildCatalog(nodes, fragments, allocation),
+                SINGLE_TUPLE_FRAGMENTS);
+        for(int step = 0; step < 300; step++){
+            var fragmentId = fragments.get(random.nextInt(fragments.size()));
+            var nodeId = nodes.get(random.nextInt(nodes.size()));
+            if(allocation.get(fragmentId).remove(nodeId)){
+                value -= exemplarHash(fragmentId, nodeId);
+            }
+            else{
+                allocation.get(fragmentId).add(nodeId);
+                value += exemplarHash(fragmentId, nodeId);
+            }
+            assertEquals(AllocationFingerprint.of(buildCatalog(nodes, fragments, allocation), SINGLE_TUPLE_FRAGMENTS),
+                         value);
+        }
+    }
+
+    @Test
+    public void testSeparatorDistinguishesIds(){
+        assertNotEquals(AllocationFingerprint.exemplarHash(AllocationFingerprint.fragmentHash("f1", null), "1n"),
+                        AllocationFingerprint.exemplarHash(AllocationFingerprint.fragmentHash("f11", null), "n"));
+        assertNotEquals(AllocationFingerprint.fragmentHash("f", List.of("t1", "t2")),
+                        AllocationFingerprint.fragmentHash("f", List.of("t1t2")));
+    }
+
+    @Test
+    public void testFragmentContentIsIncluded() throws ReadOperationException {
+        var catalog = buildCatalog(List.of("n1", "n2"), List.of("f1", "f2"),
+                                   Map.of("f1", Set.of("n1"), "f2", Set.of("n2")));
+        Map<String, List<String>> content = Map.of("f1", List.of("t1", "t2"), "f2", List.of("t3"));
+        Map<String, List<String>> reordered = Map.of("f1", List.of("t2", "t1"), "f2", List.of("t3"));
+        Map<String, List<String>> regrouped = Map.of("f1", List.of("t1"), "f2", List.of("t2", "t3"));
+        var a = AllocationFingerprint.of(catalog, f -> AllocationFingerprint.fragmentHash(f, content.get(f)));
+        var b = AllocationFingerprint.of(catalog, f -> AllocationFingerprint.fragmentHash(f, reordered.get(f)));
+        var c = AllocationFingerprint.of(catalog, f -> AllocationFingerprint.fragmentHash(f, regrouped.get(f)));
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void testAppendedTupleChangesValue() throws ReadOperationException {
+        var catalog = buildCatalog(List.of("n1", "n2"), List.of("f1", "f2"),
+                                   Map.of("f1", Set.of("n1", "n2"), "f2", Set.of("n2")));
+        Map<String, Set<String>> content = new HashMap<>();
+        content.put("f1", new HashSet<>(Set.of("t1")));
+        content.put("f2", new HashSet<>(Set.of("t2")));
+        var reader = (IReadCommandHandler) Proxy.newProxyInstance(IReadCommandHandler.class.getClassLoader(),
+                new Class<?>[]{IReadCommandHandler.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()){
+                        case "getFragmentCatalog":
+                            return catalog;
+                        case "getFragmentTuples":
+                            return content.get((String) args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        var fingerprint = new AllocationFingerprint(reader);
+        var before = fingerprint.getValue();
+
+        // APPEND of a tuple to the fragment notifies the listeners with an allocation reset
+        content.get("f1").add("t3");
+        fingerprint.onAllocationReset();
+        var after = fingerprint.getValue();
+        assertNotEquals(before, after);
+        assertEquals(AllocationFingerprint.of(catalog,
+                f -> AllocationFingerprint.fragmentHash(f, content.get(f))), after);
+    }
+}
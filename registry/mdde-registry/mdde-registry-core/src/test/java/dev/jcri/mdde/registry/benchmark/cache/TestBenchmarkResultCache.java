@@ -0,0 +1,94 @@
+package dev.jcri.mdde.registry.benchmark.cache;
+
+import dev.jcri.mdde.registry.configuration.benchmark.ResultCacheConfig;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkFragmentStats;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkNodeStats;
+import dev.jcri.mdde.registry.shared.commands.containers.result.benchmark.BenchmarkRunResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBenchmarkResultCache {
+
+    private static BenchmarkRunResult buildResult(double throughput){
+        var result = new BenchmarkRunResult();
+        result.setThroughput(throughput);
+        result.setNodes(List.of(new BenchmarkNodeStats("c1", "n1",
+                new HashMap<>(Map.of("f1", new BenchmarkFragmentStats(10))))));
+        return result;
+    }
+
+    private static ResultCacheConfig buildConfig(int size, String file){
+        var config = new ResultCacheConfig();
+        config.setEnabled(true);
+        config.setSize(size);
+        config.setFile(file);
+        return config;
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction(){
+        var cache = new BenchmarkResultCache(buildConfig(2, null));
+        cache.put("a", buildResult(1));
+        cache.put("b", buildResult(2));
+        assertNotNull(cache.get("a"));
+        cache.put("c", buildResult(3));
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c").getThroughput());
+        assertEquals(2.0 / 3.0, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testFailedResultsAreNotCached(){
+        var cache = new BenchmarkResultCache(buildConfig(2, null));
+        var failed = buildResult(1);
+        failed.setError("failure");
+        cache.put("a", failed);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testReturnedResultIsACopy(){
+        var cache = new BenchmarkResultCache(buildConfig(2, null));
+        cache.put("a", buildResult(1));
+        var first = cache.get("a");
+        cache.writeInfo(first.getInfo(), true);
+        assertFalse(cache.get("a").getInfo().containsKey(BenchmarkResultCache.INFO_CACHE_HIT));
+    }
+
+    @Test
+    public void testPersistence(@TempDir Path tempDir){
+        var file = tempDir.resolve("cache.json").toString();
+        var key = BenchmarkResultCache.getKey(42L, "readonly", 4);
+        var cache = new BenchmarkResultCache(buildConfig(8, file));
+        cache.put(key, buildResult(123.5));
+
+        var restored = new BenchmarkResultCache(buildConfig(8, file));
+        var result = restored.get(key);
+        assertNotNull(result);
+        assertEquals(123.5, result.getThroughput());
+        var node = result.getNodes().iterator().next();
+        assertEquals("n1", node.getNodeId());
+        assertEquals(10, node.getFragments().get("f1").getReadCount());
+    }
+
+    @Test
+    public void testResultsOfOtherConfigurationAreDiscarded(@TempDir Path tempDir){
+        var file = tempDir.resolve("cache.json").toString();
+        var key = BenchmarkResultCache.getKey(42L, "readonly", 4);
+        var cache = new BenchmarkResultCache(buildConfig(8, file), "client=mdde.redis|data_plane=physical");
+        cache.put(key, buildResult(123.5));
+
+        var sameConfiguration = new BenchmarkResultCache(buildConfig(8, file), "client=mdde.redis|data_plane=physical");
+        assertNotNull(sameConfiguration.get(key));
+        var otherConfiguration = new BenchmarkResultCache(buildConfig(8, file), "client=mdde.redis|data_plane=virtual");
+        assertNull(otherConfiguration.get(key));
+    }
+}
@@ -0,0 +1,139 @@
+package dev.jcri.mdde.registry.benchmark.counterfeit;
+
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCounterfeitAllocationModel {
+
+    private static FragmentCatalog buildCatalog(List<String> nodes, Map<String, Set<String>> allocation){
+        Map<String, Integer> catalogNodes = new HashMap<>();
+        Map<String, Integer> catalogFragments = new HashMap<>();
+        Map<Integer, List<Integer>> content = new HashMap<>();
+        for(var node: nodes){
+            var nodeKey = catalogNodes.size();
+            catalogNodes.put(node, nodeKey);
+            content.put(nodeKey, new ArrayList<>());
+        }
+        for(var fragment: allocation.entrySet()){
+            var fragmentKey = catalogFragments.size();
+            catalogFragments.put(fragment.getKey(), fragmentKey);
+            for(var node: fragment.getValue()){
+                content.get(catalogNodes.get(node)).add(fragmentKey);
+            }
+        }
+        return new FragmentCatalog(catalogNodes, catalogFragments, content, null, null, null, null);
+    }
+
+    private static Map<String, Integer> readsOf(CounterfeitAllocationModel model){
+        Map<String, Integer> result = new HashMap<>();
+        for(int f = 0; f < model.getFragmentCount(); f++){
+            for(int n = 0; n < model.getNodeCount(); n++){
+                if(model.isAllocated(f, n)){
+                    result.put(model.getFragmentId(f) + "@" + model.getNodeId(n), model.getReads(f, n));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testSingleReplicaReceivesAllReads(){
+        var catalog = buildCatalog(List.of("n1", "n2"), Map.of("f1", Set.of("n1"), "f2", Set.of("n2")));
+        var model = new CounterfeitAllocationModel(catalog, Map.of("f1", 10, "f2", 4));
+        model.distribute();
+        var reads = readsOf(model);
+        assertEquals(10, reads.get("f1@n1"));
+        assertEquals(4, reads.get("f2@n2"));
+        assertEquals(2, reads.size());
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchRebuild(){
+        final var random = new Random(42);
+        final var nodes = List.of("n0", "n1", "n2", "n3", "n4");
+        final int fragments = 300;
+        Map<String, Set<String>> allocation = new TreeMap<>();
+        Map<String, Integer> expectedReads = new HashMap<>();
+        for(int f = 0; f < fragments; f++){
+            var fragmentId = "f" + f;
+            allocation.put(fragmentId, new HashSet<>(List.of(nodes.get(random.nextInt(nodes.size())))));
+            // Distinct values make the distribution order independent of the fragment indexes
+            expectedReads.put(fragmentId, f * 7 + 1);
+        }
+        var model = new CounterfeitAllocationModel(buildCatalog(nodes, allocation), expectedReads);
+        model.distribute();
+
+        for(int step = 0; step < 500; step++){
+            var fragmentId = "f" + random.nextInt(fragments);
+            var nodeId = nodes.get(random.nextInt(nodes.size()));
+            var exemplars = allocation.get(fragmentId);
+            if(exemplars.contains(nodeId)){
+                if(exemplars.size() == 1){
+                    continue;
+                }
+                exemplars.remove(nodeId);
+                assertTrue(model.removeExemplar(fragmentId, nodeId));
+            }
+            else{
+                exemplars.add(nodeId);
+                assertTrue(model.addExemplar(fragmentId, nodeId));
+            }
+            if(step % 25 == 0){
+                model.distribute();
+                var rebuilt = new CounterfeitAllocationModel(buildCatalog(nodes, allocation), expectedReads);
+                rebuilt.distribute();
+                assertEquals(readsOf(rebuilt), readsOf(model));
+                for(int n = 0; n < nodes.size(); n++){
+                    assertEquals(rebuilt.getNodeReads(n), model.getNodeReads(n));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCopyIsIndependent(){
+        var catalog = buildCatalog(List.of("n1", "n2"), Map.of("f1", Set.of("n1"), "f2", Set.of("n2")));
+        var model = new CounterfeitAllocationModel(catalog, Map.of("f1", 10, "f2", 4));
+        model.distribute();
+        var copy = model.copy();
+        assertTrue(copy.addExemplar("f1", "n2"));
+        assertTrue(copy.addExemplar("f3", "n1"));
+        copy.distribute();
+        assertEquals(2, copy.getReplicaCount(copy.getFragmentIndex("f1")));
+        assertEquals(3, copy.getFragmentCount());
+
+        model.distribute();
+        assertEquals(1, model.getReplicaCount(model.getFragmentIndex("f1")));
+        assertEquals(-1, model.getFragmentIndex("f3"));
+        assertEquals(10, model.getNodeReads(model.getNodeIndex("n1")));
+        assertEquals(4, model.getNodeReads(model.getNodeIndex("n2")));
+        assertEquals(14, copy.getNodeReads(0) + copy.getNodeReads(1));
+    }
+
+    @Test
+    public void testSourceChangesDontAffectCopy(){
+        var catalog = buildCatalog(List.of("n1", "n2"), Map.of("f1", Set.of("n1")));
+        var model = new CounterfeitAllocationModel(catalog, Map.of("f1", 10, "f2", 4));
+        var copy = model.copy();
+        assertTrue(model.addExemplar("f2", "n2"));
+        assertEquals(2, model.getFragmentCount());
+        assertEquals(1, copy.getFragmentCount());
+        assertEquals(-1, copy.getFragmentIndex("f2"));
+        assertTrue(copy.addExemplar("f3", "n2"));
+        assertEquals("f3", copy.getFragmentId(copy.getFragmentIndex("f3")));
+        assertEquals("f2", model.getFragmentId(model.getFragmentIndex("f2")));
+        assertEquals(-1, model.getFragmentIndex("f3"));
+    }
+
+    @Test
+    public void testUnknownNodeRequiresRebuild(){
+        var catalog = buildCatalog(List.of("n1"), Map.of("f1", Set.of("n1")));
+        var model = new CounterfeitAllocationModel(catalog, Map.of("f1", 1));
+        assertFalse(model.addExemplar("f1", "n2"));
+        assertFalse(model.removeExemplar("f2", "n1"));
+    }
+}
@@ -0,0 +1,81 @@
+package dev.jcri.mdde.registry.benchmark.replay;
+
+import dev.jcri.mdde.registry.benchmark.cluster.InMemoryTupleLocatorFactory;
+import dev.jcri.mdde.registry.shared.store.response.TupleCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTraceReplayRunner {
+
+    private BenchmarkTrace recordTrace(){
+        var recorder = new BenchmarkTraceRecorder("run-0");
+        for (int i = 0; i < 100; i++) {
+            var tupleId = "t" + (i % 4);
+            recorder.recordLocate(tupleId, "n1");
+            recorder.recordLocate("t" + ((i + 1) % 4), "n1");
+            recorder.recordRelease("n1");
+            recorder.recordRelease("n1");
+        }
+        recorder.stop();
+        recorder.recordLocate("t0", "n1");
+        return recorder.build();
+    }
+
+    @Test
+    public void testTraceSerialization() throws Exception {
+        var trace = recordTrace();
+        assertEquals(200, trace.size());
+        assertEquals(2, trace.getConcurrency());
+
+        var out = new ByteArrayOutputStream();
+        trace.writeTo(out);
+        var restored = BenchmarkTrace.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(trace.getRunId(), restored.getRunId());
+        assertEquals(trace.size(), restored.size());
+        assertEquals(trace.getConcurrency(), restored.getConcurrency());
+        for (int i = 0; i < trace.size(); i++) {
+            assertEquals(trace.getTupleId(i), restored.getTupleId(i));
+            assertEquals(trace.getNodeId(i), restored.getNodeId(i));
+            assertEquals(trace.getArrivalNanos(i), restored.getArrivalNanos(i));
+            assertEquals(trace.getServiceNanos(i), restored.getServiceNanos(i));
+        }
+    }
+
+    @Test
+    public void testReplayFavorsReplicatedAllocation() throws Exception {
+        var trace = recordTrace();
+        var serviceModel = new NodeServiceTimeModel(new HashMap<>(), 1000);
+
+        Map<String, Set<String>> singleNode = new HashMap<>();
+        singleNode.put("n1", Set.of("t0", "t1", "t2", "t3"));
+        singleNode.put("n2", Set.of());
+        Map<String, Set<String>> replicated = new HashMap<>();
+        replicated.put("n1", Set.of("t0", "t1", "t2", "t3"));
+        replicated.put("n2", Set.of("t0", "t1", "t2", "t3"));
+
+        var factory = new InMemoryTupleLocatorFactory();
+        double singleThroughput;
+        try(var locator = factory.getNewTupleLocator()){
+            locator.initializeDataLocator(new TupleCatalog(singleNode));
+            var result = new TraceReplayRunner(trace, serviceModel).replay(locator);
+            assertEquals("200", result.getInfo().get(TraceReplayRunner.INFO_OPERATIONS));
+            singleThroughput = result.getThroughput();
+        }
+        double replicatedThroughput;
+        try(var locator = factory.getNewTupleLocator()){
+            locator.initializeDataLocator(new TupleCatalog(replicated));
+            var first = new TraceReplayRunner(trace, serviceModel).replay(locator);
+            var second = new TraceReplayRunner(trace, serviceModel).replay(locator);
+            assertEquals(first.getThroughput(), second.getThroughput());
+            replicatedThroughput = first.getThroughput();
+        }
+        assertTrue(replicatedThroughput > singleThroughput);
+    }
+}
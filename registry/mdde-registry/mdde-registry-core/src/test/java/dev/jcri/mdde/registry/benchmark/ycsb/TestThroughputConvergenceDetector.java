@@ -0,0 +1,50 @@
+package dev.jcri.mdde.registry.benchmark.ycsb;
+
+import dev.jcri.mdde.registry.benchmark.ycsb.cli.YCSBStatusSample;
+import dev.jcri.mdde.registry.configuration.benchmark.EarlyStopConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestThroughputConvergenceDetector {
+
+    private static EarlyStopConfig getConfig(){
+        var config = new EarlyStopConfig();
+        config.setEnabled(true);
+        config.setWarmupSamples(2);
+        config.setMinSamples(5);
+        config.setThreshold(0.05);
+        return config;
+    }
+
+    @Test
+    public void testConvergesOnStableThroughput(){
+        var detector = new ThroughputConvergenceDetector(getConfig());
+        // Warm-up samples are far off and must be ignored
+        assertFalse(detector.onStatus(new YCSBStatusSample(1, 10, 10, -1)));
+        assertFalse(detector.onStatus(new YCSBStatusSample(2, 5000, 5000, -1)));
+        double[] stable = {1000, 1010, 990, 1005};
+        for (int i = 0; i < stable.length; i++) {
+            assertFalse(detector.onStatus(new YCSBStatusSample(3 + i, 1000 * (i + 1), stable[i], -1)));
+        }
+        assertTrue(detector.onStatus(new YCSBStatusSample(7, 5000, 995, -1)));
+        assertEquals(1000, detector.getMean(), 1e-9);
+
+        var info = new HashMap<String, String>();
+        detector.writeInfo(info);
+        assertEquals("true", info.get(ThroughputConvergenceDetector.INFO_STOPPED_EARLY));
+        assertEquals("5", info.get(ThroughputConvergenceDetector.INFO_SAMPLES));
+        assertTrue(Double.parseDouble(info.get(ThroughputConvergenceDetector.INFO_CI_RELATIVE)) <= 0.05);
+    }
+
+    @Test
+    public void testNoisyThroughputDoesNotConverge(){
+        var detector = new ThroughputConvergenceDetector(getConfig());
+        for (int i = 0; i < 12; i++) {
+            assertFalse(detector.onStatus(new YCSBStatusSample(i, 100 * (i + 1), i % 2 == 0 ? 200 : 2000, -1)));
+        }
+        assertFalse(detector.isConverged());
+    }
+}
@@ -0,0 +1,43 @@
+package dev.jcri.mdde.registry.benchmark.ycsb;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisabledOnOs(OS.WINDOWS)
+public class TestYCSBProcess {
+
+    /**
+     * The wrapper shell spawns a long running child holding the output pipe, same as ycsb.sh spawning the client JVM
+     */
+    @Test
+    public void testEarlyStopTerminatesChildProcess() throws Exception {
+        var childPid = new AtomicLong(-1);
+        var process = YCSBProcess.start(new ProcessBuilder("sh", "-c", "sleep 60 & echo $!; wait"));
+
+        final long start = System.nanoTime();
+        var output = process.readOutput(line -> {
+            childPid.set(Long.parseLong(line.trim()));
+            return true;
+        });
+        final long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+
+        assertTrue(output.contains(Long.toString(childPid.get())));
+        assertTrue(elapsed < 30, "Early stop waited for the child process to finish on its own");
+        var child = ProcessHandle.of(childPid.get());
+        assertTrue(child.isEmpty() || !child.get().isAlive(), "Child process is still running");
+    }
+
+    @Test
+    public void testOutputIsReadToTheEnd() throws Exception {
+        var process = YCSBProcess.start(new ProcessBuilder("sh", "-c", "echo first; echo second"));
+        var output = process.readOutput(line -> false);
+        assertTrue(output.contains("first"));
+        assertTrue(output.contains("second"));
+    }
+}
@@ -24,4 +24,16 @@ public class TestYCSBParser {
         assertEquals(0.054989816700611, res.getUpdateLatencyAverage());
         assertEquals(491, res.getUpdateOperations());
     }
+
+    @Test
+    public void testParserLineByLine(){
+        InputStream is = TestYCSBParser.class.getResourceAsStream("/test_ycsb_0.out");
+        var ycsbParser = new YCSBOutputParser();
+        var res = new YCSBOutput();
+        new BufferedReader(new InputStreamReader(is)).lines().forEach(line -> ycsbParser.parseLine(res, line));
+        assertEquals(10110, res.getRuntime());
+        assertEquals(98.91196834817013, res.getThroughput());
+        assertEquals(491, res.getUpdateOperations());
+        assertFalse(ycsbParser.parseLine(res, "2020-05-01 10:12:56:730 10 sec: 53458 operations;"));
+    }
 }
@@ -0,0 +1,30 @@
+package dev.jcri.mdde.registry.benchmark.ycsb.cli;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestYCSBStatusParser {
+
+    @Test
+    public void testStatusLines(){
+        var parser = new YCSBStatusParser();
+
+        var sample = parser.tryParse("2020-05-01 10:12:56:730 10 sec: 53458 operations; 5345.8 current ops/sec; " +
+                "est completion in 9 seconds [READ: Count=53459, Max=9583, Min=122, Avg=1340.25, 90=2015, 99=4031]");
+        assertNotNull(sample);
+        assertEquals(10, sample.getElapsedSeconds());
+        assertEquals(53458, sample.getOperations());
+        assertEquals(5345.8, sample.getCurrentThroughput());
+        assertEquals(1340.25, sample.getReadLatencyAverage());
+
+        var first = parser.tryParse("2020-05-01 10:12:46:730 0 sec: 0 operations; est completion in 0 second ");
+        assertNotNull(first);
+        assertEquals(0, first.getOperations());
+        assertEquals(-1.0, first.getCurrentThroughput());
+        assertEquals(-1.0, first.getReadLatencyAverage());
+
+        assertNull(parser.tryParse("[OVERALL], Throughput(ops/sec), 98.91196834817013"));
+        assertNull(parser.tryParse(null));
+    }
+}
@@ -0,0 +1,91 @@
+package dev.jcri.mdde.registry.control.command.sequential.arguments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.jcri.mdde.registry.control.command.cbor.CborCommandBatchCodec;
+import dev.jcri.mdde.registry.control.command.cbor.CborCommandPreProcessor;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandParserBase;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerCbor;
+import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
+import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCborICommandParser {
+    private final ObjectMapper _cborMapper = new ObjectMapper(new CBORFactory());
+
+    @Test
+    public void testCborStatementParsing() throws IOException, MalformedCommandStatementException {
+        Map<String, Object> statement = new LinkedHashMap<>();
+        statement.put("args", Map.of("nids", List.of("n1", "n2"), "unknown", Map.of("a", 1)));
+        statement.put("cmd", EWriteCommand.POPULATE_NODES.toString());
+        var payload = _cborMapper.writeValueAsBytes(statement);
+        assertTrue(CborCommandPreProcessor.isCborStatement(payload, 0, payload.length));
+
+        var components = new CborCommandPreProcessor().splitIncoming(payload);
+        assertEquals(EWriteCommand.POPULATE_NODES.toString(), components.getKeyword());
+        var parsed = new JsonCommandParserBase(){}.parseArguments(EWriteCommand.POPULATE_NODES, components.getArgs());
+        assertEquals(1, parsed.size());
+        assertEquals(Set.of("n1", "n2"), parsed.get(0));
+    }
+
+    @Test
+    public void testTypedArguments() throws IOException, MalformedCommandStatementException {
+        var payload = _cborMapper.writeValueAsBytes(Map.of(
+                "cmd", EStateControlCommand.RUN_BENCHMARK.toString(),
+                "args", Map.of("workload", "readonly", "workers", 8)));
+        var components = new CborCommandPreProcessor().splitIncoming(payload);
+        var parsed = new JsonCommandParserBase(){}.parseArguments(EStateControlCommand.RUN_BENCHMARK,
+                components.getArgs());
+        assertEquals("readonly", parsed.get(0));
+        assertEquals(8, parsed.get(1));
+    }
+
+    @Test
+    public void testJsonIsNotDetectedAsCbor(){
+        var json = "{\"cmd\": \"GETALL\"}".getBytes(StandardCharsets.UTF_8);
+        assertFalse(CborCommandPreProcessor.isCborStatement(json, 0, json.length));
+        var padded = " {}".getBytes(StandardCharsets.UTF_8);
+        assertFalse(CborCommandPreProcessor.isCborStatement(padded, 0, padded.length));
+    }
+
+    @Test
+    public void testBatchRoundTrip() throws Exception {
+        var payload = _cborMapper.writeValueAsBytes(Map.of(
+                "stmts", List.of(
+                        Map.of("cmd", EStateControlCommand.RUN_BENCHMARK.toString(),
+                                "args", Map.of("workload", "readonly")),
+                        Map.of("cmd", "GETALL")),
+                "stoponerr", true));
+        var components = new CborCommandPreProcessor().splitIncoming(_cborMapper.writeValueAsBytes(Map.of(
+                "cmd", "BATCH", "args", _cborMapper.readValue(payload, Map.class))));
+        var codec = new CborCommandBatchCodec();
+        var batch = codec.splitBatch(components.getArgs());
+        assertTrue(batch.isStopOnError());
+        assertEquals(2, batch.getStatements().size());
+        assertEquals("GETALL", batch.getStatements().get(1).getKeyword());
+        var parsed = new JsonCommandParserBase(){}.parseArguments(EStateControlCommand.RUN_BENCHMARK,
+                batch.getStatements().get(0).getArgs());
+        assertEquals("readonly", parsed.get(0));
+
+        var serializer = new ResponseSerializerCbor();
+        var ok = serializer.serialize("done");
+        var failed = serializer.serializeException(new IllegalStateException("failed"));
+        assertFalse(codec.isError(ok));
+        assertTrue(codec.isError(failed));
+        var joined = _cborMapper.readTree(codec.joinResults(List.of(ok, failed)));
+        assertTrue(joined.get("error").isNull());
+        assertEquals(2, joined.get("result").size());
+        assertEquals("done", joined.get("result").get(0).get("result").asText());
+        assertEquals("failed", joined.get("result").get(1).get("error").asText());
+    }
+}
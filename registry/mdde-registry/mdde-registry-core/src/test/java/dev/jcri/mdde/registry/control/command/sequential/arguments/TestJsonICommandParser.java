@@ -8,14 +8,18 @@ import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import dev.jcri.mdde.registry.control.command.CommandComponents;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandParserBase;
 import dev.jcri.mdde.registry.control.command.json.JsonCommandPreProcessor;
 import dev.jcri.mdde.registry.control.command.json.JsonWriteCommandParser;
 import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
 import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
+import dev.jcri.mdde.registry.shared.commands.containers.args.ControlArgsCandidateActionContainer;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,6 +43,54 @@ public class TestJsonICommandParser {
         }
     }
 
+    @Test
+    public void testCandidateActionsArgumentParsing() throws MalformedCommandStatementException {
+        String args = "{\"bcmagst\": 0.1, \"bcmagen\": 0.5, \"bcands\": [" +
+                "[{\"cmd\": \"DCOPYFRAG\", \"fid\": \"f1\", \"nid\": \"n1\", \"nidb\": \"n2\"}," +
+                " {\"cmd\": \"DDELFRAGEX\", \"fid\": \"f1\", \"nid\": \"n1\"}], []]}";
+        var parsed = new JsonCommandParserBase(){}.parseArguments(EStateControlCommand.COUNTERFEIT_CANDIDATES, args);
+        assertEquals(3, parsed.size());
+        assertEquals(0.5, parsed.get(1));
+        @SuppressWarnings("unchecked")
+        var candidates = (List<List<ControlArgsCandidateActionContainer>>) parsed.get(2);
+        assertEquals(2, candidates.size());
+        assertEquals(2, candidates.get(0).size());
+        assertTrue(candidates.get(1).isEmpty());
+        var replicate = candidates.get(0).get(0);
+        assertEquals("DCOPYFRAG", replicate.getAction());
+        assertEquals("f1", replicate.getFragmentId());
+        assertEquals("n1", replicate.getNodeId());
+        assertEquals("n2", replicate.getSecondNodeId());
+        assertNull(candidates.get(0).get(1).getSecondNodeId());
+    }
+
+    @Test
+    public void testStatementSplitKeepsArgumentsVerbatim() throws MalformedCommandStatementException {
+        String args = "{\"workload\": \"readonly\", \"workers\": 4, \"extra\": {\"a\": [1, 2]}}";
+        String statement = "{\"args\": " + args + ", \"id\": 7, \"cmd\": \"RUNBENCH\"}";
+        var components = new JsonCommandPreProcessor().splitIncoming(statement);
+        assertEquals("RUNBENCH", components.getKeyword());
+        assertEquals(args, components.getArgs());
+
+        var parsed = new JsonCommandParserBase(){}.parseArguments(EStateControlCommand.RUN_BENCHMARK,
+                components.getArgs());
+        assertEquals(2, parsed.size());
+        assertEquals("readonly", parsed.get(0));
+        assertEquals(4, parsed.get(1));
+    }
+
+    @Test
+    public void testMissingArgumentsAreNull() throws MalformedCommandStatementException {
+        var components = new JsonCommandPreProcessor().splitIncoming("{\"cmd\": \"RUNBENCH\", \"args\": null}");
+        assertNull(components.getArgs());
+        var parsed = new JsonCommandParserBase(){}.parseArguments(EStateControlCommand.RUN_BENCHMARK,
+                "{\"workload\": \"readonly\"}");
+        assertEquals("readonly", parsed.get(0));
+        assertNull(parsed.get(1));
+        assertThrows(MalformedCommandStatementException.class,
+                () -> new JsonCommandPreProcessor().splitIncoming("{\"args\": {}}"));
+    }
+
     public static class sampleJsonObj{
         private String cmd;
         @JsonRawValue
@@ -0,0 +1,32 @@
+package dev.jcri.mdde.registry.control.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.jcri.mdde.registry.store.exceptions.ResponseSerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestResponseSerializerCbor {
+
+    @Test
+    public void testSameStructureAsJson() throws ResponseSerializationException, IOException {
+        var values = List.of("a", "b", "c");
+        var cbor = new ResponseSerializerCbor().serialize(values);
+        var json = new ResponseSerializerJson().serialize(values);
+
+        var fromCbor = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        var fromJson = new ObjectMapper().readTree(json);
+        assertEquals(fromJson, fromCbor);
+    }
+
+    @Test
+    public void testExceptionSerialization() throws IOException {
+        var response = new ResponseSerializerCbor().serializeException(new Exception("test exception"));
+        var tree = new ObjectMapper(new CBORFactory()).readTree(response);
+        assertEquals("test exception", tree.get("error").asText());
+    }
+}
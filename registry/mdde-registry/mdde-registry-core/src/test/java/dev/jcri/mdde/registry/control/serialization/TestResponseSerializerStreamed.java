@@ -0,0 +1,46 @@
+package dev.jcri.mdde.registry.control.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.jcri.mdde.registry.exceptions.EErrorCode;
+import dev.jcri.mdde.registry.store.exceptions.ResponseSerializationException;
+import dev.jcri.mdde.registry.store.exceptions.UnknownRegistryCommandExceptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestResponseSerializerStreamed {
+
+    @Test
+    public void testSameOutputAsJson() throws ResponseSerializationException, IOException {
+        var values = List.of("a", "b", "c");
+        var streamed = new ResponseSerializerStreamed(new ObjectMapper()).serialize(values);
+        var json = new ResponseSerializerJson().serialize(values);
+        assertEquals(json, new String(streamed.toByteArray(), StandardCharsets.UTF_8));
+        assertFalse(streamed.isError());
+    }
+
+    @Test
+    public void testCborEncoding() throws IOException {
+        var streamed = new ResponseSerializerStreamed(new ObjectMapper(new CBORFactory()))
+                .serializeException(new UnknownRegistryCommandExceptions("NOPE"));
+        assertTrue(streamed.isError());
+        var tree = new ObjectMapper(new CBORFactory()).readTree(streamed.toByteArray());
+        assertEquals(EErrorCode.UNKNOWN_COMMAND.getErrorCode(), tree.get("errcode").asInt());
+    }
+
+    @Test
+    public void testBatchNestsResponses() throws IOException {
+        var serializer = new ResponseSerializerStreamed(new ObjectMapper());
+        var joined = serializer.serializeBatch(List.of(serializer.serialize(1),
+                serializer.serializeException(new Exception("failed"))));
+        var tree = new ObjectMapper().readTree(joined.toByteArray());
+        assertTrue(tree.get("error").isNull());
+        assertEquals(1, tree.get("result").get(0).get("result").asInt());
+        assertEquals("failed", tree.get("result").get(1).get("error").asText());
+    }
+}
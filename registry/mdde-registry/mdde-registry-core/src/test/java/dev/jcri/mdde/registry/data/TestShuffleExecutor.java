@@ -0,0 +1,144 @@
+package dev.jcri.mdde.registry.data;
+
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestShuffleExecutor {
+    private ShuffleExecutor _executor;
+
+    @AfterEach
+    public void tearDown(){
+        if(_executor != null){
+            _executor.shutdown();
+        }
+    }
+
+    private static ShuffleConfig config(int threads, int perNode){
+        var config = new ShuffleConfig();
+        config.setThreads(threads);
+        config.setPerNode(perNode);
+        return config;
+    }
+
+    @Test
+    public void testDependencies(){
+        var copyAB = new DataCopyAction(Set.of("t1", "t2"), "a", "b");
+        var copyCD = new DataCopyAction(Set.of("t1"), "c", "d");
+        var deleteA = new DataDeleteAction(Set.of("t2"), "a");
+        var copyBE = new DataCopyAction(Set.of("t2"), "b", "e");
+        var copyAF = new DataCopyAction(Set.of("t1"), "a", "f");
+
+        var tasks = ShuffleExecutor.buildGraph(List.of(copyAB, copyCD, deleteA, copyBE, copyAF));
+        // Independent node pair
+        assertEquals(0, tasks.get(0).getPending());
+        assertEquals(0, tasks.get(1).getPending());
+        // Delete of the copied source waits for the copy to finish reading
+        assertEquals(1, tasks.get(2).getPending());
+        // Copy from the destination waits for the tuples to be written there
+        assertEquals(1, tasks.get(3).getPending());
+        // Reads of the same source tuples don't conflict
+        assertEquals(0, tasks.get(4).getPending());
+        assertTrue(tasks.get(0).getDependents().contains(tasks.get(2)));
+        assertTrue(tasks.get(0).getDependents().contains(tasks.get(3)));
+    }
+
+    @Test
+    public void testIndependentActionsRunConcurrently() throws InterruptedException {
+        var shuffler = new RecordingShuffler(50);
+        _executor = new ShuffleExecutor(shuffler, config(8, 1));
+        List<DataAction> actions = new ArrayList<>();
+        for(int i = 0; i < 4; i++){
+            actions.add(new DataCopyAction(Set.of("t" + i), "src" + i, "dst" + i));
+        }
+        // Same source node as the first action, limited by the per node concurrency
+        actions.add(new DataCopyAction(Set.of("x"), "src0", "dst4"));
+
+        var report = _executor.execute(actions);
+        assertNull(report.getError());
+        assertEquals(5, report.getExecuted().size());
+        assertTrue(report.getNotExecuted().isEmpty());
+        assertEquals(4, shuffler._maxConcurrent.get());
+        assertEquals("src0", shuffler._order.get(shuffler._order.size() - 1));
+    }
+
+    @Test
+    public void testFailureStopsExecution() throws InterruptedException {
+        var shuffler = new RecordingShuffler(0);
+        _executor = new ShuffleExecutor(shuffler, config(1, 1));
+        var failing = new DataCopyAction(Set.of("t1"), "fail", "b");
+        var dependent = new DataDeleteAction(Set.of("t1"), "b");
+        var independent = new DataCopyAction(Set.of("t2"), "c", "d");
+
+        var report = _executor.execute(List.of(failing, dependent, independent));
+        assertNotNull(report.getError());
+        assertEquals(1, report.getExecuted().size());
+        assertEquals(List.of(dependent, independent), report.getNotExecuted());
+    }
+
+    /**
+     * Records the order and the concurrency of the calls, fails copies from the "fail" node
+     */
+    private static class RecordingShuffler implements IDataShuffler {
+        private final long _delayMillis;
+        private final AtomicInteger _concurrent = new AtomicInteger();
+        private final AtomicInteger _maxConcurrent = new AtomicInteger();
+        private final List<String> _order = Collections.synchronizedList(new ArrayList<>());
+
+        private RecordingShuffler(long delayMillis){
+            _delayMillis = delayMillis;
+        }
+
+        private ShuffleKeysResult call(String node, Set<String> tupleIds){
+            _maxConcurrent.accumulateAndGet(_concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(_delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            _order.add(node);
+            _concurrent.decrementAndGet();
+            if(node.equals("fail")){
+                return new ShuffleKeysResult(null, tupleIds, new IOException("Copy failed"));
+            }
+            return new ShuffleKeysResult(tupleIds);
+        }
+
+        @Override
+        public ShuffleKeysResult copyTuples(String sourceNodeId, String destinationNodeId, Set<String> tupleIds) {
+            return call(sourceNodeId, tupleIds);
+        }
+
+        @Override
+        public ShuffleKeysResult deleteTuples(String nodeId, Set<String> tupleIds) {
+            return call(nodeId, tupleIds);
+        }
+
+        @Override
+        public boolean flushData() {
+            return true;
+        }
+
+        @Override
+        public boolean dumpToFile(String pathToFile, boolean overwrite) {
+            return true;
+        }
+
+        @Override
+        public boolean restoreFromFile(String pathToFile) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.jcri.mdde.registry.data.impl.redis;
+
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMigrateErrors {
+
+    private static boolean isUnavailable(String message){
+        return RedisDataShuffler.isMigrateUnavailable(new JedisDataException(message));
+    }
+
+    @Test
+    public void testPersistentErrors(){
+        assertTrue(isUnavailable("ERR unknown command 'MIGRATE'"));
+        assertTrue(isUnavailable("ERR syntax error"));
+        assertTrue(isUnavailable("NOPERM this user has no permissions to run the 'migrate' command"));
+        assertTrue(isUnavailable("ERR Target instance replied with error: NOAUTH Authentication required."));
+        assertTrue(isUnavailable("ERR Target instance replied with error: WRONGPASS invalid username-password pair"));
+    }
+
+    @Test
+    public void testTransientErrors(){
+        assertFalse(isUnavailable("IOERR error or timeout reading to target instance"));
+        assertFalse(isUnavailable("IOERR error or timeout connecting to the client"));
+        assertFalse(isUnavailable("ERR Target instance replied with error: BUSYKEY Target key name already exists."));
+        assertFalse(isUnavailable(null));
+    }
+}
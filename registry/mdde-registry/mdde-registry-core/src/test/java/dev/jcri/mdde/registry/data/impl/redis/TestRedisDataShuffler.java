@@ -1,5 +1,6 @@
 package dev.jcri.mdde.registry.data.impl.redis;
 
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
 import dev.jcri.mdde.registry.data.IDataShuffler;
 import dev.jcri.mdde.registry.shared.configuration.DBNetworkNodesConfiguration;
 import org.jetbrains.annotations.NotNull;
@@ -285,6 +286,99 @@ public class TestRedisDataShuffler {
         assertCopyResultsString(testStringItems, destinationNode);
     }
 
+    /**
+     * Test Redis shuffler STRING,LIST,HASH,SET copies with every copy strategy. MIGRATE can't reach the mapped
+     * address of the destination container from the source, so the MIGRATE strategy also exercises the fallback.
+     */
+    @Test
+    public void testCopyMixedTuplesStrategies(){
+        Map<String, Map<String, String>> testHashItems = generateTestDataHash(50, 20);
+        Map<String, Set<String>> testSetItems = generateTestDataSet(50, 20);
+        Map<String, List<String>> testListItems = generateTestDataList(50, 20);
+        Map<String, String> testStringItems = generateTestDataString(50);
+
+        var connectionKeys = redisConnections.keySet().toArray(new String[0]);
+        var sourceNodeKey = connectionKeys[0];
+        var destinationNodeKey = connectionKeys[1];
+        var sourceNode = redisConnections.get(sourceNodeKey);
+        var destinationNode = redisConnections.get(destinationNodeKey);
+
+        populateRedisWithTestDataHash(testHashItems, sourceNode);
+        populateRedisWithTestDataSet(testSetItems, sourceNode);
+        populateRedisWithTestDataList(testListItems, sourceNode);
+        populateRedisWithTestDataString(testStringItems, sourceNode);
+
+        Set<String> allKeys = new HashSet<>();
+        allKeys.addAll(testHashItems.keySet());
+        allKeys.addAll(testSetItems.keySet());
+        allKeys.addAll(testListItems.keySet());
+        allKeys.addAll(testStringItems.keySet());
+        var missingKey = UUID.randomUUID().toString().replace("-", "");
+        Set<String> requestedKeys = new HashSet<>(allKeys);
+        requestedKeys.add(missingKey);
+
+        for(var strategy: List.of(ShuffleConfig.COPY_MIGRATE, ShuffleConfig.COPY_DUMP, ShuffleConfig.COPY_VALUES)){
+            var config = new ShuffleConfig();
+            config.setCopy(strategy);
+            config.setCopyBatch(17);
+            config.setMigrateTimeout(500);
+            IDataShuffler shuffler = new RedisDataShuffler(testRedisNodes, config);
+            var copyResult = shuffler.copyTuples(sourceNodeKey, destinationNodeKey, requestedKeys);
+            assertEquals(allKeys, copyResult.getProcessedKeys());
+            assertEquals(Set.of(missingKey), copyResult.getFailedKeys());
+
+            assertCopyResultsHash(testHashItems, destinationNode);
+            assertCopyResultsSet(testSetItems, destinationNode);
+            assertCopyResultsList(testListItems, destinationNode);
+            assertCopyResultsString(testStringItems, destinationNode);
+            try(Jedis jedis = destinationNode.getResource()){
+                jedis.flushAll();
+            }
+        }
+    }
+
+    /**
+     * Test streaming copy of the collections much larger than the read chunk and the in-flight budget
+     */
+    @Test
+    public void testStreamedCopyOfLargeCollections(){
+        Map<String, Map<String, String>> testHashItems = generateTestDataHash(3, 5000);
+        Map<String, Set<String>> testSetItems = generateTestDataSet(3, 5000);
+        Map<String, List<String>> testListItems = generateTestDataList(3, 2500);
+
+        var connectionKeys = redisConnections.keySet().toArray(new String[0]);
+        var sourceNodeKey = connectionKeys[0];
+        var destinationNodeKey = connectionKeys[1];
+        var sourceNode = redisConnections.get(sourceNodeKey);
+        var destinationNode = redisConnections.get(destinationNodeKey);
+
+        populateRedisWithTestDataHash(testHashItems, sourceNode);
+        populateRedisWithTestDataSet(testSetItems, sourceNode);
+        populateRedisWithTestDataList(testListItems, sourceNode);
+        // Stale value on the destination is replaced
+        var staleListKey = testListItems.keySet().iterator().next();
+        try(Jedis jedis = destinationNode.getResource()){
+            jedis.rpush(staleListKey, "stale");
+        }
+
+        Set<String> allKeys = new HashSet<>();
+        allKeys.addAll(testHashItems.keySet());
+        allKeys.addAll(testSetItems.keySet());
+        allKeys.addAll(testListItems.keySet());
+
+        var config = new ShuffleConfig();
+        config.setCopy(ShuffleConfig.COPY_VALUES);
+        config.setCopyChunk(100);
+        config.setCopyInFlightBytes(1024);
+        IDataShuffler shuffler = new RedisDataShuffler(testRedisNodes, config);
+        var copyResult = shuffler.copyTuples(sourceNodeKey, destinationNodeKey, allKeys);
+        assertEquals(allKeys, copyResult.getProcessedKeys());
+
+        assertCopyResultsHash(testHashItems, destinationNode);
+        assertCopyResultsSet(testSetItems, destinationNode);
+        assertCopyResultsList(testListItems, destinationNode);
+    }
+
     /**
      * Test Redis shuffler STRING,LIST,HASH,SET copies with missing keys
      */
@@ -617,6 +711,46 @@ public class TestRedisDataShuffler {
         }
     }
 
+    /**
+     * Test the snapshot round trip with the nodes dumped one at a time and restored in small pipelines
+     */
+    @Test
+    public void testSerializationSmallBatches(){
+        Map<String, String> testStringItems_node1 = generateTestDataString(300);
+        Map<String, List<String>> testListItems_node2 = generateTestDataList(50, 200);
+
+        var nodeIds = redisConnections.keySet().toArray(new String[0]);
+        var pool_node1 = redisConnections.get(nodeIds[0]);
+        var pool_node2 = redisConnections.get(nodeIds[1]);
+        populateRedisWithTestDataString(testStringItems_node1, pool_node1);
+        populateRedisWithTestDataList(testListItems_node2, pool_node2);
+
+        var config = new ShuffleConfig();
+        config.setSnapshotThreads(1);
+        config.setSnapshotScan(7);
+        config.setSnapshotBatchBytes(512);
+        IDataShuffler shuffler = new RedisDataShuffler(testRedisNodes, config);
+
+        Path workingDir = FileSystems.getDefault().getPath(".").toAbsolutePath();
+        String testFileName = UUID.randomUUID().toString().replace("-", "") + ".rdmp";
+        File testFile = workingDir.resolve(testFileName).normalize().toFile();
+        try {
+            shuffler.dumpToFile(testFile.getPath(), true);
+            instancesCleanup();
+            shuffler.restoreFromFile(testFile.getPath());
+
+            assertCopyResultsString(testStringItems_node1, pool_node1);
+            assertCopyResultsList(testListItems_node2, pool_node2);
+        } catch (IOException e) {
+            fail(e);
+        }
+        finally {
+            if(testFile.exists()){
+                testFile.delete();
+            }
+        }
+    }
+
 //region Common assertions
     private void assertCopyResultsHash(Map<String, Map<String, String>> testItems, JedisPool node) {
         for (Map.Entry<String, Map<String, String>> testItem : testItems.entrySet()) {
@@ -0,0 +1,107 @@
+package dev.jcri.mdde.registry.data.impl.virtual;
+
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
+import dev.jcri.mdde.registry.data.IDataShuffler;
+import dev.jcri.mdde.registry.data.ShuffleKeysResult;
+import dev.jcri.mdde.registry.data.impl.redis.RedisDataShuffler;
+import dev.jcri.mdde.registry.shared.configuration.DBNetworkNodesConfiguration;
+import dev.jcri.mdde.registry.store.snapshot.container.SnapshotContainerWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestVirtualDataShuffler {
+    @TempDir
+    Path tempDir;
+
+    private static DBNetworkNodesConfiguration node(String id, String host, int port){
+        var node = new DBNetworkNodesConfiguration();
+        node.setNodeId(id);
+        node.setHost(host);
+        node.setPort(port);
+        node.setDefaultNode(true);
+        return node;
+    }
+
+    @Test
+    public void testMapToCanonical(){
+        var nodes = List.of(node("n1", "host1", 6379), node("n2", "host2", 6380), node("n3", "host3", 6381));
+
+        var mapped = VirtualDataShuffler.mapToCanonical(nodes, "n2");
+        assertEquals(3, mapped.size());
+        for(int i = 0; i < nodes.size(); i++){
+            assertEquals(nodes.get(i).getNodeId(), mapped.get(i).getNodeId());
+            assertEquals("host2", mapped.get(i).getHost());
+            assertEquals(6380, (int) mapped.get(i).getPort());
+        }
+        // The first node is canonical by default
+        assertEquals("host1", VirtualDataShuffler.mapToCanonical(nodes, null).get(2).getHost());
+        assertThrows(IllegalArgumentException.class, () -> VirtualDataShuffler.mapToCanonical(nodes, "n4"));
+    }
+
+    @Test
+    public void testTuplesAreNotMoved() throws Exception {
+        var calls = new AtomicInteger();
+        var virtualShuffler = new VirtualDataShuffler(new IDataShuffler() {
+            @Override
+            public ShuffleKeysResult copyTuples(String sourceNodeId, String destinationNodeId, Set<String> tupleIds) {
+                calls.incrementAndGet();
+                return null;
+            }
+
+            @Override
+            public ShuffleKeysResult deleteTuples(String nodeId, Set<String> tupleIds) {
+                calls.incrementAndGet();
+                return null;
+            }
+
+            @Override
+            public boolean flushData() {
+                calls.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public boolean dumpToFile(String pathToFile, boolean overwrite) {
+                return false;
+            }
+
+            @Override
+            public boolean restoreFromFile(String pathToFile) {
+                return false;
+            }
+        });
+
+        var tuples = Set.of("t1", "t2");
+        assertEquals(tuples, virtualShuffler.copyTuples("n1", "n2", tuples).getProcessedKeys());
+        assertEquals(tuples, virtualShuffler.deleteTuples("n1", tuples).getProcessedKeys());
+        assertEquals(0, calls.get());
+        assertTrue(virtualShuffler.flushData());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testSnapshotOfOtherDataPlaneIsRejected() throws IOException {
+        var file = tempDir.resolve("snapshot").toFile();
+        try(var writer = new SnapshotContainerWriter(file)){
+            writer.setAttribute(RedisDataShuffler.SNAPSHOT_ATTRIBUTE_DATA_PLANE, ShuffleConfig.DATA_PLANE_PHYSICAL);
+            writer.openStream("n1").close();
+            writer.openStream("n2").close();
+            writer.commit();
+        }
+        var config = new ShuffleConfig();
+        config.setDataPlane(ShuffleConfig.DATA_PLANE_VIRTUAL);
+        // The snapshot is rejected before any of the nodes is contacted
+        var virtualShuffler = new VirtualDataShuffler(
+                new RedisDataShuffler(List.of(node("n1", "localhost", 1)), config));
+        var error = assertThrows(IOException.class, () -> virtualShuffler.restoreFromFile(file.toString()));
+        assertTrue(error.getMessage().contains("physical data plane"));
+    }
+}
@@ -0,0 +1,57 @@
+package dev.jcri.mdde.registry.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRegistryMetrics {
+
+    @Test
+    public void testHistogramPercentiles(){
+        var histogram = new LatencyHistogram(RegistryMetrics.TYPE_READ, "GETALL");
+        for(int i = 0; i < 90; i++){
+            histogram.record(150_000, 1); // 150us
+        }
+        for(int i = 0; i < 10; i++){
+            histogram.record(3_000_000, 2); // 3ms
+        }
+        var stats = histogram.snapshot();
+        assertEquals(100, stats.getCount());
+        assertEquals(200, stats.getP50Micros());
+        assertEquals(200, stats.getP90Micros());
+        assertEquals(3_000, stats.getP99Micros());
+        assertEquals(3_000, stats.getMaxMicros());
+        assertEquals(110, stats.getStoreAccesses());
+        assertEquals(LatencyHistogram.BUCKET_BOUNDS.size() + 1, stats.getBuckets().size());
+        assertEquals(90L, stats.getBuckets().get(LatencyHistogram.BUCKET_BOUNDS.indexOf(200L)));
+    }
+
+    @Test
+    public void testStoreAccessCounterIsPerThread() throws InterruptedException {
+        var start = RegistryMetrics.getStoreAccessCount();
+        RegistryMetrics.countStoreAccess();
+        RegistryMetrics.countStoreAccess();
+        var other = new Thread(RegistryMetrics::countStoreAccess);
+        other.start();
+        other.join();
+        assertEquals(2, RegistryMetrics.getStoreAccessCount() - start);
+    }
+
+    @Test
+    public void testPrometheusFormat(){
+        var metrics = new RegistryMetrics();
+        metrics.recordCommand(RegistryMetrics.TYPE_WRITE, "INSERT", 40_000, 3);
+        metrics.recordCommand(RegistryMetrics.TYPE_WRITE, "INSERT", 40_000_000_000L, 1);
+        metrics.registerGauge("mdde_store_pool_active", Map.of("pool", "registry"), () -> 4);
+
+        var text = PrometheusTextFormatter.format(metrics.snapshot());
+        assertTrue(text.contains("# TYPE mdde_command_latency_seconds histogram"));
+        assertTrue(text.contains("mdde_command_latency_seconds_bucket{type=\"write\",cmd=\"INSERT\",le=\"5.0E-5\"} 1"));
+        assertTrue(text.contains("mdde_command_latency_seconds_bucket{type=\"write\",cmd=\"INSERT\",le=\"+Inf\"} 2"));
+        assertTrue(text.contains("mdde_command_latency_seconds_count{type=\"write\",cmd=\"INSERT\"} 2"));
+        assertTrue(text.contains("mdde_command_store_accesses_total{type=\"write\",cmd=\"INSERT\"} 4"));
+        assertTrue(text.contains("mdde_store_pool_active{pool=\"registry\"} 4"));
+    }
+}
@@ -0,0 +1,48 @@
+package dev.jcri.mdde.registry.metrics.jfr;
+
+import dev.jcri.mdde.registry.shared.benchmark.enums.EBenchmarkRunStage;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBenchmarkStageEventRecorder {
+
+    @Test
+    public void testStageEventsAreRecorded() throws IOException {
+        var recorder = new BenchmarkStageEventRecorder();
+        var dump = Files.createTempFile("mdde-test", ".jfr");
+        try(var recording = new Recording()) {
+            recording.enable(BenchmarkStageEvent.class).withoutThreshold();
+            recording.start();
+            recorder.onBenchmarkStageChanged("run1", EBenchmarkRunStage.STARTING, false);
+            recorder.onBenchmarkStageChanged("run1", EBenchmarkRunStage.RUNNING, false);
+            recorder.onBenchmarkStageChanged("run1", EBenchmarkRunStage.FINALIZING, false);
+            recorder.onBenchmarkStageChanged("run1", EBenchmarkRunStage.DONE, true);
+            recording.stop();
+            recording.dump(dump);
+
+            var events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(e -> e.getEventType().getName().equals("dev.jcri.mdde.BenchmarkStage"))
+                    .collect(Collectors.toList());
+            assertEquals(3, events.size());
+            var stages = events.stream().map(e -> e.getString("stage")).collect(Collectors.toSet());
+            assertTrue(stages.contains(EBenchmarkRunStage.STARTING.toString()));
+            assertTrue(stages.contains(EBenchmarkRunStage.RUNNING.toString()));
+            assertTrue(stages.contains(EBenchmarkRunStage.FINALIZING.toString()));
+            for(var event: events){
+                assertEquals("run1", event.getString("runId"));
+                var isFinalizing = event.getString("stage").equals(EBenchmarkRunStage.FINALIZING.toString());
+                assertEquals(isFinalizing, event.getBoolean("failed"));
+            }
+        }
+        finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package dev.jcri.mdde.registry.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.jcri.mdde.registry.control.ICommandParser;
+import dev.jcri.mdde.registry.control.IWriteJournal;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandBatchCodec;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandPreProcessor;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerJson;
+import dev.jcri.mdde.registry.exceptions.EErrorCode;
+import dev.jcri.mdde.registry.shared.commands.Constants;
+import dev.jcri.mdde.registry.shared.commands.EReadCommand;
+import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
+import dev.jcri.mdde.registry.shared.commands.EWriteCommand;
+import dev.jcri.mdde.registry.store.exceptions.ResponseSerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCommandProcessorBatch {
+    private final ObjectMapper _mapper = new ObjectMapper();
+    private final ResponseSerializerJson _serializer = new ResponseSerializerJson();
+    /**
+     * Keywords of the statements that reached the parsers, in the execution order
+     */
+    private final List<String> _executed = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * Calls of the write journal, in the call order
+     */
+    private final List<String> _journalCalls = new ArrayList<>();
+
+    /**
+     * Processor where the read statements and DCOPYFRAG succeed, the rest of the write statements fail
+     */
+    private CommandProcessor<String, String, String> buildProcessor(){
+        return buildProcessor(null);
+    }
+
+    /**
+     * Processor as {@link #buildProcessor()} undoing the writes of the failed stop-on-error batches with the journal
+     */
+    private CommandProcessor<String, String, String> buildProcessor(IWriteJournal journal){
+        ICommandParser<String, EStateControlCommand, String> controlParser = (command, args) -> {
+            _executed.add(command.getCommand());
+            return succeed(command.getCommand());
+        };
+        ICommandParser<String, EReadCommand, String> readParser = (command, args) -> {
+            _executed.add(command.getCommand());
+            return succeed(command.getCommand());
+        };
+        ICommandParser<String, EWriteCommand, String> writeParser = (command, args) -> {
+            _executed.add(command.getCommand());
+            if(command == EWriteCommand.REPLICATE_FRAGMENT_DATA){
+                return succeed(command.getCommand());
+            }
+            return _serializer.serializeException(new IllegalStateException("write failed"));
+        };
+        if(journal == null){
+            return new CommandProcessor<>(new JsonCommandPreProcessor(), controlParser, readParser, writeParser,
+                    _serializer, new JsonCommandBatchCodec());
+        }
+        return new CommandProcessor<>(new JsonCommandPreProcessor(), controlParser, readParser, writeParser,
+                _serializer, new JsonCommandBatchCodec(), new ReentrantReadWriteLock(), journal);
+    }
+
+    /**
+     * Journal recording its calls, able to undo DCOPYFRAG and DDELFRAGEX
+     */
+    private IWriteJournal recordingJournal(){
+        return new IWriteJournal() {
+            @Override
+            public boolean isReversible(EWriteCommand command) {
+                return command == EWriteCommand.REPLICATE_FRAGMENT_DATA
+                        || command == EWriteCommand.DELETE_FRAGMENT_DATA;
+            }
+
+            @Override
+            public void begin() {
+                _journalCalls.add("begin");
+            }
+
+            @Override
+            public void commit() {
+                _journalCalls.add("commit");
+            }
+
+            @Override
+            public void rollback() {
+                _journalCalls.add("rollback");
+            }
+        };
+    }
+
+    /**
+     * Processor where the read statements wait for the latch before succeeding
+     */
+    private CommandProcessor<String, String, String> buildBlockingProcessor(String name,
+                                                                            CountDownLatch entered,
+                                                                            CountDownLatch release,
+                                                                            ReadWriteLock statementLock){
+        return new CommandProcessor<>(new JsonCommandPreProcessor(),
+                (command, args) -> succeed(command.getCommand()),
+                (command, args) -> {
+                    _executed.add(name + ":" + command.getCommand());
+                    entered.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return succeed(command.getCommand());
+                },
+                (command, args) -> succeed(command.getCommand()),
+                _serializer,
+                new JsonCommandBatchCodec(),
+                statementLock);
+    }
+
+    private String succeed(String value){
+        try {
+            return _serializer.serialize(value);
+        } catch (ResponseSerializationException e) {
+            return _serializer.serializeException(e);
+        }
+    }
+
+    private static String batch(boolean stopOnError, String... keywords){
+        var statements = new StringBuilder();
+        for(var keyword: keywords){
+            if(statements.length() > 0){
+                statements.append(',');
+            }
+            statements.append(String.format("{\"%s\": \"%s\", \"%s\": {}}",
+                    Constants.CommandFiled, keyword, Constants.ArgumentsField));
+        }
+        return String.format("{\"%s\": \"%s\", \"%s\": {\"%s\": [%s], \"%s\": %b}}",
+                Constants.CommandFiled, Constants.BatchCommand, Constants.ArgumentsField,
+                Constants.ArgBatchStatements, statements, Constants.ArgBatchStopOnError, stopOnError);
+    }
+
+    @Test
+    public void testBatchRunsEveryStatement() throws Exception {
+        var response = _mapper.readTree(buildProcessor().processIncomingStatement(
+                batch(false, "GETALL", "INSERT", "GETALL")));
+        assertTrue(response.get(Constants.ResultError).isNull());
+        JsonNode results = response.get(Constants.ResultPayload);
+        assertEquals(3, results.size());
+        assertEquals("GETALL", results.get(0).get(Constants.ResultPayload).asText());
+        assertFalse(results.get(1).get(Constants.ResultError).isNull());
+        assertEquals("GETALL", results.get(2).get(Constants.ResultPayload).asText());
+        assertEquals(List.of("GETALL", "INSERT", "GETALL"), _executed);
+    }
+
+    @Test
+    public void testStopOnErrorBatchStopsAtFirstFailure() throws Exception {
+        var response = _mapper.readTree(buildProcessor(recordingJournal()).processIncomingStatement(
+                batch(true, "GETALL", "DDELFRAGEX", "GETALL")));
+        JsonNode results = response.get(Constants.ResultPayload);
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).get(Constants.ResultError).isNull());
+        assertFalse(results.get(1).get(Constants.ResultError).isNull());
+        assertEquals(EErrorCode.CTRL_BATCH_STATEMENT_SKIPPED.getErrorCode(),
+                results.get(2).get(Constants.ResultErrorCode).asInt());
+        assertEquals(List.of("GETALL", "DDELFRAGEX"), _executed);
+    }
+
+    @Test
+    public void testStopOnErrorBatchRollsBackWrites() throws Exception {
+        var response = _mapper.readTree(buildProcessor(recordingJournal()).processIncomingStatement(
+                batch(true, "DCOPYFRAG", "GETALL", "DDELFRAGEX", "GETALL")));
+        JsonNode results = response.get(Constants.ResultPayload);
+        assertEquals(4, results.size());
+        assertEquals(EErrorCode.CTRL_BATCH_STATEMENT_ROLLED_BACK.getErrorCode(),
+                results.get(0).get(Constants.ResultErrorCode).asInt());
+        assertTrue(results.get(1).get(Constants.ResultError).isNull());
+        assertFalse(results.get(2).get(Constants.ResultError).isNull());
+        assertEquals(EErrorCode.CTRL_BATCH_STATEMENT_SKIPPED.getErrorCode(),
+                results.get(3).get(Constants.ResultErrorCode).asInt());
+        assertEquals(List.of("begin", "rollback"), _journalCalls);
+    }
+
+    @Test
+    public void testStopOnErrorBatchCommitsWrites() throws Exception {
+        var response = _mapper.readTree(buildProcessor(recordingJournal()).processIncomingStatement(
+                batch(true, "DCOPYFRAG", "GETALL")));
+        JsonNode results = response.get(Constants.ResultPayload);
+        assertTrue(results.get(0).get(Constants.ResultError).isNull());
+        assertTrue(results.get(1).get(Constants.ResultError).isNull());
+        assertEquals(List.of("begin", "commit"), _journalCalls);
+    }
+
+    @Test
+    public void testStopOnErrorBatchRejectsIrreversibleWrites() throws Exception {
+        var response = _mapper.readTree(buildProcessor(recordingJournal()).processIncomingStatement(
+                batch(true, "GETALL", "INSERT")));
+        assertEquals(EErrorCode.CTRL_MALFORMED_COMMAND_STATEMENT.getErrorCode(),
+                response.get(Constants.ResultErrorCode).asInt());
+        // Without a journal no write can be undone
+        response = _mapper.readTree(buildProcessor().processIncomingStatement(batch(true, "DCOPYFRAG")));
+        assertEquals(EErrorCode.CTRL_MALFORMED_COMMAND_STATEMENT.getErrorCode(),
+                response.get(Constants.ResultErrorCode).asInt());
+        assertTrue(_executed.isEmpty());
+        assertTrue(_journalCalls.isEmpty());
+    }
+
+    @Test
+    public void testStopOnErrorBatchIsValidatedBeforeExecution() throws Exception {
+        var response = _mapper.readTree(buildProcessor().processIncomingStatement(
+                batch(true, "GETALL", "NOSUCHCMD")));
+        assertFalse(response.get(Constants.ResultError).isNull());
+        assertEquals(EErrorCode.UNKNOWN_COMMAND.getErrorCode(), response.get(Constants.ResultErrorCode).asInt());
+        assertTrue(_executed.isEmpty());
+    }
+
+    @Test
+    public void testStopOnErrorBatchExcludesOtherProcessors() throws Exception {
+        var statementLock = new ReentrantReadWriteLock();
+        var batchEntered = new CountDownLatch(1);
+        var releaseBatch = new CountDownLatch(1);
+        var processorA = buildBlockingProcessor("a", batchEntered, releaseBatch, statementLock);
+        var processorB = buildBlockingProcessor("b", new CountDownLatch(1), new CountDownLatch(0), statementLock);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var batchResult = executor.submit(() -> processorA.processIncomingStatement(batch(true, "GETALL")));
+            assertTrue(batchEntered.await(10, TimeUnit.SECONDS));
+            var statementResult = executor.submit(() -> processorB.processIncomingStatement(
+                    String.format("{\"%s\": \"GETALL\"}", Constants.CommandFiled)));
+            Thread.sleep(200);
+            assertFalse(statementResult.isDone());
+            assertEquals(List.of("a:GETALL"), _executed);
+
+            releaseBatch.countDown();
+            assertTrue(_mapper.readTree(statementResult.get(10, TimeUnit.SECONDS))
+                    .get(Constants.ResultError).isNull());
+            assertTrue(_mapper.readTree(batchResult.get(10, TimeUnit.SECONDS)).get(Constants.ResultError).isNull());
+            assertEquals(List.of("a:GETALL", "b:GETALL"), _executed);
+        }
+        finally {
+            releaseBatch.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNestedBatchIsRejected() throws Exception {
+        var response = _mapper.readTree(buildProcessor().processIncomingStatement(
+                batch(false, "GETALL", "BATCH")));
+        JsonNode results = response.get(Constants.ResultPayload);
+        assertEquals(2, results.size());
+        assertFalse(results.get(1).get(Constants.ResultError).isNull());
+        assertEquals(List.of("GETALL"), _executed);
+    }
+}
@@ -0,0 +1,72 @@
+package dev.jcri.mdde.registry.server.events;
+
+import dev.jcri.mdde.registry.shared.benchmark.enums.EBenchmarkRunStage;
+import dev.jcri.mdde.registry.shared.commands.containers.result.events.ERegistryEventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRegistryEventHub {
+
+    @Test
+    public void testEventsAreBatchedAndSignalledOnce(){
+        var hub = new RegistryEventHub();
+        var signals = new AtomicInteger();
+        var subscription = hub.subscribe(16, signals::incrementAndGet);
+
+        hub.onFragmentExemplarAdded("f1", "n1");
+        hub.onFragmentMetaGlobalChanged("f1", "size", "42");
+        hub.onFragmentMetaExemplarChanged("f1", "n1", "reads", "7");
+        hub.onBenchmarkStageChanged("run", EBenchmarkRunStage.RUNNING, false);
+        assertEquals(1, signals.get());
+
+        var first = subscription.poll(3);
+        assertEquals(3, first.size());
+        assertEquals(ERegistryEventType.FRAGMENT_ADDED, first.get(0).getEventType());
+        assertEquals(ERegistryEventType.META_GLOBAL, first.get(1).getEventType());
+        assertNull(first.get(1).getNodeId());
+        assertEquals(ERegistryEventType.META_EXEMPLAR, first.get(2).getEventType());
+        assertEquals("n1", first.get(2).getNodeId());
+        assertEquals(1, first.get(0).getSequence());
+        assertEquals(3, first.get(2).getSequence());
+
+        var second = subscription.poll(3);
+        assertEquals(1, second.size());
+        assertEquals("running", second.get(0).getStage());
+        // Signal is re-armed only after the queue was drained
+        hub.onAllocationReset();
+        assertEquals(1, signals.get());
+        assertEquals(1, subscription.poll(3).size());
+        assertTrue(subscription.poll(3).isEmpty());
+        hub.onFragmentsMetaReset();
+        assertEquals(2, signals.get());
+    }
+
+    @Test
+    public void testSlowSubscriberReceivesOverflow(){
+        var hub = new RegistryEventHub();
+        var subscription = hub.subscribe(4, () -> {});
+        for(int i = 0; i < 6; i++){
+            hub.onFragmentExemplarRemoved("f" + i, "n1");
+        }
+        var events = subscription.poll(10);
+        assertEquals(ERegistryEventType.OVERFLOW, events.get(0).getEventType());
+        assertEquals(4, subscription.getDroppedCount());
+        assertEquals("f5", events.get(events.size() - 1).getFragmentId());
+        assertTrue(events.size() <= 4);
+    }
+
+    @Test
+    public void testUnsubscribedReceivesNothing(){
+        var hub = new RegistryEventHub();
+        var subscription = hub.subscribe(4, () -> {});
+        hub.onFragmentExemplarAdded("f1", "n1");
+        hub.unsubscribe(subscription);
+        hub.onFragmentExemplarAdded("f2", "n1");
+        assertTrue(subscription.isClosed());
+        assertTrue(subscription.poll(4).isEmpty());
+        assertEquals(0, hub.getSubscriptionsCount());
+    }
+}
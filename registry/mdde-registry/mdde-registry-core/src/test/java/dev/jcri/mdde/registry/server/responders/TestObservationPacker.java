@@ -0,0 +1,81 @@
+package dev.jcri.mdde.registry.server.responders;
+
+import dev.jcri.mdde.registry.control.command.json.SharedJsonMapper;
+import dev.jcri.mdde.registry.shared.store.response.FragmentCatalog;
+import dev.jcri.mdde.registry.shared.store.response.PackedObservation;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestObservationPacker {
+
+    /**
+     * Catalog with the local keys deliberately not matching the sorted order of the IDs
+     */
+    private static FragmentCatalog getCatalog(){
+        var nodes = Map.of("n2", 0, "n1", 1);
+        var fragments = Map.of("f9", 0, "f0", 1, "f5", 2);
+        // n2 holds f9 and f5, n1 holds f0
+        Map<Integer, List<Integer>> content = Map.of(0, List.of(0, 2), 1, List.of(1));
+        Map<Integer, Map<Integer, List<String>>> exemplar = Map.of(0, Map.of(0, List.of("1.5"), 2, List.of("abc")));
+        Map<Integer, List<String>> global = Map.of(1, List.of("42", "0.25"));
+        return new FragmentCatalog(nodes, fragments, content,
+                List.of("exTag"), List.of("glTagA", "glTagB"), global, exemplar);
+    }
+
+    @Test
+    public void testPackedLayout(){
+        var packed = ObservationPacker.pack(getCatalog());
+        assertEquals(List.of("n1", "n2"), packed.getNodes());
+        assertEquals(List.of("f0", "f5", "f9"), packed.getFragments());
+        assertEquals(1, packed.getRowBytes());
+        assertEquals(0, packed.getAllocationOffset());
+        assertEquals(0, packed.getExemplarMetaOffset() % 8);
+        assertEquals(0, packed.getGlobalMetaOffset() % 8);
+        assertEquals(8, packed.getExemplarMetaOffset());
+        assertEquals(8 + 2 * 3 * 4, packed.getGlobalMetaOffset());
+
+        var data = packed.getData();
+        // n1 -> f0 (column 0); n2 -> f5, f9 (columns 1, 2)
+        assertEquals(0b001, data[0]);
+        assertEquals(0b110, data[1]);
+
+        var buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        var ex = packed.getExemplarMetaOffset();
+        // [tag 0][node n2 (row 1)][fragment f9 (column 2)]
+        assertEquals(1.5f, buffer.getFloat(ex + (1 * 3 + 2) * 4));
+        // Non numeric and missing values
+        assertTrue(Float.isNaN(buffer.getFloat(ex + (1 * 3 + 1) * 4)));
+        assertTrue(Float.isNaN(buffer.getFloat(ex)));
+
+        var gl = packed.getGlobalMetaOffset();
+        // [tag][fragment f0 (column 0)]
+        assertEquals(42f, buffer.getFloat(gl));
+        assertEquals(0.25f, buffer.getFloat(gl + 3 * 4));
+        assertTrue(Float.isNaN(buffer.getFloat(gl + 4)));
+        assertEquals(gl + 2 * 3 * 4, data.length);
+    }
+
+    @Test
+    public void testEmptyCatalog(){
+        var packed = ObservationPacker.pack(new FragmentCatalog());
+        assertTrue(packed.getNodes().isEmpty());
+        assertTrue(packed.getFragments().isEmpty());
+        assertEquals(0, packed.getData().length);
+    }
+
+    @Test
+    public void testCborCarriesByteString() throws Exception {
+        var packed = ObservationPacker.pack(getCatalog());
+        var mapper = SharedJsonMapper.getCborMapper();
+        var restored = mapper.readValue(mapper.writeValueAsBytes(packed), PackedObservation.class);
+        assertArrayEquals(packed.getData(), restored.getData());
+        assertEquals(packed.getFragments(), restored.getFragments());
+        assertEquals(packed.getGlobalMetaOffset(), restored.getGlobalMetaOffset());
+    }
+}
@@ -0,0 +1,94 @@
+package dev.jcri.mdde.registry.server.responders;
+
+import dev.jcri.mdde.registry.store.IReadCommandHandler;
+import dev.jcri.mdde.registry.store.IWriteCommandHandler;
+import dev.jcri.mdde.registry.store.queue.IDataShuffleQueue;
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestWriteCommandResponderJournal {
+    /**
+     * Calls of the registry write handler and the shuffle queue, in the call order
+     */
+    private final List<String> _calls = new ArrayList<>();
+
+    private WriteCommandResponder buildResponder(){
+        var writeHandler = (IWriteCommandHandler) Proxy.newProxyInstance(IWriteCommandHandler.class.getClassLoader(),
+                new Class<?>[]{IWriteCommandHandler.class},
+                (proxy, method, args) -> {
+                    _calls.add(method.getName() + " " + Arrays.toString(args));
+                    return method.getReturnType() == boolean.class ? true : null;
+                });
+        var readHandler = (IReadCommandHandler) Proxy.newProxyInstance(IReadCommandHandler.class.getClassLoader(),
+                new Class<?>[]{IReadCommandHandler.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()){
+                        case "getFragmentTuples":
+                            return Set.of("t1");
+                        case "getFragmentNodes":
+                            return Set.of("n1");
+                        case "getMetaFragmentGlobal":
+                            return "old";
+                        default:
+                            return null;
+                    }
+                });
+        var queue = (IDataShuffleQueue) Proxy.newProxyInstance(IDataShuffleQueue.class.getClassLoader(),
+                new Class<?>[]{IDataShuffleQueue.class},
+                (proxy, method, args) -> {
+                    if(args[0] instanceof DataCopyAction){
+                        var action = (DataCopyAction) args[0];
+                        _calls.add(String.format("queue copy %s>%s", action.getSourceNode(),
+                                action.getDestinationNode()));
+                    }
+                    else{
+                        _calls.add("queue delete " + ((DataDeleteAction) args[0]).getDataNode());
+                    }
+                    return true;
+                });
+        return new WriteCommandResponder(writeHandler, readHandler, queue);
+    }
+
+    @Test
+    public void testRollbackUndoesWritesInReverseOrder() throws Exception {
+        var responder = buildResponder();
+        responder.begin();
+        responder.replicateFragment("f1", "n1", "n2");
+        responder.addMetaToFragmentGlobal("f1", "tag", "new");
+        responder.deleteFragmentExemplar("f1", "n3");
+        _calls.clear();
+
+        responder.rollback();
+        assertEquals(List.of("replicateFragment [f1, n1, n3]",
+                             "queue copy n1>n3",
+                             "addMetaToFragmentGlobal [f1, tag, old]",
+                             "deleteFragmentExemplar [f1, n2]",
+                             "queue delete n2"),
+                     _calls);
+        // The journal is closed, nothing is undone twice
+        _calls.clear();
+        responder.rollback();
+        assertTrue(_calls.isEmpty());
+    }
+
+    @Test
+    public void testCommittedWritesAreKept() throws Exception {
+        var responder = buildResponder();
+        responder.begin();
+        responder.replicateFragment("f1", "n1", "n2");
+        responder.commit();
+        _calls.clear();
+
+        responder.rollback();
+        assertTrue(_calls.isEmpty());
+    }
+}
@@ -0,0 +1,280 @@
+package dev.jcri.mdde.registry.store;
+
+import dev.jcri.mdde.registry.benchmark.BenchmarkRunner;
+import dev.jcri.mdde.registry.benchmark.ycsb.YCSBRunner;
+import dev.jcri.mdde.registry.configuration.benchmark.YCSBConfig;
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
+import dev.jcri.mdde.registry.data.IDataShuffler;
+import dev.jcri.mdde.registry.data.ShuffleKeysResult;
+import dev.jcri.mdde.registry.shared.configuration.DBNetworkNodesConfiguration;
+import dev.jcri.mdde.registry.store.queue.IDataShuffleQueue;
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRegistryStateCommandHandlerShuffle {
+    /**
+     * Interval between the checks of an empty queue by the background worker (ms)
+     */
+    private static final int IDLE = 10;
+
+    @TempDir
+    Path _tempDir;
+
+    private final Deque<DataAction> _queueContent = new ArrayDeque<>();
+    private final IDataShuffleQueue _queue = inMemoryQueue(_queueContent);
+    private final ControlledShuffler _shuffler = new ControlledShuffler();
+    private final ExecutorService _client = Executors.newSingleThreadExecutor();
+    private BenchmarkRunner _benchmarkRunner;
+    private RegistryStateCommandHandler _handler;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        var node = new DBNetworkNodesConfiguration();
+        node.setNodeId("n1");
+        var ycsbConfig = new YCSBConfig();
+        ycsbConfig.setYcsbBin(_tempDir.toString());
+        ycsbConfig.setTemp(_tempDir.resolve("ycsb").toString());
+        ycsbConfig.setYcsbClient("mdde.redis");
+        var ycsbRunner = new YCSBRunner(ycsbConfig, List.of(node), new HashMap<>(), null);
+        _benchmarkRunner = new BenchmarkRunner(() -> null, stub(IReadCommandHandler.class), ycsbRunner);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        if(_handler != null){
+            _handler.close(5, TimeUnit.SECONDS);
+        }
+        _benchmarkRunner.close();
+        _client.shutdownNow();
+    }
+
+    private RegistryStateCommandHandler buildHandler(boolean background){
+        var config = new ShuffleConfig();
+        config.setBackground(background);
+        config.setBackgroundIdle(IDLE);
+        var node = new DBNetworkNodesConfiguration();
+        node.setNodeId("n1");
+        _handler = new RegistryStateCommandHandler(stub(IWriteCommandHandler.class),
+                                                   stub(IStoreManager.class),
+                                                   _shuffler,
+                                                   _queue,
+                                                   _benchmarkRunner,
+                                                   List.of(node),
+                                                   _tempDir.resolve("snapshots").toString(),
+                                                   config);
+        return _handler;
+    }
+
+    @Test
+    public void testWorkerExecutesQueueUntilStopped() throws Exception {
+        var handler = buildHandler(true);
+        _queue.add(new DataCopyAction(Set.of("t1"), "n1", "n2"));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertTrue(handler.awaitShuffleQueue()));
+        assertEquals(List.of("copy n1>n2 [t1]"), _shuffler.getExecuted());
+
+        handler.stopBackgroundShuffle(5, TimeUnit.SECONDS);
+        _queue.add(new DataCopyAction(Set.of("t2"), "n1", "n2"));
+        Thread.sleep(IDLE * 20);
+        assertEquals(1, _queue.size());
+        assertEquals(1, _shuffler.getExecuted().size());
+    }
+
+    @Test
+    public void testBarrierWakesAfterQueueIsDrained() throws Exception {
+        _shuffler._gate = new CountDownLatch(1);
+        var handler = buildHandler(true);
+        _queue.add(new DataCopyAction(Set.of("t1"), "n1", "n2"));
+        assertTrue(_shuffler._entered.await(10, TimeUnit.SECONDS));
+
+        var barrier = _client.submit(handler::awaitShuffleQueue);
+        Thread.sleep(IDLE * 20);
+        assertFalse(barrier.isDone());
+
+        _shuffler._gate.countDown();
+        assertTrue(barrier.get(10, TimeUnit.SECONDS));
+        assertTrue(_queue.isEmpty());
+    }
+
+    @Test
+    public void testFailedWindowIsReturnedToQueue() throws Exception {
+        _shuffler._failingTuples.add("bad");
+        var handler = buildHandler(true);
+        // The delete waits for the failing copy to read the tuple, so it's not started
+        _queue.addAll(List.of(new DataCopyAction(Set.of("bad"), "n1", "n2"),
+                              new DataDeleteAction(Set.of("bad"), "n1")));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IOException.class, handler::awaitShuffleQueue));
+        // The next window executes the returned delete
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertTrue(handler.awaitShuffleQueue()));
+        assertEquals(List.of("copy n1>n2 [bad]", "delete n1 [bad]"), _shuffler.getExecuted());
+    }
+
+    @Test
+    public void testErrorIsClearedAfterSuccessfulWindow() throws Exception {
+        _shuffler._failingTuples.add("bad");
+        var handler = buildHandler(true);
+        _queue.add(new DataCopyAction(Set.of("bad"), "n1", "n2"));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> awaitExecuted(1));
+        // Executed by the worker after the failure, no barrier has seen the error meanwhile
+        _queue.add(new DataCopyAction(Set.of("t1"), "n1", "n2"));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> awaitExecuted(2));
+        Thread.sleep(IDLE * 20);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertTrue(handler.awaitShuffleQueue()));
+    }
+
+    @Test
+    public void testBarrierExecutesQueueAfterWorkerIsStopped() throws Exception {
+        var handler = buildHandler(true);
+        handler.stopBackgroundShuffle(5, TimeUnit.SECONDS);
+        _queue.add(new DataCopyAction(Set.of("t1"), "n1", "n2"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertTrue(handler.awaitShuffleQueue()));
+        assertEquals(List.of("copy n1>n2 [t1]"), _shuffler.getExecuted());
+        assertTrue(_queue.isEmpty());
+    }
+
+    private void awaitExecuted(int count) throws InterruptedException {
+        while(_shuffler.getExecuted().size() < count){
+            Thread.sleep(IDLE);
+        }
+    }
+
+    /**
+     * Data shuffler recording the executed actions, failing the copies of the selected tuples
+     */
+    private static final class ControlledShuffler implements IDataShuffler {
+        private final List<String> _executed = Collections.synchronizedList(new ArrayList<>());
+        private final Set<String> _failingTuples = Collections.synchronizedSet(new HashSet<>());
+        private final CountDownLatch _entered = new CountDownLatch(1);
+        private volatile CountDownLatch _gate = null;
+
+        List<String> getExecuted(){
+            synchronized (_executed){
+                return new ArrayList<>(_executed);
+            }
+        }
+
+        @Override
+        public ShuffleKeysResult copyTuples(String sourceNodeId, String destinationNodeId, Set<String> tupleIds) {
+            _executed.add(String.format("copy %s>%s %s", sourceNodeId, destinationNodeId, tupleIds));
+            _entered.countDown();
+            var gate = _gate;
+            if(gate != null){
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if(!Collections.disjoint(tupleIds, _failingTuples)){
+                return new ShuffleKeysResult(Set.of(), tupleIds, new IOException("copy failed"));
+            }
+            return new ShuffleKeysResult(tupleIds);
+        }
+
+        @Override
+        public ShuffleKeysResult deleteTuples(String nodeId, Set<String> tupleIds) {
+            _executed.add(String.format("delete %s %s", nodeId, tupleIds));
+            return new ShuffleKeysResult(tupleIds);
+        }
+
+        @Override
+        public boolean flushData() {
+            return true;
+        }
+
+        @Override
+        public boolean dumpToFile(String pathToFile, boolean overwrite) {
+            return false;
+        }
+
+        @Override
+        public boolean restoreFromFile(String pathToFile) {
+            return false;
+        }
+    }
+
+    /**
+     * Shuffle queue backed by the deque, only the operations used by the registry state handler are supported
+     */
+    @SuppressWarnings("unchecked")
+    private static IDataShuffleQueue inMemoryQueue(Deque<DataAction> content){
+        return (IDataShuffleQueue) Proxy.newProxyInstance(IDataShuffleQueue.class.getClassLoader(),
+                new Class<?>[]{IDataShuffleQueue.class},
+                (proxy, method, args) -> {
+                    synchronized (content){
+                        switch (method.getName()){
+                            case "size":
+                                return content.size();
+                            case "isEmpty":
+                                return content.isEmpty();
+                            case "add":
+                                return content.add((DataAction) args[0]);
+                            case "addAll":
+                                return content.addAll((Collection<DataAction>) args[0]);
+                            case "addAllFirst":
+                                var actions = (List<DataAction>) args[0];
+                                for(int i = actions.size() - 1; i >= 0; i--){
+                                    content.addFirst(actions.get(i));
+                                }
+                                return !actions.isEmpty();
+                            case "drain":
+                                List<DataAction> drained = new ArrayList<>();
+                                while(drained.size() < (int) args[0] && !content.isEmpty()){
+                                    drained.add(content.poll());
+                                }
+                                return drained;
+                            case "clear":
+                                content.clear();
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Implementation of the interface returning the default values, for the dependencies not used by the test
+     */
+    private static <T> T stub(Class<T> type){
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    var returnType = method.getReturnType();
+                    if(returnType == boolean.class){
+                        return false;
+                    }
+                    if(returnType.isPrimitive() && returnType != void.class){
+                        return 0;
+                    }
+                    return null;
+                }));
+    }
+}
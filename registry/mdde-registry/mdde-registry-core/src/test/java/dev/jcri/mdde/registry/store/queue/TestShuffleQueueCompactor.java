@@ -0,0 +1,72 @@
+package dev.jcri.mdde.registry.store.queue;
+
+import dev.jcri.mdde.registry.store.queue.actions.DataAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
+import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestShuffleQueueCompactor {
+
+    @Test
+    public void testCopyThenDeleteIsCancelled(){
+        var copy = new DataCopyAction(Set.of("t1", "t2"), "a", "b");
+        var unrelated = new DataCopyAction(Set.of("t3"), "c", "d");
+        var delete = new DataDeleteAction(Set.of("t1", "t2"), "b");
+
+        var result = ShuffleQueueCompactor.compact(List.of(copy, unrelated, delete));
+        assertEquals(List.of(unrelated), result);
+    }
+
+    @Test
+    public void testPartialCancellation(){
+        var copy = new DataCopyAction(Set.of("t1", "t2"), "a", "b");
+        var delete = new DataDeleteAction(Set.of("t2", "t5"), "b");
+
+        var result = ShuffleQueueCompactor.compact(List.of(copy, delete));
+        assertEquals(2, result.size());
+        assertEquals(Set.of("t1"), ((DataCopyAction) result.get(0)).getTupleIds());
+        // t5 was on the node before the window
+        assertEquals(Set.of("t5"), ((DataDeleteAction) result.get(1)).getTupleIds());
+        assertEquals("b", ((DataDeleteAction) result.get(1)).getDataNode());
+    }
+
+    @Test
+    public void testReadFromDestinationBlocksCancellation(){
+        var copy = new DataCopyAction(Set.of("t1"), "a", "b");
+        var copyFurther = new DataCopyAction(Set.of("t1"), "b", "c");
+        var delete = new DataDeleteAction(Set.of("t1"), "b");
+
+        List<DataAction> actions = List.of(copy, copyFurther, delete);
+        assertEquals(actions, ShuffleQueueCompactor.compact(actions));
+    }
+
+    @Test
+    public void testCopiesBetweenSameNodesAreMerged(){
+        var first = new DataCopyAction(Set.of("t1"), "a", "b");
+        var other = new DataCopyAction(Set.of("t9"), "a", "c");
+        var second = new DataCopyAction(Set.of("t2"), "a", "b");
+
+        var result = ShuffleQueueCompactor.compact(List.of(first, other, second));
+        assertEquals(2, result.size());
+        var merged = (DataCopyAction) result.get(0);
+        assertEquals(Set.of("t1", "t2"), merged.getTupleIds());
+        assertEquals("a", merged.getSourceNode());
+        assertEquals("b", merged.getDestinationNode());
+        assertSame(other, result.get(1));
+    }
+
+    @Test
+    public void testConflictingActionPreventsMerge(){
+        var first = new DataCopyAction(Set.of("t1"), "a", "b");
+        var delete = new DataDeleteAction(Set.of("t2"), "a");
+        var second = new DataCopyAction(Set.of("t2"), "a", "b");
+
+        List<DataAction> actions = List.of(first, delete, second);
+        assertEquals(actions, ShuffleQueueCompactor.compact(actions));
+    }
+}
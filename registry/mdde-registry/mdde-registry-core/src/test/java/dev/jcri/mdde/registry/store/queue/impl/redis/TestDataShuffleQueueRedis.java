@@ -106,6 +106,49 @@ public class TestDataShuffleQueueRedis {
 
     }
 
+    @Test
+    public void TestQueueBulkOperations() throws IOException {
+        final String nodeId1 = UUID.randomUUID().toString();
+        final String nodeId2 = UUID.randomUUID().toString();
+        IDataShuffleQueue queue = new DataShuffleQueueRedis(redisRegistryStoreConnHelper,
+                TEST_QUEUE_LIST_KEY + "/bulk");
+        queue.clear();
+
+        // More than a single iterator page
+        List<DataAction> testActions = new ArrayList<>();
+        for(int i = 0; i < DataShuffleQueueRedis.ITERATOR_PAGE_SIZE * 2 + 10; i++){
+            testActions.add(i % 2 == 0
+                    ? new DataCopyAction(generateSetOfUUIDs(3), nodeId1, nodeId2)
+                    : new DataDeleteAction(generateSetOfUUIDs(3), nodeId1));
+        }
+        queue.addAll(testActions);
+        assertEquals(testActions.size(), queue.size());
+
+        var it = queue.iterator();
+        int position = 0;
+        while(it.hasNext()){
+            assertEquals(testActions.get(position++).getActionId(), it.next().getActionId());
+        }
+        assertEquals(testActions.size(), position);
+
+        var drained = queue.drain(100);
+        assertEquals(100, drained.size());
+        assertEquals(testActions.size() - 100, queue.size());
+        for(int i = 0; i < drained.size(); i++){
+            assertEquals(testActions.get(i).getActionId(), drained.get(i).getActionId());
+        }
+
+        // Return the drained actions back in front of the queue
+        queue.addAllFirst(drained);
+        var all = queue.drain(testActions.size() * 2);
+        assertEquals(testActions.size(), all.size());
+        for(int i = 0; i < all.size(); i++){
+            assertEquals(testActions.get(i).getActionId(), all.get(i).getActionId());
+        }
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.drain(10).size());
+    }
+
     public static Set<String> generateSetOfUUIDs(int length){
         Set<String> result = new HashSet<>();
         for(int i = 0; i < length; i++){
@@ -3,16 +3,21 @@ package dev.jcri.mdde.registry.store.queue.impl.redis;
 import dev.jcri.mdde.registry.store.queue.actions.DataAction;
 import dev.jcri.mdde.registry.store.queue.actions.DataCopyAction;
 import dev.jcri.mdde.registry.store.queue.actions.DataDeleteAction;
+import dev.jcri.mdde.registry.store.queue.actions.FragmentTuplesReference;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestSerializer {
@@ -104,4 +109,93 @@ public class TestSerializer {
         assertEquals(value.getActionType(), casted.getActionType());
         assertEquals(value.getActionType().getCode(), casted.getActionType().getCode());
     }
+
+    private static Set<String> generateTuples(int count){
+        Set<String> tupleIds = new HashSet<>();
+        for(int i = 0; i < count; i++){
+            tupleIds.add(UUID.randomUUID().toString());
+        }
+        return tupleIds;
+    }
+
+    @Test
+    public void testBinaryDeleteActionSerialization() throws IOException {
+        Set<String> tupleIds = generateTuples(100);
+        DataDeleteAction value = new DataDeleteAction(tupleIds, "node-1");
+
+        byte[] serialized = Serializer.serializeBinary(value);
+        assertEquals(Serializer.BINARY_MARKER, serialized[0]);
+        assertTrue(serialized.length < Serializer.serialize(value).length());
+
+        DataDeleteAction casted = (DataDeleteAction) Serializer.deserialize(serialized);
+        assertEquals(value.getActionId(), casted.getActionId());
+        assertEquals(tupleIds, casted.getTupleIds());
+        assertEquals("node-1", casted.getDataNode());
+    }
+
+    @Test
+    public void testBinaryFragmentCopySerialization() throws IOException {
+        Set<String> tupleIds = generateTuples(10000);
+        DataCopyAction value = new DataCopyAction("fragment-1", tupleIds, "node-1", "node-2");
+
+        byte[] serialized = Serializer.serializeBinary(value);
+        // Only the reference to the fragment is stored
+        assertTrue(serialized.length < 128);
+
+        DataCopyAction casted = (DataCopyAction) Serializer.deserialize(serialized);
+        assertEquals(value.getActionId(), casted.getActionId());
+        assertEquals("node-1", casted.getSourceNode());
+        assertEquals("node-2", casted.getDestinationNode());
+        assertFalse(casted.isResolved());
+        assertThrows(IllegalStateException.class, casted::getTupleIds);
+
+        FragmentTuplesReference fragment = casted.getFragment();
+        assertEquals("fragment-1", fragment.getFragmentId());
+        assertTrue(fragment.matches(new HashSet<>(tupleIds)));
+        Set<String> changed = new HashSet<>(tupleIds);
+        changed.remove(changed.iterator().next());
+        changed.add(UUID.randomUUID().toString());
+        assertFalse(fragment.matches(changed));
+
+        DataCopyAction resolved = Serializer.resolve(casted, tupleIds);
+        assertTrue(resolved.isResolved());
+        assertEquals(tupleIds, resolved.getTupleIds());
+        assertEquals(value.getActionId(), resolved.getActionId());
+    }
+
+    @Test
+    public void testFragmentCopyResolvesCurrentTuples() throws IOException {
+        Set<String> tupleIds = generateTuples(5);
+        byte[] queued = Serializer.serializeBinary(new DataCopyAction("fragment-1", tupleIds, "node-1", "node-2"));
+
+        // A tuple appended to the fragment after the copy was queued is copied as well
+        Set<String> appended = new HashSet<>(tupleIds);
+        appended.add(UUID.randomUUID().toString());
+        var resolved = (DataCopyAction) DataShuffleQueueRedis.decode(queued, fragmentId -> appended);
+        assertNotNull(resolved);
+        assertEquals(appended, resolved.getTupleIds());
+        assertEquals("node-2", resolved.getDestinationNode());
+
+        // A deleted tuple is no longer copied
+        Set<String> deleted = new HashSet<>(tupleIds);
+        deleted.remove(deleted.iterator().next());
+        assertEquals(deleted, ((DataCopyAction) DataShuffleQueueRedis.decode(queued, fragmentId -> deleted))
+                .getTupleIds());
+
+        // Only the copy of a destroyed fragment is skipped
+        assertNull(DataShuffleQueueRedis.decode(queued, fragmentId -> null));
+    }
+
+    @Test
+    public void testLegacyFormatDecoding() throws IOException {
+        Set<String> tupleIds = generateTuples(5);
+        DataCopyAction value = new DataCopyAction("fragment-1", tupleIds, "node-1", "node-2");
+
+        // Values queued in the text format by the earlier versions
+        String legacy = Serializer.serialize(value);
+        DataCopyAction casted = (DataCopyAction) Serializer.deserialize(legacy.getBytes(StandardCharsets.UTF_8));
+        assertEquals(value.getActionId(), casted.getActionId());
+        assertEquals(tupleIds, casted.getTupleIds());
+        assertEquals("node-2", casted.getDestinationNode());
+    }
 }
@@ -0,0 +1,193 @@
+package dev.jcri.mdde.registry.store.snapshot.container;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSnapshotContainer {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Generate records, half of them with compressible values, half with random ones
+     */
+    private static Map<String, byte[]> generateRecords(int count, long seed){
+        var random = new Random(seed);
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        for(int i = 0; i < count; i++){
+            byte[] value;
+            if(i % 2 == 0){
+                value = ("value-" + i).repeat(1 + random.nextInt(20)).getBytes(StandardCharsets.UTF_8);
+            }
+            else{
+                value = new byte[random.nextInt(300)];
+                random.nextBytes(value);
+            }
+            result.put(String.format("key-%d-%d", seed, i), value);
+        }
+        return result;
+    }
+
+    private static void assertRecords(Map<String, byte[]> expected, ISnapshotRecordReader records)
+            throws IOException {
+        var iterator = expected.entrySet().iterator();
+        while(records.next()){
+            assertTrue(iterator.hasNext());
+            var entry = iterator.next();
+            assertEquals(entry.getKey(), new String(records.getKey(), StandardCharsets.UTF_8));
+            assertArrayEquals(entry.getValue(), records.getValue());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testConcurrentStreamsRoundTrip() throws Exception {
+        var file = tempDir.resolve("snapshot").toFile();
+        Map<String, Map<String, byte[]>> streams = new LinkedHashMap<>();
+        for(int i = 0; i < 4; i++){
+            streams.put("node" + i, generateRecords(2000, i));
+        }
+        streams.put("empty", Collections.emptyMap());
+
+        ExecutorService pool = Executors.newFixedThreadPool(streams.size());
+        try(var writer = new SnapshotContainerWriter(file, 4096)){
+            List<Future<?>> futures = new ArrayList<>();
+            for(var stream: streams.entrySet()){
+                var streamWriter = writer.openStream(stream.getKey());
+                futures.add(pool.submit(() -> {
+                    try(streamWriter){
+                        for(var record: stream.getValue().entrySet()){
+                            streamWriter.writeRecord(record.getKey().getBytes(StandardCharsets.UTF_8),
+                                                     record.getValue());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for(var future: futures){
+                future.get();
+            }
+            writer.commit();
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        assertTrue(SnapshotContainerReader.isContainer(file));
+        try(var reader = new SnapshotContainerReader(file)){
+            assertEquals(new ArrayList<>(streams.keySet()), reader.getStreamNames());
+            for(var stream: streams.entrySet()){
+                assertEquals(stream.getValue().size(), reader.getRecordsCount(stream.getKey()));
+                assertRecords(stream.getValue(), reader.openStream(stream.getKey()));
+            }
+            assertThrows(NoSuchElementException.class, () -> reader.openStream("unknown"));
+        }
+    }
+
+    @Test
+    public void testCorruptedBlockIsDetected() throws IOException {
+        var file = tempDir.resolve("snapshot").toFile();
+        var records = generateRecords(500, 42);
+        try(var writer = new SnapshotContainerWriter(file, 1024)){
+            try(var stream = writer.openStream("node")){
+                for(var record: records.entrySet()){
+                    stream.writeRecord(record.getKey().getBytes(StandardCharsets.UTF_8), record.getValue());
+                }
+            }
+            writer.commit();
+        }
+        // Flip a byte inside the first block payload
+        var content = Files.readAllBytes(file.toPath());
+        content[SnapshotContainerFormat.FILE_HEADER_LENGTH + SnapshotContainerFormat.BLOCK_HEADER_LENGTH + 5] ^= 0x5A;
+        Files.write(file.toPath(), content);
+        try(var reader = new SnapshotContainerReader(file)){
+            assertThrows(IOException.class, () -> assertRecords(records, reader.openStream("node")));
+        }
+        // Snapshot without the index
+        Files.write(file.toPath(), Arrays.copyOf(content, content.length - 8));
+        assertThrows(IOException.class, () -> new SnapshotContainerReader(file).close());
+    }
+
+    @Test
+    public void testAttributes() throws IOException {
+        var file = tempDir.resolve("snapshot").toFile();
+        try(var writer = new SnapshotContainerWriter(file)){
+            writer.setAttribute("plane", "virtual");
+            writer.setAttribute("note", "\u043f\u0440\u0438\u043c\u0435\u0440");
+            try(var stream = writer.openStream("node")){
+                stream.writeRecord(new byte[]{1}, new byte[]{2});
+            }
+            writer.commit();
+        }
+        try(var reader = new SnapshotContainerReader(file)){
+            assertEquals("virtual", reader.getAttribute("plane"));
+            assertEquals("\u043f\u0440\u0438\u043c\u0435\u0440", reader.getAttribute("note"));
+            assertNull(reader.getAttribute("unknown"));
+            assertEquals(List.of("node"), reader.getStreamNames());
+        }
+    }
+
+    @Test
+    public void testUnknownVersionIsRejected() throws IOException {
+        var file = tempDir.resolve("snapshot").toFile();
+        try(var writer = new SnapshotContainerWriter(file)){
+            try(var stream = writer.openStream("node")){
+                stream.writeRecord(new byte[]{1}, new byte[]{2});
+            }
+            writer.commit();
+        }
+        byte[] content = Files.readAllBytes(file.toPath());
+        content[5] = 2;
+        Files.write(file.toPath(), content);
+        assertTrue(SnapshotContainerReader.isContainer(file));
+        var error = assertThrows(IOException.class, () -> new SnapshotContainerReader(file).close());
+        assertTrue(error.getMessage().contains("version 2"));
+    }
+
+    @Test
+    public void testUncommittedContainerIsDeleted() throws IOException {
+        var file = tempDir.resolve("snapshot").toFile();
+        var writer = new SnapshotContainerWriter(file, 1024);
+        var completed = writer.openStream("completed");
+        var failed = writer.openStream("failed");
+        for(var record: generateRecords(100, 3).entrySet()){
+            completed.writeRecord(record.getKey().getBytes(StandardCharsets.UTF_8), record.getValue());
+            failed.writeRecord(record.getKey().getBytes(StandardCharsets.UTF_8), record.getValue());
+        }
+        completed.close();
+        // A stream that wasn't completed can't be committed
+        assertThrows(IllegalStateException.class, writer::commit);
+        writer.close();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLegacySnapshotRecords() throws IOException {
+        var file = tempDir.resolve("legacy").toFile();
+        var records = generateRecords(100, 7);
+        try(var out = new DataOutputStream(new FileOutputStream(file))){
+            out.writeLong(records.size());
+            for(var record: records.entrySet()){
+                byte[] key = record.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeInt(record.getValue().length);
+                out.write(record.getValue());
+            }
+        }
+        assertFalse(SnapshotContainerReader.isContainer(file));
+        try(var in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+            assertRecords(records, new LegacySnapshotRecordReader(in, in.readLong()));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dev.jcri.mdde.registry.server.tcp;
+
+import dev.jcri.mdde.registry.metrics.RegistryMetrics;
+import dev.jcri.mdde.registry.server.ECommandLane;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the control API statements outside of the Netty I/O threads.
+ * Every {@link ECommandLane} has its own bounded thread pool, so long running control commands don't delay the
+ * reads and writes. Writes are executed by a single thread in the order of arrival. A statement that doesn't fit into
+ * the queue of its lane is rejected, the caller answers it with an error.
+ */
+public class CommandLaneExecutor {
+    private static final Logger logger = LogManager.getLogger(CommandLaneExecutor.class);
+    /**
+     * Default maximum number of the statements waiting for execution in a single lane
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final Map<ECommandLane, ThreadPoolExecutor> _lanes = new EnumMap<>(ECommandLane.class);
+    private final int _queueCapacity;
+
+    /**
+     * Constructor with the default lane sizes: reads use all available processors, writes and control commands are
+     * executed by a single thread each.
+     */
+    public CommandLaneExecutor(){
+        this(Math.max(2, Runtime.getRuntime().availableProcessors()), 1, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     * @param readThreads Number of threads in the READ lane.
+     * @param controlThreads Number of threads in the CONTROL lane.
+     * @param queueCapacity Maximum number of the statements waiting for execution in a single lane.
+     */
+    public CommandLaneExecutor(int readThreads, int controlThreads, int queueCapacity){
+        if(readThreads < 1 || controlThreads < 1 || queueCapacity < 1){
+            throw new IllegalArgumentException("Lane threads and queue capacity must be positive");
+        }
+        _queueCapacity = queueCapacity;
+        _lanes.put(ECommandLane.READ, createLane(ECommandLane.READ, readThreads, queueCapacity));
+        _lanes.put(ECommandLane.WRITE, createLane(ECommandLane.WRITE, 1, queueCapacity));
+        _lanes.put(ECommandLane.CONTROL, createLane(ECommandLane.CONTROL, controlThreads, queueCapacity));
+    }
+
+    private static ThreadPoolExecutor createLane(ECommandLane lane, int threads, int queueCapacity){
+        final var prefix = "mdde-" + lane.name().toLowerCase() + "-";
+        final var counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            var thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, (task, pool) -> {
+                    if(pool.isShutdown()){
+                        throw new RejectedExecutionException("The registry is shutting down");
+                    }
+                    throw new RejectedExecutionException(String.format(
+                            "The %s lane is overloaded, %d statements are already waiting for execution",
+                            lane.name().toLowerCase(), queueCapacity));
+                });
+    }
+
+    /**
+     * @return Maximum number of the statements waiting for execution in a single lane
+     */
+    public int getQueueCapacity() {
+        return _queueCapacity;
+    }
+
+    /**
+     * Schedule a statement for execution
+     * @param lane Lane of the statement.
+     * @param task Statement execution.
+     * @throws RejectedExecutionException The lane queue is full or the executor was shut down.
+     */
+    public void execute(ECommandLane lane, Runnable task) throws RejectedExecutionException {
+        Objects.requireNonNull(lane, "lane can't be null");
+        _lanes.get(lane).execute(task);
+    }
+
+    /**
+     * Publish the queue sizes and the number of busy threads of the lanes
+     * @param metrics Registry metrics.
+     */
+    public void registerMetrics(RegistryMetrics metrics){
+        for(var lane: _lanes.entrySet()){
+            var labels = Map.of("lane", lane.getKey().name().toLowerCase());
+            var pool = lane.getValue();
+            metrics.registerGauge("mdde_lane_queue_size", labels, () -> pool.getQueue().size());
+            metrics.registerGauge("mdde_lane_active_threads", labels, pool::getActiveCount);
+        }
+    }
+
+    /**
+     * Stop accepting new statements and wait for the already scheduled ones to finish
+     * @param timeout Maximum time to wait per lane.
+     * @param unit Time unit of the timeout.
+     */
+    public void shutdown(long timeout, TimeUnit unit){
+        _lanes.values().forEach(ThreadPoolExecutor::shutdown);
+        for(var lane: _lanes.entrySet()){
+            try {
+                if(!lane.getValue().awaitTermination(timeout, unit)){
+                    logger.warn("Lane {} didn't finish the scheduled statements in time", lane.getKey());
+                    lane.getValue().shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                lane.getValue().shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package dev.jcri.mdde.registry.server.tcp;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dev.jcri.mdde.registry.control.serialization.StreamedResponse;
 import dev.jcri.mdde.registry.server.CommandProcessor;
+import dev.jcri.mdde.registry.server.events.RegistryEventHub;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -22,17 +25,17 @@ public class CommandProcessorSingleton {
         return LazyHolder._instance;
     }
 
-    private CommandProcessor<String, String, String> _commandProcessor = null;
+    private CommandProcessor<String, String, StreamedResponse> _commandProcessor = null;
 
     /**
-     * Assign a command processor that accepts strings passed from the TCP server and returns strings as well
-     * that will be passed back through the TCP.
+     * Assign a command processor that accepts strings passed from the TCP server and returns responses that are
+     * encoded straight into the TCP output buffers.
      *
      * Initialization is only possible once after the application was started.
      * Any concurrency, if and when allowed, must be handled by the CommandProcessor itself.
-     * @param processor CommandProcessor<String, String, String>
+     * @param processor CommandProcessor<String, String, StreamedResponse>
      */
-    public synchronized void initializeCommandProcessor(CommandProcessor<String, String, String> processor){
+    public synchronized void initializeCommandProcessor(CommandProcessor<String, String, StreamedResponse> processor){
         Objects.requireNonNull(processor, "CommandProcessor instance can't be set to null");
         if(_commandProcessor != null){
             throw new IllegalStateException("CommandProcessorSingleton was already initialized and can't be re-initialized");
@@ -46,7 +49,80 @@ public class CommandProcessorSingleton {
      * Get the instance of the CommandProcessor that was passed to the initializer method
      * @return CommandProcessor instance or the null if CommandProcessorSingleton was not initialized
      */
-    public CommandProcessor<String, String, String> getCommandProcessor(){
+    public CommandProcessor<String, String, StreamedResponse> getCommandProcessor(){
         return _commandProcessor;
     }
+
+    private CommandProcessor<byte[], TokenBuffer, StreamedResponse> _binaryCommandProcessor = null;
+
+    /**
+     * Assign a command processor that accepts binary (CBOR) statements and returns CBOR responses. Clients choose
+     * the encoding per statement, the response is always returned in the encoding of the statement.
+     *
+     * Initialization is only possible once after the application was started.
+     * @param processor CommandProcessor<byte[], TokenBuffer, StreamedResponse>
+     */
+    public synchronized void initializeBinaryCommandProcessor(CommandProcessor<byte[], TokenBuffer, StreamedResponse> processor){
+        Objects.requireNonNull(processor, "CommandProcessor instance can't be set to null");
+        if(_binaryCommandProcessor != null){
+            throw new IllegalStateException("Binary command processor was already initialized and can't be re-initialized");
+        }
+        _binaryCommandProcessor = processor;
+    }
+
+    /**
+     * Get the instance of the binary CommandProcessor
+     * @return CommandProcessor instance or the null if the binary protocol was not initialized
+     */
+    public CommandProcessor<byte[], TokenBuffer, StreamedResponse> getBinaryCommandProcessor(){
+        return _binaryCommandProcessor;
+    }
+
+    private CommandLaneExecutor _executor = null;
+
+    /**
+     * Assign the executor used to run the statements outside of the network I/O threads.
+     *
+     * Initialization is only possible once after the application was started.
+     * @param executor Lane executor.
+     */
+    public synchronized void initializeExecutor(CommandLaneExecutor executor){
+        Objects.requireNonNull(executor, "CommandLaneExecutor instance can't be set to null");
+        if(_executor != null){
+            throw new IllegalStateException("Command executor was already initialized and can't be re-initialized");
+        }
+        _executor = executor;
+    }
+
+    /**
+     * Get the statements executor
+     * @return CommandLaneExecutor instance or null if the statements must be executed on the I/O threads
+     */
+    public CommandLaneExecutor getExecutor(){
+        return _executor;
+    }
+
+    private RegistryEventHub _eventHub = null;
+
+    /**
+     * Assign the source of the registry events pushed to the subscribed connections.
+     *
+     * Initialization is only possible once after the application was started.
+     * @param eventHub Event hub subscribed to the registry handlers.
+     */
+    public synchronized void initializeEventHub(RegistryEventHub eventHub){
+        Objects.requireNonNull(eventHub, "RegistryEventHub instance can't be set to null");
+        if(_eventHub != null){
+            throw new IllegalStateException("Event hub was already initialized and can't be re-initialized");
+        }
+        _eventHub = eventHub;
+    }
+
+    /**
+     * Get the registry events source
+     * @return RegistryEventHub instance or null if the events are not available
+     */
+    public RegistryEventHub getEventHub(){
+        return _eventHub;
+    }
 }
@@ -1,5 +1,6 @@
 package dev.jcri.mdde.registry.server.tcp;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import dev.jcri.mdde.registry.benchmark.BenchmarkRunner;
 import dev.jcri.mdde.registry.benchmark.cluster.InMemoryTupleLocatorFactory;
 import dev.jcri.mdde.registry.benchmark.ycsb.YCSBRunner;
@@ -9,17 +10,30 @@ import dev.jcri.mdde.registry.configuration.RegistryConfig;
 import dev.jcri.mdde.registry.configuration.benchmark.YCSBConfig;
 import dev.jcri.mdde.registry.configuration.reader.ConfigReaderYamlAllRedis;
 import dev.jcri.mdde.registry.configuration.redis.RegistryStoreConfigRedis;
+import dev.jcri.mdde.registry.configuration.shuffle.ShuffleConfig;
 import dev.jcri.mdde.registry.control.ICommandParser;
 import dev.jcri.mdde.registry.control.ICommandPreProcessor;
+import dev.jcri.mdde.registry.control.command.StreamedCommandBatchCodec;
+import dev.jcri.mdde.registry.control.command.cbor.CborCommandBatchCodec;
+import dev.jcri.mdde.registry.control.command.cbor.CborCommandPreProcessor;
+import dev.jcri.mdde.registry.control.command.cbor.CborControlCommandParser;
+import dev.jcri.mdde.registry.control.command.cbor.CborReadCommandParser;
+import dev.jcri.mdde.registry.control.command.cbor.CborWriteCommandParser;
+import dev.jcri.mdde.registry.control.command.json.JsonCommandBatchCodec;
 import dev.jcri.mdde.registry.control.command.json.JsonCommandPreProcessor;
 import dev.jcri.mdde.registry.control.command.json.JsonControlCommandParser;
 import dev.jcri.mdde.registry.control.command.json.JsonReadCommandParser;
 import dev.jcri.mdde.registry.control.command.json.JsonWriteCommandParser;
-import dev.jcri.mdde.registry.control.serialization.ResponseSerializerBase;
-import dev.jcri.mdde.registry.control.serialization.ResponseSerializerJson;
+import dev.jcri.mdde.registry.control.command.json.SharedJsonMapper;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerStreamed;
+import dev.jcri.mdde.registry.control.serialization.StreamedResponse;
 import dev.jcri.mdde.registry.data.IDataShuffler;
 import dev.jcri.mdde.registry.data.impl.redis.RedisDataShuffler;
+import dev.jcri.mdde.registry.data.impl.virtual.VirtualDataShuffler;
+import dev.jcri.mdde.registry.metrics.MetricsFileWriter;
+import dev.jcri.mdde.registry.metrics.RegistryMetrics;
 import dev.jcri.mdde.registry.server.CommandProcessor;
+import dev.jcri.mdde.registry.server.events.RegistryEventHub;
 import dev.jcri.mdde.registry.server.responders.ReadCommandResponder;
 import dev.jcri.mdde.registry.server.responders.WriteCommandResponder;
 import dev.jcri.mdde.registry.shared.commands.EReadCommand;
@@ -30,6 +44,7 @@ import dev.jcri.mdde.registry.store.IReadCommandHandler;
 import dev.jcri.mdde.registry.store.IStoreManager;
 import dev.jcri.mdde.registry.store.IWriteCommandHandler;
 import dev.jcri.mdde.registry.store.RegistryStateCommandHandler;
+import dev.jcri.mdde.registry.store.exceptions.ReadOperationException;
 import dev.jcri.mdde.registry.store.impl.redis.ReadCommandHandlerRedis;
 import dev.jcri.mdde.registry.store.impl.redis.RedisConnectionHelper;
 import dev.jcri.mdde.registry.store.impl.redis.RedisStoreManager;
@@ -49,11 +64,23 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 
 public class Main {
     private static final Logger logger = LogManager.getLogger(Main.class);
     private static Listener _listener;
+    private static MetricsFileWriter _metricsWriter;
+    private static RegistryStateCommandHandler _stateCommandHandler;
+    private static BenchmarkRunner _benchmarkRunner;
+    /**
+     * Interval between the metrics file dumps (seconds)
+     */
+    private static final long METRICS_DUMP_PERIOD = 15;
+    /**
+     * File name of the persisted benchmark trace in the snapshots directory
+     */
+    private static final String BENCHMARK_TRACE_FILE = "mdde-benchmark-trace.bin";
 
     /**
      * Main entry point
@@ -61,6 +88,8 @@ public class Main {
      *             -p port on which this TCP server should be listening for control API commands.
      *             -b port on which this TCP server should be listening for benchmark commands.
      *             -c path to the appropriate MDDE configuration YAML.
+     *             -m (optional) path to the file where the metrics are periodically dumped in the Prometheus text
+     *             format.
      */
     public static void main(String[] args){
         AppParams parsedArgs = null;
@@ -94,12 +123,18 @@ public class Main {
                                         mddeConfig.getBenchmarkYcsb(),
                                         mddeConfig.getDataNodes(),
                                         connectionProperties,
-                                        mddeConfig.getSnapshotsDir());
+                                        mddeConfig.getSnapshotsDir(),
+                                        mddeConfig.getShuffle() != null ? mddeConfig.getShuffle() : new ShuffleConfig());
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
             System.err.println(e.getMessage());
             System.exit(1);
         }
+        if(parsedArgs.getPathToMetricsFile() != null){
+            _metricsWriter = new MetricsFileWriter(RegistryMetrics.getDefaultInstance(),
+                                                   Paths.get(parsedArgs.getPathToMetricsFile()),
+                                                   METRICS_DUMP_PERIOD);
+        }
 
         // Hook attempting to properly shut down the TCP listener on shutdown
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -108,6 +143,19 @@ public class Main {
                     _listener.stop();
                     logger.info("Stopped the listener.");
                 }
+                var executor = CommandProcessorSingleton.getDefaultInstance().getExecutor();
+                if(executor != null){
+                    executor.shutdown(30, TimeUnit.SECONDS);
+                }
+                if(_stateCommandHandler != null){
+                    _stateCommandHandler.close(30, TimeUnit.SECONDS);
+                }
+                if(_benchmarkRunner != null){
+                    _benchmarkRunner.close();
+                }
+                if(_metricsWriter != null){
+                    _metricsWriter.close();
+                }
             } catch (Exception ex) {
                 logger.error(ex.getMessage(), ex);
             }
@@ -133,10 +181,13 @@ public class Main {
                                                    YCSBConfig ycsbConfig,
                                                    List<DBNetworkNodesConfiguration> nodes,
                                                    Map<String, String> connectionProperties,
-                                                   String snapshotsDir)
+                                                   String snapshotsDir,
+                                                   ShuffleConfig shuffleConfig)
             throws IOException {
+        var metrics = RegistryMetrics.getDefaultInstance();
         // Configure redis registry store
         var redisConnection = new RedisConnectionHelper(mddeStoreConfig);
+        redisConnection.registerMetrics(metrics, "registry");
         // Handle read commands
         IReadCommandHandler readCommandHandler = new ReadCommandHandlerRedis(redisConnection);
         // Initialize benchmark service
@@ -145,16 +196,57 @@ public class Main {
         var statsTempFolder = Paths.get(ycsbConfig.getTemp(), "stats").toString();
         IStatsCollectorFactory statsCollectorFactory =
                 new LocalClientStatsCSVCollectorFactory(statsTempFolder, readCommandHandler);
+        // With the virtual data plane, the benchmark clients reach the canonical node under the IDs of all nodes
+        final var dataPlane = shuffleConfig.getDataPlane() != null
+                ? shuffleConfig.getDataPlane() : ShuffleConfig.DATA_PLANE_PHYSICAL;
+        final boolean isVirtualDataPlane;
+        switch (dataPlane){
+            case ShuffleConfig.DATA_PLANE_PHYSICAL:
+                isVirtualDataPlane = false;
+                break;
+            case ShuffleConfig.DATA_PLANE_VIRTUAL:
+                isVirtualDataPlane = true;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown data plane: %s", dataPlane));
+        }
+        var benchmarkNodes = isVirtualDataPlane
+                ? VirtualDataShuffler.mapToCanonical(nodes, shuffleConfig.getCanonicalNode())
+                : nodes;
         // Configure benchmark runner
-        YCSBRunner ycsbRunner = new YCSBRunner(ycsbConfig, nodes, connectionProperties, statsCollectorFactory);
-        BenchmarkRunner benchmarkRunner = new BenchmarkRunner(tupleLocatorFactory, readCommandHandler, ycsbRunner);
+        YCSBRunner ycsbRunner = new YCSBRunner(ycsbConfig, benchmarkNodes, connectionProperties,
+                statsCollectorFactory);
+        // The latest captured benchmark trace is kept next to the snapshots to be replayable after a restart
+        var benchmarkTraceFile = snapshotsDir != null ? Paths.get(snapshotsDir, BENCHMARK_TRACE_FILE) : null;
+        BenchmarkRunner benchmarkRunner = new BenchmarkRunner(tupleLocatorFactory, readCommandHandler, ycsbRunner,
+                benchmarkTraceFile, dataPlane);
+        _benchmarkRunner = benchmarkRunner;
         // Initialize write command handler
         IWriteCommandHandler writeCommandHandler = new WriteCommandHandlerRedis(redisConnection, readCommandHandler);
         // General registry store management
-        IStoreManager storeManager = new RedisStoreManager(new RedisConnectionHelper(mddeStoreConfig));
+        var storeManagerConnection = new RedisConnectionHelper(mddeStoreConfig);
+        storeManagerConnection.registerMetrics(metrics, "manager");
+        IStoreManager storeManager = new RedisStoreManager(storeManagerConnection);
         // Data nodes shuffle control
-        IDataShuffler dataShuffler = new RedisDataShuffler(nodes);
-        IDataShuffleQueue dataShuffleQueue = new DataShuffleQueueRedis(new RedisConnectionHelper(mddeStoreConfig));
+        IDataShuffler dataShuffler;
+        if(isVirtualDataPlane){
+            var canonicalNode = VirtualDataShuffler.getCanonicalNode(nodes, shuffleConfig.getCanonicalNode());
+            logger.info("Virtual data plane, records are stored in the node {}", canonicalNode.getNodeId());
+            dataShuffler = new VirtualDataShuffler(new RedisDataShuffler(List.of(canonicalNode), shuffleConfig));
+        }
+        else {
+            dataShuffler = new RedisDataShuffler(nodes, shuffleConfig);
+        }
+        var shuffleQueueConnection = new RedisConnectionHelper(mddeStoreConfig);
+        shuffleQueueConnection.registerMetrics(metrics, "queue");
+        // Queued fragment copies are resolved against the registry when the queue is executed
+        IDataShuffleQueue dataShuffleQueue = new DataShuffleQueueRedis(shuffleQueueConnection, fragmentId -> {
+            try {
+                return readCommandHandler.getFragmentTuples(fragmentId);
+            } catch (ReadOperationException e) {
+                return null;
+            }
+        });
         // Initialize state command handler
         RegistryStateCommandHandler stateCommandHandler =
                 new RegistryStateCommandHandler(writeCommandHandler,
@@ -163,7 +255,15 @@ public class Main {
                                                     dataShuffleQueue,
                                                     benchmarkRunner,
                                                     nodes,
-                                                    snapshotsDir);
+                                                    snapshotsDir,
+                                                    shuffleConfig);
+        _stateCommandHandler = stateCommandHandler;
+        // Registry change events for the subscribed clients
+        RegistryEventHub eventHub = new RegistryEventHub();
+        stateCommandHandler.addAllocationChangeListener(eventHub);
+        writeCommandHandler.addMetaChangeListener(eventHub);
+        benchmarkRunner.addStageListener(eventHub);
+        metrics.registerGauge("mdde_event_subscriptions", null, eventHub::getSubscriptionsCount);
 
         // Command responders
         WriteCommandResponder writeCommandResponder = new WriteCommandResponder(writeCommandHandler,
@@ -171,23 +271,43 @@ public class Main {
                                                                                 dataShuffleQueue);
         ReadCommandResponder readCommandResponder = new ReadCommandResponder(readCommandHandler);
 
-        // Commands parsers
-        ResponseSerializerBase<String> responseSerializer = new ResponseSerializerJson();
-        ICommandParser<String, EReadCommand, String> readCommandParser =
+        // Commands parsers. Responses are encoded by the TCP handler directly into the output buffers
+        var responseSerializer = new ResponseSerializerStreamed(SharedJsonMapper.getMapper());
+        ICommandParser<StreamedResponse, EReadCommand, String> readCommandParser =
                 new JsonReadCommandParser<>(readCommandResponder, responseSerializer);
-        ICommandParser<String, EWriteCommand, String> writeCommandParser =
+        ICommandParser<StreamedResponse, EWriteCommand, String> writeCommandParser =
                 new JsonWriteCommandParser<>(writeCommandResponder, responseSerializer);
-        ICommandParser<String, EStateControlCommand, String> stateControlCommandParser =
+        ICommandParser<StreamedResponse, EStateControlCommand, String> stateControlCommandParser =
                 new JsonControlCommandParser<>(stateCommandHandler, responseSerializer);
         ICommandPreProcessor<String, String> commandPreProcessor = new JsonCommandPreProcessor();
         // Incoming statements processor
-        var commandProcessor = new CommandProcessor<String, String, String>(commandPreProcessor,
-                                                                            stateControlCommandParser,
-                                                                            readCommandParser,
-                                                                            writeCommandParser,
-                                                                            responseSerializer);
+        var commandProcessor = new CommandProcessor<String, String, StreamedResponse>(commandPreProcessor,
+                stateControlCommandParser,
+                readCommandParser,
+                writeCommandParser,
+                responseSerializer,
+                new StreamedCommandBatchCodec<>(new JsonCommandBatchCodec(), responseSerializer),
+                stateCommandHandler.getStatementLock(),
+                writeCommandResponder);
+        // Binary (CBOR) statements are processed by the same handlers, sharing the statement lock
+        var binaryResponseSerializer = new ResponseSerializerStreamed(SharedJsonMapper.getCborMapper());
+        var binaryCommandProcessor = new CommandProcessor<byte[], TokenBuffer, StreamedResponse>(
+                new CborCommandPreProcessor(),
+                new CborControlCommandParser<>(stateCommandHandler, binaryResponseSerializer),
+                new CborReadCommandParser<>(readCommandResponder, binaryResponseSerializer),
+                new CborWriteCommandParser<>(writeCommandResponder, binaryResponseSerializer),
+                binaryResponseSerializer,
+                new StreamedCommandBatchCodec<>(new CborCommandBatchCodec(), binaryResponseSerializer),
+                stateCommandHandler.getStatementLock(),
+                writeCommandResponder);
         // Place common query command processor into singleton for TCP commands access
         CommandProcessorSingleton.getDefaultInstance().initializeCommandProcessor(commandProcessor);
+        CommandProcessorSingleton.getDefaultInstance().initializeBinaryCommandProcessor(binaryCommandProcessor);
+        // Execute the statements outside of the network I/O threads
+        var executor = new CommandLaneExecutor();
+        executor.registerMetrics(metrics);
+        CommandProcessorSingleton.getDefaultInstance().initializeExecutor(executor);
+        CommandProcessorSingleton.getDefaultInstance().initializeEventHub(eventHub);
         // Place benchmark runner into singleton for TCP commands access
         BenchmarkRunnerSingleton.getDefaultInstance().initializeBenchmarkRunner(benchmarkRunner);
     }
@@ -201,6 +321,7 @@ public class Main {
         final String portTag = "-p";
         final String configPathTag = "-c";
         final String portBenchmarkTag = "-b";
+        final String metricsPathTag = "-m";
 
         if(args.length < 6){
             throw new IllegalArgumentException(
@@ -230,8 +351,13 @@ public class Main {
         portBenchmark = Integer.parseInt(portBenchmarkStr);
         // Get path to the config
         var configPathString =getArgParam(argsMap, configPathTag);
+        // Optional metrics dump file
+        var metricsPathString = argsMap.get(metricsPathTag);
+        if(metricsPathString != null && metricsPathString.isBlank()){
+            metricsPathString = null;
+        }
 
-        return new AppParams(configPathString, port, portBenchmark);
+        return new AppParams(configPathString, port, portBenchmark, metricsPathString);
     }
 
     private static String getArgParam(Map<String, String> argsMap, String tag){
@@ -249,8 +375,9 @@ public class Main {
         private final String _pathToConfigFile;
         private final int _tcpPort;
         private final int tcpBenchmarkPort;
+        private final String _pathToMetricsFile;
 
-        private AppParams(String pathToConfigFile, int tcpPort, int tcpBenchmarkPort) {
+        private AppParams(String pathToConfigFile, int tcpPort, int tcpBenchmarkPort, String pathToMetricsFile) {
             Objects.requireNonNull(pathToConfigFile, "Path to MDDE Registry config can't be null.");
             if(tcpBenchmarkPort < 1){
                 throw new IllegalArgumentException(String.format("Illegal benchmark handler TCP port: %d.", tcpBenchmarkPort));
@@ -265,6 +392,7 @@ public class Main {
             this._pathToConfigFile = pathToConfigFile;
             this._tcpPort = tcpPort;
             this.tcpBenchmarkPort = tcpBenchmarkPort;
+            this._pathToMetricsFile = pathToMetricsFile;
         }
 
         /**
@@ -290,5 +418,13 @@ public class Main {
         public int getTcpBenchmarkPort() {
             return tcpBenchmarkPort;
         }
+
+        /**
+         * Path to the metrics dump file.
+         * @return Path or null if the metrics are not dumped.
+         */
+        public String getPathToMetricsFile() {
+            return _pathToMetricsFile;
+        }
     }
 }
@@ -6,7 +6,6 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
-import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
 import io.netty.util.CharsetUtil;
 
@@ -30,12 +29,15 @@ public class TCPPipelineInitializer extends ChannelInitializer<SocketChannel> {
         //------------------
         // [4 bytes] n - size of the payload in bytes
         //------------------
-        // [n bytes] payload, JSON string encoded as UTF-8
+        // [n bytes] payload, JSON string encoded as UTF-8 or a CBOR map (binary protocol). The response is
+        //           encoded the same way as the statement it answers.
+        //           Optionally the payload starts with a request ID header: [1 byte] 0x00, [4 bytes] request ID.
+        //           Such statements may be pipelined, the response carries the same header and may arrive out of
+        //           order. Statements without the header are answered in order.
         //------------------
         socketChannel.pipeline().addLast(new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, 4, 0, 4));
         socketChannel.pipeline().addLast(new LengthFieldPrepender(ByteOrder.BIG_ENDIAN, 4,0, false));
         socketChannel.pipeline().addLast(new StringEncoder(CharsetUtil.UTF_8));
-        socketChannel.pipeline().addLast(new StringDecoder(CharsetUtil.UTF_8));
         if(_isEchoServer)
         {
             socketChannel.pipeline().addLast(new EchoReaderHandler());
@@ -1,13 +1,16 @@
 package dev.jcri.mdde.registry.server.tcp.handler;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+
 /**
  * Echo the received payload back to the server.
  * For the server testing purposes.
  */
 public class EchoReaderHandler extends MddeCommandReaderHandler {
     @Override
-    protected String processCommand(String command) {
-        logger.trace("Echo back length: {}", command.length());
-        return command;
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        logger.trace("Echo back length: {}", ((ByteBuf) msg).readableBytes());
+        ctx.writeAndFlush(msg);
     }
 }
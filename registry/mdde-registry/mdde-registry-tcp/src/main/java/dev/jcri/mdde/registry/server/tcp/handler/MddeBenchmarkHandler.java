@@ -1,6 +1,7 @@
 package dev.jcri.mdde.registry.server.tcp.handler;
 
 import dev.jcri.mdde.registry.clinet.tcp.benchmark.commands.CommandArgsConverter;
+import dev.jcri.mdde.registry.metrics.RegistryMetrics;
 import dev.jcri.mdde.registry.server.tcp.BenchmarkRunnerSingleton;
 import dev.jcri.mdde.registry.server.tcp.protocol.BenchmarkContainerIn;
 import dev.jcri.mdde.registry.server.tcp.protocol.BenchmarkContainerOut;
@@ -56,6 +57,8 @@ public class MddeBenchmarkHandler extends ChannelInboundHandlerAdapter {
      */
     protected BenchmarkContainerOut processCommand(BenchmarkContainerIn command){
         var commandTag = command.getOperation();
+        final long start = System.nanoTime();
+        final long storeAccessesStart = RegistryMetrics.getStoreAccessCount();
         try {
             logger.trace("Benchmark command is executed in thread: {}.", Thread.currentThread().getId());
             var runner = BenchmarkRunnerSingleton.getDefaultInstance().getRunner();
@@ -88,6 +91,12 @@ public class MddeBenchmarkHandler extends ChannelInboundHandlerAdapter {
             logger.error("processCommand error", e);
             return new BenchmarkContainerOut(BenchmarkResultCodes.ERROR, null);
         }
+        finally {
+            if(commandTag != null){
+                RegistryMetrics.getDefaultInstance().recordCommand(RegistryMetrics.TYPE_BENCHMARK, commandTag.name(),
+                        System.nanoTime() - start, RegistryMetrics.getStoreAccessCount() - storeAccessesStart);
+            }
+        }
     }
 
     @Override
@@ -1,78 +1,400 @@
 package dev.jcri.mdde.registry.server.tcp.handler;
 
+import dev.jcri.mdde.registry.control.command.CommandComponents;
+import dev.jcri.mdde.registry.control.command.cbor.CborCommandPreProcessor;
+import dev.jcri.mdde.registry.control.command.json.SharedJsonMapper;
+import dev.jcri.mdde.registry.control.exceptions.MalformedCommandStatementException;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerStreamed;
+import dev.jcri.mdde.registry.control.serialization.StreamedResponse;
+import dev.jcri.mdde.registry.server.CommandProcessor;
+import dev.jcri.mdde.registry.server.ECommandLane;
+import dev.jcri.mdde.registry.server.events.RegistryEventHub;
+import dev.jcri.mdde.registry.server.events.RegistryEventSubscription;
+import dev.jcri.mdde.registry.shared.commands.EStateControlCommand;
+import dev.jcri.mdde.registry.server.tcp.CommandLaneExecutor;
 import dev.jcri.mdde.registry.server.tcp.CommandProcessorSingleton;
+import dev.jcri.mdde.registry.server.tcp.Constants;
+import dev.jcri.mdde.registry.server.tcp.pipeline.ResponseCompressor;
+import dev.jcri.mdde.registry.server.tcp.protocol.ResponseCodings;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.MessageFormat;
-import java.util.Optional;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Handler for the MDDE control API calls.
+ * Statements are either UTF-8 JSON strings or CBOR maps, the encoding is detected per statement from its first byte.
+ *
+ * A statement may be prefixed with a request ID header (see {@link Constants#CONTROL_REQUEST_ID_MARKER}). Such
+ * statements can be pipelined, they are executed concurrently in their lanes and their responses carry the same header
+ * and are sent as soon as they are ready, possibly out of order. Statements without the header are executed one at a
+ * time in the order of arrival (each in its own lane) and their responses are sent in the same order.
+ *
+ * Statements are executed by the {@link CommandLaneExecutor} if one is
+ * initialized, otherwise on the I/O thread. Statements that can't be scheduled because the lane or the connection
+ * queue is full are answered with an error. Responses are encoded directly into pooled buffers of the channel.
+ *
+ * A connection options payload (see {@link Constants#CONTROL_OPTIONS_MARKER}) negotiates compression of the
+ * responses exceeding the {@link #getCompressionThreshold()}. The coding applies to the responses of the statements
+ * received after the options payload, and to the events pushed after the confirmation of the coding was written.
+ *
+ * SUBSCRIBE subscribes the connection to the registry change events, which are then pushed in batches (see
+ * {@link Constants#CONTROL_EVENTS_MARKER}) independently of the responses. Events are pulled from the subscription
+ * only while the channel is writable, a subscriber that doesn't read them eventually receives an overflow event
+ * instead of the dropped ones.
  */
 public class MddeCommandReaderHandler extends ChannelInboundHandlerAdapter {
     protected static final Logger logger = LogManager.getLogger(MddeCommandReaderHandler.class);
+    /**
+     * Default maximum number of the registry events pushed in a single payload
+     */
+    public static final int DEFAULT_EVENTS_BATCH_SIZE = 256;
+
+    private static final ResponseSerializerStreamed _jsonEventsSerializer =
+            new ResponseSerializerStreamed(SharedJsonMapper.getMapper());
+    private static final ResponseSerializerStreamed _cborEventsSerializer =
+            new ResponseSerializerStreamed(SharedJsonMapper.getCborMapper());
+
+    /**
+     * Sequence number assigned to the next received statement without a request ID
+     */
+    private long _nextUntaggedReceived = 0;
+    /**
+     * Sequence number of the next statement without a request ID that must be answered
+     */
+    private long _nextUntaggedResponse = 0;
+    /**
+     * Ready responses to the statements without a request ID waiting for the preceding ones to be answered.
+     * Accessed only from the channel event loop.
+     */
+    private final Map<Long, ByteBuf> _pendingUntaggedResponses = new HashMap<>();
+    /**
+     * Actions executed once the response with the sequence number is written. Accessed only from the channel event
+     * loop.
+     */
+    private final Map<Long, Runnable> _onUntaggedWritten = new HashMap<>();
+    /**
+     * Serializes execution of the statements without a request ID
+     */
+    private final UntaggedStatementChain _untaggedChain = new UntaggedStatementChain();
+    /**
+     * Compression of the responses to the statements received from now on, set by the connection options statement.
+     * Every statement captures the value when it's received. Accessed only from the channel event loop.
+     */
+    private ResponseCompressor _compressor = new ResponseCompressor(ResponseCodings.NONE, 0);
+    /**
+     * Compression of the pushed events, switched when the confirmation of the negotiated coding is written.
+     * Accessed only from the channel event loop.
+     */
+    private ResponseCompressor _eventsCompressor = _compressor;
+    /**
+     * Registry events subscription of the connection, null if not subscribed. Accessed only from the channel event loop.
+     */
+    private RegistryEventSubscription _subscription = null;
+    /**
+     * Serializer of the pushed events, matches the encoding of the SUBSCRIBE statement
+     */
+    private ResponseSerializerStreamed _subscriptionSerializer = null;
 
-    private String _lastReceivedMessage = null;
     public MddeCommandReaderHandler(){
         super();
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        byte[] received;
         try {
-            String received = (String) msg;
-            _lastReceivedMessage = received;
-            if(logger.isDebugEnabled()){
-                var receivedLength = received.length();
-                var msgDbg = MessageFormat.format("Channel read: {0}; string payload length: {1};",
-                        ctx.channel().remoteAddress(), receivedLength);
-                logger.trace(msgDbg);
-            }
+            received = ByteBufUtil.getBytes((ByteBuf) msg);
         }
         finally {
             ReferenceCountUtil.release(msg);
         }
+
+        Integer requestId = null;
+        int offset = 0;
+        if(received.length >= Constants.CONTROL_REQUEST_ID_HEADER_LENGTH
+                && received[0] == Constants.CONTROL_REQUEST_ID_MARKER){
+            requestId = ((received[1] & 0xff) << 24) | ((received[2] & 0xff) << 16)
+                    | ((received[3] & 0xff) << 8) | (received[4] & 0xff);
+            offset = Constants.CONTROL_REQUEST_ID_HEADER_LENGTH;
+        }
+        var length = received.length - offset;
+        if(requestId == null && length == 2 && received[0] == Constants.CONTROL_OPTIONS_MARKER){
+            negotiate(ctx, received[1]);
+            return;
+        }
+        var isBinary = CborCommandPreProcessor.isCborStatement(received, offset, length);
+        if(logger.isTraceEnabled()){
+            var msgDbg = MessageFormat.format("Channel read: {0}; payload length: {1}; binary: {2}; request: {3};",
+                    ctx.channel().remoteAddress(), length, isBinary, requestId);
+            logger.trace(msgDbg);
+        }
+
+        final Responder responder = requestId != null
+                ? new TaggedResponder(ctx, requestId)
+                : new UntaggedResponder(ctx, _nextUntaggedReceived++);
+        final boolean isOrdered = requestId == null;
+        if(isBinary){
+            var statement = offset == 0 ? received : Arrays.copyOfRange(received, offset, received.length);
+            dispatch(ctx, getBinaryProcessor(), statement, responder, isOrdered, _compressor, _cborEventsSerializer);
+        }
+        else {
+            var statement = new String(received, offset, length, CharsetUtil.UTF_8);
+            dispatch(ctx, getProcessor(), statement, responder, isOrdered, _compressor, _jsonEventsSerializer);
+        }
     }
 
-    @Override
-    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+    /**
+     * Select the response compression out of the codings offered by the client and confirm the selection.
+     * The confirmation is ordered with the responses to the statements without a request ID. Responses to the
+     * statements received before the options payload keep the previous coding.
+     * @param ctx Channel context.
+     * @param offeredMask Bit mask of the codings accepted by the client.
+     */
+    private void negotiate(ChannelHandlerContext ctx, byte offeredMask){
+        var coding = ResponseCompressor.select(offeredMask & 0xff);
+        final var compressor = new ResponseCompressor(coding, getCompressionThreshold());
+        _compressor = compressor;
+        logger.debug("Channel {} response coding: {}", ctx.channel().remoteAddress(), coding);
+        var confirmation = ctx.alloc().buffer(2);
+        confirmation.writeByte(Constants.CONTROL_OPTIONS_MARKER);
+        confirmation.writeByte(coding.value());
+        new UntaggedResponder(ctx, _nextUntaggedReceived++, () -> _eventsCompressor = compressor)
+                .respond(confirmation);
+    }
+
+    /**
+     * Encode the response straight into a pooled buffer of the channel and compress it if negotiated.
+     * @param ctx Channel context.
+     * @param processor Processor that produced the response, used to report an encoding error.
+     * @param response Response.
+     * @param compressor Compression negotiated when the statement was received.
+     * @return Response payload.
+     */
+    private ByteBuf encode(ChannelHandlerContext ctx, CommandProcessor<?, ?, StreamedResponse> processor,
+                           StreamedResponse response, ResponseCompressor compressor){
+        var payload = ctx.alloc().buffer();
         try {
-            if(logger.isTraceEnabled()){
-                if (_lastReceivedMessage != null && !_lastReceivedMessage.isEmpty()) {
-                    logger.trace("Channel read complete: {}; Length: {}",
-                            ctx.channel().remoteAddress(), _lastReceivedMessage.length());
-                } else {
-                    logger.trace("Channel read complete: {}; Empty message.",
-                            ctx.channel().remoteAddress());
-                }
+            response.writeTo(new ByteBufOutputStream(payload));
+        } catch (IOException e) {
+            logger.error("Unable to encode the response", e);
+            payload.clear();
+            try {
+                processor.serializeException(e).writeTo(new ByteBufOutputStream(payload));
+            } catch (IOException fatal) {
+                payload.release();
+                throw new UncheckedIOException(fatal);
+            }
+        } catch (RuntimeException e) {
+            payload.release();
+            throw e;
+        }
+        return compressor.compress(ctx.alloc(), payload);
+    }
+
+    /**
+     * Split the statement on the I/O thread and execute it in the lane matching its keyword.
+     * @param ctx Channel context.
+     * @param processor Command processor of the statement encoding.
+     * @param statement Statement.
+     * @param responder Response writer.
+     * @param isOrdered True - the statement is executed after the preceding ordered statements of the connection.
+     * @param compressor Compression of the response negotiated when the statement was received.
+     * @param eventsSerializer Serializer of the registry events in the encoding of the statement.
+     */
+    private <TIn, TArgs> void dispatch(ChannelHandlerContext ctx,
+                                       CommandProcessor<TIn, TArgs, StreamedResponse> processor,
+                                       TIn statement,
+                                       Responder responder,
+                                       boolean isOrdered,
+                                       ResponseCompressor compressor,
+                                       ResponseSerializerStreamed eventsSerializer){
+        CommandComponents<TArgs> components;
+        try {
+            components = processor.splitIncomingStatement(statement);
+        } catch (Exception e) {
+            responder.respond(encode(ctx, processor, processor.serializeException(e), compressor));
+            return;
+        }
+        var controlCommand = components.tryGetIsStateControlCommandKeyword();
+        if(controlCommand == EStateControlCommand.SUBSCRIBE){
+            responder.respond(encode(ctx, processor, subscribe(ctx, eventsSerializer), compressor));
+            return;
+        }
+        if(controlCommand == EStateControlCommand.UNSUBSCRIBE){
+            unsubscribe();
+            responder.respond(encode(ctx, processor, eventsSerializer.serialize(true), compressor));
+            return;
+        }
+        var executor = getExecutor();
+        if(executor == null){
+            responder.respond(encode(ctx, processor, processor.processIncomingStatement(components), compressor));
+            return;
+        }
+        var scheduled = new ScheduledStatement(ECommandLane.of(components), () -> {
+            StreamedResponse response;
+            try {
+                response = processor.processIncomingStatement(components);
             }
-            if (_lastReceivedMessage != null) {
-                var response = processCommand(_lastReceivedMessage);
-                ctx.write(response);
+            catch (Exception ex){
+                logger.error(ex.getMessage(), ex);
+                response = processor.serializeException(ex);
             }
-            ctx.flush();
+            responder.respond(encode(ctx, processor, response, compressor));
+        }, ex -> {
+            logger.warn("Statement {} was rejected: {}", components.getKeyword(), ex.getMessage());
+            responder.respond(encode(ctx, processor, processor.serializeException(ex), compressor));
+        });
+        if(isOrdered){
+            _untaggedChain.add(executor, scheduled);
         }
-        catch (Exception ex){
-            logger.error(ex.getMessage(), ex);
+        else {
+            scheduled.submit(executor, scheduled.task);
         }
-        finally {
-            _lastReceivedMessage = null;
-            super.channelReadComplete(ctx);
+    }
+
+    /**
+     * Subscribe the connection to the registry events. Repeated SUBSCRIBE keeps the subscription and switches the
+     * encoding of the events to the one of the latest statement.
+     * @param ctx Channel context.
+     * @param eventsSerializer Serializer of the events.
+     * @return Response to SUBSCRIBE.
+     */
+    private StreamedResponse subscribe(ChannelHandlerContext ctx, ResponseSerializerStreamed eventsSerializer){
+        var hub = getEventHub();
+        if(hub == null){
+            return eventsSerializer.serializeException(
+                    new MalformedCommandStatementException("Registry events are not available"));
+        }
+        _subscriptionSerializer = eventsSerializer;
+        if(_subscription == null){
+            _subscription = hub.subscribe(getEventsQueueCapacity(), () -> ctx.executor().execute(() -> pushEvents(ctx)));
+            logger.debug("Channel {} subscribed to the registry events", ctx.channel().remoteAddress());
+        }
+        return eventsSerializer.serialize(true);
+    }
+
+    private void unsubscribe(){
+        if(_subscription == null){
+            return;
+        }
+        var hub = getEventHub();
+        if(hub != null){
+            hub.unsubscribe(_subscription);
         }
+        _subscription = null;
+    }
+
+    /**
+     * Write the queued events while the channel is writable. Called on the event loop when the subscription signals
+     * new events and when the channel becomes writable again.
+     * @param ctx Channel context.
+     */
+    private void pushEvents(ChannelHandlerContext ctx){
+        var subscription = _subscription;
+        if(subscription == null || !ctx.channel().isActive()){
+            return;
+        }
+        boolean written = false;
+        while(ctx.channel().isWritable()){
+            var events = subscription.poll(getEventsBatchSize());
+            if(events.isEmpty()){
+                break;
+            }
+            var header = ctx.alloc().buffer(1);
+            header.writeByte(Constants.CONTROL_EVENTS_MARKER);
+            var payload = encode(ctx, getProcessor(), _subscriptionSerializer.serializeEvents(events),
+                    _eventsCompressor);
+            ctx.write(Unpooled.wrappedBuffer(header, payload));
+            written = true;
+        }
+        if(written){
+            ctx.flush();
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if(ctx.channel().isWritable()){
+            pushEvents(ctx);
+        }
+        super.channelWritabilityChanged(ctx);
     }
 
     /**
      * Perform actual command processing by the MDDE registry logic.
-     * @param command Incoming command text.
-     * @return Textual response to be sent back to the client.
+     * @return Processor of the textual (JSON) statements.
+     */
+    protected CommandProcessor<String, ?, StreamedResponse> getProcessor(){
+        return CommandProcessorSingleton.getDefaultInstance().getCommandProcessor();
+    }
+
+    /**
+     * Perform actual processing of a binary command by the MDDE registry logic.
+     * @return Processor of the binary (CBOR) statements.
      */
-    protected String processCommand(String command){
-        var cmd = CommandProcessorSingleton.getDefaultInstance().getCommandProcessor();
-        return cmd.processIncomingStatement(command);
+    protected CommandProcessor<byte[], ?, StreamedResponse> getBinaryProcessor(){
+        var cmd = CommandProcessorSingleton.getDefaultInstance().getBinaryCommandProcessor();
+        if(cmd == null){
+            throw new IllegalStateException("Binary control protocol is not initialized");
+        }
+        return cmd;
+    }
+
+    /**
+     * Minimum size of a response to be compressed if the client negotiated compression.
+     * @return Size in bytes.
+     */
+    protected int getCompressionThreshold(){
+        return ResponseCompressor.DEFAULT_THRESHOLD;
+    }
+
+    /**
+     * Source of the registry events for the subscribed connections.
+     * @return Event hub or null if the events are not available.
+     */
+    protected RegistryEventHub getEventHub(){
+        return CommandProcessorSingleton.getDefaultInstance().getEventHub();
+    }
+
+    /**
+     * Maximum number of the registry events queued for the connection before they're replaced by an overflow event.
+     * @return Number of events.
+     */
+    protected int getEventsQueueCapacity(){
+        return RegistryEventHub.DEFAULT_CAPACITY;
+    }
+
+    /**
+     * Maximum number of the registry events pushed in a single payload.
+     * @return Number of events.
+     */
+    protected int getEventsBatchSize(){
+        return DEFAULT_EVENTS_BATCH_SIZE;
+    }
+
+    /**
+     * Executor of the statements.
+     * @return Lane executor or null if the statements are executed on the I/O thread.
+     */
+    protected CommandLaneExecutor getExecutor(){
+        return CommandProcessorSingleton.getDefaultInstance().getExecutor();
     }
 
     @Override
@@ -80,4 +402,204 @@ public class MddeCommandReaderHandler extends ChannelInboundHandlerAdapter {
         logger.error(cause, cause);
         ctx.close();
     }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        _untaggedChain.clear();
+        _pendingUntaggedResponses.values().forEach(ReferenceCountUtil::release);
+        _pendingUntaggedResponses.clear();
+        _onUntaggedWritten.clear();
+        unsubscribe();
+        super.channelInactive(ctx);
+    }
+
+    /**
+     * Statement prepared for execution in its lane
+     */
+    private static class ScheduledStatement {
+        private final ECommandLane lane;
+        private final Runnable task;
+        private final Consumer<RejectedExecutionException> onRejected;
+
+        ScheduledStatement(ECommandLane lane, Runnable task, Consumer<RejectedExecutionException> onRejected){
+            this.lane = lane;
+            this.task = task;
+            this.onRejected = onRejected;
+        }
+
+        /**
+         * Schedule the execution in the lane of the statement, answering the statement with an error if rejected
+         * @param executor Lane executor.
+         * @param execution Execution of the statement, may wrap the statement task.
+         * @return True - the statement was scheduled.
+         */
+        boolean submit(CommandLaneExecutor executor, Runnable execution){
+            try {
+                executor.execute(lane, execution);
+                return true;
+            }
+            catch (RejectedExecutionException ex){
+                onRejected.accept(ex);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Executes the statements without a request ID of the connection one at a time in the order of arrival. Every
+     * statement still runs in its own lane, the next one is scheduled when the previous one completes. Called from
+     * the event loop and from the lane threads.
+     */
+    private static class UntaggedStatementChain {
+        private final ArrayDeque<ScheduledStatement> _waiting = new ArrayDeque<>();
+        private boolean _isRunning = false;
+
+        /**
+         * Add a statement to the end of the chain, it's scheduled right away if no other statement is running
+         * @param executor Lane executor.
+         * @param statement Statement.
+         */
+        void add(CommandLaneExecutor executor, ScheduledStatement statement){
+            int waiting;
+            synchronized (this){
+                waiting = _waiting.size();
+                if(waiting < executor.getQueueCapacity()){
+                    _waiting.add(statement);
+                }
+            }
+            if(waiting >= executor.getQueueCapacity()){
+                statement.onRejected.accept(new RejectedExecutionException(String.format(
+                        "The connection is overloaded, %d statements are already waiting for execution", waiting)));
+                return;
+            }
+            scheduleNext(executor);
+        }
+
+        /**
+         * Schedule the head of the chain if no statement is running. Rejected statements are answered with an error
+         * and skipped.
+         */
+        private void scheduleNext(CommandLaneExecutor executor){
+            while(true){
+                ScheduledStatement next;
+                synchronized (this){
+                    if(_isRunning || (next = _waiting.poll()) == null){
+                        return;
+                    }
+                    _isRunning = true;
+                }
+                if(next.submit(executor, () -> {
+                    try {
+                        next.task.run();
+                    }
+                    finally {
+                        synchronized (this){
+                            _isRunning = false;
+                        }
+                        scheduleNext(executor);
+                    }
+                })){
+                    return;
+                }
+                synchronized (this){
+                    _isRunning = false;
+                }
+            }
+        }
+
+        /**
+         * Drop the statements that are not yet scheduled
+         */
+        synchronized void clear(){
+            _waiting.clear();
+        }
+    }
+
+    /**
+     * Writes the response of a single statement, may be called from any thread
+     */
+    private interface Responder {
+        void respond(ByteBuf payload);
+    }
+
+    /**
+     * Response to a statement with a request ID, sent as soon as it's ready
+     */
+    private static class TaggedResponder implements Responder {
+        private final ChannelHandlerContext _ctx;
+        private final int _requestId;
+
+        TaggedResponder(ChannelHandlerContext ctx, int requestId){
+            _ctx = ctx;
+            _requestId = requestId;
+        }
+
+        @Override
+        public void respond(ByteBuf payload) {
+            var header = _ctx.alloc().buffer(Constants.CONTROL_REQUEST_ID_HEADER_LENGTH);
+            header.writeByte(Constants.CONTROL_REQUEST_ID_MARKER);
+            header.writeInt(_requestId);
+            _ctx.writeAndFlush(Unpooled.wrappedBuffer(header, payload));
+        }
+    }
+
+    /**
+     * Response to a statement without a request ID, held back until the preceding statements are answered
+     */
+    private class UntaggedResponder implements Responder {
+        private final ChannelHandlerContext _ctx;
+        private final long _sequence;
+        private final Runnable _onWritten;
+
+        UntaggedResponder(ChannelHandlerContext ctx, long sequence){
+            this(ctx, sequence, null);
+        }
+
+        /**
+         * Constructor
+         * @param ctx Channel context.
+         * @param sequence Sequence number of the statement.
+         * @param onWritten Executed on the event loop once the response is written, may be null.
+         */
+        UntaggedResponder(ChannelHandlerContext ctx, long sequence, Runnable onWritten){
+            _ctx = ctx;
+            _sequence = sequence;
+            _onWritten = onWritten;
+        }
+
+        @Override
+        public void respond(ByteBuf payload) {
+            if(_ctx.executor().inEventLoop()){
+                complete(payload);
+            }
+            else {
+                _ctx.executor().execute(() -> complete(payload));
+            }
+        }
+
+        private void complete(ByteBuf response){
+            if(!_ctx.channel().isActive()){
+                ReferenceCountUtil.release(response);
+                return;
+            }
+            _pendingUntaggedResponses.put(_sequence, response);
+            if(_onWritten != null){
+                _onUntaggedWritten.put(_sequence, _onWritten);
+            }
+            boolean written = false;
+            ByteBuf next;
+            while((next = _pendingUntaggedResponses.remove(_nextUntaggedResponse)) != null){
+                _ctx.write(next);
+                var onWritten = _onUntaggedWritten.remove(_nextUntaggedResponse);
+                if(onWritten != null){
+                    onWritten.run();
+                }
+                _nextUntaggedResponse++;
+                written = true;
+            }
+            if(written){
+                _ctx.flush();
+            }
+        }
+    }
 }
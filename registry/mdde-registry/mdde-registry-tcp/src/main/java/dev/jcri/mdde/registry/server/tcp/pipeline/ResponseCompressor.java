@@ -0,0 +1,119 @@
+package dev.jcri.mdde.registry.server.tcp.pipeline;
+
+import dev.jcri.mdde.registry.server.tcp.Constants;
+import dev.jcri.mdde.registry.server.tcp.protocol.ResponseCodings;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the control API responses exceeding the size threshold with the coding negotiated with the client.
+ * Compressed responses are prefixed with the {@link Constants#CONTROL_COMPRESSED_MARKER} header.
+ */
+public class ResponseCompressor {
+    /**
+     * Default minimum size of a response in bytes to be compressed
+     */
+    public static final int DEFAULT_THRESHOLD = 64 * 1024;
+
+    private static final LZ4Compressor _lz4 = LZ4Factory.fastestInstance().fastCompressor();
+
+    private final ResponseCodings _coding;
+    private final int _threshold;
+
+    /**
+     * Constructor
+     * @param coding Negotiated coding.
+     * @param threshold Minimum size of a response in bytes to be compressed.
+     */
+    public ResponseCompressor(ResponseCodings coding, int threshold){
+        Objects.requireNonNull(coding, "coding can't be null");
+        _coding = coding;
+        _threshold = threshold;
+    }
+
+    /**
+     * Select the coding out of the ones offered by the client. LZ4 is preferred as it's considerably cheaper for
+     * the registry to compress.
+     * @param offeredMask Bit mask of the offered codings.
+     * @return Selected coding, NONE if nothing suitable was offered.
+     */
+    public static ResponseCodings select(int offeredMask){
+        if((offeredMask & ResponseCodings.LZ4.mask()) != 0){
+            return ResponseCodings.LZ4;
+        }
+        if((offeredMask & ResponseCodings.DEFLATE.mask()) != 0){
+            return ResponseCodings.DEFLATE;
+        }
+        return ResponseCodings.NONE;
+    }
+
+    public ResponseCodings getCoding(){
+        return _coding;
+    }
+
+    /**
+     * Compress the response if it's large enough and compression actually reduces its size.
+     * @param alloc Allocator of the output buffer.
+     * @param response Serialized response, released if the compressed buffer is returned.
+     * @return Either the original response or a new buffer with the compressed response header.
+     */
+    public ByteBuf compress(ByteBufAllocator alloc, ByteBuf response){
+        var length = response.readableBytes();
+        if(_coding == ResponseCodings.NONE || length < _threshold){
+            return response;
+        }
+        ByteBuf compressed = alloc.buffer(Constants.CONTROL_COMPRESSED_HEADER_LENGTH + length / 2);
+        try {
+            compressed.writeByte(Constants.CONTROL_COMPRESSED_MARKER);
+            compressed.writeByte(_coding.value());
+            compressed.writeInt(length);
+            if (_coding == ResponseCodings.LZ4) {
+                compressLz4(response, compressed);
+            } else {
+                compressDeflate(response, compressed);
+            }
+        }
+        catch (RuntimeException e){
+            compressed.release();
+            throw e;
+        }
+        if(compressed.readableBytes() >= length){
+            compressed.release();
+            return response;
+        }
+        response.release();
+        return compressed;
+    }
+
+    private static void compressLz4(ByteBuf source, ByteBuf target){
+        var length = source.readableBytes();
+        var maxLength = _lz4.maxCompressedLength(length);
+        target.ensureWritable(maxLength);
+        var src = source.nioBuffer();
+        var dst = target.nioBuffer(target.writerIndex(), maxLength);
+        var written = _lz4.compress(src, src.position(), length, dst, dst.position(), maxLength);
+        target.writerIndex(target.writerIndex() + written);
+    }
+
+    private static void compressDeflate(ByteBuf source, ByteBuf target){
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(source.nioBuffer());
+            deflater.finish();
+            while (!deflater.finished()) {
+                target.ensureWritable(Math.max(4096, source.readableBytes() / 4));
+                var dst = target.nioBuffer(target.writerIndex(), target.writableBytes());
+                var written = deflater.deflate(dst);
+                target.writerIndex(target.writerIndex() + written);
+            }
+        }
+        finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package dev.jcri.mdde.registry.server.tcp.handler;
+
+import dev.jcri.mdde.registry.control.command.json.JsonCommandPreProcessor;
+import dev.jcri.mdde.registry.control.command.json.SharedJsonMapper;
+import dev.jcri.mdde.registry.control.serialization.ResponseSerializerStreamed;
+import dev.jcri.mdde.registry.control.serialization.StreamedResponse;
+import dev.jcri.mdde.registry.server.CommandProcessor;
+import dev.jcri.mdde.registry.server.events.RegistryEventHub;
+import dev.jcri.mdde.registry.server.tcp.CommandLaneExecutor;
+import dev.jcri.mdde.registry.server.tcp.Constants;
+import dev.jcri.mdde.registry.server.tcp.protocol.ResponseCodings;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import net.jpountz.lz4.LZ4Factory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMddeCommandReaderHandler {
+    private final ResponseSerializerStreamed _serializer =
+            new ResponseSerializerStreamed(SharedJsonMapper.getMapper());
+    /**
+     * Control statements are blocked until released
+     */
+    private final CountDownLatch _controlRelease = new CountDownLatch(1);
+    /**
+     * Write statements are blocked until released, not blocked unless replaced by a test
+     */
+    private volatile CountDownLatch _writeRelease = new CountDownLatch(0);
+    /**
+     * Keywords of the executed read and write statements in the order of execution
+     */
+    private final List<String> _executed = Collections.synchronizedList(new ArrayList<>());
+    private final RegistryEventHub _eventHub = new RegistryEventHub();
+    private CommandLaneExecutor _executor;
+    private EmbeddedChannel _channel;
+
+    @BeforeEach
+    public void setUp(){
+        _executor = new CommandLaneExecutor(2, 1, 16);
+        var processor = new CommandProcessor<String, String, StreamedResponse>(new JsonCommandPreProcessor(),
+                (command, args) -> {
+                    try {
+                        _controlRelease.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return _serializer.serialize(command.getCommand());
+                },
+                (command, args) -> {
+                    _executed.add(command.getCommand());
+                    return _serializer.serialize(command.getCommand().repeat(100));
+                },
+                (command, args) -> {
+                    try {
+                        _writeRelease.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    _executed.add(command.getCommand());
+                    return _serializer.serialize(command.getCommand());
+                },
+                _serializer);
+        _channel = new EmbeddedChannel(new MddeCommandReaderHandler(){
+            @Override
+            protected CommandProcessor<String, ?, StreamedResponse> getProcessor() {
+                return processor;
+            }
+
+            @Override
+            protected int getCompressionThreshold() {
+                return 64;
+            }
+
+            @Override
+            protected CommandLaneExecutor getExecutor() {
+                return _executor;
+            }
+
+            @Override
+            protected RegistryEventHub getEventHub() {
+                return _eventHub;
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown(){
+        _controlRelease.countDown();
+        _writeRelease.countDown();
+        _executor.shutdown(5, TimeUnit.SECONDS);
+        _channel.finishAndReleaseAll();
+    }
+
+    private static ByteBuf statement(Integer requestId, String keyword){
+        var payload = Unpooled.copiedBuffer(String.format("{\"cmd\": \"%s\"}", keyword), CharsetUtil.UTF_8);
+        if(requestId == null){
+            return payload;
+        }
+        var header = Unpooled.buffer(Constants.CONTROL_REQUEST_ID_HEADER_LENGTH);
+        header.writeByte(Constants.CONTROL_REQUEST_ID_MARKER);
+        header.writeInt(requestId);
+        return Unpooled.wrappedBuffer(header, payload);
+    }
+
+    /**
+     * Wait for the next response written to the channel
+     */
+    private ByteBuf awaitResponse() throws InterruptedException {
+        var deadline = System.currentTimeMillis() + 10000;
+        while(System.currentTimeMillis() < deadline){
+            _channel.runPendingTasks();
+            ByteBuf response = _channel.readOutbound();
+            if(response != null){
+                return response;
+            }
+            Thread.sleep(5);
+        }
+        fail("No response received");
+        return null;
+    }
+
+    private void assertNoResponse() throws InterruptedException {
+        Thread.sleep(100);
+        _channel.runPendingTasks();
+        assertNull(_channel.readOutbound());
+    }
+
+    @Test
+    public void testTaggedResponsesArriveOutOfOrder() throws InterruptedException {
+        _channel.writeInbound(statement(1, "RUNSHUFFLE"));
+        _channel.writeInbound(statement(2, "GETALL"));
+
+        var first = awaitResponse();
+        assertEquals(Constants.CONTROL_REQUEST_ID_MARKER, first.readByte());
+        assertEquals(2, first.readInt());
+        assertTrue(first.toString(CharsetUtil.UTF_8).contains("GETALL"));
+        first.release();
+
+        _controlRelease.countDown();
+        var second = awaitResponse();
+        assertEquals(Constants.CONTROL_REQUEST_ID_MARKER, second.readByte());
+        assertEquals(1, second.readInt());
+        assertTrue(second.toString(CharsetUtil.UTF_8).contains("RUNSHUFFLE"));
+        second.release();
+    }
+
+    @Test
+    public void testUntaggedResponsesKeepOrder() throws InterruptedException {
+        _channel.writeInbound(statement(null, "RUNSHUFFLE"));
+        _channel.writeInbound(statement(null, "GETALL"));
+        assertNoResponse();
+
+        _controlRelease.countDown();
+        var first = awaitResponse();
+        assertTrue(first.toString(CharsetUtil.UTF_8).contains("RUNSHUFFLE"));
+        first.release();
+        var second = awaitResponse();
+        assertTrue(second.toString(CharsetUtil.UTF_8).contains("GETALL"));
+        second.release();
+    }
+
+    @Test
+    public void testUntaggedReadIsExecutedAfterPrecedingWrite() throws InterruptedException {
+        _writeRelease = new CountDownLatch(1);
+        _channel.writeInbound(statement(null, "INSERT"));
+        _channel.writeInbound(statement(null, "GETALL"));
+        assertNoResponse();
+        assertTrue(_executed.isEmpty());
+
+        _writeRelease.countDown();
+        var first = awaitResponse();
+        assertTrue(first.toString(CharsetUtil.UTF_8).contains("INSERT"));
+        first.release();
+        var second = awaitResponse();
+        assertTrue(second.toString(CharsetUtil.UTF_8).contains("GETALL"));
+        second.release();
+        assertEquals(List.of("INSERT", "GETALL"), _executed);
+    }
+
+    @Test
+    public void testFullLaneIsAnsweredWithError() throws InterruptedException {
+        // One statement is executed and 16 are waiting in the control lane
+        for(int i = 1; i <= 17; i++){
+            _channel.writeInbound(statement(i, "RUNSHUFFLE"));
+        }
+        _channel.writeInbound(statement(18, "RUNSHUFFLE"));
+        var rejected = awaitResponse();
+        assertEquals(Constants.CONTROL_REQUEST_ID_MARKER, rejected.readByte());
+        assertEquals(18, rejected.readInt());
+        assertTrue(rejected.toString(CharsetUtil.UTF_8).contains("overloaded"));
+        rejected.release();
+
+        _controlRelease.countDown();
+        for(int i = 1; i <= 17; i++){
+            awaitResponse().release();
+        }
+    }
+
+    @Test
+    public void testMalformedStatementIsAnswered() throws InterruptedException {
+        _channel.writeInbound(Unpooled.copiedBuffer("{\"args\": {}}", CharsetUtil.UTF_8));
+        var response = awaitResponse();
+        assertTrue(response.toString(CharsetUtil.UTF_8).contains("error"));
+        response.release();
+    }
+
+    private ResponseCodings negotiate(int offeredMask) throws InterruptedException {
+        var options = Unpooled.buffer(2);
+        options.writeByte(Constants.CONTROL_OPTIONS_MARKER);
+        options.writeByte(offeredMask);
+        _channel.writeInbound(options);
+        var confirmation = awaitResponse();
+        assertEquals(Constants.CONTROL_OPTIONS_MARKER, confirmation.readByte());
+        var coding = ResponseCodings.getValidCode(confirmation.readByte());
+        confirmation.release();
+        return coding;
+    }
+
+    /**
+     * Read the compressed response header and return the uncompressed length
+     */
+    private static int readCompressedHeader(ByteBuf response, ResponseCodings expectedCoding){
+        assertEquals(Constants.CONTROL_COMPRESSED_MARKER, response.readByte());
+        assertEquals(expectedCoding.value(), response.readByte());
+        return response.readInt();
+    }
+
+    @Test
+    public void testLz4CompressedResponse() throws Exception {
+        var coding = negotiate(ResponseCodings.LZ4.mask() | ResponseCodings.DEFLATE.mask());
+        assertEquals(ResponseCodings.LZ4, coding);
+
+        _channel.writeInbound(statement(null, "GETALL"));
+        var response = awaitResponse();
+        var length = readCompressedHeader(response, ResponseCodings.LZ4);
+        var compressed = new byte[response.readableBytes()];
+        response.readBytes(compressed);
+        response.release();
+        var restored = LZ4Factory.fastestInstance().fastDecompressor().decompress(compressed, length);
+        assertEquals(_serializer.serialize("GETALL".repeat(100)).toByteArray().length, restored.length);
+        assertTrue(new String(restored, CharsetUtil.UTF_8).contains("GETALLGETALL"));
+    }
+
+    @Test
+    public void testStatementsReceivedBeforeNegotiationAreNotCompressed() throws Exception {
+        _channel.writeInbound(statement(null, "RUNSHUFFLE"));
+        _channel.writeInbound(statement(null, "GETALL"));
+        var options = Unpooled.buffer(2);
+        options.writeByte(Constants.CONTROL_OPTIONS_MARKER);
+        options.writeByte(ResponseCodings.LZ4.mask());
+        _channel.writeInbound(options);
+        assertNoResponse();
+
+        _controlRelease.countDown();
+        awaitResponse().release();
+        var response = awaitResponse();
+        assertEquals('{', response.getByte(response.readerIndex()));
+        assertTrue(response.toString(CharsetUtil.UTF_8).contains("GETALLGETALL"));
+        response.release();
+        var confirmation = awaitResponse();
+        assertEquals(Constants.CONTROL_OPTIONS_MARKER, confirmation.readByte());
+        assertEquals(ResponseCodings.LZ4, ResponseCodings.getValidCode(confirmation.readByte()));
+        confirmation.release();
+
+        _channel.writeInbound(statement(null, "GETALL"));
+        var compressed = awaitResponse();
+        readCompressedHeader(compressed, ResponseCodings.LZ4);
+        compressed.release();
+    }
+
+    @Test
+    public void testDeflateCompressedResponse() throws Exception {
+        assertEquals(ResponseCodings.DEFLATE, negotiate(ResponseCodings.DEFLATE.mask()));
+
+        _channel.writeInbound(statement(7, "GETALL"));
+        var response = awaitResponse();
+        assertEquals(Constants.CONTROL_REQUEST_ID_MARKER, response.readByte());
+        assertEquals(7, response.readInt());
+        var length = readCompressedHeader(response, ResponseCodings.DEFLATE);
+        var compressed = new byte[response.readableBytes()];
+        response.readBytes(compressed);
+        response.release();
+        var inflater = new Inflater();
+        inflater.setInput(compressed);
+        var restored = new byte[length];
+        assertEquals(length, inflater.inflate(restored));
+        inflater.end();
+        assertTrue(new String(restored, CharsetUtil.UTF_8).contains("GETALLGETALL"));
+
+        // Small responses stay uncompressed
+        _channel.writeInbound(statement(null, "INSERT"));
+        var small = awaitResponse();
+        assertEquals('{', small.getByte(small.readerIndex()));
+        small.release();
+    }
+
+    @Test
+    public void testSubscribedConnectionReceivesEvents() throws InterruptedException {
+        _channel.writeInbound(statement(3, "SUBSCRIBE"));
+        var confirmation = awaitResponse();
+        assertEquals(Constants.CONTROL_REQUEST_ID_MARKER, confirmation.readByte());
+        assertEquals(3, confirmation.readInt());
+        assertTrue(confirmation.toString(CharsetUtil.UTF_8).contains("true"));
+        confirmation.release();
+        assertEquals(1, _eventHub.getSubscriptionsCount());
+
+        _eventHub.onFragmentExemplarAdded("f1", "n1");
+        _eventHub.onFragmentMetaGlobalChanged("f1", "size", "10");
+        var events = awaitResponse();
+        assertEquals(Constants.CONTROL_EVENTS_MARKER, events.readByte());
+        var payload = events.toString(CharsetUtil.UTF_8);
+        events.release();
+        assertTrue(payload.contains("fragadd"));
+        assertTrue(payload.contains("metagl"));
+
+        _channel.writeInbound(statement(null, "UNSUBSCRIBE"));
+        awaitResponse().release();
+        assertEquals(0, _eventHub.getSubscriptionsCount());
+        _eventHub.onFragmentExemplarAdded("f2", "n1");
+        assertNoResponse();
+    }
+}
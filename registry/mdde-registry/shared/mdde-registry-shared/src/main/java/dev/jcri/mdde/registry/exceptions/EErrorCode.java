@@ -101,7 +101,15 @@ public enum EErrorCode {
     /**
      * Value: 4101
      */
-    CTRL_MALFORMED_COMMAND_STATEMENT(0x01005)
+    CTRL_MALFORMED_COMMAND_STATEMENT(0x01005),
+    /**
+     * Value: 4102
+     */
+    CTRL_BATCH_STATEMENT_SKIPPED(0x01006),
+    /**
+     * Value: 4103
+     */
+    CTRL_BATCH_STATEMENT_ROLLED_BACK(0x01007)
     ;
 
 
@@ -8,7 +8,11 @@ public enum EBenchmarkRunStage {
     STARTING("starting"),
     RUNNING("running"),
     FINALIZING("finalizing"),
-    DONE("done");
+    DONE("done"),
+    /**
+     * The run was stopped by the client before completion, there is no result
+     */
+    ABORTED("aborted");
 
     private String _stage;
     EBenchmarkRunStage(String stage){
@@ -12,6 +12,15 @@ public final class Constants {
      * If the used protocol has arguments as a separate container (JSON), serialize them in here
      */
     public static final String ArgumentsField = "args";
+    /**
+     * Keyword of the statement carrying a list of statements executed in a single round trip
+     */
+    public static final String BatchCommand = "BATCH";
+    public static final String ArgBatchStatements = "stmts";
+    /**
+     * If true, the BATCH stops at the first failed statement. Statements applied before the failure are not rolled back.
+     */
+    public static final String ArgBatchStopOnError = "stoponerr";
 
 
     public static final String ArgTupleIdField = "tid";
@@ -38,4 +47,6 @@ public final class Constants {
 
     public static final String ArgBenchmarkCounterfeitMagnitudeStart = "bcmagst";
     public static final String ArgBenchmarkCounterfeitMagnitudeEnd = "bcmagen";
+    public static final String ArgBenchmarkTraceCapture = "btrace";
+    public static final String ArgBenchmarkCandidates = "bcands";
 }
@@ -69,6 +69,13 @@ public enum EReadCommand implements ICommand {
     META_FRAGMENT_GLOBAL("GETMETAFRAGGLB",
             new ArrayList<ExpectedCommandArgument>(){
                 {add(ARG_FRAGMENT_ID); add(ARG_FRAGMENT_META_TAG);}
+            }),
+    /**
+     * Get the fragments allocation and the numeric meta values packed into a single binary buffer
+     */
+    GET_PACKED_OBSERVATION("GETOBSERVATION",
+            new ArrayList<ExpectedCommandArgument>(){
+                {add(ARG_FRAGMENT_META_TAGS_LOCAL); add(ARG_FRAGMENT_META_TAGS_GLOBAL);}
             });
 
     private final String _command;
@@ -44,6 +44,46 @@ public enum  EStateControlCommand implements ICommand {
             add(ARG_BENCH_COUNTERFEIT_ADJUSTER_END);
         }
     }),
+    /**
+     * Trace replay benchmark: enable or disable recording of the tuple location requests during the real benchmark
+     * runs.
+     */
+    TRACE_CAPTURE("TRACEBENCH", new ArrayList<ExpectedCommandArgument>(){{add(ARG_BENCH_TRACE_CAPTURE); }}),
+    /**
+     * Trace replay benchmark: replay the latest captured trace against the current allocation in memory.
+     */
+    TRACE_REPLAY("RUNREPLAYBENCH"),
+    /**
+     * Counterfeit benchmark: estimate the benchmark result of several hypothetical action sequences at once, without
+     * applying them to the registry.
+     */
+    COUNTERFEIT_CANDIDATES("RUNCNTFTCANDIDATES", new ArrayList<ExpectedCommandArgument>(){
+        {
+            add(ARG_BENCH_COUNTERFEIT_ADJUSTER_START);
+            add(ARG_BENCH_COUNTERFEIT_ADJUSTER_END);
+            add(ARG_BENCH_CANDIDATES);
+        }
+    }),
+    /**
+     * Stop the currently running benchmark. The run is finalized as failed, progress recorded so far remains available
+     * in the benchmark status.
+     */
+    ABORT_BENCHMARK("ABORTBENCH"),
+    /**
+     * Subscribe the connection to the registry change events: allocation and meta changes committed by the writes,
+     * benchmark stage transitions. Events are pushed by the server in batches until UNSUBSCRIBE or disconnect.
+     * Only available directly on a control connection.
+     */
+    SUBSCRIBE("SUBSCRIBE"),
+    /**
+     * Stop pushing the registry change events to the connection.
+     */
+    UNSUBSCRIBE("UNSUBSCRIBE"),
+    /**
+     * Get the latency histograms of the executed commands, the number of registry store accesses per command and the
+     * utilization of the registry resources (connection pools, statement queues).
+     */
+    GET_METRICS("METRICS"),
     /**
      * Set Registry into the data shuffle mode.
      * Benchmark interface is disabled.
@@ -56,6 +96,12 @@ public enum  EStateControlCommand implements ICommand {
      * synchronizing the state of the data nodes with the registry.
      */
     RUN_SHUFFLE("RUNSHUFFLE"),
+    /**
+     * Wait until the data shuffle queue is executed by the background shuffle worker. Fails if the worker failed
+     * executing the queue since the previous barrier. If the background worker isn't enabled in the registry
+     * configuration, executes the queue the same way as RUN_SHUFFLE.
+     */
+    SHUFFLE_BARRIER("SHUFFLEBARRIER"),
     /**
      * Get the current state of the registry (Benchmark or Shuffle).
      */
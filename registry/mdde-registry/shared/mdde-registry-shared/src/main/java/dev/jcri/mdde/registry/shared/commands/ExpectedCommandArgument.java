@@ -40,7 +40,11 @@ public enum ExpectedCommandArgument{
     ARG_BENCH_COUNTERFEIT_ADJUSTER_START("Adjustment range start of magnitude for the estimated benchmark",
             Constants.ArgBenchmarkCounterfeitMagnitudeStart, ArgumentType.DOUBLE),
     ARG_BENCH_COUNTERFEIT_ADJUSTER_END("Adjustment range end of magnitude for the estimated benchmark",
-            Constants.ArgBenchmarkCounterfeitMagnitudeEnd, ArgumentType.DOUBLE);
+            Constants.ArgBenchmarkCounterfeitMagnitudeEnd, ArgumentType.DOUBLE),
+    ARG_BENCH_TRACE_CAPTURE("Record the trace of the subsequent benchmark runs",
+            Constants.ArgBenchmarkTraceCapture, ArgumentType.BOOLEAN),
+    ARG_BENCH_CANDIDATES("Candidate sequences of the fragment replication and removal actions",
+            Constants.ArgBenchmarkCandidates, ArgumentType.LIST_ACTION_SEQUENCES);
 
     private final String _title;
     private final ArgumentType _argumentType;
@@ -73,7 +77,8 @@ public enum ExpectedCommandArgument{
         INTEGER("Integer"),
         DOUBLE("Double"),
         SET_STRINGS("Set of strings"),
-        BOOLEAN("Boolean");
+        BOOLEAN("Boolean"),
+        LIST_ACTION_SEQUENCES("List of action sequences");
 
         private final String _description;
         ArgumentType(String description){
@@ -1,12 +1,14 @@
 package dev.jcri.mdde.registry.shared.commands.containers;
 
 import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import dev.jcri.mdde.registry.exceptions.EErrorCode;
 import dev.jcri.mdde.registry.shared.commands.Constants;
 import dev.jcri.mdde.registry.shared.commands.containers.utility.JacksonBase64ToStringSerializer;
 
+@JsonPropertyOrder({Constants.ResultError, Constants.ResultPayload, Constants.ResultErrorCode})
 public class CommandResultContainer<T> {
     private T _result;
     private String _error;
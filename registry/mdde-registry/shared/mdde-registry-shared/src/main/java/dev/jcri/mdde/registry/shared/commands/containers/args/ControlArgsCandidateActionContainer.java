@@ -0,0 +1,69 @@
+package dev.jcri.mdde.registry.shared.commands.containers.args;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import dev.jcri.mdde.registry.shared.commands.Constants;
+
+/**
+ * Hypothetical allocation action evaluated by the counterfeit benchmark without being applied to the registry.
+ * The action is identified by the tag of the corresponding write command: DCOPYFRAG (fragment, source node,
+ * destination node) or DDELFRAGEX (fragment, node).
+ */
+public class ControlArgsCandidateActionContainer {
+    private String action;
+    private String fragmentId;
+    private String nodeId;
+    private String secondNodeId;
+
+    /**
+     * Default constructor
+     */
+    public ControlArgsCandidateActionContainer(){}
+
+    /**
+     * Constructor
+     * @param action Write command tag
+     * @param fragmentId Fragment ID
+     * @param nodeId Node ID (source node in case of the replication)
+     * @param secondNodeId Destination node ID of the replication, null otherwise
+     */
+    public ControlArgsCandidateActionContainer(String action, String fragmentId, String nodeId, String secondNodeId){
+        this.action = action;
+        this.fragmentId = fragmentId;
+        this.nodeId = nodeId;
+        this.secondNodeId = secondNodeId;
+    }
+
+    @JsonGetter(Constants.CommandFiled)
+    public String getAction() {
+        return action;
+    }
+    @JsonSetter(Constants.CommandFiled)
+    public void setAction(String action) {
+        this.action = action;
+    }
+    @JsonGetter(Constants.ArgFragmentIdField)
+    public String getFragmentId() {
+        return fragmentId;
+    }
+    @JsonSetter(Constants.ArgFragmentIdField)
+    public void setFragmentId(String fragmentId) {
+        this.fragmentId = fragmentId;
+    }
+    @JsonGetter(Constants.ArgNodeIdField)
+    public String getNodeId() {
+        return nodeId;
+    }
+    @JsonSetter(Constants.ArgNodeIdField)
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+    @JsonGetter(Constants.ArgSecondNodeIdFiled)
+    public String getSecondNodeId() {
+        return secondNodeId;
+    }
+    @JsonSetter(Constants.ArgSecondNodeIdFiled)
+    public void setSecondNodeId(String secondNodeId) {
+        this.secondNodeId = secondNodeId;
+    }
+}
@@ -0,0 +1,57 @@
+package dev.jcri.mdde.registry.shared.commands.containers.result.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+import java.util.List;
+
+/**
+ * Estimated benchmark results of the candidate action sequences, in the order the candidates were submitted.
+ * A candidate that couldn't be applied to the current allocation has the error set in its result.
+ */
+public class BenchmarkCandidatesResult {
+    public static final String RUN_ID_FIELD = "id";
+    public static final String CANDIDATES_FIELD = "candidates";
+
+    /**
+     * ID of the benchmark run the estimation is based on
+     */
+    private String _runId;
+    /**
+     * Per candidate estimations
+     */
+    private List<BenchmarkRunResult> _candidates;
+
+    /**
+     * Default constructor
+     */
+    public BenchmarkCandidatesResult(){}
+
+    /**
+     * Constructor
+     * @param runId ID of the benchmark run the estimation is based on
+     * @param candidates Per candidate estimations
+     */
+    public BenchmarkCandidatesResult(String runId, List<BenchmarkRunResult> candidates){
+        _runId = runId;
+        _candidates = candidates;
+    }
+
+    @JsonGetter(RUN_ID_FIELD)
+    public String getRunId() {
+        return _runId;
+    }
+    @JsonSetter(RUN_ID_FIELD)
+    public void setRunId(String runId) {
+        this._runId = runId;
+    }
+
+    @JsonGetter(CANDIDATES_FIELD)
+    public List<BenchmarkRunResult> getCandidates() {
+        return _candidates;
+    }
+    @JsonSetter(CANDIDATES_FIELD)
+    public void setCandidates(List<BenchmarkRunResult> candidates) {
+        this._candidates = candidates;
+    }
+}
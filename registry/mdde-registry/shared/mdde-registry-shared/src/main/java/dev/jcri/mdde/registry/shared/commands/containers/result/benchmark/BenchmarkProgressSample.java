@@ -0,0 +1,86 @@
+package dev.jcri.mdde.registry.shared.commands.containers.result.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+/**
+ * Progress of a running benchmark at a point of time, as reported by the benchmark runner periodically
+ */
+public class BenchmarkProgressSample {
+    public static final String ELAPSED_FIELD = "t";
+    public static final String OPERATIONS_FIELD = "ops";
+    public static final String THROUGHPUT_FIELD = "tput";
+    public static final String READ_LATENCY_FIELD = "rlat";
+
+    /**
+     * Seconds since the start of the run
+     */
+    private long _elapsed;
+    /**
+     * Total number of operations performed since the start of the run
+     */
+    private long _operations;
+    /**
+     * Throughput (ops/sec) over the latest reporting interval, -1 if unknown
+     */
+    private double _throughput;
+    /**
+     * Average read latency (us), -1 if unknown
+     */
+    private double _readLatency;
+
+    /**
+     * Default constructor
+     */
+    public BenchmarkProgressSample(){}
+
+    /**
+     * Constructor
+     * @param elapsed Seconds since the start of the run
+     * @param operations Total number of operations performed
+     * @param throughput Throughput (ops/sec) over the latest reporting interval
+     * @param readLatency Average read latency (us)
+     */
+    public BenchmarkProgressSample(long elapsed, long operations, double throughput, double readLatency){
+        _elapsed = elapsed;
+        _operations = operations;
+        _throughput = throughput;
+        _readLatency = readLatency;
+    }
+
+    @JsonGetter(ELAPSED_FIELD)
+    public long getElapsed() {
+        return _elapsed;
+    }
+    @JsonSetter(ELAPSED_FIELD)
+    public void setElapsed(long elapsed) {
+        this._elapsed = elapsed;
+    }
+
+    @JsonGetter(OPERATIONS_FIELD)
+    public long getOperations() {
+        return _operations;
+    }
+    @JsonSetter(OPERATIONS_FIELD)
+    public void setOperations(long operations) {
+        this._operations = operations;
+    }
+
+    @JsonGetter(THROUGHPUT_FIELD)
+    public double getThroughput() {
+        return _throughput;
+    }
+    @JsonSetter(THROUGHPUT_FIELD)
+    public void setThroughput(double throughput) {
+        this._throughput = throughput;
+    }
+
+    @JsonGetter(READ_LATENCY_FIELD)
+    public double getReadLatency() {
+        return _readLatency;
+    }
+    @JsonSetter(READ_LATENCY_FIELD)
+    public void setReadLatency(double readLatency) {
+        this._readLatency = readLatency;
+    }
+}
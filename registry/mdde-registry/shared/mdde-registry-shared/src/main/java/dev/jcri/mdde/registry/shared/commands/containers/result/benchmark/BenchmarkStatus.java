@@ -3,6 +3,8 @@ package dev.jcri.mdde.registry.shared.commands.containers.result.benchmark;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonSetter;
 
+import java.util.List;
+
 /**
  * Container class for the benchmark status and results
  */
@@ -12,12 +14,14 @@ public class BenchmarkStatus {
     public static final String STAGE_FIELD = "stage";
     public static final String RESULT_FIELD = "result";
     public static final String RUN_ID_FIELD = "id";
+    public static final String PROGRESS_FIELD = "progress";
 
     private boolean _isCompleted = false;
     private boolean _isFailed = false;
     private String _currentStage = null;
     private BenchmarkRunResult _result = null;
     private String _runId = null;
+    private List<BenchmarkProgressSample> _progress = null;
 
     /**
      * Default constructor
@@ -45,6 +49,26 @@ public class BenchmarkStatus {
         _result = runResult;
     }
 
+    /**
+     * Constructor
+     * @param runCompleted True - the run was executed and completed
+     * @param runFailed True - the run was executed but failed
+     * @param runStage Current execution stage
+     * @param runResult If the run was executed there the result will be generated, even if it failed.
+     *                  For a failed run, error will be supplied instead of the results
+     * @param runId Executed run ID
+     * @param progress Progress samples of the latest (or current) run
+     */
+    public BenchmarkStatus(boolean runCompleted,
+                           boolean runFailed,
+                           String runStage,
+                           BenchmarkRunResult runResult,
+                           String runId,
+                           List<BenchmarkProgressSample> progress){
+        this(runCompleted, runFailed, runStage, runResult, runId);
+        _progress = progress;
+    }
+
     /**
      * Completion status of the benchmark
      * @return False - benchmark was not yet run or still running
@@ -110,4 +134,18 @@ public class BenchmarkStatus {
     public void setRunId(String runId) {
         this._runId = runId;
     }
+
+    /**
+     * Rolling time series of the throughput and latency reported while the benchmark was running. Only the latest
+     * samples are retained by the runner.
+     * @return Progress samples ordered by time or null if not available for this kind of benchmark
+     */
+    @JsonGetter(PROGRESS_FIELD)
+    public List<BenchmarkProgressSample> getProgress() {
+        return _progress;
+    }
+    @JsonSetter(PROGRESS_FIELD)
+    public void setProgress(List<BenchmarkProgressSample> progress) {
+        this._progress = progress;
+    }
 }
@@ -0,0 +1,74 @@
+package dev.jcri.mdde.registry.shared.commands.containers.result.events;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Types of the registry change events pushed to the subscribed clients
+ */
+public enum ERegistryEventType {
+    /**
+     * A new exemplar of a fragment was placed on a node
+     */
+    FRAGMENT_ADDED("fragadd"),
+    /**
+     * An exemplar of a fragment was removed from a node
+     */
+    FRAGMENT_REMOVED("fragrem"),
+    /**
+     * Allocation was changed in a way that can't be expressed as exemplar changes (tuples, fragments forming, flush,
+     * snapshot restore). The allocation and the meta values must be re-read.
+     */
+    ALLOCATION_RESET("allocreset"),
+    /**
+     * Global meta value of a fragment was set
+     */
+    META_GLOBAL("metagl"),
+    /**
+     * Meta value of a fragment exemplar was set
+     */
+    META_EXEMPLAR("metaex"),
+    /**
+     * All meta values were removed
+     */
+    META_RESET("metareset"),
+    /**
+     * Stage of the benchmark run was changed
+     */
+    BENCHMARK_STAGE("bench"),
+    /**
+     * Subscriber didn't keep up with the events and some of them were dropped. Everything must be re-read.
+     */
+    OVERFLOW("overflow");
+
+    private final String _code;
+
+    ERegistryEventType(String code){
+        _code = code;
+    }
+
+    public String getCode() {
+        return _code;
+    }
+
+    @Override
+    public String toString() {
+        return _code;
+    }
+
+    private static final Map<String, ERegistryEventType> _codesMap = Arrays.stream(ERegistryEventType.values())
+            .collect(Collectors.toMap(e -> e._code, e -> e));
+
+    /**
+     * Get the event type by its code
+     * @param code Event type code
+     * @return Event type or null if the code is unknown
+     */
+    public static ERegistryEventType getByCode(String code){
+        if(code == null){
+            return null;
+        }
+        return _codesMap.get(code);
+    }
+}
@@ -0,0 +1,166 @@
+package dev.jcri.mdde.registry.shared.commands.containers.result.events;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+/**
+ * Change of the registry state pushed to the subscribed clients. Only the fields relevant to the event type are set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegistryEvent {
+    public static final String TYPE_FIELD = "t";
+    public static final String SEQUENCE_FIELD = "seq";
+    public static final String FRAGMENT_FIELD = "frag";
+    public static final String NODE_FIELD = "node";
+    public static final String META_TAG_FIELD = "tag";
+    public static final String META_VALUE_FIELD = "val";
+    public static final String RUN_ID_FIELD = "run";
+    public static final String STAGE_FIELD = "stage";
+    public static final String FAILED_FIELD = "failed";
+
+    private String _type;
+    /**
+     * Sequence number of the event, increasing by one with every published event
+     */
+    private long _sequence;
+    private String _fragmentId;
+    private String _nodeId;
+    private String _metaTag;
+    private String _metaValue;
+    private String _runId;
+    private String _stage;
+    private Boolean _failed;
+
+    /**
+     * Default constructor
+     */
+    public RegistryEvent(){}
+
+    /**
+     * Constructor
+     * @param type Event type
+     * @param sequence Sequence number of the event
+     */
+    public RegistryEvent(ERegistryEventType type, long sequence){
+        _type = type.getCode();
+        _sequence = sequence;
+    }
+
+    public static RegistryEvent fragmentExemplar(long sequence, boolean added, String fragmentId, String nodeId){
+        RegistryEvent event = new RegistryEvent(added ? ERegistryEventType.FRAGMENT_ADDED : ERegistryEventType.FRAGMENT_REMOVED,
+                                      sequence);
+        event._fragmentId = fragmentId;
+        event._nodeId = nodeId;
+        return event;
+    }
+
+    public static RegistryEvent meta(long sequence, String fragmentId, String nodeId, String metaTag, String metaValue){
+        RegistryEvent event = new RegistryEvent(nodeId == null ? ERegistryEventType.META_GLOBAL : ERegistryEventType.META_EXEMPLAR,
+                                      sequence);
+        event._fragmentId = fragmentId;
+        event._nodeId = nodeId;
+        event._metaTag = metaTag;
+        event._metaValue = metaValue;
+        return event;
+    }
+
+    public static RegistryEvent benchmarkStage(long sequence, String runId, String stage, boolean failed){
+        RegistryEvent event = new RegistryEvent(ERegistryEventType.BENCHMARK_STAGE, sequence);
+        event._runId = runId;
+        event._stage = stage;
+        event._failed = failed;
+        return event;
+    }
+
+    @JsonGetter(TYPE_FIELD)
+    public String getType() {
+        return _type;
+    }
+    @JsonSetter(TYPE_FIELD)
+    public void setType(String type) {
+        this._type = type;
+    }
+
+    /**
+     * Get the event type
+     * @return Event type or null if the type code is unknown
+     */
+    @JsonIgnore
+    public ERegistryEventType getEventType(){
+        return ERegistryEventType.getByCode(_type);
+    }
+
+    @JsonGetter(SEQUENCE_FIELD)
+    public long getSequence() {
+        return _sequence;
+    }
+    @JsonSetter(SEQUENCE_FIELD)
+    public void setSequence(long sequence) {
+        this._sequence = sequence;
+    }
+
+    @JsonGetter(FRAGMENT_FIELD)
+    public String getFragmentId() {
+        return _fragmentId;
+    }
+    @JsonSetter(FRAGMENT_FIELD)
+    public void setFragmentId(String fragmentId) {
+        this._fragmentId = fragmentId;
+    }
+
+    @JsonGetter(NODE_FIELD)
+    public String getNodeId() {
+        return _nodeId;
+    }
+    @JsonSetter(NODE_FIELD)
+    public void setNodeId(String nodeId) {
+        this._nodeId = nodeId;
+    }
+
+    @JsonGetter(META_TAG_FIELD)
+    public String getMetaTag() {
+        return _metaTag;
+    }
+    @JsonSetter(META_TAG_FIELD)
+    public void setMetaTag(String metaTag) {
+        this._metaTag = metaTag;
+    }
+
+    @JsonGetter(META_VALUE_FIELD)
+    public String getMetaValue() {
+        return _metaValue;
+    }
+    @JsonSetter(META_VALUE_FIELD)
+    public void setMetaValue(String metaValue) {
+        this._metaValue = metaValue;
+    }
+
+    @JsonGetter(RUN_ID_FIELD)
+    public String getRunId() {
+        return _runId;
+    }
+    @JsonSetter(RUN_ID_FIELD)
+    public void setRunId(String runId) {
+        this._runId = runId;
+    }
+
+    @JsonGetter(STAGE_FIELD)
+    public String getStage() {
+        return _stage;
+    }
+    @JsonSetter(STAGE_FIELD)
+    public void setStage(String stage) {
+        this._stage = stage;
+    }
+
+    @JsonGetter(FAILED_FIELD)
+    public Boolean getFailed() {
+        return _failed;
+    }
+    @JsonSetter(FAILED_FIELD)
+    public void setFailed(Boolean failed) {
+        this._failed = failed;
+    }
+}
@@ -0,0 +1,165 @@
+package dev.jcri.mdde.registry.shared.commands.containers.result.metrics;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+import java.util.List;
+
+/**
+ * Latency distribution of a single command since the registry start
+ */
+public class CommandLatencyStats {
+    public static final String TYPE_FIELD = "type";
+    public static final String COMMAND_FIELD = "cmd";
+    public static final String COUNT_FIELD = "count";
+    public static final String TOTAL_FIELD = "totalus";
+    public static final String MAX_FIELD = "maxus";
+    public static final String P50_FIELD = "p50us";
+    public static final String P90_FIELD = "p90us";
+    public static final String P99_FIELD = "p99us";
+    public static final String STORE_ACCESSES_FIELD = "store";
+    public static final String BUCKETS_FIELD = "buckets";
+
+    /**
+     * Command type: read, write, control, batch, benchmark
+     */
+    private String _type;
+    private String _command;
+    private long _count;
+    /**
+     * Total execution time of all calls (us)
+     */
+    private long _totalMicros;
+    private long _maxMicros;
+    /**
+     * Percentiles (us), upper bounds of the histogram buckets containing them
+     */
+    private long _p50Micros;
+    private long _p90Micros;
+    private long _p99Micros;
+    /**
+     * Total number of the registry store accesses made by all calls
+     */
+    private long _storeAccesses;
+    /**
+     * Number of calls per histogram bucket, see {@link RegistryMetricsSnapshot#getBucketBounds()}
+     */
+    private List<Long> _buckets;
+
+    /**
+     * Default constructor
+     */
+    public CommandLatencyStats(){}
+
+    public CommandLatencyStats(String type,
+                               String command,
+                               long count,
+                               long totalMicros,
+                               long maxMicros,
+                               long p50Micros,
+                               long p90Micros,
+                               long p99Micros,
+                               long storeAccesses,
+                               List<Long> buckets){
+        _type = type;
+        _command = command;
+        _count = count;
+        _totalMicros = totalMicros;
+        _maxMicros = maxMicros;
+        _p50Micros = p50Micros;
+        _p90Micros = p90Micros;
+        _p99Micros = p99Micros;
+        _storeAccesses = storeAccesses;
+        _buckets = buckets;
+    }
+
+    @JsonGetter(TYPE_FIELD)
+    public String getType() {
+        return _type;
+    }
+    @JsonSetter(TYPE_FIELD)
+    public void setType(String type) {
+        this._type = type;
+    }
+
+    @JsonGetter(COMMAND_FIELD)
+    public String getCommand() {
+        return _command;
+    }
+    @JsonSetter(COMMAND_FIELD)
+    public void setCommand(String command) {
+        this._command = command;
+    }
+
+    @JsonGetter(COUNT_FIELD)
+    public long getCount() {
+        return _count;
+    }
+    @JsonSetter(COUNT_FIELD)
+    public void setCount(long count) {
+        this._count = count;
+    }
+
+    @JsonGetter(TOTAL_FIELD)
+    public long getTotalMicros() {
+        return _totalMicros;
+    }
+    @JsonSetter(TOTAL_FIELD)
+    public void setTotalMicros(long totalMicros) {
+        this._totalMicros = totalMicros;
+    }
+
+    @JsonGetter(MAX_FIELD)
+    public long getMaxMicros() {
+        return _maxMicros;
+    }
+    @JsonSetter(MAX_FIELD)
+    public void setMaxMicros(long maxMicros) {
+        this._maxMicros = maxMicros;
+    }
+
+    @JsonGetter(P50_FIELD)
+    public long getP50Micros() {
+        return _p50Micros;
+    }
+    @JsonSetter(P50_FIELD)
+    public void setP50Micros(long p50Micros) {
+        this._p50Micros = p50Micros;
+    }
+
+    @JsonGetter(P90_FIELD)
+    public long getP90Micros() {
+        return _p90Micros;
+    }
+    @JsonSetter(P90_FIELD)
+    public void setP90Micros(long p90Micros) {
+        this._p90Micros = p90Micros;
+    }
+
+    @JsonGetter(P99_FIELD)
+    public long getP99Micros() {
+        return _p99Micros;
+    }
+    @JsonSetter(P99_FIELD)
+    public void setP99Micros(long p99Micros) {
+        this._p99Micros = p99Micros;
+    }
+
+    @JsonGetter(STORE_ACCESSES_FIELD)
+    public long getStoreAccesses() {
+        return _storeAccesses;
+    }
+    @JsonSetter(STORE_ACCESSES_FIELD)
+    public void setStoreAccesses(long storeAccesses) {
+        this._storeAccesses = storeAccesses;
+    }
+
+    @JsonGetter(BUCKETS_FIELD)
+    public List<Long> getBuckets() {
+        return _buckets;
+    }
+    @JsonSetter(BUCKETS_FIELD)
+    public void setBuckets(List<Long> buckets) {
+        this._buckets = buckets;
+    }
+}
@@ -0,0 +1,57 @@
+package dev.jcri.mdde.registry.shared.commands.containers.result.metrics;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+import java.util.Map;
+
+/**
+ * Current value of a registry resource gauge (connection pool utilization, queue sizes)
+ */
+public class MetricsGauge {
+    public static final String NAME_FIELD = "name";
+    public static final String LABELS_FIELD = "labels";
+    public static final String VALUE_FIELD = "val";
+
+    private String _name;
+    private Map<String, String> _labels;
+    private double _value;
+
+    /**
+     * Default constructor
+     */
+    public MetricsGauge(){}
+
+    public MetricsGauge(String name, Map<String, String> labels, double value){
+        _name = name;
+        _labels = labels;
+        _value = value;
+    }
+
+    @JsonGetter(NAME_FIELD)
+    public String getName() {
+        return _name;
+    }
+    @JsonSetter(NAME_FIELD)
+    public void setName(String name) {
+        this._name = name;
+    }
+
+    @JsonGetter(LABELS_FIELD)
+    public Map<String, String> getLabels() {
+        return _labels;
+    }
+    @JsonSetter(LABELS_FIELD)
+    public void setLabels(Map<String, String> labels) {
+        this._labels = labels;
+    }
+
+    @JsonGetter(VALUE_FIELD)
+    public double getValue() {
+        return _value;
+    }
+    @JsonSetter(VALUE_FIELD)
+    public void setValue(double value) {
+        this._value = value;
+    }
+}
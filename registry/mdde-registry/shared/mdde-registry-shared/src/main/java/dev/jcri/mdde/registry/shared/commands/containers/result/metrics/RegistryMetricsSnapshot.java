@@ -0,0 +1,79 @@
+package dev.jcri.mdde.registry.shared.commands.containers.result.metrics;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+import java.util.List;
+
+/**
+ * Registry metrics returned by the METRICS command: per command latency histograms and the resource gauges
+ */
+public class RegistryMetricsSnapshot {
+    public static final String UPTIME_FIELD = "uptime";
+    public static final String BUCKET_BOUNDS_FIELD = "bounds";
+    public static final String COMMANDS_FIELD = "commands";
+    public static final String GAUGES_FIELD = "gauges";
+
+    /**
+     * Seconds since the metrics collection was started
+     */
+    private long _uptime;
+    /**
+     * Upper bounds (us, inclusive) of the latency histogram buckets. The histograms have one more bucket for the
+     * values exceeding the last bound.
+     */
+    private List<Long> _bucketBounds;
+    private List<CommandLatencyStats> _commands;
+    private List<MetricsGauge> _gauges;
+
+    /**
+     * Default constructor
+     */
+    public RegistryMetricsSnapshot(){}
+
+    public RegistryMetricsSnapshot(long uptime,
+                                   List<Long> bucketBounds,
+                                   List<CommandLatencyStats> commands,
+                                   List<MetricsGauge> gauges){
+        _uptime = uptime;
+        _bucketBounds = bucketBounds;
+        _commands = commands;
+        _gauges = gauges;
+    }
+
+    @JsonGetter(UPTIME_FIELD)
+    public long getUptime() {
+        return _uptime;
+    }
+    @JsonSetter(UPTIME_FIELD)
+    public void setUptime(long uptime) {
+        this._uptime = uptime;
+    }
+
+    @JsonGetter(BUCKET_BOUNDS_FIELD)
+    public List<Long> getBucketBounds() {
+        return _bucketBounds;
+    }
+    @JsonSetter(BUCKET_BOUNDS_FIELD)
+    public void setBucketBounds(List<Long> bucketBounds) {
+        this._bucketBounds = bucketBounds;
+    }
+
+    @JsonGetter(COMMANDS_FIELD)
+    public List<CommandLatencyStats> getCommands() {
+        return _commands;
+    }
+    @JsonSetter(COMMANDS_FIELD)
+    public void setCommands(List<CommandLatencyStats> commands) {
+        this._commands = commands;
+    }
+
+    @JsonGetter(GAUGES_FIELD)
+    public List<MetricsGauge> getGauges() {
+        return _gauges;
+    }
+    @JsonSetter(GAUGES_FIELD)
+    public void setGauges(List<MetricsGauge> gauges) {
+        this._gauges = gauges;
+    }
+}
@@ -0,0 +1,160 @@
+package dev.jcri.mdde.registry.shared.store.response;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+import java.util.List;
+
+/**
+ * Fragments allocation and the numeric meta values packed into a single little-endian buffer that can be viewed by
+ * the clients without decoding (e.g. numpy.frombuffer).
+ *
+ * Nodes and fragments are ordered by their IDs. The buffer contains the following sections, every section starts at
+ * an offset that is a multiple of 8:
+ * <ul>
+ *     <li>{@link #getAllocationOffset()}: allocation bitset, one row of {@link #getRowBytes()} bytes per node,
+ *     fragment f of the node is bit (f % 8) (least significant first) of the byte f / 8 of the row;</li>
+ *     <li>{@link #getExemplarMetaOffset()}: float32 [exemplar meta tag][node][fragment], NaN if there is no exemplar
+ *     or the value is not numeric;</li>
+ *     <li>{@link #getGlobalMetaOffset()}: float32 [global meta tag][fragment], NaN if the value is not numeric.</li>
+ * </ul>
+ */
+public class PackedObservation {
+    public static final String NODES_FIELD = "nodes";
+    public static final String FRAGMENTS_FIELD = "fragments";
+    public static final String EXEMPLAR_META_TAGS_FIELD = "mtagex";
+    public static final String GLOBAL_META_TAGS_FIELD = "mtaggl";
+    public static final String ROW_BYTES_FIELD = "rowbytes";
+    public static final String ALLOCATION_OFFSET_FIELD = "allocoff";
+    public static final String EXEMPLAR_META_OFFSET_FIELD = "mexoff";
+    public static final String GLOBAL_META_OFFSET_FIELD = "mgloff";
+    public static final String DATA_FIELD = "data";
+
+    private List<String> _nodes;
+    private List<String> _fragments;
+    private List<String> _metaTagsExemplar;
+    private List<String> _metaTagsGlobal;
+    private int _rowBytes;
+    private int _allocationOffset;
+    private int _exemplarMetaOffset;
+    private int _globalMetaOffset;
+    private byte[] _data;
+
+    /**
+     * Default constructor
+     */
+    public PackedObservation(){}
+
+    public PackedObservation(List<String> nodes,
+                             List<String> fragments,
+                             List<String> metaTagsExemplar,
+                             List<String> metaTagsGlobal,
+                             int rowBytes,
+                             int allocationOffset,
+                             int exemplarMetaOffset,
+                             int globalMetaOffset,
+                             byte[] data){
+        _nodes = nodes;
+        _fragments = fragments;
+        _metaTagsExemplar = metaTagsExemplar;
+        _metaTagsGlobal = metaTagsGlobal;
+        _rowBytes = rowBytes;
+        _allocationOffset = allocationOffset;
+        _exemplarMetaOffset = exemplarMetaOffset;
+        _globalMetaOffset = globalMetaOffset;
+        _data = data;
+    }
+
+    /**
+     * Node IDs in the order of the allocation rows
+     */
+    @JsonGetter(NODES_FIELD)
+    public List<String> getNodes() {
+        return _nodes;
+    }
+    @JsonSetter(NODES_FIELD)
+    public void setNodes(List<String> nodes) {
+        this._nodes = nodes;
+    }
+
+    /**
+     * Fragment IDs in the order of the allocation columns
+     */
+    @JsonGetter(FRAGMENTS_FIELD)
+    public List<String> getFragments() {
+        return _fragments;
+    }
+    @JsonSetter(FRAGMENTS_FIELD)
+    public void setFragments(List<String> fragments) {
+        this._fragments = fragments;
+    }
+
+    @JsonGetter(EXEMPLAR_META_TAGS_FIELD)
+    public List<String> getMetaTagsExemplar() {
+        return _metaTagsExemplar;
+    }
+    @JsonSetter(EXEMPLAR_META_TAGS_FIELD)
+    public void setMetaTagsExemplar(List<String> metaTagsExemplar) {
+        this._metaTagsExemplar = metaTagsExemplar;
+    }
+
+    @JsonGetter(GLOBAL_META_TAGS_FIELD)
+    public List<String> getMetaTagsGlobal() {
+        return _metaTagsGlobal;
+    }
+    @JsonSetter(GLOBAL_META_TAGS_FIELD)
+    public void setMetaTagsGlobal(List<String> metaTagsGlobal) {
+        this._metaTagsGlobal = metaTagsGlobal;
+    }
+
+    /**
+     * Number of bytes per node in the allocation bitset
+     */
+    @JsonGetter(ROW_BYTES_FIELD)
+    public int getRowBytes() {
+        return _rowBytes;
+    }
+    @JsonSetter(ROW_BYTES_FIELD)
+    public void setRowBytes(int rowBytes) {
+        this._rowBytes = rowBytes;
+    }
+
+    @JsonGetter(ALLOCATION_OFFSET_FIELD)
+    public int getAllocationOffset() {
+        return _allocationOffset;
+    }
+    @JsonSetter(ALLOCATION_OFFSET_FIELD)
+    public void setAllocationOffset(int allocationOffset) {
+        this._allocationOffset = allocationOffset;
+    }
+
+    @JsonGetter(EXEMPLAR_META_OFFSET_FIELD)
+    public int getExemplarMetaOffset() {
+        return _exemplarMetaOffset;
+    }
+    @JsonSetter(EXEMPLAR_META_OFFSET_FIELD)
+    public void setExemplarMetaOffset(int exemplarMetaOffset) {
+        this._exemplarMetaOffset = exemplarMetaOffset;
+    }
+
+    @JsonGetter(GLOBAL_META_OFFSET_FIELD)
+    public int getGlobalMetaOffset() {
+        return _globalMetaOffset;
+    }
+    @JsonSetter(GLOBAL_META_OFFSET_FIELD)
+    public void setGlobalMetaOffset(int globalMetaOffset) {
+        this._globalMetaOffset = globalMetaOffset;
+    }
+
+    /**
+     * Packed buffer. Encoded as a byte string in CBOR and as a Base64 string in JSON.
+     */
+    @JsonGetter(DATA_FIELD)
+    public byte[] getData() {
+        return _data;
+    }
+    @JsonSetter(DATA_FIELD)
+    public void setData(byte[] data) {
+        this._data = data;
+    }
+}
@@ -4,4 +4,32 @@ public class Constants {
     public static final String HOST_FIELD = "host";
     public static final String PORT_CONTROL_FILED = "port";
     public static final String PORT_BENCHMARK_FIELD= "portBench";
+    /**
+     * First byte of a control API payload carrying a request ID, followed by the 4 bytes (big endian) request ID and
+     * the statement. Neither a JSON nor a CBOR statement can start with this byte.
+     */
+    public static final byte CONTROL_REQUEST_ID_MARKER = 0x00;
+    /**
+     * Length of the request ID header: marker and the request ID
+     */
+    public static final int CONTROL_REQUEST_ID_HEADER_LENGTH = 5;
+    /**
+     * First byte of a compressed control API response (after the optional request ID header), followed by the 1 byte
+     * coding (see ResponseCodings), the 4 bytes (big endian) uncompressed length and the compressed response.
+     */
+    public static final byte CONTROL_COMPRESSED_MARKER = 0x01;
+    /**
+     * Length of the compressed response header: marker, coding and the uncompressed length
+     */
+    public static final int CONTROL_COMPRESSED_HEADER_LENGTH = 6;
+    /**
+     * First byte of the connection options payload: [1 byte] marker, [1 byte] mask of the response codings accepted
+     * by the client. The server answers with [1 byte] marker, [1 byte] selected coding.
+     */
+    public static final byte CONTROL_OPTIONS_MARKER = 0x02;
+    /**
+     * First byte of a registry events payload pushed by the server to a connection subscribed with SUBSCRIBE, followed
+     * by a response (optionally compressed) with the list of the events. Encoded as the SUBSCRIBE statement was.
+     */
+    public static final byte CONTROL_EVENTS_MARKER = 0x03;
 }
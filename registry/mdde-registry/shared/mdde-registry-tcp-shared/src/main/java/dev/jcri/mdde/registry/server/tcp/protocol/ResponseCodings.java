@@ -0,0 +1,45 @@
+package dev.jcri.mdde.registry.server.tcp.protocol;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * Compression codings of the control API responses. The client offers a bit mask of the codings it supports, the
+ * server picks one of them.
+ */
+public enum ResponseCodings {
+    NONE((byte)0),
+    DEFLATE((byte)1),
+    LZ4((byte)2);
+
+    private final byte _code;
+
+    private ResponseCodings(byte code){
+        _code = code;
+    }
+
+    public byte value(){
+        return _code;
+    }
+
+    /**
+     * Bit of the coding in the mask offered by the client
+     * @return Bit mask with a single bit set, 0 for NONE.
+     */
+    public int mask(){
+        return _code == 0 ? 0 : 1 << (_code - 1);
+    }
+
+    private static Map<Byte, ResponseCodings> _codingsMap =
+            Arrays.stream(ResponseCodings.values()).collect(Collectors.toMap(e -> e._code, e -> e));
+
+    public static ResponseCodings getValidCode(byte code) throws NoSuchElementException {
+        ResponseCodings coding = _codingsMap.get(code);
+        if(coding == null){
+            throw new NoSuchElementException(Byte.toString(code));
+        }
+        return coding;
+    }
+}